@@ -1,5 +1,9 @@
 package core.framework.module;
 
+import core.framework.internal.cache.CacheImpl;
+
+import java.time.Duration;
+
 /**
  * @author neo
  */
@@ -8,4 +12,9 @@ public class TestCacheConfig extends CacheConfig {
     void configureRedis(String host, String password) {
         local();
     }
+
+    // redis is replaced by local cache store in test context, keep near cache as local cache
+    @Override
+    void near(CacheImpl<?> cache, Duration localDuration) {
+    }
 }
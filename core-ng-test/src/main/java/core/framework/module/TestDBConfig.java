@@ -18,4 +18,8 @@ public class TestDBConfig extends DBConfig {
     @Override
     public void password(String password) {
     }
+
+    @Override
+    public void replica(String url) {    // in-memory db has no replica, all reads go to primary
+    }
 }
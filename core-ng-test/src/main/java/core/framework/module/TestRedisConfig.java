@@ -1,6 +1,9 @@
 package core.framework.module;
 
+import core.framework.internal.inject.InjectValidator;
 import core.framework.redis.Redis;
+import core.framework.redis.RedisReadPolicy;
+import core.framework.redis.RedisStreamHandler;
 import core.framework.test.redis.MockRedis;
 
 import java.time.Duration;
@@ -29,4 +32,39 @@ public class TestRedisConfig extends RedisConfig {
     @Override
     public void timeout(Duration timeout) {
     }
+
+    @Override
+    public void multiplex(int connections) {
+    }
+
+    @Override
+    public void cluster() {
+    }
+
+    @Override
+    public void replicas(RedisReadPolicy policy, String... hosts) {
+    }
+
+    @Override
+    public void clientCache(int maxSize, String... prefixes) {
+    }
+
+    // not to start stream listener in test context, only validate handler
+    @Override
+    public void subscribe(String stream, RedisStreamHandler handler) {
+        if (handler == null) throw new Error("handler must not be null");
+        new InjectValidator(handler).validate();
+    }
+
+    @Override
+    public void streamGroup(String group) {
+    }
+
+    @Override
+    public void streamConcurrency(int concurrency) {
+    }
+
+    @Override
+    public void streamClaimMinIdleTime(Duration minIdleTime) {
+    }
 }
@@ -8,4 +8,9 @@ public class TestSessionConfig extends SessionConfig {
     public void redis(String host) {
         local();
     }
+
+    @Override
+    public void index(String... fields) {
+        // local session store scans all sessions on invalidate, index is not needed
+    }
 }
@@ -1,12 +1,16 @@
 package core.framework.test.redis;
 
+import core.framework.crypto.Hash;
 import core.framework.redis.Redis;
 import core.framework.redis.RedisAdmin;
 import core.framework.redis.RedisHash;
 import core.framework.redis.RedisHyperLogLog;
 import core.framework.redis.RedisList;
+import core.framework.redis.RedisPipeline;
+import core.framework.redis.RedisScript;
 import core.framework.redis.RedisSet;
 import core.framework.redis.RedisSortedSet;
+import core.framework.redis.RedisStream;
 import core.framework.util.Maps;
 
 import java.time.Duration;
@@ -26,6 +30,8 @@ public final class MockRedis implements Redis {
     private final MockRedisSortedSet sortedSet = new MockRedisSortedSet(store);
     private final MockRedisAdmin admin = new MockRedisAdmin();
     private final MockRedisHyperLogLog hyperLogLog = new MockRedisHyperLogLog(store);
+    private final MockRedisStream stream = new MockRedisStream(store);
+    private final Map<String, RedisScript> scripts = Maps.newConcurrentHashMap();  // mocked scripts by sha1 digest
 
     @Override
     public String get(String key) {
@@ -121,6 +127,27 @@ public final class MockRedis implements Redis {
         return hyperLogLog;
     }
 
+    @Override
+    public RedisPipeline pipeline() {
+        return new MockRedisPipeline(this);
+    }
+
+    @Override
+    public RedisStream stream() {
+        return stream;
+    }
+
+    @Override
+    public RedisScript script(String script) {
+        return new MockRedisScript(script, scripts);
+    }
+
+    // mock lua script with java function which reads/writes data via this mock redis, e.g.
+    // mockRedis.mockScript(SCRIPT, (keys, arguments) -> mockRedis.del(keys.getFirst()))
+    public void mockScript(String script, RedisScript function) {
+        scripts.put(Hash.sha1Hex(script), function);
+    }
+
     @Override
     public RedisList list() {
         return list;
@@ -4,6 +4,7 @@ import core.framework.redis.RedisHash;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,6 +25,20 @@ public final class MockRedisHash implements RedisHash {
         return Map.copyOf(value.hash());
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Map<String, String>> consumer) {
+        assertThat(batchSize).isGreaterThan(0);
+        Map<String, String> batch = new HashMap<>();
+        for (Map.Entry<String, String> entry : getAll(key).entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) consumer.accept(batch);
+    }
+
     @Override
     public String get(String key, String field) {
         var value = store.get(key);
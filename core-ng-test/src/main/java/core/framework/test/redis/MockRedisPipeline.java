@@ -0,0 +1,126 @@
+package core.framework.test.redis;
+
+import core.framework.redis.Redis;
+import core.framework.redis.RedisPipeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @author neo
+ */
+public final class MockRedisPipeline implements RedisPipeline {
+    private final Redis redis;
+    private final List<Result<?>> commands = new ArrayList<>();
+
+    MockRedisPipeline(Redis redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Supplier<String> get(String key) {
+        return add(() -> redis.get(key));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        add(() -> redis.set(key, value, expiration, false));
+    }
+
+    @Override
+    public void expire(String key, Duration expiration) {
+        add(() -> {
+            redis.expire(key, expiration);
+            return null;
+        });
+    }
+
+    @Override
+    public Supplier<Long> del(String... keys) {
+        return add(() -> redis.del(keys));
+    }
+
+    @Override
+    public Supplier<Long> increaseBy(String key, long increment) {
+        return add(() -> redis.increaseBy(key, increment));
+    }
+
+    @Override
+    public Supplier<String> hashGet(String key, String field) {
+        return add(() -> redis.hash().get(key, field));
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hashGetAll(String key) {
+        return add(() -> redis.hash().getAll(key));
+    }
+
+    @Override
+    public void hashSet(String key, String field, String value) {
+        add(() -> {
+            redis.hash().set(key, field, value);
+            return null;
+        });
+    }
+
+    @Override
+    public void hashMultiSet(String key, Map<String, String> values) {
+        add(() -> {
+            redis.hash().multiSet(key, values);
+            return null;
+        });
+    }
+
+    @Override
+    public Supplier<Long> hashIncreaseBy(String key, String field, long increment) {
+        return add(() -> redis.hash().increaseBy(key, field, increment));
+    }
+
+    @Override
+    public Supplier<Long> hashDel(String key, String... fields) {
+        return add(() -> redis.hash().del(key, fields));
+    }
+
+    @Override
+    public Supplier<Long> setAdd(String key, String... values) {
+        return add(() -> redis.set().add(key, values));
+    }
+
+    @Override
+    public void execute() {
+        for (Result<?> command : commands) {
+            command.execute();
+        }
+        commands.clear();
+    }
+
+    private <T> Supplier<T> add(Supplier<T> command) {
+        var result = new Result<>(command);
+        commands.add(result);
+        return result;
+    }
+
+    private static final class Result<T> implements Supplier<T> {
+        private final Supplier<T> command;
+        private boolean completed;
+        private T value;
+
+        Result(Supplier<T> command) {
+            this.command = command;
+        }
+
+        void execute() {
+            value = command.get();
+            completed = true;
+        }
+
+        @Override
+        public T get() {
+            if (!completed) throw new Error("pipeline is not executed");
+            return value;
+        }
+    }
+}
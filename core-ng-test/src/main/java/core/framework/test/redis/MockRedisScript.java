@@ -0,0 +1,29 @@
+package core.framework.test.redis;
+
+import core.framework.crypto.Hash;
+import core.framework.redis.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * mock redis doesn't run lua, script is evaluated by java function registered via MockRedis.mockScript() with same script
+ *
+ * @author neo
+ */
+public final class MockRedisScript implements RedisScript {
+    private final String sha;
+    private final Map<String, RedisScript> scripts;
+
+    MockRedisScript(String script, Map<String, RedisScript> scripts) {
+        sha = Hash.sha1Hex(script);
+        this.scripts = scripts;
+    }
+
+    @Override
+    public Object eval(List<String> keys, String... arguments) {
+        RedisScript function = scripts.get(sha);   // function can be registered after script is created
+        if (function == null) throw new Error("script is not mocked, please register function by mockRedis.mockScript(script, function), sha=" + sha);
+        return function.eval(keys, arguments);
+    }
+}
@@ -5,6 +5,7 @@ import core.framework.redis.RedisSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -37,6 +38,20 @@ public final class MockRedisSet implements RedisSet {
         return Set.copyOf(value.set());
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Set<String>> consumer) {
+        assertThat(batchSize).isGreaterThan(0);
+        Set<String> batch = new HashSet<>();
+        for (String member : members(key)) {
+            batch.add(member);
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch = new HashSet<>();
+            }
+        }
+        if (!batch.isEmpty()) consumer.accept(batch);
+    }
+
     @Override
     public boolean isMember(String key, String value) {
         var redisValue = store.get(key);
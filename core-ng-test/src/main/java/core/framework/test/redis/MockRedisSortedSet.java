@@ -5,6 +5,7 @@ import core.framework.redis.RedisSortedSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -66,6 +67,20 @@ public class MockRedisSortedSet implements RedisSortedSet {
             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (key1, key2) -> key2, LinkedHashMap::new));
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Map<String, Long>> consumer) {
+        assertThat(batchSize).isGreaterThan(0);
+        Map<String, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : range(key).entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) consumer.accept(batch);
+    }
+
     @Override
     public Map<String, Long> rangeByScore(String key, long minScore, long maxScore, long limit) {
         var value = store.get(key);
@@ -1,13 +1,16 @@
 package core.framework.test.redis;
 
+import core.framework.redis.RedisStream;
 import core.framework.util.Maps;
 
 import java.io.Serial;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -72,6 +75,11 @@ class MockRedisStore {
             return (HyperLogLog) value;
         }
 
+        Stream stream() {
+            assertThat(value).isInstanceOf(Stream.class);
+            return (Stream) value;
+        }
+
         boolean expired(long now) {
             return expirationTime != null && now >= expirationTime;
         }
@@ -88,4 +96,27 @@ class MockRedisStore {
         @Serial
         private static final long serialVersionUID = -4584074052672348286L;
     }
+
+    static class Stream {
+        final TreeMap<Long, RedisStream.Entry> entries = new TreeMap<>();   // entries by sequence
+        final Map<String, Group> groups = new HashMap<>();
+        long lastSequence;
+    }
+
+    static class Group {
+        final Map<String, Pending> pending = new LinkedHashMap<>();    // pending entries by id
+        long lastDeliveredSequence;
+    }
+
+    static class Pending {
+        final long sequence;
+        String consumer;
+        long deliveryTime;
+
+        Pending(long sequence, String consumer, long deliveryTime) {
+            this.sequence = sequence;
+            this.consumer = consumer;
+            this.deliveryTime = deliveryTime;
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package core.framework.test.redis;
+
+import core.framework.redis.RedisStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+public final class MockRedisStream implements RedisStream {
+    private final MockRedisStore store;
+
+    MockRedisStream(MockRedisStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public synchronized String add(String key, Map<String, String> fields, long maxLength) {
+        assertThat(fields).isNotEmpty();
+        assertThat(maxLength).isGreaterThan(0);
+        MockRedisStore.Stream stream = store.putIfAbsent(key, new MockRedisStore.Stream()).stream();
+        long sequence = ++stream.lastSequence;
+        String id = System.currentTimeMillis() + "-" + sequence;
+        stream.entries.put(sequence, new Entry(id, new LinkedHashMap<>(fields)));
+        while (stream.entries.size() > maxLength) {
+            stream.entries.pollFirstEntry();
+        }
+        return id;
+    }
+
+    @Override
+    public synchronized void createGroup(String key, String group) {
+        MockRedisStore.Stream stream = store.putIfAbsent(key, new MockRedisStore.Stream()).stream();
+        stream.groups.computeIfAbsent(group, name -> {
+            var value = new MockRedisStore.Group();
+            value.lastDeliveredSequence = stream.lastSequence;
+            return value;
+        });
+    }
+
+    @Override
+    public synchronized List<Entry> readGroup(String key, String group, String consumer, int count) {
+        MockRedisStore.Group value = group(key, group);
+        MockRedisStore.Stream stream = store.get(key).stream();
+        List<Entry> results = new ArrayList<>();
+        for (Map.Entry<Long, Entry> entry : stream.entries.tailMap(value.lastDeliveredSequence, false).entrySet()) {
+            if (results.size() >= count) break;
+            value.lastDeliveredSequence = entry.getKey();
+            value.pending.put(entry.getValue().id(), new MockRedisStore.Pending(entry.getKey(), consumer, System.currentTimeMillis()));
+            results.add(entry.getValue());
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized long ack(String key, String group, String... ids) {
+        assertThat(ids).isNotEmpty().doesNotContainNull();
+        MockRedisStore.Group value = group(key, group);
+        long acked = 0;
+        for (String id : ids) {
+            if (value.pending.remove(id) != null) acked++;
+        }
+        return acked;
+    }
+
+    @Override
+    public synchronized List<Entry> autoClaim(String key, String group, String consumer, Duration minIdleTime, int count) {
+        MockRedisStore.Group value = group(key, group);
+        MockRedisStore.Stream stream = store.get(key).stream();
+        long now = System.currentTimeMillis();
+        List<Entry> results = new ArrayList<>();
+        Iterator<MockRedisStore.Pending> iterator = value.pending.values().iterator();
+        while (iterator.hasNext() && results.size() < count) {
+            MockRedisStore.Pending pending = iterator.next();
+            if (now - pending.deliveryTime < minIdleTime.toMillis()) continue;
+            Entry entry = stream.entries.get(pending.sequence);
+            if (entry == null) {    // deleted by trim
+                iterator.remove();
+                continue;
+            }
+            pending.consumer = consumer;
+            pending.deliveryTime = now;
+            results.add(entry);
+        }
+        return results;
+    }
+
+    private MockRedisStore.Group group(String key, String group) {
+        MockRedisStore.Value value = store.get(key);
+        MockRedisStore.Group result = value == null ? null : value.stream().groups.get(group);
+        assertThat(result).as("group must be created, key=%s, group=%s", key, group).isNotNull();
+        return result;
+    }
+}
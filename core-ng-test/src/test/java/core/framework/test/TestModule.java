@@ -3,6 +3,7 @@ package core.framework.test;
 import core.framework.db.IsolationLevel;
 import core.framework.http.HTTPClient;
 import core.framework.kafka.Message;
+import core.framework.redis.RedisReadPolicy;
 import core.framework.scheduler.Job;
 import core.framework.test.db.TestDBEntity;
 import core.framework.test.db.TestDBEntityWithJSON;
@@ -64,18 +65,29 @@ public class TestModule extends AbstractTestModule {
     private void configureRedis() {
         redis().host("localhost");
         redis().password("password");
+        redis().multiplex(4);
+        redis().replicas(RedisReadPolicy.REPLICA_PREFERRED, "localhost:6380");
+        redis().streamGroup("test");
+        redis().streamConcurrency(2);
+        redis().streamClaimMinIdleTime(Duration.ofMinutes(1));
+        redis().subscribe("stream", (key, entry) -> {
+        });
 
         redis("redis2").host("localhost");
+        redis("redis2").cluster();
+        redis("redis3").host("localhost");
+        redis("redis3").clientCache(1000, "config:");
     }
 
     private void configureCache() {
         cache().redis("localhost", "password");
         cache().maxLocalSize(5000);
-        cache().add(TestDBEntity.class, Duration.ofHours(6));
+        cache().add(TestDBEntity.class, Duration.ofHours(6)).near(Duration.ofMinutes(5));
     }
 
     private void configureSite() {
         site().session().redis("localhost");
+        site().session().index("user_id");
         site().session().timeout(Duration.ofMinutes(30));
         site().session().cookie("SessionId", "localhost");
         site().cdn().host("//cdn");
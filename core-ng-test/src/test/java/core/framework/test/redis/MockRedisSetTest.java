@@ -3,6 +3,10 @@ package core.framework.test.redis;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -32,6 +36,16 @@ class MockRedisSetTest {
         assertThat(redis.set().members("key1")).containsOnly("value1", "value2");
     }
 
+    @Test
+    void forEach() {
+        redis.set().add("key1", "value1", "value2", "value3");
+
+        List<Set<String>> batches = new ArrayList<>();
+        redis.set().forEach("key1", 2, batches::add);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.stream().flatMap(Set::stream)).containsOnly("value1", "value2", "value3");
+    }
+
     @Test
     void remove() {
         redis.set().add("key7", "value1", "value2");
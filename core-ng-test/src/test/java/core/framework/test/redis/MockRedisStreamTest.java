@@ -0,0 +1,59 @@
+package core.framework.test.redis;
+
+import core.framework.redis.RedisStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class MockRedisStreamTest {
+    private MockRedis redis;
+
+    @BeforeEach
+    void createMockRedis() {
+        redis = new MockRedis();
+    }
+
+    @Test
+    void readGroup() {
+        redis.stream().add("stream1", Map.of("k", "v0"), 10);
+        redis.stream().createGroup("stream1", "group1");
+        String id1 = redis.stream().add("stream1", Map.of("k", "v1"), 10);
+        String id2 = redis.stream().add("stream1", Map.of("k", "v2"), 10);
+
+        List<RedisStream.Entry> entries = redis.stream().readGroup("stream1", "group1", "consumer1", 10);
+        assertThat(entries).extracting(RedisStream.Entry::id).containsExactly(id1, id2);
+        assertThat(redis.stream().readGroup("stream1", "group1", "consumer1", 10)).isEmpty();
+
+        assertThat(redis.stream().ack("stream1", "group1", id1, id2)).isEqualTo(2);
+        assertThat(redis.stream().autoClaim("stream1", "group1", "consumer2", Duration.ZERO, 10)).isEmpty();
+    }
+
+    @Test
+    void autoClaim() {
+        redis.stream().createGroup("stream1", "group1");
+        String id = redis.stream().add("stream1", Map.of("k", "v1"), 10);
+        redis.stream().readGroup("stream1", "group1", "consumer1", 10);
+
+        assertThat(redis.stream().autoClaim("stream1", "group1", "consumer2", Duration.ofMinutes(1), 10)).isEmpty();
+        assertThat(redis.stream().autoClaim("stream1", "group1", "consumer2", Duration.ZERO, 10))
+            .extracting(RedisStream.Entry::id).containsExactly(id);
+    }
+
+    @Test
+    void add() {
+        redis.stream().createGroup("stream1", "group1");
+        redis.stream().add("stream1", Map.of("k", "v1"), 1);
+        redis.stream().add("stream1", Map.of("k", "v2"), 1);
+
+        assertThat(redis.stream().readGroup("stream1", "group1", "consumer1", 10))
+            .extracting(entry -> entry.fields().get("k")).containsExactly("v2");
+    }
+}
@@ -1,13 +1,18 @@
 package core.framework.test.redis;
 
+import core.framework.redis.RedisPipeline;
+import core.framework.redis.RedisScript;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.entry;
 
 /**
@@ -27,6 +32,20 @@ class MockRedisTest {
         assertThat(redis.get("key1")).isEqualTo("value");
     }
 
+    @Test
+    void pipeline() {
+        redis.set("key1", "value1");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value = pipeline.get("key1");
+        pipeline.hashSet("key2", "field1", "value2");
+        Supplier<Long> result = pipeline.increaseBy("key3", 2);
+        pipeline.execute();
+
+        assertThat(value.get()).isEqualTo("value1");
+        assertThat(redis.hash().get("key2", "field1")).isEqualTo("value2");
+        assertThat(result.get()).isEqualTo(2);
+    }
+
     @Test
     void multiGet() {
         redis.set("key2", "value2");
@@ -96,6 +115,20 @@ class MockRedisTest {
         assertThat(redis.get("key6")).isNull();
     }
 
+    @Test
+    void script() {
+        String lua = "return redis.call('DEL', KEYS[1])";
+        RedisScript script = redis.script(lua);
+        assertThatThrownBy(() -> script.eval(List.of("key1")))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("script is not mocked");
+
+        redis.mockScript(lua, (keys, arguments) -> redis.del(keys.getFirst()));
+        redis.set("key1", "value");
+        assertThat(script.eval(List.of("key1"))).isEqualTo(1L);
+        assertThat(redis.get("key1")).isNull();
+    }
+
     @Test
     void multiSet() {
         redis.multiSet(Map.of("key7", "value7", "key8", "value8"));
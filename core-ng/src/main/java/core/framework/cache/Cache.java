@@ -2,18 +2,27 @@ package core.framework.cache;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
  * @author neo
  */
 public interface Cache<T> {
-    // loader must not return null, use wrapper class if it is necessary to cache null value
+    // loader must not return null unless negative caching is enabled, then absent value is cached with shorter duration and get returns null
     // for performance reason, it does not copy the object returned by local cache, so it must not modify local cache object unless to put it back
     T get(String key, Function<String, T> loader);
 
+    // for loader which may not find value, e.g. cache.find(id, repository::get), empty result is cached only if negative caching is enabled
+    Optional<T> find(String key, Function<String, Optional<T>> loader);
+
+    // with negative caching, absent keys are not included in result
     Map<String, T> getAll(Collection<String> keys, Function<String, T> loader);
 
+    // load all missing keys with one loader call, e.g. one db query with IN clause, loader must return values for all keys passed in unless negative caching is enabled
+    Map<String, T> batchGet(Collection<String> keys, Function<Set<String>, Map<String, T>> loader);
+
     void put(String key, T value);
 
     void putAll(Map<String, T> values);
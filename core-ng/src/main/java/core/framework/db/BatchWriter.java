@@ -0,0 +1,19 @@
+package core.framework.db;
+
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * buffer entities from concurrent callers and write them by batch, flushed when batch is full or max delay reached,
+ * entities are validated before buffered, future completes after the batch is written, or completes exceptionally if its row failed,
+ * entities are written in call order, consecutive inserts or upserts are grouped into one batch
+ *
+ * @author neo
+ */
+public interface BatchWriter<T> {
+    // complete with generated id if entity has auto increment primary key
+    CompletableFuture<OptionalLong> insert(T entity);
+
+    // entity must not have auto increment primary key, refer to Repository.batchUpsert
+    CompletableFuture<Void> upsert(T entity);
+}
@@ -5,6 +5,7 @@ import core.framework.internal.log.LogManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -34,6 +35,11 @@ public interface Database {
 
     <T> Optional<T> selectOne(String sql, Class<T> viewClass, Object... params);
 
+    // stream large result row by row in constant memory, e.g. export or reindex, connection is held until all rows are consumed,
+    // keep consumer fast, or process rows in batches asynchronously,
+    // with mysql, rows are streamed on the connection which can't run other query until all rows are read, so forEach is not allowed within transaction
+    <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params);
+
     int execute(String sql, Object... params);
 
     // for bulk update operations, you may want to enclose it with Transaction to improve performance
@@ -42,4 +48,18 @@ public interface Database {
     int[] batchExecute(String sql, List<Object[]> params);
 
     Transaction beginTransaction();
+
+    /**
+     * with replicas configured, reads outside transaction go to replicas, which may be stale by replication lag,
+     * use this to read from primary within scope, e.g. read back right after write<p>
+     * e.g.
+     * <blockquote><pre>
+     * try (PrimaryScope scope = database.readFromPrimary()) {
+     *     repository.get(id);
+     * }
+     * </pre></blockquote>
+     *
+     * @return scope to be closed
+     */
+    PrimaryScope readFromPrimary();
 }
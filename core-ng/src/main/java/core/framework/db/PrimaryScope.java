@@ -0,0 +1,9 @@
+package core.framework.db;
+
+/**
+ * @author neo
+ */
+public interface PrimaryScope extends AutoCloseable {
+    @Override
+    void close();
+}
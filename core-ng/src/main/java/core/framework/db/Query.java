@@ -2,6 +2,7 @@ package core.framework.db;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -21,6 +22,9 @@ public interface Query<T> {
 
     Optional<T> fetchOne();
 
+    // stream rows one by one in constant memory, refer to Database.forEach()
+    void forEach(Consumer<T> consumer);
+
     <P> List<P> project(String projection, Class<P> viewClass);
 
     <P> Optional<P> projectOne(String projection, Class<P> viewClass);
@@ -1,6 +1,7 @@
 package core.framework.db;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 
@@ -30,6 +31,13 @@ public interface Repository<T> {
 
     Optional<T> get(Object... primaryKeys);
 
+    // get entities by primary keys with chunked "pk IN (...)" queries, not found keys are not included in result, result keeps order of given keys
+    // for composite primary key, pass List.of(id1, id2) per entity, so result can be looked up by value
+    // rows are matched to keys by value converted to type of primary key field, keys must equal stored values,
+    // e.g. with mysql case-insensitive collation, row "ABC" is selected by key "abc" but not included in result
+    // always read from db, not from entity cache of db().repository(entityClass, cacheDuration)
+    <K> Map<K, T> batchGet(List<K> primaryKeys);
+
     OptionalLong insert(T entity);
 
     // refer to https://dev.mysql.com/doc/refman/8.0/en/insert.html
@@ -73,7 +81,7 @@ public interface Repository<T> {
     // batch performance is significantly better than single call, try to do batch if possible on data sync
     boolean batchUpsert(List<T> entities);
 
-    // return true if any row deleted
+    // return true if any row deleted, composite primary key can be Object[] or List
     // use Transaction if size of primaryKeys is too large, to avoid mysql create transaction for each statement
     // refer to com.mysql.cj.jdbc.ClientPreparedStatement.executePreparedBatchAsMultiStatement, mysql driver simply sends multiple queries with ';' as one statement
     boolean batchDelete(List<?> primaryKeys);
@@ -0,0 +1,10 @@
+package core.framework.internal.cache;
+
+/**
+ * @author neo
+ */
+public interface BinaryCodec {
+    void encode(BinaryOutput output, Object value);
+
+    Object decode(BinaryInput input);
+}
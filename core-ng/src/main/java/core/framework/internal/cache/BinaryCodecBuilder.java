@@ -0,0 +1,207 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.asm.CodeBuilder;
+import core.framework.internal.asm.DynamicInstanceBuilder;
+import core.framework.internal.reflect.Classes;
+import core.framework.internal.reflect.GenericTypes;
+import core.framework.util.Maps;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import static core.framework.internal.asm.Literal.type;
+
+/**
+ * generate compact binary codec from cache class, fields are written in declaration order without names,
+ * schema captures field names/types and enum constants, any change of cache class changes schema version, so old binary values will be reloaded
+ *
+ * @author neo
+ */
+final class BinaryCodecBuilder {
+    private final Class<?> cacheClass;
+    private final Map<Class<?>, String> encodeMethods = Maps.newHashMap();
+    private final Map<Class<?>, String> decodeMethods = Maps.newHashMap();
+    private final Map<Class<?>, String> enumFields = Maps.newHashMap();
+    private final StringBuilder schema = new StringBuilder(256);
+    DynamicInstanceBuilder<BinaryCodec> builder;
+    private int index;
+
+    BinaryCodecBuilder(Class<?> cacheClass) {
+        this.cacheClass = cacheClass;
+    }
+
+    BinaryCodec build() {
+        builder = new DynamicInstanceBuilder<>(BinaryCodec.class, cacheClass.getSimpleName());
+
+        String encodeMethod = encodeMethod(cacheClass);
+        var code = new CodeBuilder().append("public void encode({} output, Object value) {\n", type(BinaryOutput.class));
+        code.indent(1).append("{}(output, ({}) value);\n", encodeMethod, type(cacheClass));
+        code.append('}');
+        builder.addMethod(code.build());
+
+        String decodeMethod = decodeMethod(cacheClass);
+        code = new CodeBuilder().append("public Object decode({} input) {\n", type(BinaryInput.class));
+        code.indent(1).append("return {}(input);\n", decodeMethod);
+        code.append('}');
+        builder.addMethod(code.build());
+
+        return builder.build();
+    }
+
+    // String.hashCode() is defined by JLS, so schema version is stable across jvm instances
+    int schemaVersion() {
+        return schema.toString().hashCode();
+    }
+
+    private String encodeMethod(Class<?> beanClass) {
+        String methodName = encodeMethods.get(beanClass);
+        if (methodName != null) return methodName;
+
+        schema.append(beanClass.getName()).append('{');
+        methodName = "encode" + beanClass.getSimpleName() + (index++);
+        var code = new CodeBuilder().append("private void {}({} output, {} bean) {\n", methodName, type(BinaryOutput.class), type(beanClass));
+        code.indent(1).append("if (bean == null) {\n")
+            .indent(2).append("output.writeByte(0);\n")
+            .indent(2).append("return;\n")
+            .indent(1).append("}\n");
+        code.indent(1).append("output.writeByte(1);\n");
+        for (Field field : Classes.instanceFields(beanClass)) {
+            schema.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(';');
+            encodeValue(code, field.getGenericType(), "bean." + field.getName(), 1);
+        }
+        code.append('}');
+        schema.append('}');
+
+        builder.addMethod(code.build());
+        encodeMethods.put(beanClass, methodName);
+        return methodName;
+    }
+
+    private void encodeValue(CodeBuilder code, Type valueType, String value, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(valueType);
+        if (GenericTypes.isList(valueType)) {
+            Class<?> elementClass = GenericTypes.listValueClass(valueType);
+            int index = this.index++;
+            code.indent(indent).append("if ({} == null) {\n", value)
+                .indent(indent + 1).append("output.writeLength(-1);\n")
+                .indent(indent).append("} else {\n")
+                .indent(indent + 1).append("output.writeLength({}.size());\n", value)
+                .indent(indent + 1).append("for (java.util.Iterator iterator{} = {}.iterator(); iterator{}.hasNext(); ) {\n", index, value, index)
+                .indent(indent + 2).append("{} value{} = ({}) iterator{}.next();\n", type(elementClass), index, type(elementClass), index);
+            encodeValue(code, elementClass, "value" + index, indent + 2);
+            code.indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else if (GenericTypes.isMap(valueType)) {
+            Class<?> keyClass = GenericTypes.mapKeyClass(valueType);
+            Type mapValueType = GenericTypes.mapValueType(valueType);
+            Class<?> mapValueClass = GenericTypes.rawClass(mapValueType);
+            int index = this.index++;
+            code.indent(indent).append("if ({} == null) {\n", value)
+                .indent(indent + 1).append("output.writeLength(-1);\n")
+                .indent(indent).append("} else {\n")
+                .indent(indent + 1).append("output.writeLength({}.size());\n", value)
+                .indent(indent + 1).append("for (java.util.Iterator iterator{} = {}.entrySet().iterator(); iterator{}.hasNext(); ) {\n", index, value, index)
+                .indent(indent + 2).append("java.util.Map.Entry entry{} = (java.util.Map.Entry) iterator{}.next();\n", index, index)
+                .indent(indent + 2).append("{} key{} = ({}) entry{}.getKey();\n", type(keyClass), index, type(keyClass), index);
+            encodeValue(code, keyClass, "key" + index, indent + 2);
+            code.indent(indent + 2).append("{} value{} = ({}) entry{}.getValue();\n", type(mapValueClass), index, type(mapValueClass), index);
+            encodeValue(code, mapValueType, "value" + index, indent + 2);
+            code.indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else if (valueClass.isEnum()) {
+            enumField(valueClass);
+            code.indent(indent).append("output.writeEnum({});\n", value);
+        } else if (valueClass.getPackageName().startsWith("java")) {
+            // value classes are ensured by CacheClassValidator, e.g. String -> writeString, LocalDateTime -> writeLocalDateTime
+            code.indent(indent).append("output.write{}({});\n", valueClass.getSimpleName(), value);
+        } else {
+            String method = encodeMethod(valueClass);
+            code.indent(indent).append("{}(output, {});\n", method, value);
+        }
+    }
+
+    private String decodeMethod(Class<?> beanClass) {
+        String methodName = decodeMethods.get(beanClass);
+        if (methodName != null) return methodName;
+
+        methodName = "decode" + beanClass.getSimpleName() + (index++);
+        String beanClassLiteral = type(beanClass);
+        var code = new CodeBuilder().append("private {} {}({} input) {\n", beanClassLiteral, methodName, type(BinaryInput.class));
+        code.indent(1).append("if (input.readByte() == 0) return null;\n");
+        code.indent(1).append("{} bean = new {}();\n", beanClassLiteral, beanClassLiteral);
+        for (Field field : Classes.instanceFields(beanClass)) {
+            decodeValue(code, field.getGenericType(), "bean." + field.getName(), 1);
+        }
+        code.indent(1).append("return bean;\n");
+        code.append('}');
+
+        builder.addMethod(code.build());
+        decodeMethods.put(beanClass, methodName);
+        return methodName;
+    }
+
+    private void decodeValue(CodeBuilder code, Type valueType, String target, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(valueType);
+        if (GenericTypes.isList(valueType)) {
+            Class<?> elementClass = GenericTypes.listValueClass(valueType);
+            int index = this.index++;
+            code.indent(indent).append("int length{} = input.readLength();\n", index)
+                .indent(indent).append("if (length{} < 0) {\n", index)
+                .indent(indent + 1).append("{} = null;\n", target)
+                .indent(indent).append("} else {\n")
+                .indent(indent + 1).append("java.util.List list{} = new java.util.ArrayList(length{});\n", index, index)
+                .indent(indent + 1).append("for (int i{} = 0; i{} < length{}; i{}++) {\n", index, index, index, index)
+                .indent(indent + 2).append("{} value{} = null;\n", type(elementClass), index);
+            decodeValue(code, elementClass, "value" + index, indent + 2);
+            code.indent(indent + 2).append("list{}.add(value{});\n", index, index)
+                .indent(indent + 1).append("}\n")
+                .indent(indent + 1).append("{} = list{};\n", target, index)
+                .indent(indent).append("}\n");
+        } else if (GenericTypes.isMap(valueType)) {
+            Class<?> keyClass = GenericTypes.mapKeyClass(valueType);
+            Type mapValueType = GenericTypes.mapValueType(valueType);
+            Class<?> mapValueClass = GenericTypes.rawClass(mapValueType);
+            int index = this.index++;
+            code.indent(indent).append("int length{} = input.readLength();\n", index)
+                .indent(indent).append("if (length{} < 0) {\n", index)
+                .indent(indent + 1).append("{} = null;\n", target)
+                .indent(indent).append("} else {\n")
+                .indent(indent + 1).append("java.util.Map map{} = {}.newLinkedHashMapWithExpectedSize(length{});\n", index, type(Maps.class), index)
+                .indent(indent + 1).append("for (int i{} = 0; i{} < length{}; i{}++) {\n", index, index, index, index)
+                .indent(indent + 2).append("{} key{} = null;\n", type(keyClass), index);
+            decodeValue(code, keyClass, "key" + index, indent + 2);
+            code.indent(indent + 2).append("{} value{} = null;\n", type(mapValueClass), index);
+            decodeValue(code, mapValueType, "value" + index, indent + 2);
+            code.indent(indent + 2).append("map{}.put(key{}, value{});\n", index, index, index)
+                .indent(indent + 1).append("}\n")
+                .indent(indent + 1).append("{} = map{};\n", target, index)
+                .indent(indent).append("}\n");
+        } else if (valueClass.isEnum()) {
+            String field = enumField(valueClass);
+            code.indent(indent).append("{} = ({}) input.readEnum({});\n", target, type(valueClass), field);
+        } else if (valueClass.getPackageName().startsWith("java")) {
+            code.indent(indent).append("{} = input.read{}();\n", target, valueClass.getSimpleName());
+        } else {
+            String method = decodeMethod(valueClass);
+            code.indent(indent).append("{} = {}(input);\n", target, method);
+        }
+    }
+
+    // enum is written as ordinal, so enum constants are part of schema
+    private String enumField(Class<?> enumClass) {
+        String fieldName = enumFields.get(enumClass);
+        if (fieldName != null) return fieldName;
+
+        schema.append(enumClass.getName()).append('[');
+        for (Field field : Classes.enumConstantFields(enumClass)) {
+            schema.append(field.getName()).append(',');
+        }
+        schema.append(']');
+
+        fieldName = "enumValues" + (index++);
+        builder.addField("private final {}[] {} = {}.values();", type(enumClass), fieldName, type(enumClass));
+        enumFields.put(enumClass, fieldName);
+        return fieldName;
+    }
+}
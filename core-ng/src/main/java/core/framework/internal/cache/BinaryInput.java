@@ -0,0 +1,138 @@
+package core.framework.internal.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * used by generated BinaryCodec, throws IndexOutOfBoundsException if data is truncated or malformed
+ *
+ * @author neo
+ */
+public final class BinaryInput {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    BinaryInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        position = offset;
+        limit = offset + length;
+    }
+
+    public int readByte() {
+        if (position >= limit) throw new IndexOutOfBoundsException("no more data, position=" + position);
+        return buffer[position++];
+    }
+
+    // return -1 if null, length is bounded by remaining bytes, so malformed data won't allocate huge collection
+    public int readLength() {
+        long length = readVarLong() - 1;
+        if (length < -1 || length > limit - position) throw new IndexOutOfBoundsException("invalid length, length=" + length);
+        return (int) length;
+    }
+
+    public String readString() {
+        int length = readLength();
+        if (length < 0) return null;
+        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Boolean readBoolean() {
+        int value = readByte();
+        if (value == 0) return null;
+        return value == 2;
+    }
+
+    public Integer readInteger() {
+        if (readByte() == 0) return null;
+        return (int) readZigZag();
+    }
+
+    public Long readLong() {
+        if (readByte() == 0) return null;
+        return readZigZag();
+    }
+
+    public Double readDouble() {
+        if (readByte() == 0) return null;
+        if (limit - position < 8) throw new IndexOutOfBoundsException("no more data, position=" + position);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public BigDecimal readBigDecimal() {
+        int length = readLength();
+        if (length < 0) return null;
+        byte[] unscaledValue = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        int scale = (int) readZigZag();
+        return new BigDecimal(new BigInteger(unscaledValue), scale);
+    }
+
+    public LocalDate readLocalDate() {
+        if (readByte() == 0) return null;
+        return LocalDate.ofEpochDay(readZigZag());
+    }
+
+    public LocalDateTime readLocalDateTime() {
+        if (readByte() == 0) return null;
+        LocalDate date = LocalDate.ofEpochDay(readZigZag());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+    }
+
+    public LocalTime readLocalTime() {
+        if (readByte() == 0) return null;
+        return LocalTime.ofNanoOfDay(readVarLong());
+    }
+
+    public Instant readInstant() {
+        if (readByte() == 0) return null;
+        long epochSecond = readZigZag();
+        return Instant.ofEpochSecond(epochSecond, readVarLong());
+    }
+
+    public ZonedDateTime readZonedDateTime() {
+        if (readByte() == 0) return null;
+        long epochSecond = readZigZag();
+        Instant instant = Instant.ofEpochSecond(epochSecond, readVarLong());
+        return ZonedDateTime.ofInstant(instant, ZoneId.of(readString()));
+    }
+
+    public Enum<?> readEnum(Enum<?>[] values) {
+        long ordinal = readVarLong() - 1;   // ordinal is not bounded by remaining bytes, not using readLength
+        if (ordinal < 0) return null;
+        return values[(int) ordinal];
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int current = readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return value;
+        }
+        throw new IndexOutOfBoundsException("malformed varint, position=" + position);
+    }
+}
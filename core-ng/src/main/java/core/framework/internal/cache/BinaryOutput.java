@@ -0,0 +1,181 @@
+package core.framework.internal.cache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * used by generated BinaryCodec, numbers are written as zigzag varint, nullable value is prefixed with tag byte
+ *
+ * @author neo
+ */
+public final class BinaryOutput {
+    private byte[] buffer;
+    private int position;
+
+    BinaryOutput(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    // -1 means null, write length + 1 so null takes one byte
+    public void writeLength(int length) {
+        writeVarLong(length + 1);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeLength(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeLength(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeBoolean(Boolean value) {
+        writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    public void writeInteger(Integer value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value);
+    }
+
+    public void writeLong(Long value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value);
+    }
+
+    public void writeDouble(Double value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int i = 56; i >= 0; i -= 8) {
+            buffer[position++] = (byte) (bits >>> i);
+        }
+    }
+
+    public void writeBigDecimal(BigDecimal value) {
+        if (value == null) {
+            writeLength(-1);
+            return;
+        }
+        byte[] unscaledValue = value.unscaledValue().toByteArray();
+        writeLength(unscaledValue.length);
+        writeBytes(unscaledValue);
+        writeZigZag(value.scale());
+    }
+
+    public void writeLocalDate(LocalDate value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value.toEpochDay());
+    }
+
+    public void writeLocalDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value.toLocalDate().toEpochDay());
+        writeVarLong(value.toLocalTime().toNanoOfDay());
+    }
+
+    public void writeLocalTime(LocalTime value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeVarLong(value.toNanoOfDay());
+    }
+
+    public void writeInstant(Instant value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value.getEpochSecond());
+        writeVarLong(value.getNano());
+    }
+
+    public void writeZonedDateTime(ZonedDateTime value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeZigZag(value.toEpochSecond());
+        writeVarLong(value.getNano());
+        writeString(value.getZone().getId());
+    }
+
+    public void writeEnum(Enum<?> value) {
+        writeLength(value == null ? -1 : value.ordinal());
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int position() {
+        return position;
+    }
+
+    private void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        long current = value;
+        while ((current & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((current & 0x7F) | 0x80);
+            current >>>= 7;
+        }
+        buffer[position++] = (byte) current;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.json.JSONMapper;
+import core.framework.internal.json.JSONReader;
+import core.framework.internal.json.JSONWriter;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static core.framework.util.Strings.format;
+
+/**
+ * value format in cache store, by default it's json, or compact binary generated from cache class if enabled,
+ * binary value starts with header of format byte and schema version, json value starts with '{', so both formats are readable in all time, e.g. during rolling deployment
+ *
+ * @author neo
+ */
+public final class CacheCodec<T> {
+    static final byte BINARY = 1;
+    static final byte BINARY_SNAPPY = 2;
+    static final int HEADER_SIZE = 5;   // format byte + int schema version
+    // json null, previous version treats it as cache miss
+    private static final byte[] TOMBSTONE = {'n', 'u', 'l', 'l'};
+
+    private final Class<T> cacheClass;
+    private final JSONReader<T> reader;
+    private final JSONWriter<T> writer;
+    int compressionThreshold = 1024;    // snappy doesn't help much with small value, and costs cpu
+    private BinaryCodec binaryCodec;
+    private int schemaVersion;
+
+    CacheCodec(Class<T> cacheClass) {
+        this.cacheClass = cacheClass;
+        reader = JSONMapper.reader(cacheClass);
+        writer = JSONMapper.writer(cacheClass);
+    }
+
+    public void binary() {
+        var builder = new BinaryCodecBuilder(cacheClass);
+        binaryCodec = builder.build();
+        schemaVersion = builder.schemaVersion();
+    }
+
+    public byte[] encode(T value) {
+        if (value == CacheStore.Tombstone.INSTANCE) return TOMBSTONE;
+        if (binaryCodec == null) return writer.toJSON(value);
+
+        var output = new BinaryOutput(256);
+        output.writeByte(BINARY);
+        writeInt(output, schemaVersion);
+        binaryCodec.encode(output, value);
+
+        int length = output.position() - HEADER_SIZE;
+        if (length > compressionThreshold) {
+            byte[] compressed = compress(output.buffer(), length);
+            if (compressed != null) return compressed;
+        }
+        return output.toByteArray();
+    }
+
+    public T decode(byte[] value) throws IOException {
+        return decode(value, 0, value.length);
+    }
+
+    // decode from slice of buffer, e.g. redis connection buffer, to avoid copying large value
+    public T decode(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) throw new IOException("value must not be empty");
+        if (Arrays.equals(buffer, offset, offset + length, TOMBSTONE, 0, TOMBSTONE.length)) {
+            @SuppressWarnings("unchecked")
+            T tombstone = (T) CacheStore.Tombstone.INSTANCE;
+            return tombstone;
+        }
+        byte format = buffer[offset];
+        if (format != BINARY && format != BINARY_SNAPPY) return reader.fromJSON(buffer, offset, length);   // json value written before binary is enabled
+
+        if (binaryCodec == null) throw new IOException("binary codec is not enabled, format=" + format);
+        if (length < HEADER_SIZE) throw new IOException("invalid binary value, length=" + length);
+        int version = readInt(buffer, offset + 1);
+        if (version != schemaVersion) throw new IOException(format("schema version does not match, cache class may be changed, version={}, expected={}", version, schemaVersion));
+
+        BinaryInput input;
+        int bodyOffset = offset + HEADER_SIZE;
+        int bodyLength = length - HEADER_SIZE;
+        if (format == BINARY_SNAPPY) {
+            byte[] uncompressed = new byte[Snappy.uncompressedLength(buffer, bodyOffset, bodyLength)];
+            Snappy.uncompress(buffer, bodyOffset, bodyLength, uncompressed, 0);
+            input = new BinaryInput(uncompressed, 0, uncompressed.length);
+        } else {
+            input = new BinaryInput(buffer, bodyOffset, bodyLength);
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            T result = (T) binaryCodec.decode(input);
+            if (input.hasRemaining()) throw new IOException("invalid binary value, found unexpected bytes");
+            return result;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("invalid binary value, error=" + e.getMessage(), e);
+        }
+    }
+
+    // return null if compression doesn't reduce size
+    private byte[] compress(byte[] buffer, int length) {
+        try {
+            byte[] compressed = new byte[HEADER_SIZE + Snappy.maxCompressedLength(length)];
+            int compressedLength = Snappy.compress(buffer, HEADER_SIZE, length, compressed, HEADER_SIZE);
+            if (compressedLength >= length) return null;
+            System.arraycopy(buffer, 0, compressed, 0, HEADER_SIZE);
+            compressed[0] = BINARY_SNAPPY;
+            return Arrays.copyOf(compressed, HEADER_SIZE + compressedLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInt(BinaryOutput output, int value) {
+        output.writeByte(value >>> 24);
+        output.writeByte(value >>> 16);
+        output.writeByte(value >>> 8);
+        output.writeByte(value);
+    }
+
+    private int readInt(byte[] value, int offset) {
+        return (value[offset] & 0xFF) << 24 | (value[offset + 1] & 0xFF) << 16 | (value[offset + 2] & 0xFF) << 8 | value[offset + 3] & 0xFF;
+    }
+}
@@ -1,23 +1,44 @@
 package core.framework.internal.cache;
 
-import core.framework.internal.json.JSONMapper;
-import core.framework.internal.json.JSONReader;
-import core.framework.internal.json.JSONWriter;
 import core.framework.internal.validate.Validator;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * @author neo
  */
 public class CacheContext<T> {
-    final JSONReader<T> reader;
-    final JSONWriter<T> writer;
+    public final CacheCodec<T> codec;
     // only validate when retrieve cache from store, in case data in cache store is stale, e.g. the class structure is changed but still got old data from cache
     // it's opposite as DB, which only validate on save
     final Validator<T> validator;
+    final CacheSizeEstimator sizeEstimator;
+
+    // estimated bytes of this cache held by local cache store, only updated under lock of LocalCacheStore
+    final AtomicLong localBytes = new AtomicLong();
+    final AtomicLong peakLocalBytes = new AtomicLong();
 
     CacheContext(Class<T> cacheClass) {
-        reader = JSONMapper.reader(cacheClass);
-        writer = JSONMapper.writer(cacheClass);
+        codec = new CacheCodec<>(cacheClass);
         validator = Validator.of(cacheClass);
+        sizeEstimator = new CacheSizeEstimator(cacheClass);
+    }
+
+    void addLocalBytes(long bytes) {
+        long current = localBytes.addAndGet(bytes);
+        peakLocalBytes.accumulateAndGet(current, Math::max);
+    }
+
+    public long localBytes() {
+        return localBytes.get();
+    }
+
+    public long peakLocalBytes() {
+        return peakLocalBytes.get();
+    }
+
+    // return peak bytes since last call, reset by metrics collecting same as peak bytes of local cache store
+    long peakLocalBytesThenReset() {
+        return peakLocalBytes.getAndSet(localBytes.get());
     }
 }
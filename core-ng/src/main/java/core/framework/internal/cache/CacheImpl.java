@@ -1,5 +1,6 @@
 package core.framework.internal.cache;
 
+import core.framework.async.Executor;
 import core.framework.cache.Cache;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
@@ -10,9 +11,16 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /**
@@ -23,10 +31,21 @@ public class CacheImpl<T> implements Cache<T> {
     public final Class<T> cacheClass;
     public final Duration duration;
 
-    final CacheContext<T> context;
+    public final CacheContext<T> context;
+    // coalesce concurrent loading of same key, only one thread calls loader, others wait for result,
+    // evict removes loading future, so loader knows its value may be stale and deletes it after store
+    final ConcurrentMap<String, CompletableFuture<T>> loadingValues = Maps.newConcurrentHashMap();
     private final Logger logger = LoggerFactory.getLogger(CacheImpl.class);
 
     public CacheStore cacheStore;
+    // refresh ahead, return stale value and reload in background if value is older than refreshAfter
+    public Duration refreshAfter;
+    public Executor executor;
+    // negative caching, absent value is cached as tombstone for negativeDuration, null means disabled
+    public Duration negativeDuration;
+
+    @SuppressWarnings("unchecked")
+    private final T tombstone = (T) CacheStore.Tombstone.INSTANCE;
 
     public CacheImpl(String name, Class<T> cacheClass, Duration duration) {
         this.name = name;
@@ -37,23 +56,80 @@ public class CacheImpl<T> implements Cache<T> {
 
     @Override
     public T get(String key, Function<String, T> loader) {
+        T value = getOrLoad(key, loader);
+        return absent(value, key) ? null : value;
+    }
+
+    @Override
+    public Optional<T> find(String key, Function<String, Optional<T>> loader) {
+        T value = getOrLoad(key, k -> loader.apply(k).orElse(null));
+        if (value == tombstone) return Optional.empty();
+        return Optional.of(value);
+    }
+
+    private T getOrLoad(String key, Function<String, T> loader) {
         String cacheKey = cacheKey(key);
-        T cacheValue = cacheStore.get(cacheKey, context);
+        T cacheValue = refreshAfter == null ? cacheStore.get(cacheKey, context) : getAndRefresh(key, cacheKey, loader);
         if (cacheValue != null) {
             stat("cache_hits", 1);
             return cacheValue;
         }
 
-        logger.debug("load value, key={}", key);
-        T value = load(loader, key);
-        cacheStore.put(cacheKey, value, duration, context);
-        stat("cache_misses", 1);
-        return value;
+        var future = new CompletableFuture<T>();
+        CompletableFuture<T> loadingValue = loadingValues.putIfAbsent(cacheKey, future);
+        if (loadingValue != null) {
+            stat("cache_coalesced", 1);
+            return await(loadingValue, key);
+        }
+        try {
+            logger.debug("load value, key={}", key);
+            T value = load(loader, key, future);
+            store(cacheKey, value, future);
+            stat("cache_misses", 1);
+            return value;
+        } finally {
+            loadingValues.remove(cacheKey, future);
+        }
+    }
+
+    private T getAndRefresh(String key, String cacheKey, Function<String, T> loader) {
+        CacheStore.ExpirableValue<T> value = cacheStore.getWithExpiration(cacheKey, context);
+        if (value == null) return null;
+        if (value.value() != tombstone && stale(value.expirationTime(), System.currentTimeMillis())) {
+            refresh(key, cacheKey, loader);
+        }
+        return value.value();
+    }
+
+    boolean stale(long expirationTime, long now) {
+        if (expirationTime < 0) return false;   // expiration is unknown
+        long age = duration.toMillis() - (expirationTime - now);
+        return age >= refreshAfter.toMillis();
+    }
+
+    private void refresh(String key, String cacheKey, Function<String, T> loader) {
+        var future = new CompletableFuture<T>();
+        if (loadingValues.putIfAbsent(cacheKey, future) != null) return;   // being loaded or refreshed by other thread
+
+        logger.debug("refresh value in background, key={}", key);
+        stat("cache_refreshes", 1);
+        Future<Void> result = executor.submit("refreshCache:" + name, () -> {
+            try {
+                T value = load(loader, key, future);
+                store(cacheKey, value, future);
+            } finally {
+                loadingValues.remove(cacheKey, future);
+            }
+        });
+        if (result.isCancelled()) {     // rejected during shutdown
+            loadingValues.remove(cacheKey, future);
+            future.completeExceptionally(new Error("failed to refresh value, key=" + key));
+        }
     }
 
     public Optional<T> get(String key) {
         T result = cacheStore.get(cacheKey(key), context);
-        if (result == null) return Optional.empty();
+        if (result == null || result == tombstone) return Optional.empty();
         return Optional.of(result);
     }
 
@@ -64,24 +140,99 @@ public class CacheImpl<T> implements Cache<T> {
         String[] cacheKeys = cacheKeys(keys);
         Map<String, T> values = Maps.newHashMapWithExpectedSize(size);
         List<CacheStore.Entry<T>> newValues = new ArrayList<>(size);
+        List<CacheStore.Entry<T>> absentValues = new ArrayList<>();
+        Map<String, CompletableFuture<T>> futures = new HashMap<>();    // values loaded by current thread
+        int coalesced = 0;
+        Map<String, T> cacheValues = cacheStore.getAll(cacheKeys, context);
+        stat("cache_hits", cacheValues.size());
+        try {
+            for (String key : keys) {
+                String cacheKey = cacheKeys[index];
+                T result = cacheValues.get(cacheKey);
+                if (result == null) {
+                    var future = new CompletableFuture<T>();
+                    CompletableFuture<T> loadingValue = loadingValues.putIfAbsent(cacheKey, future);
+                    if (loadingValue != null) {
+                        result = await(loadingValue, key);
+                        coalesced++;
+                    } else {
+                        futures.put(cacheKey, future);
+                        logger.debug("load value, key={}", key);
+                        result = load(loader, key, future);     // complete future right after loading, to not block other threads waiting on different keys
+                        if (result == tombstone) absentValues.add(new CacheStore.Entry<>(cacheKey, result));
+                        else newValues.add(new CacheStore.Entry<>(cacheKey, result));
+                    }
+                }
+                if (!absent(result, key)) values.put(key, result);
+                index++;
+            }
+            storeAll(newValues, absentValues);
+            deleteEvicted(futures);
+            if (coalesced > 0) stat("cache_coalesced", coalesced);
+            return values;
+        } finally {
+            for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+                loadingValues.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, T> batchGet(Collection<String> keys, Function<Set<String>, Map<String, T>> loader) {
+        int index = 0;
+        String[] cacheKeys = cacheKeys(keys);
+        Map<String, T> values = Maps.newHashMapWithExpectedSize(keys.size());
+        Map<String, CompletableFuture<T>> futures = new HashMap<>();    // values loaded by current thread
+        Map<String, CompletableFuture<T>> otherFutures = new HashMap<>();   // values being loaded by other threads
         Map<String, T> cacheValues = cacheStore.getAll(cacheKeys, context);
         stat("cache_hits", cacheValues.size());
         for (String key : keys) {
             String cacheKey = cacheKeys[index];
             T result = cacheValues.get(cacheKey);
-            if (result == null) {
-                logger.debug("load value, key={}", key);
-                result = load(loader, key);
-                newValues.add(new CacheStore.Entry<>(cacheKey, result));
+            if (result != null) {
+                if (!absent(result, key)) values.put(key, result);
+            } else if (!futures.containsKey(key) && !otherFutures.containsKey(key)) {
+                var future = new CompletableFuture<T>();
+                CompletableFuture<T> loadingValue = loadingValues.putIfAbsent(cacheKey, future);
+                if (loadingValue == null) futures.put(key, future);
+                else otherFutures.put(key, loadingValue);
             }
-            values.put(key, result);
             index++;
         }
-        if (!newValues.isEmpty()) {
-            cacheStore.putAll(newValues, duration, context);
-            stat("cache_misses", newValues.size());
+        try {
+            if (!futures.isEmpty()) {
+                logger.debug("load values, keys={}", futures.keySet());
+                Map<String, T> loadedValues = load(loader, futures);
+                List<CacheStore.Entry<T>> newValues = new ArrayList<>(futures.size());
+                List<CacheStore.Entry<T>> absentValues = new ArrayList<>();
+                for (String key : futures.keySet()) {
+                    T value = loadedValues.get(key);
+                    if (value == null) {
+                        absentValues.add(new CacheStore.Entry<>(cacheKey(key), tombstone));
+                    } else {
+                        newValues.add(new CacheStore.Entry<>(cacheKey(key), value));
+                        values.put(key, value);
+                    }
+                }
+                storeAll(newValues, absentValues);
+                Map<String, CompletableFuture<T>> loadedFutures = Maps.newHashMapWithExpectedSize(futures.size());
+                for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+                    loadedFutures.put(cacheKey(entry.getKey()), entry.getValue());
+                }
+                deleteEvicted(loadedFutures);
+            }
+            // only wait for other threads after own values loaded, to avoid dead lock
+            for (Map.Entry<String, CompletableFuture<T>> entry : otherFutures.entrySet()) {
+                T value = await(entry.getValue(), entry.getKey());
+                if (!absent(value, entry.getKey())) values.put(entry.getKey(), value);
+            }
+            if (!otherFutures.isEmpty()) stat("cache_coalesced", otherFutures.size());
+            return values;
+        } finally {
+            for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+                loadingValues.remove(cacheKey(entry.getKey()), entry.getValue());
+            }
         }
-        return values;
     }
 
     @Override
@@ -100,15 +251,53 @@ public class CacheImpl<T> implements Cache<T> {
 
     @Override
     public void evict(String key) {
-        cacheStore.delete(cacheKey(key));
+        String cacheKey = cacheKey(key);
+        loadingValues.remove(cacheKey);     // must be removed before delete, refer to deleteEvicted()
+        cacheStore.delete(cacheKey);
     }
 
     @Override
     public void evictAll(Collection<String> keys) {
         String[] cacheKeys = cacheKeys(keys);
+        for (String cacheKey : cacheKeys) {
+            loadingValues.remove(cacheKey);
+        }
         cacheStore.delete(cacheKeys);
     }
 
+    private void store(String cacheKey, T value, CompletableFuture<T> future) {
+        if (value != tombstone) cacheStore.put(cacheKey, value, duration, context);
+        else if (negativeDuration != null) cacheStore.put(cacheKey, value, negativeDuration, context);
+        if (loadingValues.get(cacheKey) != future) cacheStore.delete(cacheKey);     // evicted during loading
+    }
+
+    // value loaded before evict may be stored after evict deleted it, check after store, as evict removes loading future before delete,
+    // either evict deletes stored value, or loader sees future removed and deletes value
+    private void deleteEvicted(Map<String, CompletableFuture<T>> futures) {
+        List<String> evictedKeys = null;
+        for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+            if (loadingValues.get(entry.getKey()) != entry.getValue()) {
+                if (evictedKeys == null) evictedKeys = new ArrayList<>();
+                evictedKeys.add(entry.getKey());
+            }
+        }
+        if (evictedKeys != null) cacheStore.delete(evictedKeys.toArray(String[]::new));
+    }
+
+    private void storeAll(List<CacheStore.Entry<T>> newValues, List<CacheStore.Entry<T>> absentValues) {
+        if (!newValues.isEmpty()) cacheStore.putAll(newValues, duration, context);
+        if (!absentValues.isEmpty()) cacheStore.putAll(absentValues, negativeDuration, context);
+        int misses = newValues.size() + absentValues.size();
+        if (misses > 0) stat("cache_misses", misses);
+    }
+
+    // tombstone means value is absent, which is only allowed with negative caching
+    private boolean absent(T value, String key) {
+        if (value != tombstone) return false;
+        if (negativeDuration == null) throw new Error("value must not be null, key=" + key);
+        return true;
+    }
+
     private String[] cacheKeys(Collection<String> keys) {
         String[] cacheKeys = new String[keys.size()];
         int index = 0;
@@ -123,10 +312,48 @@ public class CacheImpl<T> implements Cache<T> {
         return name + ":" + key;
     }
 
-    private T load(Function<String, T> loader, String key) {
-        T value = loader.apply(key);
-        if (value == null) throw new Error("value must not be null, key=" + key);
-        return value;
+    private T load(Function<String, T> loader, String key, CompletableFuture<T> future) {
+        try {
+            T value = loader.apply(key);
+            if (value == null) value = tombstone;
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);    // let waiting threads fail with same error
+            throw e;
+        }
+    }
+
+    private Map<String, T> load(Function<Set<String>, Map<String, T>> loader, Map<String, CompletableFuture<T>> futures) {
+        try {
+            Map<String, T> values = loader.apply(Collections.unmodifiableSet(futures.keySet()));
+            for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+                T value = values.get(entry.getKey());
+                if (value == null) {
+                    if (negativeDuration == null) throw new Error("value must not be null, key=" + entry.getKey());
+                    value = tombstone;
+                }
+                entry.getValue().complete(value);
+            }
+            return values;
+        } catch (Throwable e) {
+            for (CompletableFuture<T> future : futures.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    private T await(CompletableFuture<T> future, String key) {
+        logger.debug("wait for value loaded by other thread, key={}", key);
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
     }
 
     // set to actionLog directly to keep trace log concise
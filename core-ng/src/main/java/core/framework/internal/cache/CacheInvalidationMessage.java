@@ -0,0 +1,16 @@
+package core.framework.internal.cache;
+
+import core.framework.api.json.Property;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class CacheInvalidationMessage {
+    @Property(name = "client_id")
+    public String clientId;
+
+    @Property(name = "keys")
+    public List<String> keys;
+}
@@ -0,0 +1,90 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.json.JSONReader;
+import core.framework.internal.json.JSONWriter;
+import core.framework.internal.redis.RedisException;
+import core.framework.internal.redis.RedisImpl;
+import core.framework.internal.redis.RedisSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * broadcast changed keys of near cache via redis pub/sub, so all nodes evict local copies
+ *
+ * @author neo
+ */
+public class CacheInvalidator implements RedisSubscriber.Listener {
+    public static final String CHANNEL = "cache-invalidation";
+
+    final String clientId = UUID.randomUUID().toString();   // to skip messages published by current node
+    private final Logger logger = LoggerFactory.getLogger(CacheInvalidator.class);
+    private final RedisImpl redis;
+    private final LocalCacheStore localCacheStore;
+    private final Set<CacheContext<?>> contexts = new HashSet<>();     // near caches, only added during config
+    private final JSONReader<CacheInvalidationMessage> reader = new JSONReader<>(CacheInvalidationMessage.class);
+    private final JSONWriter<CacheInvalidationMessage> writer = new JSONWriter<>(CacheInvalidationMessage.class);
+    // increased on every invalidation, near cache store uses it to detect invalidation happened during loading from redis
+    private final AtomicLong version = new AtomicLong();
+    private boolean subscribed;
+
+    public CacheInvalidator(RedisImpl redis, LocalCacheStore localCacheStore) {
+        this.redis = redis;
+        this.localCacheStore = localCacheStore;
+    }
+
+    public void add(CacheContext<?> context) {
+        contexts.add(context);
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    // must be called before local copies are changed, by both invalidation from other nodes and put/delete of current node
+    void invalidate() {
+        version.incrementAndGet();
+    }
+
+    void publish(String... keys) {
+        var message = new CacheInvalidationMessage();
+        message.clientId = clientId;
+        message.keys = List.of(keys);
+        try {
+            redis.publish(CHANNEL, writer.toJSON(message));
+        } catch (UncheckedIOException | RedisException e) {
+            logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to publish cache invalidation, error={}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onSubscribe() {
+        if (subscribed) {   // messages published during reconnecting are lost, local copies may be stale
+            logger.warn("cache invalidation channel is resubscribed, clear local copies of near cache");
+            invalidate();
+            localCacheStore.clear(contexts);
+        }
+        subscribed = true;
+    }
+
+    @Override
+    public void onMessage(byte[] message) {
+        try {
+            CacheInvalidationMessage invalidation = reader.fromJSON(message);
+            if (clientId.equals(invalidation.clientId)) return;
+            invalidate();
+            localCacheStore.delete(invalidation.keys.toArray(String[]::new));
+        } catch (IOException e) {
+            logger.warn(errorCode("INVALID_CACHE_DATA"), "failed to deserialize cache invalidation message, error={}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.reflect.Classes;
+import core.framework.internal.reflect.GenericTypes;
+import core.framework.util.Maps;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * estimate retained heap bytes of cache value, assumes 64-bit jvm with compressed oops, object header is 12 bytes and object is aligned to 8 bytes,
+ * bean fields are resolved when cache is registered, only sampled values are measured by walking object graph, others use moving average of samples
+ *
+ * @author neo
+ */
+final class CacheSizeEstimator {
+    private static final int SAMPLE_SIZE = 32;          // measure first values to warm up average
+    private static final int SAMPLE_INTERVAL = 16;      // then measure 1 of every 16 values
+
+    private final Map<Class<?>, Field[]> beanFields = Maps.newHashMap();  // read only after construction
+    private final AtomicLong count = new AtomicLong();
+    private volatile long averageSize;
+
+    CacheSizeEstimator(Class<?> cacheClass) {
+        visitBean(cacheClass);
+        averageSize = align(12 + 4L * beanFields.get(cacheClass).length);
+    }
+
+    long weight(Object value) {
+        long count = this.count.getAndIncrement();
+        if (count >= SAMPLE_SIZE && count % SAMPLE_INTERVAL != 0) return averageSize;
+        long size = estimate(value);
+        averageSize = count == 0 ? size : (averageSize * 7 + size) >> 3;
+        return size;
+    }
+
+    long estimate(Object value) {
+        if (value == null || value instanceof Boolean || value instanceof Enum) return 0;   // shared instances
+        if (value instanceof String text) return 24 + align(16 + text.length());  // assume latin1 compact string
+        if (value instanceof Integer) return 16;
+        if (value instanceof Long || value instanceof Double) return 24;
+        if (value instanceof BigDecimal decimal) return decimal.precision() > 18 ? 80 + align(16 + decimal.unscaledValue().bitLength() / 8) : 40;
+        if (value instanceof LocalDate || value instanceof LocalTime || value instanceof Instant) return 24;
+        if (value instanceof LocalDateTime) return 72;
+        if (value instanceof ZonedDateTime) return 96;  // zone is shared
+        if (value instanceof List<?> list) {
+            long size = 24 + align(16 + 4L * list.size());
+            for (Object element : list) {
+                size += estimate(element);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 56 + align(16 + 4L * Integer.highestOneBit(Math.max(1, map.size() * 4 / 3)) * 2) + 40L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return size;
+        }
+        return estimateBean(value);
+    }
+
+    private long estimateBean(Object bean) {
+        Field[] fields = beanFields.get(bean.getClass());
+        if (fields == null) fields = Classes.instanceFields(bean.getClass()).toArray(Field[]::new);   // not expected, cache class validator ensures all types are declared
+        long size = align(12 + 4L * fields.length);
+        try {
+            for (Field field : fields) {
+                size += estimate(field.get(bean));
+            }
+        } catch (IllegalAccessException e) {
+            throw new Error(e);
+        }
+        return size;
+    }
+
+    private void visitBean(Class<?> beanClass) {
+        if (beanFields.containsKey(beanClass)) return;
+        List<Field> fields = Classes.instanceFields(beanClass);
+        beanFields.put(beanClass, fields.toArray(Field[]::new));
+        for (Field field : fields) {
+            visitType(field.getGenericType());
+        }
+    }
+
+    private void visitType(Type type) {
+        if (GenericTypes.isList(type)) {
+            visitType(GenericTypes.listValueClass(type));
+        } else if (GenericTypes.isMap(type)) {
+            visitType(GenericTypes.mapValueType(type));
+        } else {
+            Class<?> valueClass = GenericTypes.rawClass(type);
+            if (!valueClass.isEnum() && !valueClass.getPackageName().startsWith("java")) visitBean(valueClass);
+        }
+    }
+
+    private long align(long size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -10,6 +10,8 @@ import java.util.Map;
 public interface CacheStore {   // all keys here are direct cacheKey, not the key passed to Cache<T>
     <T> T get(String key, CacheContext<T> context);
 
+    <T> ExpirableValue<T> getWithExpiration(String key, CacheContext<T> context);
+
     <T> Map<String, T> getAll(String[] keys, CacheContext<T> context);
 
     <T> void put(String key, T value, Duration expiration, CacheContext<T> context);
@@ -20,4 +22,13 @@ public interface CacheStore {   // all keys here are direct cacheKey, not the ke
 
     record Entry<T>(String key, T value) {
     }
+
+    // expirationTime is epoch millis, -1 if unknown
+    record ExpirableValue<T>(T value, long expirationTime) {
+    }
+
+    // placeholder of absent value for negative caching, stores keep it as value, CacheCodec writes it as json null
+    enum Tombstone {
+        INSTANCE
+    }
 }
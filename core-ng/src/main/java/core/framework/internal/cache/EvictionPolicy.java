@@ -0,0 +1,131 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.cache.LocalCacheStore.CacheItem;
+
+/**
+ * W-TinyLFU, refer to https://arxiv.org/pdf/1512.00727.pdf
+ * new items enter small LRU window, items leaving window compete with LRU victim of main SLRU space by estimated frequency,
+ * capacity is bounded by both item count and estimated bytes,
+ * all operations are O(1), not thread safe, LocalCacheStore guards it with lock
+ *
+ * @author neo
+ */
+final class EvictionPolicy {
+    final int maxSize;
+    final long maxBytes;
+    private final int windowMaxSize;
+    private final long windowMaxBytes;
+    private final int protectedMaxSize;
+    private final long protectedMaxBytes;
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private CacheItem<?> candidate;     // latest item moved from window to probation
+
+    EvictionPolicy(int maxSize, long maxBytes) {
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        windowMaxSize = Math.max(1, maxSize / 100);     // 1% window, tolerate burst of new items
+        windowMaxBytes = Math.max(1, maxBytes / 100);
+        protectedMaxSize = (maxSize - windowMaxSize) / 5 * 4;
+        protectedMaxBytes = (maxBytes - windowMaxBytes) / 5 * 4;
+        sketch = new FrequencySketch((int) Math.min(maxSize, Math.min(maxBytes / 1024, 1 << 18)));   // assume 1K per item, to estimate number of items to track frequency
+    }
+
+    void add(CacheItem<?> item) {
+        sketch.increment(item.key.hashCode());
+        window.add(item);
+        while ((window.size > windowMaxSize || window.bytes > windowMaxBytes) && window.head != item) {
+            candidate = window.head;
+            window.remove(candidate);
+            probation.add(candidate);
+        }
+    }
+
+    void access(CacheItem<?> item) {
+        AccessQueue queue = item.queue;
+        if (queue == null) return;  // item was removed by other thread
+        sketch.increment(item.key.hashCode());
+        if (queue == probation) {
+            probation.remove(item);
+            protectedQueue.add(item);
+            while ((protectedQueue.size > protectedMaxSize || protectedQueue.bytes > protectedMaxBytes) && protectedQueue.head != item) {
+                CacheItem<?> demoted = protectedQueue.head;
+                protectedQueue.remove(demoted);
+                probation.add(demoted);
+            }
+        } else {
+            queue.moveToTail(item);
+        }
+    }
+
+    void remove(CacheItem<?> item) {
+        AccessQueue queue = item.queue;
+        if (queue != null) queue.remove(item);
+    }
+
+    boolean overflow() {
+        return window.size + probation.size + protectedQueue.size > maxSize
+            || bytes() > maxBytes;
+    }
+
+    long bytes() {
+        return window.bytes + probation.bytes + protectedQueue.bytes;
+    }
+
+    // candidate is the latest item moved from window, victim is the LRU item of probation, only admit candidate if it's accessed more frequently,
+    // if candidate already left probation (promoted or removed), evict victim, items demoted from protected never compete as candidate
+    CacheItem<?> evict() {
+        CacheItem<?> victim = probation.head;
+        CacheItem<?> evicted;
+        if (victim == null) {
+            evicted = protectedQueue.head != null ? protectedQueue.head : window.head;
+        } else if (candidate == null || candidate.queue != probation || candidate == victim) {
+            evicted = victim;
+        } else if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+            evicted = victim;
+        } else {
+            evicted = candidate;
+        }
+        remove(evicted);
+        return evicted;
+    }
+
+    // intrusive doubly linked list, head is the least recently used item
+    static final class AccessQueue {
+        CacheItem<?> head;
+        CacheItem<?> tail;
+        int size;
+        long bytes;
+
+        void add(CacheItem<?> item) {
+            item.queue = this;
+            item.previous = tail;
+            item.next = null;
+            if (tail == null) head = item;
+            else tail.next = item;
+            tail = item;
+            size++;
+            bytes += item.weight;
+        }
+
+        void remove(CacheItem<?> item) {
+            if (item.previous == null) head = item.next;
+            else item.previous.next = item.next;
+            if (item.next == null) tail = item.previous;
+            else item.next.previous = item.previous;
+            item.queue = null;
+            item.previous = null;
+            item.next = null;
+            size--;
+            bytes -= item.weight;
+        }
+
+        void moveToTail(CacheItem<?> item) {
+            if (item == tail) return;
+            remove(item);
+            add(item);
+        }
+    }
+}
@@ -3,18 +3,33 @@ package core.framework.internal.cache;
 import core.framework.internal.stat.Metrics;
 import core.framework.internal.stat.Stats;
 
+import java.util.Map;
+
 /**
  * @author neo
  */
 public class LocalCacheMetrics implements Metrics {
     private final LocalCacheStore cacheStore;
+    private final Map<String, CacheImpl<?>> caches;
 
-    public LocalCacheMetrics(LocalCacheStore cacheStore) {
+    public LocalCacheMetrics(LocalCacheStore cacheStore, Map<String, CacheImpl<?>> caches) {
         this.cacheStore = cacheStore;
+        this.caches = caches;
     }
 
     @Override
     public void collect(Stats stats) {
         stats.put("cache_size", cacheStore.caches.size());
+        stats.put("cache_bytes", cacheStore.bytes());
+        stats.put("cache_peak_bytes", cacheStore.peakBytesThenReset());
+        stats.put("cache_hits", cacheStore.hits.sumThenReset());
+        stats.put("cache_misses", cacheStore.misses.sumThenReset());
+        stats.put("cache_evictions", cacheStore.evictions.sumThenReset());
+        for (CacheImpl<?> cache : caches.values()) {
+            if (cache.cacheStore instanceof LocalCacheStore || cache.cacheStore instanceof NearCacheStore) {
+                stats.put("cache_" + cache.name + "_bytes", cache.context.localBytes());
+                stats.put("cache_" + cache.name + "_peak_bytes", cache.context.peakLocalBytesThenReset());
+            }
+        }
     }
 }
@@ -6,34 +6,92 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author neo
  */
 public class LocalCacheStore implements CacheStore {
     final Map<String, CacheItem<?>> caches = Maps.newConcurrentHashMap();
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
     private final Logger logger = LoggerFactory.getLogger(LocalCacheStore.class);
-    public int maxSize = 10000;  // 10000 simple objects roughly takes 1M-10M heap + hashmap overhead
+    // all writes and eviction policy updates are guarded by lock, reads go to concurrent map directly
+    private final ReentrantLock lock = new ReentrantLock();
+    // bounded by estimated bytes by default, item count is only bounded if configured
+    private EvictionPolicy policy = new EvictionPolicy(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 10);
+    private long peakBytes;
+
+    public void maxSize(int maxSize) {
+        lock.lock();
+        try {
+            logger.info("set local cache max size, maxSize={}", maxSize);
+            rebuildPolicy(new EvictionPolicy(maxSize, policy.maxBytes));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void maxBytes(long maxBytes) {
+        lock.lock();
+        try {
+            logger.info("set local cache max bytes, maxBytes={}", maxBytes);
+            rebuildPolicy(new EvictionPolicy(policy.maxSize, maxBytes));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuildPolicy(EvictionPolicy policy) {
+        this.policy = policy;
+        for (CacheItem<?> item : caches.values()) {
+            policy.add(item);
+        }
+        evict();
+    }
 
     @Override
     public <T> T get(String key, CacheContext<T> context) {
         logger.debug("get, key={}", key);
-        return get(key, System.currentTimeMillis());
+        CacheItem<T> item = item(key, System.currentTimeMillis());
+        return item == null ? null : item.value;
+    }
+
+    @Override
+    public <T> ExpirableValue<T> getWithExpiration(String key, CacheContext<T> context) {
+        logger.debug("getWithExpiration, key={}", key);
+        CacheItem<T> item = item(key, System.currentTimeMillis());
+        return item == null ? null : new ExpirableValue<>(item.value, item.expirationTime);
     }
 
-    private <T> T get(String key, long now) {
+    private <T> CacheItem<T> item(String key, long now) {
         @SuppressWarnings("unchecked")
         CacheItem<T> item = (CacheItem<T>) caches.get(key);
-        if (item == null) return null;
+        if (item == null) {
+            misses.increment();
+            return null;
+        }
         if (item.expired(now)) {
-            caches.remove(key);
+            remove(item);
+            misses.increment();
             return null;
         }
-        item.hits++;
-        return item.value;
+        hits.increment();
+        // reads never wait for lock, under contention it skips updating access order, eviction policy tolerates lost accesses
+        if (lock.tryLock()) {
+            try {
+                policy.access(item);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return item;
     }
 
     @Override
@@ -42,8 +100,8 @@ public class LocalCacheStore implements CacheStore {
         long now = System.currentTimeMillis();
         Map<String, T> results = Maps.newHashMapWithExpectedSize(keys.length);
         for (String key : keys) {
-            T value = get(key, now);
-            if (value != null) results.put(key, value);
+            CacheItem<T> item = item(key, now);
+            if (item != null) results.put(key, item.value);
         }
         return results;
     }
@@ -52,18 +110,59 @@ public class LocalCacheStore implements CacheStore {
     public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
         logger.debug("put, key={}, expiration={}", key, expiration);
         long expirationTime = System.currentTimeMillis() + expiration.toMillis();
-        caches.put(key, new CacheItem<>(value, expirationTime));
+        var item = new CacheItem<>(key, value, expirationTime, context);    // estimate size outside lock
+        lock.lock();
+        try {
+            put(item);
+            evict();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
         logger.debug("putAll, keys={}, expiration={}", new ArrayLogParam(keys(values)), expiration);
         long expirationTime = System.currentTimeMillis() + expiration.toMillis();
+        List<CacheItem<T>> items = new ArrayList<>(values.size());
         for (Entry<T> value : values) {
-            caches.put(value.key(), new CacheItem<>(value.value(), expirationTime));
+            items.add(new CacheItem<>(value.key(), value.value(), expirationTime, context));
+        }
+        lock.lock();
+        try {
+            for (CacheItem<T> item : items) {
+                put(item);
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(CacheItem<?> item) {
+        CacheItem<?> previous = caches.put(item.key, item);
+        if (previous != null) removed(previous);
+        policy.add(item);
+        item.context.addLocalBytes(item.weight);
+        long bytes = policy.bytes();
+        if (bytes > peakBytes) peakBytes = bytes;
+    }
+
+    // enforce max size on every put, so cache never grows beyond bound
+    private void evict() {
+        while (policy.overflow()) {
+            CacheItem<?> victim = policy.evict();
+            caches.remove(victim.key, victim);
+            victim.context.addLocalBytes(-victim.weight);
+            evictions.increment();
         }
     }
 
+    private void removed(CacheItem<?> item) {
+        policy.remove(item);
+        item.context.addLocalBytes(-item.weight);
+    }
+
     private <T> String[] keys(List<Entry<T>> values) {
         String[] keys = new String[values.size()];
         int index = 0;
@@ -78,60 +177,104 @@ public class LocalCacheStore implements CacheStore {
     public boolean delete(String... keys) {
         logger.debug("delete, keys={}", new ArrayLogParam(keys));
         boolean deleted = false;
-        for (String key : keys) {
-            CacheItem<?> previous = caches.remove(key);
-            if (!deleted && previous != null) deleted = true;
+        lock.lock();
+        try {
+            for (String key : keys) {
+                CacheItem<?> previous = caches.remove(key);
+                if (previous != null) {
+                    removed(previous);
+                    deleted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
         }
         return deleted;
     }
 
-    public void cleanup() {    // cleanup is only called by background thread with fixed delay, not need to synchronize
+    private void remove(CacheItem<?> item) {
+        lock.lock();
+        try {
+            if (caches.remove(item.key, item)) removed(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // max size is enforced by put, cleanup only purges expired items in background, to release memory of items not accessed any more
+    public void cleanup() {
         logger.info("clean up local cache store");
         long now = System.currentTimeMillis();
-        caches.values().removeIf(item -> item.expired(now));
-        int size = caches.size();
-        if (size > maxSize) {
-            logger.info("evict least frequently used cache items, currentSize={}, maxSize={}", size, maxSize);
-            int evictSize = size - maxSize;
-            evictLeastFrequentlyUsedItems(evictSize);
+        for (CacheItem<?> item : caches.values()) {
+            if (item.expired(now)) remove(item);
         }
     }
 
-    // use LFU to trade off between simplicity and access efficiency,
-    // assume local cache is only used for rarely changed items, and tolerate stale data, or use message to notify updates
-    // cleanup is running in background thread, it maintains approximate maxSize loosely
-    private void evictLeastFrequentlyUsedItems(int evictSize) {
-        Map<Integer, Integer> sizes = new TreeMap<>();
-        for (CacheItem<?> item : caches.values()) {
-            int hits = item.hits;
-            int size = sizes.getOrDefault(hits, 0);
-            sizes.put(hits, size + 1);
-        }
-        int minHits = 0;
-        int currentEvictSize = 0;
-        for (Map.Entry<Integer, Integer> entry : sizes.entrySet()) {
-            currentEvictSize += entry.getValue();
-            if (currentEvictSize >= evictSize) {
-                minHits = entry.getKey();
-                break;
+    public void clear() {
+        lock.lock();
+        try {
+            for (CacheItem<?> item : caches.values()) {
+                item.context.addLocalBytes(-item.weight);
             }
+            caches.clear();
+            policy = new EvictionPolicy(policy.maxSize, policy.maxBytes);
+        } finally {
+            lock.unlock();
         }
-        int targetHits = minHits;
-        caches.values().removeIf(item -> item.hits <= targetHits);
     }
 
-    public void clear() {
-        caches.clear();
+    // only clear items of given caches, e.g. near caches share local store with local caches
+    public void clear(Set<CacheContext<?>> contexts) {
+        lock.lock();
+        try {
+            for (CacheItem<?> item : caches.values()) {
+                if (contexts.contains(item.context) && caches.remove(item.key, item)) removed(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // estimated bytes of all items
+    public long bytes() {
+        lock.lock();
+        try {
+            return policy.bytes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // return peak bytes since last call
+    long peakBytesThenReset() {
+        lock.lock();
+        try {
+            long peakBytes = this.peakBytes;
+            this.peakBytes = policy.bytes();
+            return peakBytes;
+        } finally {
+            lock.unlock();
+        }
     }
 
     static class CacheItem<T> {
+        final String key;
         final T value;
         final long expirationTime;
-        int hits;
+        final CacheContext<?> context;
+        final long weight;  // estimated bytes, includes map node, cache item and key
+        // maintained by eviction policy under lock
+        EvictionPolicy.AccessQueue queue;
+        CacheItem<?> previous;
+        CacheItem<?> next;
 
-        CacheItem(T value, long expirationTime) {
+        CacheItem(String key, T value, long expirationTime, CacheContext<?> context) {
+            this.key = key;
             this.value = value;
             this.expirationTime = expirationTime;
+            this.context = context;
+            long valueWeight = value == Tombstone.INSTANCE ? 0 : context.sizeEstimator.weight(value);    // not to skew average size of values
+            weight = 32 + 56 + 40 + key.length() + valueWeight;
         }
 
         boolean expired(long now) {
@@ -0,0 +1,113 @@
+package core.framework.internal.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * local cache store in front of redis cache store, hot keys are served from local memory,
+ * put/delete evicts local copies on all nodes via cache invalidator, local copies also expire after localExpiration to bound staleness
+ *
+ * @author neo
+ */
+public class NearCacheStore implements CacheStore {
+    private final LocalCacheStore localCacheStore;
+    private final RedisCacheStore redisCacheStore;
+    private final CacheInvalidator invalidator;
+    private final Duration localExpiration;
+
+    public NearCacheStore(LocalCacheStore localCacheStore, RedisCacheStore redisCacheStore, CacheInvalidator invalidator, Duration localExpiration) {
+        this.localCacheStore = localCacheStore;
+        this.redisCacheStore = redisCacheStore;
+        this.invalidator = invalidator;
+        this.localExpiration = localExpiration;
+    }
+
+    @Override
+    public <T> T get(String key, CacheContext<T> context) {
+        T value = localCacheStore.get(key, context);
+        if (value != null) return value;
+
+        long version = invalidator.version();
+        value = redisCacheStore.get(key, context);
+        if (value != null) {
+            localCacheStore.put(key, value, localExpiration, context);
+            if (version != invalidator.version()) localCacheStore.delete(key);    // invalidated during loading, value may be stale
+        }
+        return value;
+    }
+
+    // local copy doesn't track expiration of redis value, so expiration is only known when loading from redis
+    @Override
+    public <T> ExpirableValue<T> getWithExpiration(String key, CacheContext<T> context) {
+        T value = localCacheStore.get(key, context);
+        if (value != null) return new ExpirableValue<>(value, -1);
+
+        long version = invalidator.version();
+        ExpirableValue<T> redisValue = redisCacheStore.getWithExpiration(key, context);
+        if (redisValue != null) {
+            localCacheStore.put(key, redisValue.value(), localExpiration, context);
+            if (version != invalidator.version()) localCacheStore.delete(key);
+        }
+        return redisValue;
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(String[] keys, CacheContext<T> context) {
+        Map<String, T> values = localCacheStore.getAll(keys, context);
+        if (values.size() == keys.length) return values;
+
+        String[] missingKeys = new String[keys.length - values.size()];
+        int index = 0;
+        for (String key : keys) {
+            if (!values.containsKey(key)) missingKeys[index++] = key;
+        }
+        long version = invalidator.version();
+        Map<String, T> redisValues = redisCacheStore.getAll(missingKeys, context);
+        if (!redisValues.isEmpty()) {
+            List<Entry<T>> entries = new ArrayList<>(redisValues.size());
+            for (Map.Entry<String, T> entry : redisValues.entrySet()) {
+                entries.add(new Entry<>(entry.getKey(), entry.getValue()));
+            }
+            localCacheStore.putAll(entries, localExpiration, context);
+            if (version != invalidator.version()) localCacheStore.delete(redisValues.keySet().toArray(String[]::new));
+            values.putAll(redisValues);
+        }
+        return values;
+    }
+
+    @Override
+    public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.put(key, value, expiration, context);
+        invalidator.invalidate();   // not to let concurrent get() of current node put value loaded before this put into local cache
+        localCacheStore.put(key, value, localExpiration(expiration), context);
+        invalidator.publish(key);
+    }
+
+    @Override
+    public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.putAll(values, expiration, context);
+        invalidator.invalidate();
+        localCacheStore.putAll(values, localExpiration(expiration), context);
+        String[] keys = new String[values.size()];
+        int index = 0;
+        for (Entry<T> value : values) {
+            keys[index++] = value.key();
+        }
+        invalidator.publish(keys);
+    }
+
+    @Override
+    public boolean delete(String... keys) {
+        boolean deleted = redisCacheStore.delete(keys);
+        invalidator.invalidate();
+        localCacheStore.delete(keys);
+        invalidator.publish(keys);
+        return deleted;
+    }
+
+    private Duration localExpiration(Duration expiration) {
+        return expiration.compareTo(localExpiration) < 0 ? expiration : localExpiration;
+    }
+}
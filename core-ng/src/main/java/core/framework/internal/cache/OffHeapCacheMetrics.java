@@ -0,0 +1,25 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+
+/**
+ * @author neo
+ */
+public class OffHeapCacheMetrics implements Metrics {
+    private final OffHeapCacheStore cacheStore;
+
+    public OffHeapCacheMetrics(OffHeapCacheStore cacheStore) {
+        this.cacheStore = cacheStore;
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        stats.put("off_heap_cache_size", cacheStore.size());
+        stats.put("off_heap_cache_bytes", cacheStore.allocatedBytes());
+        stats.put("off_heap_cache_hits", cacheStore.hits.sumThenReset());
+        stats.put("off_heap_cache_misses", cacheStore.misses.sumThenReset());
+        stats.put("off_heap_cache_evictions", cacheStore.evictions.sumThenReset());
+        stats.put("off_heap_cache_drops", cacheStore.drops.sumThenReset());
+    }
+}
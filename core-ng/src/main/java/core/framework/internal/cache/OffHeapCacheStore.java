@@ -0,0 +1,337 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.log.filter.ArrayLogParam;
+import core.framework.util.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * keeps serialized values in off heap slabs, to reduce heap usage and gc pause of large local cache, trades with deserialization on every get,
+ * max size is in bytes, when there is no free chunk, it evicts least recently used item of same size class,
+ * keys are striped into segments by hash, each segment has its own lock and slabs, so concurrent gets of different segments don't block each other
+ *
+ * @author neo
+ */
+public final class OffHeapCacheStore implements CacheStore {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SLABS_PER_SEGMENT = 16;    // size classes of segment compete for its slabs, not to split slabs too thin
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder drops = new LongAdder();    // values not stored due to too large or no memory for its size class
+    private final Logger logger = LoggerFactory.getLogger(OffHeapCacheStore.class);
+    private volatile Segment[] segments;
+
+    public OffHeapCacheStore() {
+        maxSize(64 * 1024 * 1024);  // default 64M
+    }
+
+    public void maxSize(long maxBytes) {
+        int count = (int) Math.max(1, Math.min(MAX_SEGMENTS, maxBytes / ((long) MIN_SLABS_PER_SEGMENT * SlabAllocator.SLAB_SIZE)));
+        logger.info("set off heap cache max size, maxBytes={}, segments={}", maxBytes, count);
+        var segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxBytes / count);
+        }
+        this.segments = segments;
+    }
+
+    @Override
+    public <T> T get(String key, CacheContext<T> context) {
+        logger.debug("get, key={}", key);
+        ExpirableValue<byte[]> value = segment(key).read(key, System.currentTimeMillis());
+        if (value == null) return null;
+        return decode(value.value(), context);
+    }
+
+    @Override
+    public <T> ExpirableValue<T> getWithExpiration(String key, CacheContext<T> context) {
+        logger.debug("getWithExpiration, key={}", key);
+        ExpirableValue<byte[]> value = segment(key).read(key, System.currentTimeMillis());
+        if (value == null) return null;
+        T result = decode(value.value(), context);
+        if (result == null) return null;
+        return new ExpirableValue<>(result, value.expirationTime());
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(String[] keys, CacheContext<T> context) {
+        logger.debug("getAll, keys={}", new ArrayLogParam(keys));
+        long now = System.currentTimeMillis();
+        Map<String, T> results = Maps.newHashMapWithExpectedSize(keys.length);
+        for (String key : keys) {
+            ExpirableValue<byte[]> value = segment(key).read(key, now);
+            if (value == null) continue;
+            T result = decode(value.value(), context);
+            if (result != null) results.put(key, result);
+        }
+        return results;
+    }
+
+    private <T> T decode(byte[] value, CacheContext<T> context) {
+        try {
+            return context.codec.decode(value);
+        } catch (IOException e) {
+            logger.warn(errorCode("INVALID_CACHE_DATA"), "failed to deserialize value from cache, will reload, error={}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
+        logger.debug("put, key={}, expiration={}", key, expiration);
+        byte[] bytes = context.codec.encode(value);
+        long expirationTime = System.currentTimeMillis() + expiration.toMillis();
+        segment(key).write(key, bytes, expirationTime);
+    }
+
+    @Override
+    public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
+        logger.debug("putAll, size={}, expiration={}", values.size(), expiration);
+        long expirationTime = System.currentTimeMillis() + expiration.toMillis();
+        for (Entry<T> entry : values) {
+            byte[] bytes = context.codec.encode(entry.value());
+            segment(entry.key()).write(entry.key(), bytes, expirationTime);
+        }
+    }
+
+    @Override
+    public boolean delete(String... keys) {
+        logger.debug("delete, keys={}", new ArrayLogParam(keys));
+        boolean deleted = false;
+        for (String key : keys) {
+            if (segment(key).delete(key)) deleted = true;
+        }
+        return deleted;
+    }
+
+    public void cleanup() {
+        logger.info("clean up off heap cache store");
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            segment.cleanup(now);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    long allocatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segment(String key) {
+        Segment[] segments = this.segments;
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    // all operations are guarded by lock, get only holds lock to copy bytes, deserialization happens outside lock
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Item> items = Maps.newHashMap();
+        private final SlabAllocator allocator;
+        private final Item[] heads;   // least recently used item of each size class
+        private final Item[] tails;
+
+        Segment(long maxBytes) {
+            allocator = new SlabAllocator(maxBytes);
+            heads = new Item[allocator.chunkSizes.length];
+            tails = new Item[allocator.chunkSizes.length];
+        }
+
+        ExpirableValue<byte[]> read(String key, long now) {
+            lock.lock();
+            try {
+                Item item = items.get(key);
+                if (item == null) {
+                    misses.increment();
+                    return null;
+                }
+                if (item.expired(now)) {
+                    remove(item);
+                    misses.increment();
+                    return null;
+                }
+                hits.increment();
+                unlink(item);
+                link(item);
+                return new ExpirableValue<>(allocator.read(item.address, item.length), item.expirationTime);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void write(String key, byte[] value, long expirationTime) {
+            lock.lock();
+            try {
+                Item previous = items.remove(key);
+                if (previous != null) free(previous);
+
+                int sizeClass = allocator.sizeClass(value.length);
+                if (sizeClass < 0) {
+                    drops.increment();
+                    logger.warn("value is too large for off heap cache, key={}, size={}", key, value.length);
+                    return;
+                }
+                long address = allocator.allocate(sizeClass);
+                while (address < 0) {
+                    Item victim = heads[sizeClass];
+                    if (victim == null) break;
+                    remove(victim);
+                    evictions.increment();
+                    address = allocator.allocate(sizeClass);
+                }
+                if (address < 0 && reassignSlab(sizeClass)) address = allocator.allocate(sizeClass);
+                if (address < 0) {
+                    drops.increment();
+                    logger.debug("no free memory for size class, key={}, size={}", key, value.length);
+                    return;
+                }
+                allocator.write(address, value);
+                var item = new Item(key, sizeClass, address, value.length, expirationTime);
+                items.put(key, item);
+                link(item);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // size class without any slab can not evict its own items, e.g. after workload shifted to different value sizes,
+        // take one slab from size class with most slabs by evicting all items in that slab
+        private boolean reassignSlab(int sizeClass) {
+            int victimSizeClass = allocator.largestSizeClass();
+            if (victimSizeClass == sizeClass || allocator.slabCount(victimSizeClass) < 2) return false;
+            Item head = heads[victimSizeClass];
+            int slab = head != null ? SlabAllocator.slab(head.address) : allocator.firstSlab(victimSizeClass);
+            Item item = head;
+            while (item != null) {
+                Item next = item.next;
+                if (SlabAllocator.slab(item.address) == slab) {
+                    remove(item);
+                    evictions.increment();
+                }
+                item = next;
+            }
+            allocator.reassign(slab, sizeClass);
+            logger.debug("reassigned slab, slab={}, fromChunkSize={}, toChunkSize={}", slab, allocator.chunkSizes[victimSizeClass], allocator.chunkSizes[sizeClass]);
+            return true;
+        }
+
+        boolean delete(String key) {
+            lock.lock();
+            try {
+                Item item = items.remove(key);
+                if (item == null) return false;
+                free(item);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cleanup(long now) {
+            lock.lock();
+            try {
+                Iterator<Item> iterator = items.values().iterator();
+                while (iterator.hasNext()) {
+                    Item item = iterator.next();
+                    if (item.expired(now)) {
+                        iterator.remove();
+                        free(item);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return items.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long allocatedBytes() {
+            lock.lock();
+            try {
+                return allocator.allocatedBytes();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Item item) {
+            items.remove(item.key);
+            free(item);
+        }
+
+        private void free(Item item) {
+            unlink(item);
+            allocator.free(item.sizeClass, item.address);
+        }
+
+        private void link(Item item) {
+            Item tail = tails[item.sizeClass];
+            item.previous = tail;
+            item.next = null;
+            if (tail == null) heads[item.sizeClass] = item;
+            else tail.next = item;
+            tails[item.sizeClass] = item;
+        }
+
+        private void unlink(Item item) {
+            if (item.previous == null) heads[item.sizeClass] = item.next;
+            else item.previous.next = item.next;
+            if (item.next == null) tails[item.sizeClass] = item.previous;
+            else item.next.previous = item.previous;
+            item.previous = null;
+            item.next = null;
+        }
+    }
+
+    static final class Item {
+        final String key;
+        final int sizeClass;
+        final long address;
+        final int length;
+        final long expirationTime;
+        Item previous;
+        Item next;
+
+        Item(String key, int sizeClass, long address, int length, long expirationTime) {
+            this.key = key;
+            this.sizeClass = sizeClass;
+            this.address = address;
+            this.length = length;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean expired(long now) {
+            return now >= expirationTime;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package core.framework.internal.cache;
 
-import core.framework.internal.json.JSONReader;
 import core.framework.internal.redis.RedisException;
 import core.framework.internal.redis.RedisImpl;
-import core.framework.internal.validate.Validator;
 import core.framework.util.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,9 +29,20 @@ public class RedisCacheStore implements CacheStore {
     @Override
     public <T> T get(String key, CacheContext<T> context) {
         try {
-            byte[] value = redis.getBytes(key);
+            return redis.get(key, (buffer, offset, length) -> deserialize(buffer, offset, length, context));
+        } catch (UncheckedIOException | RedisException e) {
+            logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public <T> ExpirableValue<T> getWithExpiration(String key, CacheContext<T> context) {
+        try {
+            RedisImpl.ValueWithTTL<T> value = redis.getWithTTL(key, (buffer, offset, length) -> deserialize(buffer, offset, length, context));
             if (value == null) return null;
-            return deserialize(value, context.reader, context.validator);
+            long expirationTime = value.ttl() > 0 ? System.currentTimeMillis() + value.ttl() : -1;
+            return new ExpirableValue<>(value.value(), expirationTime);
         } catch (UncheckedIOException | RedisException e) {
             logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
             return null;
@@ -43,27 +52,20 @@ public class RedisCacheStore implements CacheStore {
     @Override
     public <T> Map<String, T> getAll(String[] keys, CacheContext<T> context) {
         try {
-            Map<String, byte[]> redisValues = redis.multiGetBytes(keys);
-            Map<String, T> values = Maps.newHashMapWithExpectedSize(redisValues.size());
-            for (Map.Entry<String, byte[]> entry : redisValues.entrySet()) {
-                T value = deserialize(entry.getValue(), context.reader, context.validator);
-                if (value != null) {
-                    values.put(entry.getKey(), value);
-                }
-            }
-            return values;
+            return redis.multiGet(keys, (buffer, offset, length) -> deserialize(buffer, offset, length, context));
         } catch (UncheckedIOException | RedisException e) {
             logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
             return Map.of();
         }
     }
 
-    private <T> T deserialize(byte[] value, JSONReader<T> reader, Validator<T> validator) {
+    // deserialize from redis connection buffer in place, return null if value is invalid
+    private <T> T deserialize(byte[] buffer, int offset, int length, CacheContext<T> context) {
         try {
-            T result = reader.fromJSON(value);
-            if (result == null) return null;
+            T result = context.codec.decode(buffer, offset, length);
+            if (result == null || result == Tombstone.INSTANCE) return result;
 
-            Map<String, String> errors = validator.errors(result, false);
+            Map<String, String> errors = context.validator.errors(result, false);
             if (errors != null) {
                 logger.warn(errorCode("INVALID_CACHE_DATA"), "failed to validate value from cache, will reload, errors={}", errors);
                 return null;
@@ -79,7 +81,7 @@ public class RedisCacheStore implements CacheStore {
     @Override
     public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
         try {
-            redis.set(key, context.writer.toJSON(value), expiration, false);
+            redis.set(key, context.codec.encode(value), expiration, false);
         } catch (UncheckedIOException | RedisException e) {
             logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
         }
@@ -89,7 +91,7 @@ public class RedisCacheStore implements CacheStore {
     public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
         Map<String, byte[]> cacheValues = Maps.newHashMapWithExpectedSize(values.size());
         for (Entry<T> value : values) {
-            cacheValues.put(value.key(), context.writer.toJSON(value.value()));
+            cacheValues.put(value.key(), context.codec.encode(value.value()));
         }
         try {
             redis.multiSet(cacheValues, expiration);
@@ -0,0 +1,152 @@
+package core.framework.internal.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * allocates chunks from 1M direct byte buffer slabs, chunk sizes grow by factor 1.25 from 64 bytes to slab size, refer to memcached slab allocator
+ * each slab is assigned to one size class when allocated, freed chunk is reused by same size class, slab can be reassigned to other size class once all its chunks are freed,
+ * chunk address is slab index in high 32 bits and offset in low 32 bits, not thread safe, OffHeapCacheStore guards it with lock
+ *
+ * @author neo
+ */
+final class SlabAllocator {
+    static final int SLAB_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    final int[] chunkSizes;
+    private final ByteBuffer[] slabs;
+    private final int[] slabSizeClasses;    // size class of each allocated slab
+    private final int[] slabCounts;         // number of slabs of each size class
+    private final long[][] freeChunks;
+    private final int[] freeCounts;
+    private int slabCount;
+
+    SlabAllocator(long maxBytes) {
+        slabs = new ByteBuffer[(int) Math.max(1, Math.min(maxBytes / SLAB_SIZE, Integer.MAX_VALUE))];
+        slabSizeClasses = new int[slabs.length];
+        chunkSizes = chunkSizes();
+        slabCounts = new int[chunkSizes.length];
+        freeChunks = new long[chunkSizes.length][];
+        freeCounts = new int[chunkSizes.length];
+    }
+
+    static int slab(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private int[] chunkSizes() {
+        int[] sizes = new int[64];
+        int count = 0;
+        int size = MIN_CHUNK_SIZE;
+        while (size < SLAB_SIZE) {
+            sizes[count++] = size;
+            size = (int) (size * 1.25 + 7) & ~7;    // align to 8 bytes
+        }
+        sizes[count++] = SLAB_SIZE;
+        return Arrays.copyOf(sizes, count);
+    }
+
+    // return -1 if length is larger than slab size
+    int sizeClass(int length) {
+        int index = Arrays.binarySearch(chunkSizes, length);
+        if (index >= 0) return index;
+        int insertionPoint = -index - 1;
+        return insertionPoint < chunkSizes.length ? insertionPoint : -1;
+    }
+
+    // return -1 if no free chunk of size class and max bytes reached
+    long allocate(int sizeClass) {
+        if (freeCounts[sizeClass] == 0 && !allocateSlab(sizeClass)) return -1;
+        return freeChunks[sizeClass][--freeCounts[sizeClass]];
+    }
+
+    void free(int sizeClass, long address) {
+        long[] chunks = freeChunks[sizeClass];
+        if (freeCounts[sizeClass] == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length << 1);
+            freeChunks[sizeClass] = chunks;
+        }
+        chunks[freeCounts[sizeClass]++] = address;
+    }
+
+    void write(long address, byte[] value) {
+        slabs[slab(address)].put((int) address, value);
+    }
+
+    byte[] read(long address, int length) {
+        byte[] value = new byte[length];
+        slabs[slab(address)].get((int) address, value);
+        return value;
+    }
+
+    // return size class with most slabs, to take slab from when other size class is starved
+    int largestSizeClass() {
+        int result = 0;
+        for (int i = 1; i < slabCounts.length; i++) {
+            if (slabCounts[i] > slabCounts[result]) result = i;
+        }
+        return result;
+    }
+
+    int slabCount(int sizeClass) {
+        return slabCounts[sizeClass];
+    }
+
+    // return first slab of size class, or -1 if size class has no slab
+    int firstSlab(int sizeClass) {
+        for (int i = 0; i < slabCount; i++) {
+            if (slabSizeClasses[i] == sizeClass) return i;
+        }
+        return -1;
+    }
+
+    // all chunks of slab must be freed before reassigning
+    void reassign(int slab, int sizeClass) {
+        int previousSizeClass = slabSizeClasses[slab];
+        long[] chunks = freeChunks[previousSizeClass];
+        int freeCount = freeCounts[previousSizeClass];
+        int freeChunksOfSlab = 0;
+        for (int i = 0; i < freeCount; i++) {
+            if (slab(chunks[i]) == slab) freeChunksOfSlab++;
+        }
+        if (freeChunksOfSlab != SLAB_SIZE / chunkSizes[previousSizeClass]) throw new Error("slab is still in use, slab=" + slab);
+        int remaining = 0;
+        for (int i = 0; i < freeCount; i++) {
+            if (slab(chunks[i]) != slab) chunks[remaining++] = chunks[i];
+        }
+        freeCounts[previousSizeClass] = remaining;
+        slabCounts[previousSizeClass]--;
+        assign(slab, sizeClass);
+    }
+
+    long allocatedBytes() {
+        return (long) slabCount * SLAB_SIZE;
+    }
+
+    private boolean allocateSlab(int sizeClass) {
+        if (slabCount == slabs.length) return false;
+        int slabIndex = slabCount++;
+        slabs[slabIndex] = ByteBuffer.allocateDirect(SLAB_SIZE);
+        assign(slabIndex, sizeClass);
+        return true;
+    }
+
+    private void assign(int slabIndex, int sizeClass) {
+        slabSizeClasses[slabIndex] = sizeClass;
+        slabCounts[sizeClass]++;
+        int chunkSize = chunkSizes[sizeClass];
+        int chunks = SLAB_SIZE / chunkSize;
+        long[] freeChunks = this.freeChunks[sizeClass];
+        int freeCount = freeCounts[sizeClass];
+        if (freeChunks == null || freeChunks.length < freeCount + chunks) {
+            freeChunks = freeChunks == null ? new long[chunks] : Arrays.copyOf(freeChunks, freeCount + chunks);
+            this.freeChunks[sizeClass] = freeChunks;
+        }
+        // push in reverse order, so chunks are allocated from beginning of slab
+        for (int i = chunks - 1; i >= 0; i--) {
+            freeChunks[freeCount++] = (long) slabIndex << 32 | (long) i * chunkSize;
+        }
+        freeCounts[sizeClass] = freeCount;
+    }
+}
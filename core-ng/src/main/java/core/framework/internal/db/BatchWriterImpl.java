@@ -0,0 +1,259 @@
+package core.framework.internal.db;
+
+import core.framework.db.BatchWriter;
+import core.framework.db.Transaction;
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import core.framework.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * entities are buffered in call order and written by dedicated virtual thread, consecutive inserts or upserts are grouped into batch,
+ * each batch is written within transaction and tracked by its own action log,
+ * if batch failed, e.g. duplicate key, it writes entities one by one to only fail callers of bad rows
+ *
+ * @author neo
+ */
+public final class BatchWriterImpl<T> implements BatchWriter<T> {
+    private final Logger logger = LoggerFactory.getLogger(BatchWriterImpl.class);
+    private final DatabaseImpl database;
+    private final LogManager logManager;
+    private final RepositoryImpl<T> repository;
+    private final Class<T> entityClass;
+    private final int batchSize;
+    private final long maxDelayInNanos;
+    private final ReentrantLock lock = new ReentrantLock();     // not to pin virtual threads of callers
+    private final Condition ready = lock.newCondition();
+
+    private List<Write<T, ?>> writes = new ArrayList<>();
+    private long firstWriteTime;    // nano time of first buffered entity in current batch
+    private Thread thread;
+    private volatile boolean stop;
+
+    public BatchWriterImpl(DatabaseImpl database, LogManager logManager, RepositoryImpl<T> repository, Class<T> entityClass, int batchSize, Duration maxDelay) {
+        this.database = database;
+        this.logManager = logManager;
+        this.repository = repository;
+        this.entityClass = entityClass;
+        this.batchSize = batchSize;
+        maxDelayInNanos = maxDelay.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<OptionalLong> insert(T entity) {
+        repository.validate(entity, false);
+        var write = new Write<T, OptionalLong>(entity, false);
+        add(write);
+        return write.future;
+    }
+
+    @Override
+    public CompletableFuture<Void> upsert(T entity) {
+        repository.validate(entity, true);
+        var write = new Write<T, Void>(entity, true);
+        add(write);
+        return write.future;
+    }
+
+    private void add(Write<T, ?> write) {
+        lock.lock();
+        try {
+            if (stop) throw new Error("batch writer is stopped, entityClass=" + entityClass.getCanonicalName());
+            writes.add(write);
+            int size = writes.size();
+            if (size == 1) {
+                firstWriteTime = System.nanoTime();
+                ready.signal();
+            } else if (size == batchSize) {
+                ready.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void start() {
+        thread = Thread.ofVirtual().name("db-batch-writer-" + entityClass.getSimpleName()).start(() -> {
+            try {
+                process();
+            } catch (InterruptedException e) {
+                logger.warn(e.getMessage(), e);
+            }
+        });
+        logger.info("db batch writer started, entityClass={}, batchSize={}", entityClass.getCanonicalName(), batchSize);
+    }
+
+    // stop accepting entities, and flush all buffered
+    public void shutdown() {
+        logger.info("shutting down db batch writer, entityClass={}", entityClass.getCanonicalName());
+        lock.lock();
+        try {
+            stop = true;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitTermination(long timeoutInMs) {
+        if (thread == null) return;
+        try {
+            boolean success = thread.join(Duration.ofMillis(timeoutInMs));
+            if (!success) {
+                logger.error(errorCode("FAILED_TO_STOP"), "failed to terminate db batch writer, entityClass={}", entityClass.getCanonicalName());
+            } else {
+                logger.info("db batch writer stopped, entityClass={}", entityClass.getCanonicalName());
+            }
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage(), e);
+        }
+    }
+
+    private void process() throws InterruptedException {
+        while (true) {
+            List<Write<T, ?>> writes;
+            lock.lock();
+            try {
+                awaitBatch();
+                if (this.writes.isEmpty()) return;   // only after stop
+                writes = this.writes;
+                this.writes = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+            // keep call order, split by consecutive inserts or upserts, buffer may grow over batch size during previous flush
+            int from = 0;
+            while (from < writes.size()) {
+                boolean upsert = writes.get(from).upsert;
+                int to = from + 1;
+                while (to < writes.size() && to - from < batchSize && writes.get(to).upsert == upsert) to++;
+                flush(writes.subList(from, to), upsert);
+                from = to;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void flush(List<Write<T, ?>> writes, boolean upsert) {
+        ActionLog actionLog = logManager.begin("=== db batch write begin ===", null);
+        try {
+            actionLog.action("db:batchWrite");
+            actionLog.context("entity", entityClass.getCanonicalName());
+            actionLog.context("operation", upsert ? "upsert" : "insert");
+            actionLog.context("size", writes.size());
+            if (upsert) {
+                upsert((List<Write<T, Void>>) (List<?>) writes);
+            } else {
+                insert((List<Write<T, OptionalLong>>) (List<?>) writes);
+            }
+        } catch (Throwable e) {
+            logManager.logError(e);
+        } finally {
+            logManager.end("=== db batch write end ===");
+        }
+    }
+
+    // wait until batch is full, or max delay reached since first buffered entity, must be called within lock
+    private void awaitBatch() throws InterruptedException {
+        while (!stop) {
+            int size = writes.size();
+            if (size >= batchSize) return;
+            if (size == 0) {
+                ready.await();
+                continue;
+            }
+            long remaining = firstWriteTime + maxDelayInNanos - System.nanoTime();
+            if (remaining <= 0) return;
+            ready.awaitNanos(remaining);
+        }
+    }
+
+    void insert(List<Write<T, OptionalLong>> writes) {
+        var watch = new StopWatch();
+        try {
+            Optional<long[]> ids;
+            try (Transaction transaction = database.beginTransaction()) {
+                ids = repository.batchInsert(entities(writes));
+                transaction.commit();
+            }
+            for (int i = 0; i < writes.size(); i++) {
+                writes.get(i).future.complete(ids.isPresent() ? OptionalLong.of(ids.get()[i]) : OptionalLong.empty());
+            }
+        } catch (Throwable e) {
+            if (writes.size() == 1) {
+                writes.getFirst().future.completeExceptionally(e);
+                return;
+            }
+            logger.warn(errorCode("DB_BATCH_WRITE_FAILED"), "failed to insert batch, insert one by one, entityClass={}, size={}, error={}", entityClass.getCanonicalName(), writes.size(), e.getMessage(), e);
+            for (Write<T, OptionalLong> write : writes) {
+                try {
+                    write.future.complete(repository.insert(write.entity));
+                } catch (Throwable error) {
+                    write.future.completeExceptionally(error);
+                }
+            }
+        } finally {
+            logger.debug("insert batch, entityClass={}, size={}, elapsed={}", entityClass.getCanonicalName(), writes.size(), watch.elapsed());
+        }
+    }
+
+    void upsert(List<Write<T, Void>> writes) {
+        var watch = new StopWatch();
+        try {
+            try (Transaction transaction = database.beginTransaction()) {
+                repository.batchUpsert(entities(writes));
+                transaction.commit();
+            }
+            for (Write<T, Void> write : writes) {
+                write.future.complete(null);
+            }
+        } catch (Throwable e) {
+            if (writes.size() == 1) {
+                writes.getFirst().future.completeExceptionally(e);
+                return;
+            }
+            logger.warn(errorCode("DB_BATCH_WRITE_FAILED"), "failed to upsert batch, upsert one by one, entityClass={}, size={}, error={}", entityClass.getCanonicalName(), writes.size(), e.getMessage(), e);
+            for (Write<T, Void> write : writes) {
+                try {
+                    repository.upsert(write.entity);
+                    write.future.complete(null);
+                } catch (Throwable error) {
+                    write.future.completeExceptionally(error);
+                }
+            }
+        } finally {
+            logger.debug("upsert batch, entityClass={}, size={}, elapsed={}", entityClass.getCanonicalName(), writes.size(), watch.elapsed());
+        }
+    }
+
+    private List<T> entities(List<? extends Write<T, ?>> writes) {
+        List<T> entities = new ArrayList<>(writes.size());
+        for (Write<T, ?> write : writes) {
+            entities.add(write.entity);
+        }
+        return entities;
+    }
+
+    static final class Write<T, R> {
+        final T entity;
+        final boolean upsert;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+
+        Write(T entity, boolean upsert) {
+            this.entity = entity;
+            this.upsert = upsert;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package core.framework.internal.db;
 import core.framework.db.CloudAuthProvider;
 import core.framework.db.Database;
 import core.framework.db.IsolationLevel;
+import core.framework.db.PrimaryScope;
 import core.framework.db.Repository;
 import core.framework.db.Transaction;
 import core.framework.db.UncheckedSQLException;
@@ -23,11 +24,13 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -40,32 +43,43 @@ public final class DatabaseImpl implements Database {
 
     public final Pool<Connection> pool;
     public final DatabaseOperation operation;
+    public final List<DatabaseReplica> replicas = new ArrayList<>();
     private final Logger logger = LoggerFactory.getLogger(DatabaseImpl.class);
     private final Map<Class<?>, RowMapper<?>> rowMappers = new HashMap<>(32);
+    private final String name;
 
     public String user;
     public String password;
     public CloudAuthProvider authProvider;
     public IsolationLevel isolationLevel;
+    public int fetchSize = 1000;   // rows fetched per round trip by forEach()
+    public Duration maxReplicaLag = Duration.ofSeconds(30);
 
     private String url;
     private Properties driverProperties;
     private Duration timeout;
     private Driver driver;
     private Dialect dialect;
+    private int minPoolSize = 5;    // default optimization for AWS medium/large instances
+    private int maxPoolSize = 50;
 
     public DatabaseImpl(String name) {
         initializeRowMappers();
 
+        this.name = name;
         pool = new Pool<>(this::createConnection, name);
-        pool.size(5, 50);    // default optimization for AWS medium/large instances
-        pool.maxIdleTime = Duration.ofHours(2);  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
-        pool.validator(connection -> connection.isValid(1), Duration.ofSeconds(30));
+        initializePool(pool);
 
         operation = new DatabaseOperation(pool);
         timeout(Duration.ofSeconds(15));
     }
 
+    private void initializePool(Pool<Connection> pool) {
+        pool.size(minPoolSize, maxPoolSize);
+        pool.maxIdleTime = Duration.ofHours(2);  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
+        pool.validator(connection -> connection.isValid(1), Duration.ofSeconds(30));
+    }
+
     private void initializeRowMappers() {
         rowMappers.put(String.class, new RowMapper.StringRowMapper());
         rowMappers.put(Integer.class, new RowMapper.IntegerRowMapper());
@@ -85,6 +99,19 @@ public final class DatabaseImpl implements Database {
             driverProperties = driverProperties(url);
             this.driverProperties = driverProperties;
         }
+        return connect(url, driverProperties);
+    }
+
+    private Connection createConnection(DatabaseReplica replica) {
+        Properties driverProperties = replica.driverProperties;
+        if (driverProperties == null) {
+            driverProperties = driverProperties(replica.url);
+            replica.driverProperties = driverProperties;
+        }
+        return connect(replica.url, driverProperties);
+    }
+
+    private Connection connect(String url, Properties driverProperties) {
         if (authProvider != null) {
             // properties are thread safe, it's ok to set user/password with multiple threads
             driverProperties.setProperty("user", authProvider.user());
@@ -149,12 +176,48 @@ public final class DatabaseImpl implements Database {
     public void close() {
         logger.info("close database client, url={}", url);
         pool.close();
+        for (DatabaseReplica replica : replicas) {
+            replica.pool.close();
+        }
     }
 
     public void timeout(Duration timeout) {
         this.timeout = timeout;
         operation.queryTimeoutInSeconds = (int) timeout.getSeconds();
         pool.checkoutTimeout(timeout);
+        for (DatabaseReplica replica : replicas) {
+            replica.pool.checkoutTimeout(timeout);
+        }
+    }
+
+    public void poolSize(int minSize, int maxSize) {
+        minPoolSize = minSize;
+        maxPoolSize = maxSize;
+        pool.size(minSize, maxSize);
+        for (DatabaseReplica replica : replicas) {
+            replica.pool.size(minSize, maxSize);
+        }
+    }
+
+    // replica shares user/password and pool settings with primary, reads outside transaction are routed to replicas
+    public DatabaseReplica replica(String url) {
+        if (this.url == null) throw new Error("url must be configured before replica");
+        String prefix = this.url.substring(0, this.url.indexOf(':', 5) + 1);
+        if (!url.startsWith(prefix)) throw new Error("replica must be same type of database as primary, url=" + url);
+        logger.info("add database replica, url={}", url);
+        var replica = new DatabaseReplica(url, name + "-replica-" + (replicas.size() + 1), this::createConnection);
+        initializePool(replica.pool);
+        replica.pool.checkoutTimeout(timeout);
+        replicas.add(replica);
+        operation.transactionManager.replicas = List.copyOf(replicas);
+        return replica;
+    }
+
+    // take lagging replicas out of rotation, and put them back once caught up
+    public void checkReplicas() {
+        for (DatabaseReplica replica : replicas) {
+            replica.check(maxReplicaLag);
+        }
     }
 
     public void url(String url) {
@@ -213,6 +276,11 @@ public final class DatabaseImpl implements Database {
         return operation.transactionManager.beginTransaction();
     }
 
+    @Override
+    public PrimaryScope readFromPrimary() {
+        return operation.transactionManager.readFromPrimary();
+    }
+
     @Override
     public <T> List<T> select(String sql, Class<T> viewClass, Object... params) {
         var watch = new StopWatch();
@@ -245,6 +313,35 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    @Override
+    public <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params) {
+        var watch = new StopWatch();
+        validateSQL(sql);
+        if (consumer == null) throw new Error("consumer must not be null");
+        int fetchSize = streamingFetchSize(url);
+        if (fetchSize == Integer.MIN_VALUE && operation.transactionManager.inTransaction())
+            throw new Error("forEach within transaction is not supported, streaming result set blocks other queries of transaction connection, sql=" + sql);
+        int returnedRows = 0;
+        long consumerTook = 0;
+        try {
+            DatabaseOperation.ForEachResult result = operation.forEach(sql, rowMapper(viewClass), fetchSize, consumer, params);
+            returnedRows = result.rows();
+            consumerTook = result.consumerTook();
+        } finally {
+            long elapsed = watch.elapsed();
+            long dbTook = elapsed - consumerTook;
+            logger.debug("forEach, sql={}, params={}, returnedRows={}, dbTook={}, elapsed={}", sql, new SQLParams(operation.enumMapper, params), returnedRows, dbTook, elapsed);
+            track(dbTook, returnedRows, 0, 1);     // only track time spent on db, not consumer
+        }
+    }
+
+    // mysql driver streams rows one by one with Integer.MIN_VALUE as fetch size, refer to com.mysql.cj.jdbc.StatementImpl.createStreamingResultSet,
+    // server side cursor (useCursorFetch) is not used, as it forces server prepared statements for all queries
+    int streamingFetchSize(String url) {
+        if (url.startsWith("jdbc:mysql:")) return Integer.MIN_VALUE;
+        return fetchSize;
+    }
+
     @Override
     public int execute(String sql, Object... params) {
         var watch = new StopWatch();
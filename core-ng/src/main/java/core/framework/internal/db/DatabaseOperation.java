@@ -23,6 +23,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 import static core.framework.log.Markers.errorCode;
 import static core.framework.util.Strings.format;
@@ -81,7 +82,17 @@ public class DatabaseOperation {
     }
 
     <T> Optional<T> selectOne(String sql, RowMapper<T> mapper, Object... params) {
-        PoolItem<Connection> connection = transactionManager.getConnection();
+        Pool<Connection> replicaPool = transactionManager.replicaPool();
+        try {
+            return selectOne(replicaPool, sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            if (!transactionManager.replicaFailed(replicaPool, e)) throw e;
+            return selectOne(null, sql, mapper, params);     // retry once on primary
+        }
+    }
+
+    private <T> Optional<T> selectOne(Pool<Connection> replicaPool, String sql, RowMapper<T> mapper, Object... params) {
+        PoolItem<Connection> connection = transactionManager.getConnection(replicaPool);
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
@@ -90,12 +101,22 @@ public class DatabaseOperation {
             Connections.checkConnectionState(connection, e);
             throw new UncheckedSQLException(e);
         } finally {
-            transactionManager.returnConnection(connection);
+            transactionManager.returnConnection(replicaPool, connection);
         }
     }
 
     <T> List<T> select(String sql, RowMapper<T> mapper, Object... params) {
-        PoolItem<Connection> connection = transactionManager.getConnection();
+        Pool<Connection> replicaPool = transactionManager.replicaPool();
+        try {
+            return select(replicaPool, sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            if (!transactionManager.replicaFailed(replicaPool, e)) throw e;
+            return select(null, sql, mapper, params);     // retry once on primary
+        }
+    }
+
+    private <T> List<T> select(Pool<Connection> replicaPool, String sql, RowMapper<T> mapper, Object... params) {
+        PoolItem<Connection> connection = transactionManager.getConnection(replicaPool);
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
@@ -104,7 +125,53 @@ public class DatabaseOperation {
             Connections.checkConnectionState(connection, e);
             throw new UncheckedSQLException(e);
         } finally {
-            transactionManager.returnConnection(connection);
+            transactionManager.returnConnection(replicaPool, connection);
+        }
+    }
+
+    // map and consume rows one by one without holding all results in memory, return number of rows and time spent in consumer,
+    // postgresql only fetches by cursor within transaction, so autocommit is disabled during query if not in transaction
+    <T> ForEachResult forEach(String sql, RowMapper<T> mapper, int fetchSize, Consumer<T> consumer, Object... params) {
+        Pool<Connection> replicaPool = transactionManager.replicaPool();
+        PoolItem<Connection> connection;
+        try {
+            connection = transactionManager.getConnection(replicaPool);
+        } catch (UncheckedSQLException e) {
+            if (!transactionManager.replicaFailed(replicaPool, e)) throw e;
+            replicaPool = null;     // retry once on primary
+            connection = transactionManager.getConnection();
+        }
+        boolean autoCommitDisabled = false;
+        try {
+            if (fetchSize > 0 && connection.resource.getAutoCommit()) {
+                connection.resource.setAutoCommit(false);
+                autoCommitDisabled = true;
+            }
+            try (PreparedStatement statement = connection.resource.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setQueryTimeout(queryTimeoutInSeconds);
+                statement.setFetchSize(fetchSize);
+                setParams(statement, params);
+                ForEachResult result = forEach(statement, mapper, consumer);
+                if (autoCommitDisabled) connection.resource.commit();
+                return result;
+            }
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            var exception = new UncheckedSQLException(e);
+            transactionManager.replicaFailed(replicaPool, exception);     // not retry, as rows may be consumed
+            throw exception;
+        } finally {
+            if (autoCommitDisabled) restoreAutoCommit(connection);
+            transactionManager.returnConnection(replicaPool, connection);
+        }
+    }
+
+    private void restoreAutoCommit(PoolItem<Connection> connection) {
+        try {
+            connection.resource.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("failed to restore autocommit, close connection", e);
+            connection.broken = true;
         }
     }
 
@@ -179,6 +246,24 @@ public class DatabaseOperation {
         }
     }
 
+    private <T> ForEachResult forEach(PreparedStatement statement, RowMapper<T> mapper, Consumer<T> consumer) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            logSlowQuery(statement);
+
+            var wrapper = new ResultSetWrapper(resultSet);
+            int rows = 0;
+            long consumerTook = 0;
+            while (resultSet.next()) {
+                T row = mapper.map(wrapper);
+                long start = System.nanoTime();
+                consumer.accept(row);
+                consumerTook += System.nanoTime() - start;
+                rows++;
+            }
+            return new ForEachResult(rows, consumerTook);
+        }
+    }
+
     // the LAST_INSERT_ID() function of mysql returns BIGINT, so here it uses Long
     // http://dev.mysql.com/doc/refman/5.7/en/information-functions.html
     private OptionalLong fetchGeneratedKey(PreparedStatement statement) throws SQLException {
@@ -262,4 +347,7 @@ public class DatabaseOperation {
             }
         }
     }
+
+    record ForEachResult(int rows, long consumerTook) {
+    }
 }
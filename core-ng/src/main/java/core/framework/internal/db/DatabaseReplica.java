@@ -0,0 +1,87 @@
+package core.framework.internal.db;
+
+import core.framework.db.UncheckedSQLException;
+import core.framework.internal.resource.Pool;
+import core.framework.internal.resource.PoolItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * read replica with its own pool, it's taken out of rotation if replication lag exceeds max lag or lag can not be checked,
+ * or immediately on connection error, and put back by next check once lag is within max lag
+ *
+ * @author neo
+ */
+public final class DatabaseReplica {
+    // lag is 0 if all received wal is replayed, otherwise replay_timestamp is the commit time of last replayed transaction, returns null if not standby
+    private static final String POSTGRESQL_LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    public final Pool<Connection> pool;
+    final String url;
+    private final Logger logger = LoggerFactory.getLogger(DatabaseReplica.class);
+    Properties driverProperties;
+    volatile boolean available = true;
+
+    DatabaseReplica(String url, String name, Function<DatabaseReplica, Connection> factory) {
+        this.url = url;
+        pool = new Pool<>(() -> factory.apply(this), name);
+    }
+
+    public void check(Duration maxLag) {
+        Double lag;
+        try {
+            lag = lagInSeconds();
+        } catch (Throwable e) {
+            logger.warn(errorCode("DB_REPLICA_CHECK_FAILED"), "failed to check db replica lag, url={}, error={}", url, e.getMessage(), e);
+            lag = null;
+        }
+        update(lag, maxLag);
+    }
+
+    void update(Double lagInSeconds, Duration maxLag) {
+        boolean available = lagInSeconds != null && lagInSeconds * 1000 <= maxLag.toMillis();
+        if (this.available && !available) {
+            logger.warn(errorCode("DB_REPLICA_UNAVAILABLE"), "take db replica out of rotation, url={}, lagInSeconds={}", url, lagInSeconds);
+        } else if (!this.available && available) {
+            logger.info("put db replica back into rotation, url={}, lagInSeconds={}", url, lagInSeconds);
+        }
+        this.available = available;
+    }
+
+    void unavailable(UncheckedSQLException e) {
+        if (available) logger.warn(errorCode("DB_REPLICA_UNAVAILABLE"), "take db replica out of rotation due to connection error, url={}, error={}", url, e.getMessage(), e);
+        available = false;
+    }
+
+    // return null if replication is not running, mysql requires REPLICATION CLIENT privilege and 8.0.22+ (Seconds_Behind_Source)
+    Double lagInSeconds() {
+        if (url.startsWith("jdbc:mysql:")) return lagInSeconds("SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        if (url.startsWith("jdbc:postgresql:")) return lagInSeconds(POSTGRESQL_LAG_SQL, null);
+        return 0d;  // e.g. hsqldb for unit test, no replication
+    }
+
+    private Double lagInSeconds(String sql, String column) {
+        PoolItem<Connection> connection = pool.borrowItem();
+        try (Statement statement = connection.resource.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) return null;
+            double lag = column == null ? resultSet.getDouble(1) : resultSet.getDouble(column);
+            return resultSet.wasNull() ? null : lag;
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            throw new UncheckedSQLException(e);
+        } finally {
+            pool.returnItem(connection);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import core.framework.util.Strings;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -77,6 +78,14 @@ public class QueryImpl<T> implements Query<T> {
         return database.selectOne(sql, entityClass, params);
     }
 
+    @Override
+    public void forEach(Consumer<T> consumer) {
+        if (groupBy != null) throw new Error("forEach must not be used with groupBy, groupBy=" + groupBy);
+        String sql = selectQuery.fetchSQL(whereClause, sort, skip, limit);
+        Object[] params = selectQuery.params(this.params, skip, limit);
+        database.forEach(sql, entityClass, consumer, params);
+    }
+
     @Override
     public <P> List<P> project(String projection, Class<P> viewClass) {
         String sql = selectQuery.sql(projection, whereClause, groupBy, sort, skip, limit);
@@ -1,17 +1,23 @@
 package core.framework.internal.db;
 
+import core.framework.db.PrimaryScope;
 import core.framework.db.Query;
 import core.framework.db.Repository;
+import core.framework.internal.cache.CacheImpl;
 import core.framework.internal.validate.Validator;
+import core.framework.util.Maps;
 import core.framework.util.StopWatch;
 import core.framework.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.Statement;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 
@@ -29,6 +35,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
     private final UpdateQuery<T> updateQuery;
     private final String deleteSQL;
     private final Class<T> entityClass;
+    public CacheImpl<T> cache;     // cache entity by primary key for get(), evicted by all mutating methods, but not by database.execute()
 
     RepositoryImpl(DatabaseImpl database, Class<T> entityClass, Dialect dialect) {
         this.database = database;
@@ -49,9 +56,72 @@ public final class RepositoryImpl<T> implements Repository<T> {
     public Optional<T> get(Object... primaryKeys) {
         if (primaryKeys.length != selectQuery.primaryKeyColumns)
             throw new Error(Strings.format("the length of primary keys does not match columns, primaryKeys={}, columns={}", selectQuery.primaryKeyColumns, primaryKeys.length));
+        // within transaction, always read from db to see uncommitted changes, and not to cache them
+        if (cache != null && !database.operation.transactionManager.inTransaction()) {
+            return cache.find(cacheKey(primaryKeys), key -> {
+                // read from primary, otherwise lagging replica may put stale row back to cache right after eviction
+                PrimaryScope scope = database.readFromPrimary();
+                try {
+                    return database.selectOne(selectQuery.getSQL, entityClass, primaryKeys);
+                } finally {
+                    scope.close();
+                }
+            });
+        }
         return database.selectOne(selectQuery.getSQL, entityClass, primaryKeys);
     }
 
+    @Override
+    public <K> Map<K, T> batchGet(List<K> primaryKeys) {
+        if (primaryKeys.isEmpty()) throw new Error("primaryKeys must not be empty");
+        List<Object[]> params = primaryKeyParams(primaryKeys);
+        int size = params.size();
+        Map<List<Object>, T> entities = Maps.newHashMapWithExpectedSize(size);
+        for (int from = 0; from < size; from += selectQuery.batchGetSize) {
+            List<Object[]> chunk = params.subList(from, Math.min(from + selectQuery.batchGetSize, size));
+            for (T entity : database.select(selectQuery.batchGetSQL(chunk.size()), entityClass, batchGetParams(chunk))) {
+                entities.put(batchGetKey(updateQuery.primaryKeys(entity)), entity);
+            }
+        }
+        Map<K, T> results = Maps.newLinkedHashMapWithExpectedSize(entities.size());
+        for (int i = 0; i < size; i++) {
+            T entity = entities.get(batchGetKey(params.get(i)));
+            if (entity != null) results.put(primaryKeys.get(i), entity);
+        }
+        return results;
+    }
+
+    // convert key values to type of primary key fields, to match rows by value, e.g. 1 = 1L, 1.0 = 1.00, same instant in different time zones
+    List<Object> batchGetKey(Object[] primaryKeys) {
+        Object[] values = new Object[primaryKeys.length];
+        for (int i = 0; i < primaryKeys.length; i++) {
+            values[i] = batchGetValue(primaryKeys[i], selectQuery.primaryKeyClasses[i]);
+        }
+        return Arrays.asList(values);
+    }
+
+    private Object batchGetValue(Object value, Class<?> fieldClass) {
+        if (value instanceof final Number number) {
+            boolean integral = number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+            if (integral && (fieldClass == Integer.class || fieldClass == Long.class)) return number.longValue();
+            if (fieldClass == Double.class) return number.doubleValue();
+            if (fieldClass == BigDecimal.class) return (number instanceof final BigDecimal decimal ? decimal : new BigDecimal(number.toString())).stripTrailingZeros();
+        }
+        if (value instanceof final ZonedDateTime time) return time.toInstant();
+        return value;
+    }
+
+    private Object[] batchGetParams(List<Object[]> primaryKeys) {
+        Object[] params = new Object[primaryKeys.size() * selectQuery.primaryKeyColumns];
+        int index = 0;
+        for (Object[] keys : primaryKeys) {
+            for (Object key : keys) {
+                params[index++] = key;
+            }
+        }
+        return params;
+    }
+
     @Override
     public OptionalLong insert(T entity) {
         var watch = new StopWatch();
@@ -59,7 +129,9 @@ public final class RepositoryImpl<T> implements Repository<T> {
         String sql = insertQuery.insertSQL;
         Object[] params = insertQuery.params(entity);
         try {
-            return database.operation.insert(sql, params, insertQuery.generatedColumn);
+            OptionalLong id = database.operation.insert(sql, params, insertQuery.generatedColumn);
+            evict(entity);
+            return id;
         } finally {
             long elapsed = watch.elapsed();
             logger.debug("insert, sql={}, params={}, elapsed={}", sql, new SQLParams(database.operation.enumMapper, params), elapsed);
@@ -77,6 +149,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         Object[] params = insertQuery.params(entity);
         try {
             insertedRows = database.operation.update(sql, params);
+            evict(entity);
             return insertedRows == 1;
         } finally {
             long elapsed = watch.elapsed();
@@ -95,6 +168,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         Object[] params = insertQuery.params(entity);
         try {
             affectedRows = database.operation.update(sql, params);
+            evict(entity);
             // refer to https://dev.mysql.com/doc/refman/8.0/en/insert-on-duplicate.html
             // With ON DUPLICATE KEY UPDATE, the affected-rows value per row is 1 if the row is inserted as a new row, 2 if an existing row is updated, and 0 if an existing row is set to its current values.
             return affectedRows == 1;
@@ -118,6 +192,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         int updatedRows = 0;
         try {
             updatedRows = database.operation.update(query.sql, query.params);
+            evict(entity);
             // refer to https://dev.mysql.com/doc/c-api/8.0/en/mysql-affected-rows.html
             // if all columns updated to its current values, the affectedRows will be 0
             return updatedRows == 1;
@@ -147,6 +222,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         int affectedRows = 0;
         try {
             affectedRows = database.operation.update(deleteSQL, primaryKeys);
+            if (cache != null) evictKeys(List.of(cacheKey(primaryKeys)));
             if (affectedRows != 1) logger.warn(errorCode("UNEXPECTED_UPDATE_RESULT"), "row is not deleted, result={}", affectedRows);
             return affectedRows == 1;
         } finally {
@@ -167,7 +243,9 @@ public final class RepositoryImpl<T> implements Repository<T> {
             params.add(insertQuery.params(entity));
         }
         try {
-            return database.operation.batchInsert(sql, params, insertQuery.generatedColumn);
+            Optional<long[]> ids = database.operation.batchInsert(sql, params, insertQuery.generatedColumn);
+            evictAll(entities);
+            return ids;
         } finally {
             long elapsed = watch.elapsed();
             int size = entities.size();
@@ -190,6 +268,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         boolean inserted = false;   // any row inserted
         try {
             int[] affectedRows = database.operation.batchUpdate(sql, params);
+            evictAll(entities);
             inserted = batchUpdated(affectedRows);
             return inserted;
         } finally {
@@ -214,6 +293,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         boolean updated = false;
         try {
             int[] affectedRows = database.operation.batchUpdate(sql, params);
+            evictAll(entities);
             updated = batchUpdated(affectedRows);
             return updated;
         } finally {
@@ -239,10 +319,11 @@ public final class RepositoryImpl<T> implements Repository<T> {
     public boolean batchDelete(List<?> primaryKeys) {
         var watch = new StopWatch();
         if (primaryKeys.isEmpty()) throw new Error("primaryKeys must not be empty");
-        List<Object[]> params = batchDeleteParams(primaryKeys);
+        List<Object[]> params = primaryKeyParams(primaryKeys);
         int deletedRows = 0;
         try {
             int[] affectedRows = database.operation.batchUpdate(deleteSQL, params);
+            if (cache != null) evictKeys(cacheKeys(params));
             deletedRows = Arrays.stream(affectedRows).sum();
             if (deletedRows != primaryKeys.size()) logger.warn(errorCode("UNEXPECTED_UPDATE_RESULT"), "some rows are not deleted, results={}", Arrays.toString(affectedRows));
             return deletedRows > 0;
@@ -254,10 +335,13 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
-    List<Object[]> batchDeleteParams(List<?> primaryKeys) {
+    // composite primary key can be Object[] or List
+    List<Object[]> primaryKeyParams(List<?> primaryKeys) {
         List<Object[]> params = new ArrayList<>(primaryKeys.size());
         for (Object primaryKey : primaryKeys) {
-            if (primaryKey instanceof final Object[] keys) {
+            Object[] keys = primaryKey instanceof final List<?> values ? values.toArray() : null;
+            if (primaryKey instanceof final Object[] values) keys = values;
+            if (keys != null) {
                 if (selectQuery.primaryKeyColumns != keys.length)
                     throw new Error(Strings.format("the length of primary keys must match columns, primaryKeys={}, columns={}", keys.length, selectQuery.primaryKeyColumns));
                 params.add(keys);
@@ -269,4 +353,57 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
         return params;
     }
+
+    // validate before entity is buffered by batch writer, to fail caller immediately
+    void validate(T entity, boolean upsert) {
+        if (upsert && insertQuery.generatedColumn != null) throw new Error("entity must not have auto increment primary key, entityClass=" + entityClass.getCanonicalName());
+        validator.validate(entity, false);
+    }
+
+    private void evict(T entity) {
+        if (cache == null) return;
+        Object[] primaryKeys = updateQuery.primaryKeys(entity);
+        if (primaryKeys[0] == null) return;     // auto increment id is not assigned to entity
+        evictKeys(List.of(cacheKey(primaryKeys)));
+    }
+
+    private void evictAll(List<T> entities) {
+        if (cache == null) return;
+        List<Object[]> primaryKeys = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            Object[] keys = updateQuery.primaryKeys(entity);
+            if (keys[0] != null) primaryKeys.add(keys);
+        }
+        if (!primaryKeys.isEmpty()) evictKeys(cacheKeys(primaryKeys));
+    }
+
+    // evict again after transaction ended, as other threads may load and cache the row before commit
+    private void evictKeys(List<String> keys) {
+        cache.evictAll(keys);
+        database.operation.transactionManager.afterTransaction(() -> cache.evictAll(keys));
+    }
+
+    private List<String> cacheKeys(List<Object[]> primaryKeys) {
+        List<String> keys = new ArrayList<>(primaryKeys.size());
+        for (Object[] values : primaryKeys) {
+            keys.add(cacheKey(values));
+        }
+        return keys;
+    }
+
+    // escape separator within values of composite key, e.g. ("a:b", "c") and ("a", "b:c") must not be same key
+    String cacheKey(Object[] primaryKeys) {
+        if (primaryKeys.length == 1) return String.valueOf(primaryKeys[0]);
+        var builder = new StringBuilder();
+        for (int i = 0; i < primaryKeys.length; i++) {
+            if (i > 0) builder.append(':');
+            String value = String.valueOf(primaryKeys[i]);
+            for (int j = 0; j < value.length(); j++) {
+                char ch = value.charAt(j);
+                if (ch == ':' || ch == '\\') builder.append('\\');
+                builder.append(ch);
+            }
+        }
+        return builder.toString();
+    }
 }
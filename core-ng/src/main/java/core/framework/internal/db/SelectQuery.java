@@ -6,17 +6,26 @@ import core.framework.db.Table;
 import core.framework.internal.reflect.Classes;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * @author neo
  */
 final class SelectQuery<T> {
+    // mysql and postgresql allow up to 65535 params per statement (32767 with older postgresql driver), keep IN list moderate for query planner
+    private static final int MAX_BATCH_GET_PARAMS = 1000;
+
     final String getSQL;
     final Dialect dialect;
     private final String table;
     private final String columns;
+    private final String batchGetCondition;     // e.g. "id IN (" or "(id1, id2) IN ("
+    private final String batchGetParam;         // e.g. "?" or "(?, ?)"
     int primaryKeyColumns;
+    final Class<?>[] primaryKeyClasses;
+    final int batchGetSize;     // max rows per batch get query
 
     SelectQuery(Class<T> entityClass, Dialect dialect) {
         table = entityClass.getDeclaredAnnotation(Table.class).name();
@@ -24,6 +33,23 @@ final class SelectQuery<T> {
         columns = columns(fields);
         getSQL = getSQL(fields);
         this.dialect = dialect;
+
+        List<String> primaryKeys = new ArrayList<>(primaryKeyColumns);
+        primaryKeyClasses = new Class<?>[primaryKeyColumns];
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(PrimaryKey.class)) {
+                primaryKeyClasses[primaryKeys.size()] = field.getType();
+                primaryKeys.add(field.getDeclaredAnnotation(Column.class).name());
+            }
+        }
+        if (primaryKeys.size() == 1) {
+            batchGetCondition = primaryKeys.getFirst() + " IN (";
+            batchGetParam = "?";
+        } else {    // tuple IN for composite primary keys
+            batchGetCondition = "(" + String.join(", ", primaryKeys) + ") IN (";
+            batchGetParam = "(" + String.join(", ", Collections.nCopies(primaryKeys.size(), "?")) + ")";
+        }
+        batchGetSize = MAX_BATCH_GET_PARAMS / primaryKeys.size();
     }
 
     private String getSQL(List<Field> fields) {
@@ -51,6 +77,15 @@ final class SelectQuery<T> {
         return builder.toString();
     }
 
+    String batchGetSQL(int size) {
+        var builder = new StringBuilder("SELECT ").append(columns).append(" FROM ").append(table).append(" WHERE ").append(batchGetCondition);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(batchGetParam);
+        }
+        return builder.append(')').toString();
+    }
+
     String fetchSQL(StringBuilder where, String sort, Integer skip, Integer limit) {
         return sql(columns, where, null, sort, skip, limit);
     }
@@ -1,5 +1,6 @@
 package core.framework.internal.db;
 
+import core.framework.db.PrimaryScope;
 import core.framework.db.Transaction;
 import core.framework.db.UncheckedSQLException;
 import core.framework.internal.resource.Pool;
@@ -10,6 +11,9 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author neo
@@ -17,10 +21,16 @@ import java.time.Duration;
 public final class TransactionManager {
     private static final ThreadLocal<PoolItem<Connection>> CURRENT_CONNECTION = new ThreadLocal<>();
     private static final ThreadLocal<TransactionState> CURRENT_TRANSACTION_STATE = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> CURRENT_TRANSACTION_TASKS = new ThreadLocal<>();
+    private static final PrimaryScope NESTED_PRIMARY_SCOPE = () -> {   // outer scope ends reading from primary
+    };
 
     private final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
     private final Pool<Connection> pool;
+    private final ThreadLocal<Boolean> readFromPrimary = new ThreadLocal<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
     public long longTransactionThresholdInNanos = Duration.ofSeconds(5).toNanos();
+    List<DatabaseReplica> replicas = List.of();
 
     TransactionManager(Pool<Connection> pool) {
         this.pool = pool;
@@ -43,6 +53,44 @@ public final class TransactionManager {
             returnConnectionToPool(connection, false);
     }
 
+    // return replica pool for read outside transaction, or null to read from primary or current transaction, replicas are picked by round-robin,
+    // falls back to primary if all replicas are out of rotation
+    Pool<Connection> replicaPool() {
+        int size = replicas.size();
+        if (size == 0 || CURRENT_CONNECTION.get() != null || readFromPrimary.get() != null) return null;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            DatabaseReplica replica = replicas.get((start + i) % size);
+            if (replica.available) return replica.pool;
+        }
+        return null;
+    }
+
+    // take replica out of rotation on connection error, return true if read should be retried on primary
+    boolean replicaFailed(Pool<Connection> replicaPool, UncheckedSQLException e) {
+        if (replicaPool == null || e.errorType != UncheckedSQLException.ErrorType.CONNECTION_ERROR) return false;
+        for (DatabaseReplica replica : replicas) {
+            if (replica.pool == replicaPool) replica.unavailable(e);
+        }
+        return true;
+    }
+
+    PoolItem<Connection> getConnection(Pool<Connection> replicaPool) {
+        if (replicaPool == null) return getConnection();
+        return replicaPool.borrowItem();
+    }
+
+    void returnConnection(Pool<Connection> replicaPool, PoolItem<Connection> connection) {
+        if (replicaPool == null) returnConnection(connection);
+        else replicaPool.returnItem(connection);
+    }
+
+    PrimaryScope readFromPrimary() {
+        if (readFromPrimary.get() != null) return NESTED_PRIMARY_SCOPE;
+        readFromPrimary.set(Boolean.TRUE);
+        return readFromPrimary::remove;
+    }
+
     Transaction beginTransaction() {
         if (CURRENT_CONNECTION.get() != null) throw new Error("nested transaction is not supported");
 
@@ -61,6 +109,22 @@ public final class TransactionManager {
         return new TransactionImpl(this, longTransactionThresholdInNanos);
     }
 
+    boolean inTransaction() {
+        return CURRENT_CONNECTION.get() != null;
+    }
+
+    // run task after current transaction ended (either committed or rolled back), return false if not in transaction
+    boolean afterTransaction(Runnable task) {
+        if (!inTransaction()) return false;
+        List<Runnable> tasks = CURRENT_TRANSACTION_TASKS.get();
+        if (tasks == null) {
+            tasks = new ArrayList<>();
+            CURRENT_TRANSACTION_TASKS.set(tasks);
+        }
+        tasks.add(task);
+        return true;
+    }
+
     void commitTransaction() {
         PoolItem<Connection> connection = CURRENT_CONNECTION.get();
         try {
@@ -88,9 +152,11 @@ public final class TransactionManager {
     void endTransaction() {
         PoolItem<Connection> connection = CURRENT_CONNECTION.get();
         TransactionState state = CURRENT_TRANSACTION_STATE.get();
+        List<Runnable> tasks = CURRENT_TRANSACTION_TASKS.get();
         // cleanup state first, to avoid ending up with unexpected state
         CURRENT_CONNECTION.remove();
         CURRENT_TRANSACTION_STATE.remove();
+        CURRENT_TRANSACTION_TASKS.remove();
 
         try {
             if (state == TransactionState.START) {
@@ -101,7 +167,21 @@ public final class TransactionManager {
             Connections.checkConnectionState(connection, e);
             throw new UncheckedSQLException(e);
         } finally {
-            returnConnectionToPool(connection, true);
+            try {
+                returnConnectionToPool(connection, true);
+            } finally {
+                if (tasks != null) runTasks(tasks);
+            }
+        }
+    }
+
+    private void runTasks(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.warn("failed to run task after transaction", e);
+            }
         }
     }
 
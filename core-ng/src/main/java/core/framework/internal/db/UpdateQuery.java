@@ -6,6 +6,9 @@ package core.framework.internal.db;
 public interface UpdateQuery<T> {
     Statement update(T entity, boolean partial, String where, Object[] params);
 
+    // values of primary key fields in declaration order, e.g. to evict entity cache
+    Object[] primaryKeys(T entity);
+
     class Statement {
         final String sql;
         final Object[] params;
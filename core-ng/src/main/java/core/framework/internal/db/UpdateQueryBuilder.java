@@ -37,6 +37,7 @@ class UpdateQueryBuilder<T> {
         }
 
         builder.addMethod(updateMethod(entityClass, primaryKeyFields, columnFields));
+        builder.addMethod(primaryKeysMethod(entityClass, primaryKeyFields));
         return builder.build();
     }
 
@@ -94,4 +95,21 @@ class UpdateQueryBuilder<T> {
             .append("}");
         return builder.build();
     }
+
+    private String primaryKeysMethod(Class<T> entityClass, List<Field> primaryKeyFields) {
+        var builder = new CodeBuilder();
+        String entityClassLiteral = type(entityClass);
+        builder.append("public Object[] primaryKeys(Object value) {\n")
+            .indent(1).append("{} entity = ({}) value;\n", entityClassLiteral, entityClassLiteral)
+            .indent(1).append("return new Object[]{");
+        int index = 0;
+        for (Field primaryKeyField : primaryKeyFields) {
+            if (index > 0) builder.append(", ");
+            builder.append("entity.{}", primaryKeyField.getName());
+            index++;
+        }
+        builder.append("};\n")
+            .append("}");
+        return builder.build();
+    }
 }
@@ -0,0 +1,81 @@
+package core.framework.internal.redis;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * lightweight connection borrowed from pool in cluster mode, it collects commands and sends them via RedisCluster on flush, which routes each command to node by slot
+ *
+ * @author neo
+ */
+final class ClusterRedisConnection extends RedisConnection {
+    private static final Object NULL_REPLY = new Object();  // ArrayDeque doesn't accept null
+
+    private final RedisCluster cluster;
+    private final List<byte[][]> commands = new ArrayList<>();
+    private final Queue<Object> replies = new ArrayDeque<>();
+    private byte[][] command;
+    private int index;
+
+    ClusterRedisConnection(RedisCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    void writeArray(int length) {
+        command = new byte[length][];
+        index = 0;
+        commands.add(command);
+    }
+
+    @Override
+    void writeBlobString(byte[] value) {
+        command[index++] = value;
+    }
+
+    @Override
+    void flush() throws IOException {
+        try {
+            Object[] replies = cluster.execute(commands);
+            for (Object reply : replies) {
+                this.replies.add(reply == null ? NULL_REPLY : reply);
+            }
+        } finally {
+            commands.clear();
+            command = null;
+        }
+    }
+
+    @Override
+    Object read() {
+        Object reply = replies.poll();
+        if (reply == null) throw new Error("no pending reply to read");
+        if (reply == NULL_REPLY) return null;
+        if (reply instanceof RedisException e) throw new RedisException(e.getMessage());
+        return reply;
+    }
+
+    @Override
+    <T> T readBlobString(RedisBlobDecoder<T> decoder) throws IOException {
+        byte[] value = readBlobString();
+        return value == null ? null : decoder.decode(value, 0, value.length);
+    }
+
+    @Override
+    Object[] readBlobStrings(RedisBlobDecoder<?> decoder) throws IOException {
+        return decode(readArray(), decoder);
+    }
+
+    @Override
+    void timeout(int timeoutInMs) {
+        throw new Error("cluster connection does not support changing timeout");
+    }
+
+    @Override
+    public void close() {
+        replies.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package core.framework.internal.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * lightweight connection borrowed from pool in multiplex mode, it buffers commands and sends them via shared channel on flush, then waits for its own replies,
+ * so pool size only limits in flight requests, not sockets
+ *
+ * @author neo
+ */
+final class MultiplexedRedisConnection extends RedisConnection {
+    static Object await(CompletableFuture<Object> future, int timeoutInMs) throws IOException {
+        try {
+            return future.get(timeoutInMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("read timed out, timeout=" + timeoutInMs + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) throw new IOException(cause.getMessage(), cause);
+            throw new Error(e.getCause());
+        } catch (InterruptedException e) {
+            throw new IOException("interrupted during waiting for redis reply", e);
+        }
+    }
+
+    private final RedisChannel channel;
+    private final int timeoutInMs;
+    private final ByteArrayOutputStream request = new ByteArrayOutputStream(256);
+    private final Queue<CompletableFuture<Object>> replies = new ArrayDeque<>();
+    private int commands;
+
+    MultiplexedRedisConnection(RedisChannel channel, int timeoutInMs) {
+        this.channel = channel;
+        this.timeoutInMs = timeoutInMs;
+        outputStream = new RedisOutputStream(request, 1024);
+    }
+
+    @Override
+    void writeArray(int length) throws IOException {
+        super.writeArray(length);
+        commands++;     // every command is array, and only top level array is written by client
+    }
+
+    @Override
+    void flush() throws IOException {
+        outputStream.flush();
+        byte[] bytes = request.toByteArray();
+        int commands = this.commands;
+        request.reset();
+        this.commands = 0;
+        replies.addAll(channel.send(bytes, commands));
+    }
+
+    @Override
+    Object read() throws IOException {
+        CompletableFuture<Object> future = replies.poll();
+        if (future == null) throw new Error("no pending reply to read");
+        Object reply;
+        try {
+            reply = await(future, timeoutInMs);
+        } catch (SocketTimeoutException e) {
+            channel.timeout(future, e);     // all replies after this are stuck, fail them and reconnect
+            throw e;
+        }
+        if (reply instanceof RedisException e) throw new RedisException(e.getMessage());    // rethrow in caller thread to keep stack trace
+        return reply;
+    }
+
+    @Override
+    <T> T readBlobString(RedisBlobDecoder<T> decoder) throws IOException {
+        byte[] value = readBlobString();
+        return value == null ? null : decoder.decode(value, 0, value.length);
+    }
+
+    @Override
+    Object[] readBlobStrings(RedisBlobDecoder<?> decoder) throws IOException {
+        return decode(readArray(), decoder);
+    }
+
+    @Override
+    void timeout(int timeoutInMs) {
+        throw new Error("multiplexed connection does not support changing timeout");
+    }
+
+    @Override
+    public void close() {
+        replies.clear();    // replies not read yet, e.g. after timeout, will be discarded by channel reader
+    }
+}
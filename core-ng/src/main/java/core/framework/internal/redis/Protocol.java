@@ -5,7 +5,8 @@ import core.framework.util.Strings;
 import java.io.IOException;
 
 /**
- * refer to https://github.com/antirez/RESP3/blob/master/spec.md, currently only support RESP2
+ * refer to https://github.com/antirez/RESP3/blob/master/spec.md, currently support RESP2,
+ * and RESP3 types used by client tracking connection (map, set, null, boolean and push)
  */
 final class Protocol {
     private static final byte BLOB_STRING_BYTE = '$';
@@ -13,6 +14,11 @@ final class Protocol {
     private static final byte SIMPLE_ERROR_BYTE = '-';
     private static final byte NUMBER_BYTE = ':';
     private static final byte ARRAY_BYTE = '*';
+    private static final byte MAP_BYTE = '%';
+    private static final byte SET_BYTE = '~';
+    private static final byte NULL_BYTE = '_';
+    private static final byte BOOLEAN_BYTE = '#';
+    private static final byte PUSH_BYTE = '>';
 
     static void writeArray(RedisOutputStream stream, int length) throws IOException {
         stream.write(ARRAY_BYTE);
@@ -29,6 +35,30 @@ final class Protocol {
         return parseObject(stream);
     }
 
+    // return null if value is nil
+    static <T> T readBlobString(RedisInputStream stream, RedisBlobDecoder<T> decoder) throws IOException {
+        byte firstByte = stream.readByte();
+        if (firstByte == BLOB_STRING_BYTE) {
+            int length = (int) stream.readLong();
+            if (length == -1) return null;
+            return stream.readBytes(length, decoder);
+        }
+        if (firstByte == SIMPLE_ERROR_BYTE) throw new RedisException(stream.readSimpleString());
+        throw new IOException("unexpected redis response, expected blob string, firstByte=" + (char) firstByte);
+    }
+
+    static Object[] readBlobStrings(RedisInputStream stream, RedisBlobDecoder<?> decoder) throws IOException {
+        byte firstByte = stream.readByte();
+        if (firstByte == SIMPLE_ERROR_BYTE) throw new RedisException(stream.readSimpleString());
+        if (firstByte != ARRAY_BYTE) throw new IOException("unexpected redis response, expected array, firstByte=" + (char) firstByte);
+        int length = (int) stream.readLong();
+        var values = new Object[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readBlobString(stream, decoder);
+        }
+        return values;
+    }
+
     private static Object parseObject(RedisInputStream stream) throws IOException {
         byte firstByte = stream.readByte();
         return switch (firstByte) {
@@ -36,6 +66,18 @@ final class Protocol {
             case BLOB_STRING_BYTE -> parseBlobString(stream);
             case ARRAY_BYTE -> parseArray(stream);
             case NUMBER_BYTE -> stream.readLong();
+            case MAP_BYTE -> parseMap(stream);
+            case SET_BYTE -> parseArray(stream);
+            case NULL_BYTE -> {
+                stream.readCRLF();
+                yield null;
+            }
+            case BOOLEAN_BYTE -> {
+                boolean value = stream.readByte() == 't';
+                stream.readCRLF();
+                yield value;
+            }
+            case PUSH_BYTE -> new Push(parseArray(stream));
             case SIMPLE_ERROR_BYTE -> {
                 String message = stream.readSimpleString();
                 throw new RedisException(message);
@@ -62,9 +104,28 @@ final class Protocol {
         return array;
     }
 
+    // map is flattened as [key1, value1, key2, value2, ...], same as RESP2 reply of HGETALL
+    private static Object[] parseMap(RedisInputStream stream) throws IOException {
+        int length = (int) stream.readLong();
+        var array = new Object[length * 2];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = parseObject(stream);
+        }
+        return array;
+    }
+
+    // out of band message sent by server, e.g. ["invalidate", [keys]] of client tracking
+    record Push(Object[] values) {
+    }
+
     static class Command {
         static final byte[] AUTH = Strings.bytes("AUTH");
+        static final byte[] HELLO = Strings.bytes("HELLO");
+        static final byte[] CLIENT = Strings.bytes("CLIENT");
         static final byte[] INFO = Strings.bytes("INFO");
+        static final byte[] CLUSTER = Strings.bytes("CLUSTER");
+        static final byte[] ASKING = Strings.bytes("ASKING");
+        static final byte[] PING = Strings.bytes("PING");
 
         static final byte[] GET = Strings.bytes("GET");
         static final byte[] SET = Strings.bytes("SET");
@@ -76,12 +137,19 @@ final class Protocol {
         static final byte[] MSET = Strings.bytes("MSET");
         static final byte[] SCAN = Strings.bytes("SCAN");
 
+        static final byte[] EVAL = Strings.bytes("EVAL");
+        static final byte[] EVALSHA = Strings.bytes("EVALSHA");
+
+        static final byte[] PUBLISH = Strings.bytes("PUBLISH");
+        static final byte[] SUBSCRIBE = Strings.bytes("SUBSCRIBE");
+
         static final byte[] HGET = Strings.bytes("HGET");
         static final byte[] HGETALL = Strings.bytes("HGETALL");
         static final byte[] HSET = Strings.bytes("HSET");
         static final byte[] HMSET = Strings.bytes("HMSET");
         static final byte[] HDEL = Strings.bytes("HDEL");
         static final byte[] HINCRBY = Strings.bytes("HINCRBY");
+        static final byte[] HSCAN = Strings.bytes("HSCAN");
 
         static final byte[] PFADD = Strings.bytes("PFADD");
         static final byte[] PFCOUNT = Strings.bytes("PFCOUNT");
@@ -92,6 +160,7 @@ final class Protocol {
         static final byte[] SREM = Strings.bytes("SREM");
         static final byte[] SPOP = Strings.bytes("SPOP");
         static final byte[] SCARD = Strings.bytes("SCARD");
+        static final byte[] SSCAN = Strings.bytes("SSCAN");
 
         static final byte[] LRANGE = Strings.bytes("LRANGE");
         static final byte[] RPUSH = Strings.bytes("RPUSH");
@@ -103,6 +172,13 @@ final class Protocol {
         static final byte[] ZRANGE = Strings.bytes("ZRANGE");
         static final byte[] ZREM = Strings.bytes("ZREM");
         static final byte[] ZPOPMIN = Strings.bytes("ZPOPMIN");
+        static final byte[] ZSCAN = Strings.bytes("ZSCAN");
+
+        static final byte[] XADD = Strings.bytes("XADD");
+        static final byte[] XGROUP = Strings.bytes("XGROUP");
+        static final byte[] XREADGROUP = Strings.bytes("XREADGROUP");
+        static final byte[] XACK = Strings.bytes("XACK");
+        static final byte[] XAUTOCLAIM = Strings.bytes("XAUTOCLAIM");
     }
 
     static class Keyword {
@@ -113,5 +189,20 @@ final class Protocol {
         static final byte[] LIMIT = Strings.bytes("LIMIT");
         static final byte[] WITHSCORES = Strings.bytes("WITHSCORES");
         static final byte[] BYSCORE = Strings.bytes("BYSCORE");
+        static final byte[] SLOTS = Strings.bytes("SLOTS");
+        static final byte[] TRACKING = Strings.bytes("TRACKING");
+        static final byte[] ON = Strings.bytes("ON");
+        static final byte[] BCAST = Strings.bytes("BCAST");
+        static final byte[] PREFIX = Strings.bytes("PREFIX");
+        static final byte[] MAXLEN = Strings.bytes("MAXLEN");
+        static final byte[] APPROXIMATE = Strings.bytes("~");
+        static final byte[] AUTO_ID = Strings.bytes("*");
+        static final byte[] CREATE = Strings.bytes("CREATE");
+        static final byte[] MKSTREAM = Strings.bytes("MKSTREAM");
+        static final byte[] LAST_ID = Strings.bytes("$");
+        static final byte[] GROUP = Strings.bytes("GROUP");
+        static final byte[] STREAMS = Strings.bytes("STREAMS");
+        static final byte[] BLOCK = Strings.bytes("BLOCK");
+        static final byte[] NEW_ENTRIES = Strings.bytes(">");
     }
 }
@@ -0,0 +1,12 @@
+package core.framework.internal.redis;
+
+/**
+ * decode blob string reply in place, buffer is slice of connection read buffer or pooled buffer, which is reused after decode returns,
+ * so decoder must not keep reference of buffer
+ *
+ * @author neo
+ */
+@FunctionalInterface
+public interface RedisBlobDecoder<T> {
+    T decode(byte[] buffer, int offset, int length);
+}
@@ -0,0 +1,32 @@
+package core.framework.internal.redis;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * shared buffers to read blob string larger than connection read buffer, so large value is not allocated and copied on every read,
+ * buffer is only held during decoding, pooled buffer count and size are bounded to limit retained memory
+ *
+ * @author neo
+ */
+final class RedisBufferPool {
+    static final int MIN_BUFFER_SIZE = 64 * 1024;
+    static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;    // larger value is allocated on read, and not pooled
+
+    private final BlockingQueue<byte[]> buffers;
+
+    RedisBufferPool(int maxBuffers) {
+        buffers = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    byte[] borrow(int length) {
+        byte[] buffer = buffers.poll();
+        if (buffer != null && buffer.length >= length) return buffer;
+        if (length > MAX_BUFFER_SIZE) return new byte[length];
+        return new byte[Math.max(MIN_BUFFER_SIZE, Integer.highestOneBit(length - 1) << 1)];    // round up to power of 2, smaller pooled buffer is dropped
+    }
+
+    void release(byte[] buffer) {
+        if (buffer.length <= MAX_BUFFER_SIZE) buffers.offer(buffer);    // drop if pool is full
+    }
+}
@@ -0,0 +1,212 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static core.framework.internal.redis.Protocol.Command.AUTH;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * socket channel shared by many callers, requests are written as they arrive, redis replies in request order, so replies are matched to pending requests in FIFO order,
+ * replies are read by dedicated virtual thread, if socket is broken, all pending requests fail and it reconnects on next request,
+ * as replies are in order, reply timeout of one request means all requests after it are stuck, e.g. socket is half open, so timeout also breaks connection,
+ * idle connection is checked by PING every 10 seconds, to detect broken socket before next request
+ *
+ * @author neo
+ */
+final class RedisChannel implements AutoCloseable {
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+    private static final byte[] PING_REQUEST = Strings.bytes("*1\r\n$4\r\nPING\r\n");
+
+    private final Logger logger = LoggerFactory.getLogger(RedisChannel.class);
+    private final RedisConnectionFactory factory;
+    private final ReentrantLock lock = new ReentrantLock();     // guards connection, and keeps order of pending replies same as written requests
+    private Connection connection;
+    private boolean closed;
+
+    RedisChannel(RedisConnectionFactory factory) {
+        this.factory = factory;
+    }
+
+    // return one future per command in request, future completes with reply or RedisException
+    List<CompletableFuture<Object>> send(byte[] request, int commands) throws IOException {
+        lock.lock();
+        try {
+            if (closed) throw new IOException("redis channel is closed, host=" + factory.host);
+            if (connection == null) connection = connect();
+            return write(connection, request, commands);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called by caller when waiting for reply timed out, break connection if reply is still pending
+    void timeout(CompletableFuture<Object> future, IOException e) {
+        Connection connection;
+        lock.lock();
+        try {
+            connection = this.connection;
+        } finally {
+            lock.unlock();
+        }
+        if (connection != null && connection.pendingReplies.contains(future)) fail(connection, e);
+    }
+
+    private List<CompletableFuture<Object>> write(Connection connection, byte[] request, int commands) throws IOException {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(commands);
+        for (int i = 0; i < commands; i++) {
+            var future = new CompletableFuture<>();
+            connection.pendingReplies.add(future);
+            futures.add(future);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(request);
+            while (buffer.hasRemaining()) {
+                connection.socket.write(buffer);
+            }
+        } catch (IOException e) {
+            fail(connection, e);
+            throw e;
+        }
+        return futures;
+    }
+
+    private Connection connect() throws IOException {
+        logger.debug("connect to redis, host={}", factory.host);
+        SocketChannel socket = SocketChannel.open();
+        try {
+            socket.setOption(StandardSocketOptions.SO_KEEPALIVE, Boolean.TRUE);
+            socket.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+            socket.socket().connect(new InetSocketAddress(factory.host.host, factory.host.port), factory.timeoutInMs);
+        } catch (IOException e) {
+            Pool.closeQuietly(socket);
+            throw e;
+        }
+        var connection = new Connection(socket);
+        Thread.ofVirtual().name("redis-channel-reader").start(() -> read(connection));
+        Thread.ofVirtual().name("redis-channel-heartbeat").start(() -> heartbeat(connection));
+        if (factory.password != null) auth(connection);
+        return connection;
+    }
+
+    private void auth(Connection connection) throws IOException {
+        var request = new ByteArrayOutputStream();
+        var stream = new RedisOutputStream(request, 256);
+        Protocol.writeArray(stream, 2);
+        Protocol.writeBlobString(stream, AUTH);
+        Protocol.writeBlobString(stream, encode(factory.password));
+        stream.flush();
+        CompletableFuture<Object> future = write(connection, request.toByteArray(), 1).get(0);
+        Object reply;
+        try {
+            reply = MultiplexedRedisConnection.await(future, factory.timeoutInMs);
+        } catch (IOException e) {
+            fail(connection, e);
+            throw e;
+        }
+        if (reply instanceof RedisException e) {    // redis returns error (WRONGPASS) if AUTH failed
+            fail(connection, new IOException(e.getMessage()));
+            throw new RedisException(e.getMessage());
+        }
+    }
+
+    private void read(Connection connection) {
+        var stream = new RedisInputStream(Channels.newInputStream(connection.socket));
+        try {
+            while (true) {
+                Object reply;
+                try {
+                    reply = Protocol.read(stream);
+                } catch (RedisException e) {
+                    reply = e;
+                }
+                CompletableFuture<Object> future = connection.pendingReplies.poll();
+                if (future == null) throw new IOException("unexpected reply without pending request");
+                future.complete(reply);
+            }
+        } catch (IOException e) {
+            fail(connection, e);
+        }
+    }
+
+    private void heartbeat(Connection connection) {
+        try {
+            while (true) {
+                Thread.sleep(HEARTBEAT_INTERVAL);
+                if (connection.closed) return;
+                if (!connection.pendingReplies.isEmpty()) continue;    // only check idle connection, busy connection is checked by reply timeout
+                CompletableFuture<Object> future;
+                lock.lock();
+                try {
+                    future = write(connection, PING_REQUEST, 1).getFirst();
+                } finally {
+                    lock.unlock();
+                }
+                MultiplexedRedisConnection.await(future, factory.timeoutInMs);
+            }
+        } catch (IOException e) {
+            fail(connection, e);
+        } catch (InterruptedException e) {
+            // heartbeat thread is not interrupted by channel, ignore
+        }
+    }
+
+    private void fail(Connection connection, IOException e) {
+        lock.lock();
+        try {
+            if (this.connection == connection) this.connection = null;
+        } finally {
+            lock.unlock();
+        }
+        if (connection.closed) return;
+        connection.closed = true;
+        if (!closed) logger.warn(errorCode("REDIS_CONNECTION_BROKEN"), "redis connection is broken, pendingRequests={}, host={}, error={}", connection.pendingReplies.size(), factory.host, e.getMessage(), e);
+        Pool.closeQuietly(connection.socket);
+        while (true) {
+            CompletableFuture<Object> future = connection.pendingReplies.poll();
+            if (future == null) break;
+            future.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        lock.lock();
+        try {
+            closed = true;
+            connection = this.connection;
+        } finally {
+            lock.unlock();
+        }
+        if (connection != null) fail(connection, new IOException("redis channel is closed"));
+    }
+
+    private static final class Connection {
+        final SocketChannel socket;
+        final Queue<CompletableFuture<Object>> pendingReplies = new ConcurrentLinkedQueue<>();
+        volatile boolean closed;
+
+        Connection(SocketChannel socket) {
+            this.socket = socket;
+        }
+    }
+}
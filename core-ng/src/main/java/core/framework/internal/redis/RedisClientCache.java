@@ -0,0 +1,208 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.log.ActionLogContext;
+import core.framework.util.Maps;
+import core.framework.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static core.framework.internal.redis.Protocol.Command.CLIENT;
+import static core.framework.internal.redis.Protocol.Command.HELLO;
+import static core.framework.internal.redis.Protocol.Keyword.BCAST;
+import static core.framework.internal.redis.Protocol.Keyword.ON;
+import static core.framework.internal.redis.Protocol.Keyword.PREFIX;
+import static core.framework.internal.redis.Protocol.Keyword.TRACKING;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * server assisted client side cache, dedicated RESP3 connection enables CLIENT TRACKING in BCAST mode, so redis pushes invalidation of all changed keys matching prefixes,
+ * regardless which connection read them, cache is only used while tracking connection is alive, and cleared on reconnect as invalidations may be lost,
+ * keys written by this client are also invalidated right after write, so read after write doesn't wait for invalidation push
+ *
+ * @author neo
+ */
+public final class RedisClientCache {
+    static final Object ABSENT = new Object();  // marker of nil value
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+
+    final Map<String, Object> values = Maps.newConcurrentHashMap();
+    private final Logger logger = LoggerFactory.getLogger(RedisClientCache.class);
+    private final RedisConnectionFactory connectionFactory;
+    private final int maxSize;
+    private final List<String> prefixes;
+    private final Thread thread;
+    // increased on every invalidation, value loaded before invalidation is not put into cache, to prevent race between read reply and invalidation push
+    private final AtomicLong version = new AtomicLong();
+    volatile boolean available;
+    private volatile boolean stop;
+    private volatile RedisConnection connection;
+
+    RedisClientCache(RedisConnectionFactory connectionFactory, int maxSize, List<String> prefixes) {
+        this.connectionFactory = connectionFactory;
+        this.maxSize = maxSize;
+        this.prefixes = prefixes;
+        thread = Thread.ofVirtual().name("redis-client-cache").unstarted(this::process);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void close() {
+        logger.info("close redis client cache, host={}", connectionFactory.host);
+        stop = true;
+        Pool.closeQuietly(connection);     // close socket to interrupt blocking read
+    }
+
+    boolean tracked(String key) {
+        if (!available) return false;
+        if (prefixes.isEmpty()) return true;
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    // cached value is shared, must be immutable
+    <T> T get(String key, Class<T> valueClass, Function<String, T> loader) {
+        Object value = values.get(key);
+        if (value == ABSENT) {
+            ActionLogContext.stat("redis_client_cache_hits", 1);
+            return null;
+        }
+        if (valueClass.isInstance(value)) {
+            ActionLogContext.stat("redis_client_cache_hits", 1);
+            return valueClass.cast(value);
+        }
+        long version = this.version.get();
+        T result = loader.apply(key);
+        put(key, result == null ? ABSENT : result, version);
+        return result;
+    }
+
+    Map<String, String> multiGet(String[] keys, Function<String[], Map<String, String>> loader) {
+        Map<String, String> cachedValues = Maps.newHashMapWithExpectedSize(keys.length);
+        List<String> missedKeys = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            Object value = tracked(key) ? values.get(key) : null;
+            if (value instanceof String || value == ABSENT) {
+                if (value != ABSENT) cachedValues.put(key, (String) value);
+            } else {
+                missedKeys.add(key);
+            }
+        }
+        int hits = keys.length - missedKeys.size();
+        if (hits > 0) ActionLogContext.stat("redis_client_cache_hits", hits);
+        Map<String, String> loadedValues = Map.of();
+        if (!missedKeys.isEmpty()) {
+            long version = this.version.get();
+            loadedValues = loader.apply(missedKeys.toArray(String[]::new));
+            for (String key : missedKeys) {
+                String value = loadedValues.get(key);
+                if (tracked(key)) put(key, value == null ? ABSENT : value, version);
+            }
+        }
+        Map<String, String> results = Maps.newLinkedHashMapWithExpectedSize(keys.length);     // keep order of keys
+        for (String key : keys) {
+            String value = cachedValues.get(key);
+            if (value == null) value = loadedValues.get(key);
+            if (value != null) results.put(key, value);
+        }
+        return results;
+    }
+
+    void put(String key, Object value, long version) {
+        if (this.version.get() != version) return;
+        if (values.size() >= maxSize) evict();
+        values.put(key, value);
+        if (this.version.get() != version) values.remove(key, value);   // invalidated during put
+    }
+
+    // evict arbitrary entry, hot keys will be loaded back on next read
+    private void evict() {
+        Iterator<String> iterator = values.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    // called after local write
+    void invalidateKeys(String... keys) {
+        version.incrementAndGet();
+        for (String key : keys) {
+            values.remove(key);
+        }
+    }
+
+    void invalidate(Object[] keys) {
+        version.incrementAndGet();
+        if (keys == null) {     // FLUSHDB/FLUSHALL
+            values.clear();
+            return;
+        }
+        for (Object key : keys) {
+            values.remove(decode((byte[]) key));
+        }
+    }
+
+    private void process() {
+        while (!stop) {
+            try {
+                track();
+            } catch (Throwable e) {
+                if (!stop) {
+                    logger.warn(errorCode("REDIS_CLIENT_TRACKING_FAILED"), "failed to track redis keys, client cache is disabled, retry in 10 seconds, error={}", e.getMessage(), e);
+                    Threads.sleepRoughly(Duration.ofSeconds(10));
+                }
+            } finally {
+                available = false;
+                invalidate(null);
+                Pool.closeQuietly(connection);
+                connection = null;
+            }
+        }
+    }
+
+    private void track() throws IOException {
+        RedisConnection connection = connectionFactory.create(connectionFactory.timeoutInMs);
+        this.connection = connection;
+        connection.writeArray(2);
+        connection.writeBlobString(HELLO);
+        connection.writeBlobString(encode(3));
+        connection.flush();
+        connection.read();      // server info in map
+        connection.writeArray(4 + prefixes.size() * 2);
+        connection.writeBlobString(CLIENT);
+        connection.writeBlobString(TRACKING);
+        connection.writeBlobString(ON);
+        connection.writeBlobString(BCAST);
+        for (String prefix : prefixes) {
+            connection.writeBlobString(PREFIX);
+            connection.writeBlobString(encode(prefix));
+        }
+        connection.flush();
+        connection.readSimpleString();
+        connection.heartbeat(HEARTBEAT_INTERVAL);   // PONG reply is ignored, missing reply fails read with timeout, and cache is cleared on reconnect
+        logger.info("enabled redis client tracking, prefixes={}, host={}", prefixes, connectionFactory.host);
+        available = true;
+        while (!stop) {
+            Object reply = connection.read();
+            if (reply instanceof Protocol.Push push && "invalidate".equals(decode((byte[]) push.values()[0]))) {
+                invalidate((Object[]) push.values()[1]);
+            }
+        }
+    }
+}
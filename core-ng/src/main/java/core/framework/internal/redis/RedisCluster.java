@@ -0,0 +1,461 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.internal.resource.PoolItem;
+import core.framework.util.Maps;
+import core.framework.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static core.framework.internal.redis.Protocol.Command.ASKING;
+import static core.framework.internal.redis.Protocol.Command.CLUSTER;
+import static core.framework.internal.redis.Protocol.Keyword.SLOTS;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * route commands by CRC16 hash slot of key to node which serves the slot, each node has its own connection pool,
+ * multi key commands (MGET/MSET/DEL) are split by slot and sent to nodes in parallel, then replies are merged in original order,
+ * MOVED redirect updates slot and refreshes topology, ASK redirect retries once on target node with ASKING,
+ * keyless commands (e.g. INFO, PUBLISH) go to first master, SCAN iterates all masters one by one with cursor "masterIndex:nodeCursor",
+ * so Redis.forEach() sees keys of all nodes, topology is loaded from seed node, or other known nodes if seed is not available
+ *
+ * @author neo
+ */
+public final class RedisCluster {
+    static final int SLOTS_SIZE = 16384;
+    private static final int MAX_REDIRECTS = 5;
+    private static final long MIN_REFRESH_INTERVAL_IN_MS = 1000;
+
+    // refer to https://redis.io/docs/reference/cluster-spec/#hash-tags
+    static int slot(byte[] key) {
+        int from = 0;
+        int to = key.length;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] == '{') {
+                for (int j = i + 1; j < key.length; j++) {
+                    if (key[j] == '}') {
+                        if (j > i + 1) {
+                            from = i + 1;
+                            to = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return crc16(key, from, to) & (SLOTS_SIZE - 1);
+    }
+
+    // CRC16-CCITT (XMODEM), polynomial 0x1021
+    static int crc16(byte[] bytes, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc ^= (bytes[i] & 0xFF) << 8;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RedisCluster.class);
+    private final String name;
+    private final RedisConnectionFactory seed;
+    private final Map<String, Node> nodes = Maps.newConcurrentHashMap();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Node[] slots;
+    private volatile List<Node> masters = List.of();    // in slot order, to iterate nodes by SCAN
+    volatile long lastRefreshTime;
+
+    RedisCluster(String name, RedisConnectionFactory seed) {
+        this.name = name;
+        this.seed = seed;
+    }
+
+    // replies are in order of commands, error reply is returned as RedisException
+    Object[] execute(List<byte[][]> commands) throws IOException {
+        Node[] slots = slots();
+        List<Command> parsedCommands = new ArrayList<>(commands.size());
+        Map<Node, List<Request>> requests = Maps.newLinkedHashMap();
+        for (byte[][] arguments : commands) {
+            Command command = Command.parse(arguments);
+            parsedCommands.add(command);
+            for (Request request : command.requests) {
+                Node node = node(request, slots);
+                if (node == null) {     // SCAN of master which no longer exists after topology changed
+                    request.reply = new Object[]{Strings.bytes("0"), new Object[0]};
+                    continue;
+                }
+                requests.computeIfAbsent(node, key -> new ArrayList<>()).add(request);
+            }
+        }
+        if (!requests.isEmpty()) execute(requests);
+
+        Object[] replies = new Object[commands.size()];
+        for (int i = 0; i < replies.length; i++) {
+            Command command = parsedCommands.get(i);
+            for (Request request : command.requests) {
+                redirect(request);
+            }
+            replies[i] = command.requests[0].scanMaster >= 0 ? scanReply(command) : command.reply();
+        }
+        return replies;
+    }
+
+    private Node node(Request request, Node[] slots) {
+        if (request.slot >= 0 && slots[request.slot] != null) return slots[request.slot];
+        List<Node> masters = this.masters;
+        if (request.scanMaster >= 0) return request.scanMaster < masters.size() ? masters.get(request.scanMaster) : null;
+        return masters.isEmpty() ? node(seed.host) : masters.getFirst();
+    }
+
+    // continue with next master when cursor of current master ends, cursor "0" means all masters are scanned
+    private Object scanReply(Command command) {
+        Object reply = command.reply();
+        if (!(reply instanceof Object[] values)) return reply;     // error
+        String cursor = decode((byte[]) values[0]);
+        int master = command.requests[0].scanMaster;
+        if ("0".equals(cursor)) {
+            if (master + 1 >= masters.size()) return values;
+            cursor = (master + 1) + ":0";
+        } else {
+            cursor = master + ":" + cursor;
+        }
+        return new Object[]{Strings.bytes(cursor), values[1]};
+    }
+
+    // send requests to different nodes in parallel
+    private void execute(Map<Node, List<Request>> requests) throws IOException {
+        if (requests.size() == 1) {
+            Map.Entry<Node, List<Request>> entry = requests.entrySet().iterator().next();
+            execute(entry.getKey(), entry.getValue());
+            return;
+        }
+        List<Thread> threads = new ArrayList<>(requests.size());
+        Throwable[] errors = new Throwable[requests.size()];
+        int index = 0;
+        for (Map.Entry<Node, List<Request>> entry : requests.entrySet()) {
+            int errorIndex = index++;
+            threads.add(Thread.ofVirtual().name("redis-cluster-request").start(() -> {
+                try {
+                    execute(entry.getKey(), entry.getValue());
+                } catch (Throwable e) {
+                    errors[errorIndex] = e;
+                }
+            }));
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("interrupted during waiting for redis replies", e);
+        }
+        for (Throwable error : errors) {
+            if (error instanceof IOException e) throw e;
+            if (error instanceof RuntimeException e) throw e;
+            if (error instanceof Error e) throw e;
+        }
+    }
+
+    private void execute(Node node, List<Request> requests) throws IOException {
+        PoolItem<RedisConnection> item = node.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            for (Request request : requests) {
+                if (request.asking) connection.writeCommand(ASKING);
+                connection.writeArray(request.arguments.length);
+                for (byte[] argument : request.arguments) {
+                    connection.writeBlobString(argument);
+                }
+            }
+            connection.flush();
+            for (Request request : requests) {
+                if (request.asking) read(connection);
+                request.reply = read(connection);
+            }
+        } catch (IOException e) {
+            item.broken = true;
+            refreshTopology(node);
+            throw e;
+        } finally {
+            node.pool.returnItem(item);
+        }
+    }
+
+    // node may be down after master failover, without MOVED reply, reload topology so following requests go to new master without waiting for background refresh
+    private void refreshTopology(Node failedNode) {
+        try {
+            refreshTopology(false);
+        } catch (Throwable e) {
+            logger.warn("failed to refresh redis cluster topology after node failure, node={}, error={}", failedNode.host, e.getMessage(), e);
+        }
+    }
+
+    private Object read(RedisConnection connection) throws IOException {
+        try {
+            return connection.read();
+        } catch (RedisException e) {
+            return e;
+        }
+    }
+
+    private void redirect(Request request) throws IOException {
+        for (int i = 0; i < MAX_REDIRECTS && request.reply instanceof RedisException exception; i++) {
+            String message = exception.getMessage();
+            boolean moved = message.startsWith("MOVED ");
+            if (!moved && !message.startsWith("ASK ")) return;
+
+            String[] parts = message.split(" ");    // e.g. MOVED 3999 127.0.0.1:6381
+            int slot = Integer.parseInt(parts[1]);
+            Node node = node(new RedisHost(parts[2]));
+            logger.debug("redirect, slot={}, node={}, moved={}", slot, node.host, moved);
+            if (moved) {
+                slots()[slot] = node;
+                refreshTopology(false);
+            }
+            request.asking = !moved;
+            execute(node, List.of(request));
+        }
+    }
+
+    private Node[] slots() {
+        Node[] slots = this.slots;
+        if (slots == null) {
+            refreshTopology(true);
+            slots = this.slots;
+        }
+        return slots;
+    }
+
+    // refresh topology and idle connections of all nodes, called by background task
+    public void refresh() {
+        try {
+            refreshTopology(true);
+        } catch (Throwable e) {
+            logger.warn(errorCode("REDIS_CLUSTER_REFRESH_FAILED"), "failed to refresh redis cluster topology, error={}", e.getMessage(), e);
+        }
+        for (Node node : nodes.values()) {
+            node.pool.refresh();
+        }
+    }
+
+    private void refreshTopology(boolean force) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (!force && now - lastRefreshTime < MIN_REFRESH_INTERVAL_IN_MS) return;
+            lastRefreshTime = now;
+            Node source = node(seed.host);
+            Object[] ranges;
+            try {
+                ranges = clusterSlots(source);
+            } catch (UncheckedIOException | RedisException e) {     // seed may be down or failed over, try other known nodes
+                logger.warn("failed to load redis cluster topology from seed, try other nodes, seed={}, error={}", seed.host, e.getMessage(), e);
+                ranges = null;
+                for (Node node : nodes.values()) {
+                    if (node == source) continue;
+                    try {
+                        ranges = clusterSlots(node);
+                        source = node;
+                        break;
+                    } catch (UncheckedIOException | RedisException error) {
+                        logger.warn("failed to load redis cluster topology, node={}, error={}", node.host, error.getMessage(), error);
+                    }
+                }
+                if (ranges == null) throw e;
+            }
+            var slots = new Node[SLOTS_SIZE];
+            List<Node> masters = new ArrayList<>();
+            for (Object range : ranges) {
+                Object[] values = (Object[]) range;     // [start, end, [host, port, id], replicas...]
+                Object[] master = (Object[]) values[2];
+                String host = decode((byte[]) master[0]);
+                if (host.isEmpty()) host = source.host.host;    // redis returns empty host if endpoint is unknown
+                Node node = node(new RedisHost(host + ":" + master[1]));
+                if (!masters.contains(node)) masters.add(node);
+                int start = ((Long) values[0]).intValue();
+                int end = ((Long) values[1]).intValue();
+                for (int slot = start; slot <= end; slot++) {
+                    slots[slot] = node;
+                }
+            }
+            logger.info("refresh redis cluster topology, node={}, ranges={}", source.host, ranges.length);
+            this.masters = masters;     // set before slots, as slots is checked to load topology
+            this.slots = slots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object[] clusterSlots(Node node) {
+        PoolItem<RedisConnection> item = node.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(2);
+            connection.writeBlobString(CLUSTER);
+            connection.writeBlobString(SLOTS);
+            connection.flush();
+            return connection.readArray();
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            node.pool.returnItem(item);
+        }
+    }
+
+    // key is always host:port, as RedisHost.toString() omits default port, while redis replies address with port
+    private Node node(RedisHost host) {
+        return nodes.computeIfAbsent(host.host + ":" + host.port, key -> {
+            var factory = new RedisConnectionFactory();
+            factory.host = host;
+            factory.password = seed.password;
+            factory.timeoutInMs = seed.timeoutInMs;
+            var pool = new Pool<RedisConnection>(factory, name + "-" + key);
+            pool.size(1, 50);
+            pool.maxIdleTime = Duration.ofMinutes(30);
+            pool.checkoutTimeout(Duration.ofMillis(seed.timeoutInMs));
+            return new Node(factory.host, pool);
+        });
+    }
+
+    void close() {
+        for (Node node : nodes.values()) {
+            node.pool.close();
+        }
+    }
+
+    record Node(RedisHost host, Pool<RedisConnection> pool) {
+    }
+
+    static final class Request {
+        final byte[][] arguments;
+        final int slot;     // -1 for keyless command
+        int scanMaster = -1;    // index of master to send SCAN
+        Object reply;
+        boolean asking;
+
+        Request(byte[][] arguments, int slot) {
+            this.arguments = arguments;
+            this.slot = slot;
+        }
+    }
+
+    static final class Command {
+        static Command parse(byte[][] arguments) {
+            String name = new String(arguments[0], StandardCharsets.US_ASCII).toUpperCase();
+            return switch (name) {
+                case "MGET", "DEL" -> split(name, arguments, 1);
+                case "MSET" -> split(name, arguments, 2);
+                case "SCAN" -> scan(arguments);
+                case "INFO", "PUBLISH" -> new Command(name, new Request[]{new Request(arguments, -1)}, null);
+                case "EVAL", "EVALSHA" -> {     // all keys of script must be in same slot, routed by first key, keyless script goes to seed node
+                    boolean hasKey = arguments.length > 3 && !"0".equals(new String(arguments[2], StandardCharsets.US_ASCII));
+                    yield new Command(name, new Request[]{new Request(arguments, hasKey ? slot(arguments[3]) : -1)}, null);
+                }
+                case "XGROUP" -> new Command(name, new Request[]{new Request(arguments, slot(arguments[2]))}, null);     // XGROUP CREATE key ...
+                case "XREADGROUP" -> new Command(name, new Request[]{new Request(arguments, slot(arguments[streamKeyIndex(arguments)]))}, null);
+                default -> new Command(name, new Request[]{new Request(arguments, arguments.length > 1 ? slot(arguments[1]) : -1)}, null);
+            };
+        }
+
+        // cursor of cluster is "masterIndex:nodeCursor", "0" is to start from first master
+        private static Command scan(byte[][] arguments) {
+            String cursor = new String(arguments[1], StandardCharsets.US_ASCII);
+            int index = cursor.indexOf(':');
+            byte[][] requestArguments = arguments.clone();
+            int master = 0;
+            if (index > 0) {
+                master = Integer.parseInt(cursor.substring(0, index));
+                requestArguments[1] = Strings.bytes(cursor.substring(index + 1));
+            }
+            var request = new Request(requestArguments, -1);
+            request.scanMaster = master;
+            return new Command("SCAN", new Request[]{request}, null);
+        }
+
+        // all streams of XREADGROUP must be in same slot, routed by first key after STREAMS
+        private static int streamKeyIndex(byte[][] arguments) {
+            for (int i = 1; i < arguments.length - 1; i++) {
+                if ("STREAMS".equalsIgnoreCase(new String(arguments[i], StandardCharsets.US_ASCII))) return i + 1;
+            }
+            throw new Error("invalid XREADGROUP command, STREAMS is missing");
+        }
+
+        // group keys by slot, step is 2 for key value pairs
+        private static Command split(String name, byte[][] arguments, int step) {
+            Map<Integer, List<Integer>> keyIndexes = Maps.newLinkedHashMap();
+            for (int i = 1; i < arguments.length; i += step) {
+                keyIndexes.computeIfAbsent(slot(arguments[i]), key -> new ArrayList<>()).add(i);
+            }
+            if (keyIndexes.size() == 1) {
+                return new Command(name, new Request[]{new Request(arguments, keyIndexes.keySet().iterator().next())}, null);
+            }
+            var requests = new Request[keyIndexes.size()];
+            var positions = new int[keyIndexes.size()][];
+            int index = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : keyIndexes.entrySet()) {
+                List<Integer> indexes = entry.getValue();
+                byte[][] requestArguments = new byte[1 + indexes.size() * step][];
+                requestArguments[0] = arguments[0];
+                positions[index] = new int[indexes.size()];
+                for (int i = 0; i < indexes.size(); i++) {
+                    int keyIndex = indexes.get(i);
+                    System.arraycopy(arguments, keyIndex, requestArguments, 1 + i * step, step);
+                    positions[index][i] = (keyIndex - 1) / step;
+                }
+                requests[index++] = new Request(requestArguments, entry.getKey());
+            }
+            return new Command(name, requests, positions);
+        }
+
+        final String name;
+        final Request[] requests;
+        final int[][] positions;    // original key positions of each request if split
+
+        Command(String name, Request[] requests, int[][] positions) {
+            this.name = name;
+            this.requests = requests;
+            this.positions = positions;
+        }
+
+        Object reply() {
+            if (positions == null) return requests[0].reply;
+            for (Request request : requests) {
+                if (request.reply instanceof RedisException) return request.reply;
+            }
+            return switch (name) {
+                case "MGET" -> {
+                    int size = 0;
+                    for (int[] position : positions) size += position.length;
+                    var values = new Object[size];
+                    for (int i = 0; i < requests.length; i++) {
+                        Object[] reply = (Object[]) requests[i].reply;
+                        for (int j = 0; j < reply.length; j++) {
+                            values[positions[i][j]] = reply[j];
+                        }
+                    }
+                    yield values;
+                }
+                case "DEL" -> {
+                    long deleted = 0;
+                    for (Request request : requests) deleted += (Long) request.reply;
+                    yield deleted;
+                }
+                default -> requests[0].reply;   // MSET replies OK
+            };
+        }
+    }
+}
@@ -3,15 +3,20 @@ package core.framework.internal.redis;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.time.Duration;
 
+import static core.framework.internal.redis.Protocol.Command.PING;
 import static core.framework.internal.redis.RedisEncodings.encode;
 
 /**
+ * blocking connection with dedicated socket, MultiplexedRedisConnection overrides flush/read to share channel
+ *
  * @author neo
  */
 class RedisConnection implements AutoCloseable {
     RedisOutputStream outputStream;
     RedisInputStream inputStream;
+    RedisHost host;     // connected host, to tell which replica the connection belongs to
     private Socket socket;
 
     void connect(String host, int port, int timeoutInMs) throws IOException {
@@ -26,6 +31,26 @@ class RedisConnection implements AutoCloseable {
         inputStream = new RedisInputStream(socket.getInputStream());
     }
 
+    void timeout(int timeoutInMs) throws IOException {
+        socket.setSoTimeout(timeoutInMs);
+    }
+
+    // for connection waiting for pushed messages, e.g. subscriber, send PING periodically and read with timeout of 3 intervals,
+    // so silently broken connection is detected by missing reply, instead of waiting for tcp keepalive which may take minutes
+    void heartbeat(Duration interval) throws IOException {
+        socket.setSoTimeout((int) interval.toMillis() * 3);
+        Thread.ofVirtual().name("redis-heartbeat").start(() -> {
+            try {
+                while (!socket.isClosed()) {
+                    Thread.sleep(interval);
+                    writeCommand(PING);     // reply is ignored by reader, any received data resets read timeout
+                }
+            } catch (IOException | InterruptedException e) {
+                // connection is closed, reader fails on next read and reconnects
+            }
+        });
+    }
+
     void writeCommand(byte[] command) throws IOException {
         writeArray(1);
         writeBlobString(command);
@@ -92,20 +117,41 @@ class RedisConnection implements AutoCloseable {
         if (socket != null) socket.close();
     }
 
+    Object read() throws IOException {
+        return Protocol.read(inputStream);
+    }
+
     String readSimpleString() throws IOException {
-        return (String) Protocol.read(inputStream);
+        return (String) read();
     }
 
     byte[] readBlobString() throws IOException {
-        return (byte[]) Protocol.read(inputStream);
+        return (byte[]) read();
+    }
+
+    // decode from read buffer directly to avoid copying large value, return null if value is nil
+    <T> T readBlobString(RedisBlobDecoder<T> decoder) throws IOException {
+        return Protocol.readBlobString(inputStream, decoder);
+    }
+
+    Object[] readBlobStrings(RedisBlobDecoder<?> decoder) throws IOException {
+        return Protocol.readBlobStrings(inputStream, decoder);
+    }
+
+    // for connections which read replies as parsed objects
+    static Object[] decode(Object[] values, RedisBlobDecoder<?> decoder) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof byte[] value) values[i] = decoder.decode(value, 0, value.length);
+        }
+        return values;
     }
 
     long readLong() throws IOException {
-        return (long) Protocol.read(inputStream);
+        return (long) read();
     }
 
     Object[] readArray() throws IOException {
-        return (Object[]) Protocol.read(inputStream);
+        return (Object[]) read();
     }
 
     Object[] readAll(int size) throws IOException {
@@ -113,7 +159,7 @@ class RedisConnection implements AutoCloseable {
         Object[] results = new Object[size];
         for (int i = 0; i < size; i++) {
             try {
-                results[i] = Protocol.read(inputStream);
+                results[i] = read();
             } catch (RedisException e) {
                 exception = e;
             }
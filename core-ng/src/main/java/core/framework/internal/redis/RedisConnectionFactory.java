@@ -5,6 +5,7 @@ import core.framework.internal.resource.Pool;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static core.framework.internal.redis.Protocol.Command.AUTH;
@@ -17,14 +18,45 @@ class RedisConnectionFactory implements Supplier<RedisConnection> {
     String password;
     int timeoutInMs = (int) Duration.ofSeconds(5).toMillis();
 
+    RedisChannel[] channels;    // shared channels in multiplex mode
+    RedisCluster cluster;
+    private final AtomicInteger nextChannel = new AtomicInteger();
+
     @Override
     public RedisConnection get() {
+        if (cluster != null) return new ClusterRedisConnection(cluster);
+        if (channels != null) {
+            RedisChannel channel = channels[Math.floorMod(nextChannel.getAndIncrement(), channels.length)];
+            return new MultiplexedRedisConnection(channel, timeoutInMs);
+        }
         return create(timeoutInMs);
     }
 
+    void multiplex(int connections) {
+        if (connections <= 0) throw new Error("connections must be greater than 0, connections=" + connections);
+        channels = new RedisChannel[connections];
+        for (int i = 0; i < connections; i++) {
+            channels[i] = new RedisChannel(this);
+        }
+    }
+
+    void close() {
+        if (cluster != null) cluster.close();
+        if (channels != null) {
+            for (RedisChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
     RedisConnection create(int timeoutInMs) {
+        return create(host, timeoutInMs);
+    }
+
+    RedisConnection create(RedisHost host, int timeoutInMs) {
         if (host == null) throw new Error("redis host must not be null");
         var connection = new RedisConnection(); // this won't throw exception
+        connection.host = host;
         try {
             connection.connect(host.host, host.port, timeoutInMs);
             if (password != null) {
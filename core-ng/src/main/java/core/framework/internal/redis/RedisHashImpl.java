@@ -12,13 +12,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static core.framework.internal.redis.Protocol.Command.HDEL;
 import static core.framework.internal.redis.Protocol.Command.HGET;
 import static core.framework.internal.redis.Protocol.Command.HGETALL;
 import static core.framework.internal.redis.Protocol.Command.HINCRBY;
 import static core.framework.internal.redis.Protocol.Command.HMSET;
+import static core.framework.internal.redis.Protocol.Command.HSCAN;
 import static core.framework.internal.redis.Protocol.Command.HSET;
 import static core.framework.internal.redis.RedisEncodings.decode;
 import static core.framework.internal.redis.RedisEncodings.encode;
@@ -41,7 +44,7 @@ public final class RedisHashImpl implements RedisHash {
         validate("key", key);
         validate("field", field);
         String value = null;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyArgumentCommand(HGET, key, encode(field));
@@ -51,7 +54,7 @@ public final class RedisHashImpl implements RedisHash {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("hget, key={}, field={}, returnedValue={}, elapsed={}", key, field, value, elapsed);
             ActionLogContext.track("redis", elapsed, 1, 0);
@@ -60,9 +63,23 @@ public final class RedisHashImpl implements RedisHash {
 
     @Override
     public Map<String, String> getAll(String key) {
-        var watch = new StopWatch();
         validate("key", key);
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        RedisClientCache clientCache = redis.clientCache;
+        if (clientCache != null && clientCache.tracked(key)) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> values = clientCache.get(key, Map.class, this::getAllAsImmutable);
+            return new HashMap<>(values);   // cached map is shared
+        }
+        return getAllFromServer(key);
+    }
+
+    private Map<String, String> getAllAsImmutable(String key) {
+        return Map.copyOf(getAllFromServer(key));
+    }
+
+    private Map<String, String> getAllFromServer(String key) {
+        var watch = new StopWatch();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         Map<String, String> values = null;
         try {
             RedisConnection connection = item.resource;
@@ -78,7 +95,7 @@ public final class RedisHashImpl implements RedisHash {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("hgetAll, key={}, returnedValues={}, elapsed={}", key, values, elapsed);
             int readEntries = values == null ? 0 : values.size();
@@ -86,6 +103,17 @@ public final class RedisHashImpl implements RedisHash {
         }
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Map<String, String>> consumer) {
+        redis.scan(HSCAN, key, batchSize, elements -> {
+            Map<String, String> values = Maps.newHashMapWithExpectedSize(elements.length / 2);
+            for (int i = 0; i < elements.length; i += 2) {
+                values.put(decode((byte[]) elements[i]), decode((byte[]) elements[i + 1]));
+            }
+            consumer.accept(values);
+        });
+    }
+
     @Override
     public void set(String key, String field, String value) {
         var watch = new StopWatch();
@@ -107,6 +135,7 @@ public final class RedisHashImpl implements RedisHash {
             throw new UncheckedIOException(e);
         } finally {
             redis.pool.returnItem(item);
+            redis.invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("hset, key={}, field={}, value={}, elapsed={}", key, field, value, elapsed);
             ActionLogContext.track("redis", elapsed, 0, 1);
@@ -135,6 +164,7 @@ public final class RedisHashImpl implements RedisHash {
             throw new UncheckedIOException(e);
         } finally {
             redis.pool.returnItem(item);
+            redis.invalidateClientCache(key);
             long elapsed = watch.elapsed();
             int size = values.size();
             logger.debug("hmset, key={}, values={}, size={}, elapsed={}", key, new FieldMapLogParam(values), size, elapsed);
@@ -159,6 +189,7 @@ public final class RedisHashImpl implements RedisHash {
             throw new UncheckedIOException(e);
         } finally {
             redis.pool.returnItem(item);
+            redis.invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("hincrby, key={}, field={}, increment={}, returnedValue={}, elapsed={}", key, field, increment, value, elapsed);
             ActionLogContext.track("redis", elapsed, 0, 1);
@@ -182,6 +213,7 @@ public final class RedisHashImpl implements RedisHash {
             throw new UncheckedIOException(e);
         } finally {
             redis.pool.returnItem(item);
+            redis.invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("hdel, key={}, fields={}, size={}, deletedFields={}, elapsed={}", key, new ArrayLogParam(fields), fields.length, deletedFields, elapsed);
             ActionLogContext.track("redis", elapsed, 0, (int) deletedFields);
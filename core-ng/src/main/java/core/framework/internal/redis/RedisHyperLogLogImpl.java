@@ -52,7 +52,7 @@ public class RedisHyperLogLogImpl implements RedisHyperLogLog {
         var watch = new StopWatch();
         validate("keys", keys);
         long count = 0;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeysCommand(PFCOUNT, keys);
@@ -62,7 +62,7 @@ public class RedisHyperLogLogImpl implements RedisHyperLogLog {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("pfcount, keys={}, returnedValue={}, elapsed={}", keys, count, elapsed);
             ActionLogContext.track("redis", elapsed, 1, 0);
@@ -12,8 +12,12 @@ import core.framework.redis.RedisAdmin;
 import core.framework.redis.RedisHash;
 import core.framework.redis.RedisHyperLogLog;
 import core.framework.redis.RedisList;
+import core.framework.redis.RedisPipeline;
+import core.framework.redis.RedisReadPolicy;
+import core.framework.redis.RedisScript;
 import core.framework.redis.RedisSet;
 import core.framework.redis.RedisSortedSet;
+import core.framework.redis.RedisStream;
 import core.framework.util.Maps;
 import core.framework.util.StopWatch;
 import org.slf4j.Logger;
@@ -22,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -32,6 +37,7 @@ import static core.framework.internal.redis.Protocol.Command.MGET;
 import static core.framework.internal.redis.Protocol.Command.MSET;
 import static core.framework.internal.redis.Protocol.Command.PEXPIRE;
 import static core.framework.internal.redis.Protocol.Command.PTTL;
+import static core.framework.internal.redis.Protocol.Command.PUBLISH;
 import static core.framework.internal.redis.Protocol.Command.SCAN;
 import static core.framework.internal.redis.Protocol.Command.SET;
 import static core.framework.internal.redis.Protocol.Keyword.COUNT;
@@ -54,9 +60,13 @@ public final class RedisImpl implements Redis {
     private final RedisList redisList = new RedisListImpl(this);
     private final RedisSortedSet redisSortedSet = new RedisSortedSetImpl(this);
     private final RedisHyperLogLog redisHyperLogLog = new RedisHyperLogLogImpl(this);
+    private final RedisStream redisStream = new RedisStreamImpl(this);
     private final RedisAdmin redisAdmin = new RedisAdminImpl(this);
+    private final Map<String, RedisScript> scripts = Maps.newConcurrentHashMap();  // registered scripts by sha1 digest
     private final String name;
     public Pool<RedisConnection> pool;
+    Pool<RedisConnection> replicaPool;  // read only commands go to replica pool if configured
+    RedisClientCache clientCache;
 
     public RedisImpl(String name) {
         this.name = name;
@@ -77,23 +87,83 @@ public final class RedisImpl implements Redis {
     public void timeout(Duration timeout) {
         connectionFactory.timeoutInMs = (int) timeout.toMillis();
         pool.checkoutTimeout(timeout);
+        if (replicaPool != null) replicaPool.checkoutTimeout(timeout);
+    }
+
+    // return null if policy is primary, replica connections are always dedicated, not multiplexed
+    public Pool<RedisConnection> replicas(List<String> hosts, RedisReadPolicy policy) {
+        if (connectionFactory.cluster != null) throw new Error("cluster mode does not support replicas, cluster routes reads by slot");
+        if (clientCache != null) throw new Error("client cache does not support replicas, invalidation is tracked by primary");
+        if (hosts.isEmpty()) throw new Error("replica hosts must not be empty");
+        if (policy == RedisReadPolicy.PRIMARY) return null;
+        var factory = new RedisReplicaConnectionFactory(connectionFactory, hosts, policy);
+        replicaPool = new Pool<>(factory, name + "-replica") {
+            @Override
+            public void returnItem(PoolItem<RedisConnection> item) {
+                factory.returned(item);
+                super.returnItem(item);
+            }
+        };
+        replicaPool.size(5, 50);
+        replicaPool.maxIdleTime = Duration.ofMinutes(30);
+        replicaPool.checkoutTimeout(Duration.ofMillis(connectionFactory.timeoutInMs));
+        return replicaPool;
+    }
+
+    Pool<RedisConnection> readPool() {
+        return replicaPool != null ? replicaPool : pool;
+    }
+
+    // share few sockets among all callers, pool only holds lightweight connections, so pool size is not limited by socket count
+    public void multiplex(int connections) {
+        if (connectionFactory.cluster != null) throw new Error("cluster mode does not support multiplex");
+        connectionFactory.multiplex(connections);
+        pool.size(1, 10_000);
+    }
+
+    // host is used as seed node to discover cluster topology, pool only holds lightweight connections, each node has its own pool
+    public RedisCluster cluster() {
+        if (connectionFactory.channels != null) throw new Error("cluster mode does not support multiplex");
+        if (replicaPool != null) throw new Error("cluster mode does not support replicas, cluster routes reads by slot");
+        if (clientCache != null) throw new Error("cluster mode does not support client cache");
+        var cluster = new RedisCluster(name, connectionFactory);
+        connectionFactory.cluster = cluster;
+        pool.size(1, 10_000);
+        return cluster;
+    }
+
+    // get/multiGet/hash().getAll of keys matching prefixes are cached locally and invalidated by server push, empty prefixes means all keys
+    public RedisClientCache clientCache(int maxSize, List<String> prefixes) {
+        if (connectionFactory.cluster != null) throw new Error("cluster mode does not support client cache");
+        if (replicaPool != null) throw new Error("client cache does not support replicas, invalidation is tracked by primary");
+        if (maxSize <= 0) throw new Error("maxSize must be greater than 0, maxSize=" + maxSize);
+        clientCache = new RedisClientCache(connectionFactory, maxSize, prefixes);
+        return clientCache;
     }
 
     public void close() {
         logger.info("close redis client, name={}, host={}", name, connectionFactory.host);
         pool.close();
+        if (replicaPool != null) replicaPool.close();
+        connectionFactory.close();
     }
 
     @Override
     public String get(String key) {
         validate("key", key);   // only validate on interface methods, internal usage will be checked by caller
+        RedisClientCache clientCache = this.clientCache;
+        if (clientCache != null && clientCache.tracked(key)) return clientCache.get(key, String.class, this::getString);
+        return getString(key);
+    }
+
+    private String getString(String key) {
         return decode(getBytes(key));
     }
 
     public byte[] getBytes(String key) {
         var watch = new StopWatch();
         byte[] value = null;
-        PoolItem<RedisConnection> item = pool.borrowItem();
+        PoolItem<RedisConnection> item = readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyCommand(GET, key);
@@ -103,13 +173,98 @@ public final class RedisImpl implements Redis {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            pool.returnItem(item);
+            readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("get, key={}, returnedValue={}, elapsed={}", key, new BytesLogParam(value), elapsed);
             ActionLogContext.track("redis", elapsed, 1, 0);
         }
     }
 
+    // decode value from connection buffer directly, to avoid allocating and copying large value, e.g. cache value, return null if decoded value is null
+    public <T> T get(String key, RedisBlobDecoder<T> decoder) {
+        var watch = new StopWatch();
+        T value = null;
+        PoolItem<RedisConnection> item = readPool().borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeKeyCommand(GET, key);
+            value = connection.readBlobString(decoder);
+            return value;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            readPool().returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("get, key={}, decoded={}, elapsed={}", key, value != null, elapsed);
+            ActionLogContext.track("redis", elapsed, 1, 0);
+        }
+    }
+
+    // get value and remaining ttl in one round trip, ttl is -1 if key has no expiration, refer to PTTL
+    public ValueWithTTL<byte[]> getBytesWithTTL(String key) {
+        var watch = new StopWatch();
+        byte[] value = null;
+        long ttl = 0;
+        PoolItem<RedisConnection> item = readPool().borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(2);
+            connection.writeBlobString(GET);
+            connection.writeBlobString(encode(key));
+            connection.writeArray(2);
+            connection.writeBlobString(PTTL);
+            connection.writeBlobString(encode(key));
+            connection.flush();
+            Object[] results = connection.readAll(2);
+            value = (byte[]) results[0];
+            ttl = (Long) results[1];
+            return value == null ? null : new ValueWithTTL<>(value, ttl);
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            readPool().returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("get, key={}, returnedValue={}, ttl={}, elapsed={}", key, new BytesLogParam(value), ttl, elapsed);
+            ActionLogContext.track("redis", elapsed, value == null ? 0 : 1, 0);
+        }
+    }
+
+    public <T> ValueWithTTL<T> getWithTTL(String key, RedisBlobDecoder<T> decoder) {
+        var watch = new StopWatch();
+        T value = null;
+        long ttl = 0;
+        PoolItem<RedisConnection> item = readPool().borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(2);
+            connection.writeBlobString(GET);
+            connection.writeBlobString(encode(key));
+            connection.writeArray(2);
+            connection.writeBlobString(PTTL);
+            connection.writeBlobString(encode(key));
+            connection.flush();
+            RedisException exception = null;
+            try {
+                value = connection.readBlobString(decoder);
+            } catch (RedisException e) {
+                exception = e;  // read all replies before throwing, to keep connection usable
+            }
+            ttl = connection.readLong();
+            if (exception != null) throw exception;
+            return value == null ? null : new ValueWithTTL<>(value, ttl);
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            readPool().returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("get, key={}, decoded={}, ttl={}, elapsed={}", key, value != null, ttl, elapsed);
+            ActionLogContext.track("redis", elapsed, value == null ? 0 : 1, 0);
+        }
+    }
+
     @Override
     public RedisSet set() {
         return redisSet;
@@ -148,6 +303,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("set, key={}, value={}, expiration={}, onlyIfAbsent={}, updated={}, elapsed={}", key, new BytesLogParam(value), expiration, onlyIfAbsent, updated, elapsed);
             int writeEntries = updated ? 1 : 0;
@@ -169,6 +325,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("pexpire, key={}, expiration={}, elapsed={}", key, expiration, elapsed);
             ActionLogContext.track("redis", elapsed, 0, 1);
@@ -191,6 +348,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(keys);
             long elapsed = watch.elapsed();
             logger.debug("del, keys={}, size={}, deletedKeys={}, elapsed={}", new ArrayLogParam(keys), keys.length, deletedKeys, elapsed);
             ActionLogContext.track("redis", elapsed, 0, (int) deletedKeys);
@@ -213,6 +371,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(key);
             long elapsed = watch.elapsed();
             logger.debug("incrby, key={}, increment={}, returnedValue={}, elapsed={}", key, increment, value, elapsed);
             ActionLogContext.track("redis", elapsed, 0, 1);
@@ -221,6 +380,15 @@ public final class RedisImpl implements Redis {
 
     @Override
     public Map<String, String> multiGet(String... keys) {
+        RedisClientCache clientCache = this.clientCache;
+        if (clientCache != null) {
+            validate("keys", keys);
+            return clientCache.multiGet(keys, this::multiGetString);
+        }
+        return multiGetString(keys);
+    }
+
+    private Map<String, String> multiGetString(String... keys) {
         Map<String, byte[]> values = multiGetBytes(keys);
         Map<String, String> result = Maps.newLinkedHashMapWithExpectedSize(values.size());
         for (Map.Entry<String, byte[]> entry : values.entrySet()) {
@@ -233,7 +401,7 @@ public final class RedisImpl implements Redis {
         var watch = new StopWatch();
         validate("keys", keys);
         Map<String, byte[]> values = Maps.newLinkedHashMapWithExpectedSize(keys.length);
-        PoolItem<RedisConnection> item = pool.borrowItem();
+        PoolItem<RedisConnection> item = readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeysCommand(MGET, keys);
@@ -247,13 +415,40 @@ public final class RedisImpl implements Redis {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            pool.returnItem(item);
+            readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("mget, keys={}, size={}, returnedValues={}, elapsed={}", new ArrayLogParam(keys), keys.length, new BytesMapLogParam(values), elapsed);
             ActionLogContext.track("redis", elapsed, values.size(), 0);
         }
     }
 
+    // values decoded as null are skipped
+    public <T> Map<String, T> multiGet(String[] keys, RedisBlobDecoder<T> decoder) {
+        var watch = new StopWatch();
+        validate("keys", keys);
+        Map<String, T> values = Maps.newHashMapWithExpectedSize(keys.length);
+        PoolItem<RedisConnection> item = readPool().borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeKeysCommand(MGET, keys);
+            Object[] response = connection.readBlobStrings(decoder);
+            for (int i = 0; i < response.length; i++) {
+                @SuppressWarnings("unchecked")
+                T value = (T) response[i];
+                if (value != null) values.put(keys[i], value);
+            }
+            return values;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            readPool().returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("mget, keys={}, size={}, decodedSize={}, elapsed={}", new ArrayLogParam(keys), keys.length, values.size(), elapsed);
+            ActionLogContext.track("redis", elapsed, values.size(), 0);
+        }
+    }
+
     @Override
     public void multiSet(Map<String, String> values) {
         var watch = new StopWatch();
@@ -274,6 +469,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(values.keySet().toArray(String[]::new));
             long elapsed = watch.elapsed();
             int size = values.size();
             logger.debug("mset, values={}, size={}, elapsed={}", new FieldMapLogParam(values), size, elapsed);
@@ -304,6 +500,7 @@ public final class RedisImpl implements Redis {
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
+            invalidateClientCache(values.keySet().toArray(String[]::new));
             long elapsed = watch.elapsed();
             logger.debug("set, values={}, size={}, expiration={}, elapsed={}", new BytesMapLogParam(values), size, expiration, elapsed);
             ActionLogContext.track("redis", elapsed, 0, size);
@@ -331,7 +528,7 @@ public final class RedisImpl implements Redis {
         if (pattern == null) throw new Error("pattern must not be null");
         long start = System.nanoTime();
         long redisTook = 0;
-        PoolItem<RedisConnection> item = pool.borrowItem();
+        PoolItem<RedisConnection> item = readPool().borrowItem();
         int returnedKeys = 0;
         try {
             RedisConnection connection = item.resource;
@@ -360,13 +557,53 @@ public final class RedisImpl implements Redis {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            pool.returnItem(item);
+            readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("scan, pattern={}, returnedKeys={}, redisTook={}, elapsed={}", pattern, returnedKeys, redisTook, elapsed);
             ActionLogContext.track("redis", redisTook, returnedKeys, 0);
         }
     }
 
+    // iterate elements of collection by HSCAN/SSCAN/ZSCAN, consumer is called with flat elements of each batch, e.g. [field, value, ...] for hash
+    void scan(byte[] command, String key, int batchSize, Consumer<Object[]> consumer) {
+        var watch = new StopWatch();
+        validate("key", key);
+        if (batchSize <= 0) throw new Error("batchSize must be greater than 0, batchSize=" + batchSize);
+        long start = System.nanoTime();
+        long redisTook = 0;
+        PoolItem<RedisConnection> item = readPool().borrowItem();
+        int returnedElements = 0;
+        try {
+            RedisConnection connection = item.resource;
+            byte[] count = encode(batchSize);
+            String cursor = "0";
+            do {
+                connection.writeArray(5);
+                connection.writeBlobString(command);
+                connection.writeBlobString(encode(key));
+                connection.writeBlobString(encode(cursor));
+                connection.writeBlobString(COUNT);
+                connection.writeBlobString(count);
+                connection.flush();
+                Object[] response = connection.readArray();
+                cursor = decode((byte[]) response[0]);
+                Object[] elements = (Object[]) response[1];
+                returnedElements += elements.length;
+                redisTook += System.nanoTime() - start;
+                if (elements.length > 0) consumer.accept(elements);
+                start = System.nanoTime();
+            } while (!"0".equals(cursor));
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            readPool().returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("{}, key={}, batchSize={}, returnedElements={}, redisTook={}, elapsed={}", decode(command).toLowerCase(), key, batchSize, returnedElements, redisTook, elapsed);
+            ActionLogContext.track("redis", redisTook, returnedElements, 0);
+        }
+    }
+
     @Override
     public RedisAdmin admin() {
         return redisAdmin;
@@ -377,11 +614,28 @@ public final class RedisImpl implements Redis {
         return redisHyperLogLog;
     }
 
+    @Override
+    public RedisStream stream() {
+        return redisStream;
+    }
+
+    @Override
+    public RedisScript script(String script) {
+        if (script == null || script.isBlank()) throw new Error("script must not be blank");
+        var redisScript = new RedisScriptImpl(this, script);
+        return scripts.computeIfAbsent(redisScript.sha, key -> redisScript);
+    }
+
+    @Override
+    public RedisPipeline pipeline() {
+        return new RedisPipelineImpl(this);
+    }
+
     public long[] expirationTime(String... keys) {
         var watch = new StopWatch();
         int size = keys.length;
         long[] expirationTimes = null;
-        PoolItem<RedisConnection> item = pool.borrowItem();
+        PoolItem<RedisConnection> item = readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             for (String key : keys) {
@@ -401,16 +655,45 @@ public final class RedisImpl implements Redis {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            pool.returnItem(item);
+            readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("pttl,  keys={}, size={}, returnedValues={}, elapsed={}", new ArrayLogParam(keys), size, expirationTimes, elapsed);
             ActionLogContext.track("redis", elapsed, size, 0);
         }
     }
 
+    public long publish(String channel, byte[] message) {
+        var watch = new StopWatch();
+        long receivers = 0;
+        PoolItem<RedisConnection> item = pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeKeyArgumentCommand(PUBLISH, channel, message);
+            receivers = connection.readLong();
+            return receivers;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("publish, channel={}, message={}, receivers={}, elapsed={}", channel, new BytesLogParam(message), receivers, elapsed);
+            ActionLogContext.track("redis", elapsed, 0, 1);
+        }
+    }
+
     private byte[] expirationValue(Duration expiration) {
         long expirationTime = expiration.toMillis();
         if (expirationTime <= 0) throw new Error("expiration time must be longer than 0ms");
         return encode(expirationTime);
     }
+
+    // invalidate synchronously after write, so following read on this node won't get stale value before redis pushes invalidation
+    void invalidateClientCache(String... keys) {
+        RedisClientCache clientCache = this.clientCache;
+        if (clientCache != null) clientCache.invalidateKeys(keys);
+    }
+
+    public record ValueWithTTL<T>(T value, long ttl) {
+    }
 }
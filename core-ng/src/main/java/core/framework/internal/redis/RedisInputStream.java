@@ -2,12 +2,15 @@ package core.framework.internal.redis;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * refer to jedis impl, https://github.com/xetorthio/jedis/blob/master/src/main/java/redis/clients/util/RedisInputStream.java
  * @author neo
  */
 class RedisInputStream {
+    private static final RedisBufferPool BUFFERS = new RedisBufferPool(8);
+
     private final InputStream stream;
     private final byte[] buffer = new byte[8192];
     private int position;
@@ -23,6 +26,14 @@ class RedisInputStream {
     }
 
     String readSimpleString() throws IOException {
+        for (int i = position; i < limit - 1; i++) {    // fast path, string and CRLF are all in buffer
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                if (i == position) throw new IOException("simple string must not be empty");
+                String response = new String(buffer, position, i - position, StandardCharsets.UTF_8);
+                position = i + 2;
+                return response;
+            }
+        }
         var builder = new StringBuilder();
         while (true) {
             fill();
@@ -69,23 +80,45 @@ class RedisInputStream {
         return negative ? -value : value;
     }
 
+    void readCRLF() throws IOException {
+        if (readByte() != '\r' || readByte() != '\n') throw new IOException("unexpected character");
+    }
+
     byte[] readBytes(int length) throws IOException {
         byte[] response = new byte[length];
-        int offset = 0;
-        while (offset < length) {
-            fill();
-            int readLength = Math.min(limit - position, length - offset);
-            System.arraycopy(buffer, position, response, offset, readLength);
-            position += readLength;
-            offset += readLength;
-        }
-        byte value = readByte();
-        if (value != '\r') throw new IOException("unexpected character");
-        value = readByte();
-        if (value != '\n') throw new IOException("unexpected character");
+        read(response, length);
+        readCRLF();
         return response;
     }
 
+    <T> T readBytes(int length, RedisBlobDecoder<T> decoder) throws IOException {
+        if (limit - position >= length + 2) {   // value and CRLF are all in buffer, decode in place
+            int offset = position;
+            position += length;
+            readCRLF();
+            return decoder.decode(buffer, offset, length);
+        }
+        byte[] value = BUFFERS.borrow(length);
+        try {
+            read(value, length);
+            readCRLF();
+            return decoder.decode(value, 0, length);
+        } finally {
+            BUFFERS.release(value);
+        }
+    }
+
+    private void read(byte[] target, int length) throws IOException {
+        int offset = Math.min(limit - position, length);
+        System.arraycopy(buffer, position, target, 0, offset);
+        position += offset;
+        while (offset < length) {   // read rest from stream to target directly, not to copy via buffer
+            int count = stream.read(target, offset, length - offset);
+            if (count == -1) throw new IOException("unexpected end of stream");
+            offset += count;
+        }
+    }
+
     private void fill() throws IOException {
         if (position >= limit) {
             limit = stream.read(buffer);
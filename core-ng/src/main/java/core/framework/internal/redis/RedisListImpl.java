@@ -86,7 +86,7 @@ public final class RedisListImpl implements RedisList {
         var watch = new StopWatch();
         validate("key", key);
         List<String> values = null;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeArray(4);
@@ -105,7 +105,7 @@ public final class RedisListImpl implements RedisList {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("lrange, key={}, start={}, stop={}, returnedValues={}, elapsed={}", key, start, stop, values, elapsed);
             int readEntries = values == null ? 0 : values.size();
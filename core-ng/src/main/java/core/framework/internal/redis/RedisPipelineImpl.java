@@ -0,0 +1,256 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.log.filter.ArrayLogParam;
+import core.framework.internal.resource.PoolItem;
+import core.framework.log.ActionLogContext;
+import core.framework.redis.RedisPipeline;
+import core.framework.util.Maps;
+import core.framework.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static core.framework.internal.redis.Protocol.Command.DEL;
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.Protocol.Command.HDEL;
+import static core.framework.internal.redis.Protocol.Command.HGET;
+import static core.framework.internal.redis.Protocol.Command.HGETALL;
+import static core.framework.internal.redis.Protocol.Command.HINCRBY;
+import static core.framework.internal.redis.Protocol.Command.HMSET;
+import static core.framework.internal.redis.Protocol.Command.HSET;
+import static core.framework.internal.redis.Protocol.Command.INCRBY;
+import static core.framework.internal.redis.Protocol.Command.PEXPIRE;
+import static core.framework.internal.redis.Protocol.Command.SADD;
+import static core.framework.internal.redis.Protocol.Command.SET;
+import static core.framework.internal.redis.Protocol.Keyword.PX;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.internal.redis.RedisEncodings.validate;
+
+/**
+ * @author neo
+ */
+public final class RedisPipelineImpl implements RedisPipeline {
+    private final Logger logger = LoggerFactory.getLogger(RedisPipelineImpl.class);
+    private final RedisImpl redis;
+    private final List<Command<?>> commands = new ArrayList<>();
+
+    RedisPipelineImpl(RedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Supplier<String> get(String key) {
+        validate("key", key);
+        return add(false, value -> decode((byte[]) value), GET, encode(key));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        validate("key", key);
+        validate("value", value);
+        if (expiration == null) {
+            add(true, null, SET, encode(key), encode(value));
+        } else {
+            long expirationTime = expiration.toMillis();
+            if (expirationTime <= 0) throw new Error("expiration time must be longer than 0ms");
+            add(true, null, SET, encode(key), encode(value), PX, encode(expirationTime));
+        }
+    }
+
+    @Override
+    public void expire(String key, Duration expiration) {
+        validate("key", key);
+        add(true, null, PEXPIRE, encode(key), encode(expiration.toMillis()));
+    }
+
+    @Override
+    public Supplier<Long> del(String... keys) {
+        validate("keys", keys);
+        byte[][] arguments = new byte[keys.length + 1][];
+        arguments[0] = DEL;
+        for (int i = 0; i < keys.length; i++) {
+            arguments[i + 1] = encode(keys[i]);
+        }
+        return add(true, value -> (Long) value, arguments);
+    }
+
+    @Override
+    public Supplier<Long> increaseBy(String key, long increment) {
+        validate("key", key);
+        return add(true, value -> (Long) value, INCRBY, encode(key), encode(increment));
+    }
+
+    @Override
+    public Supplier<String> hashGet(String key, String field) {
+        validate("key", key);
+        validate("field", field);
+        return add(false, value -> decode((byte[]) value), HGET, encode(key), encode(field));
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hashGetAll(String key) {
+        validate("key", key);
+        return add(false, value -> {
+            Object[] response = (Object[]) value;
+            Map<String, String> values = Maps.newHashMapWithExpectedSize(response.length / 2);
+            for (int i = 0; i < response.length; i += 2) {
+                values.put(decode((byte[]) response[i]), decode((byte[]) response[i + 1]));
+            }
+            return values;
+        }, HGETALL, encode(key));
+    }
+
+    @Override
+    public void hashSet(String key, String field, String value) {
+        validate("key", key);
+        validate("field", field);
+        validate("value", value);
+        add(true, null, HSET, encode(key), encode(field), encode(value));
+    }
+
+    @Override
+    public void hashMultiSet(String key, Map<String, String> values) {
+        validate("key", key);
+        validate("values", values);
+        byte[][] arguments = new byte[values.size() * 2 + 2][];
+        arguments[0] = HMSET;
+        arguments[1] = encode(key);
+        int index = 2;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            arguments[index++] = encode(entry.getKey());
+            arguments[index++] = encode(entry.getValue());
+        }
+        add(true, null, arguments);
+    }
+
+    @Override
+    public Supplier<Long> hashIncreaseBy(String key, String field, long increment) {
+        validate("key", key);
+        validate("field", field);
+        return add(true, value -> (Long) value, HINCRBY, encode(key), encode(field), encode(increment));
+    }
+
+    @Override
+    public Supplier<Long> hashDel(String key, String... fields) {
+        validate("key", key);
+        validate("fields", fields);
+        byte[][] arguments = new byte[fields.length + 2][];
+        arguments[0] = HDEL;
+        arguments[1] = encode(key);
+        for (int i = 0; i < fields.length; i++) {
+            arguments[i + 2] = encode(fields[i]);
+        }
+        return add(true, value -> (Long) value, arguments);
+    }
+
+    @Override
+    public Supplier<Long> setAdd(String key, String... values) {
+        validate("key", key);
+        validate("values", values);
+        byte[][] arguments = new byte[values.length + 2][];
+        arguments[0] = SADD;
+        arguments[1] = encode(key);
+        for (int i = 0; i < values.length; i++) {
+            arguments[i + 2] = encode(values[i]);
+        }
+        return add(true, value -> (Long) value, arguments);
+    }
+
+    @Override
+    public void execute() {
+        if (commands.isEmpty()) return;
+        var watch = new StopWatch();
+        int size = commands.size();
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            for (Command<?> command : commands) {
+                connection.writeArray(command.arguments.length);
+                for (byte[] argument : command.arguments) {
+                    connection.writeBlobString(argument);
+                }
+            }
+            connection.flush();
+            RedisException exception = null;
+            for (Command<?> command : commands) {
+                try {
+                    command.complete(connection.read());
+                } catch (RedisException e) {    // read all replies to keep connection in sync
+                    command.error = e;
+                    if (exception == null) exception = e;
+                }
+            }
+            if (exception != null) throw exception;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            int readEntries = 0;
+            int writeEntries = 0;
+            List<String> writtenKeys = new ArrayList<>();
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                Command<?> command = commands.get(i);
+                if (command.write) {
+                    writeEntries++;
+                    int keys = command.arguments[0] == DEL ? command.arguments.length : 2;   // DEL takes multiple keys, other write commands take key as first argument
+                    for (int j = 1; j < keys; j++) {
+                        writtenKeys.add(decode(command.arguments[j]));
+                    }
+                } else {
+                    readEntries++;
+                }
+                names[i] = new String(command.arguments[0], StandardCharsets.US_ASCII) + (command.arguments.length > 1 ? " " + decode(command.arguments[1]) : "");
+            }
+            commands.clear();
+            redis.invalidateClientCache(writtenKeys.toArray(String[]::new));
+            logger.debug("pipeline, commands={}, size={}, elapsed={}", new ArrayLogParam(names), size, elapsed);
+            ActionLogContext.track("redis", elapsed, readEntries, writeEntries);    // pipeline is tracked as one operation
+        }
+    }
+
+    private <T> Supplier<T> add(boolean write, Function<Object, T> decoder, byte[]... arguments) {
+        var command = new Command<>(arguments, write, decoder);
+        commands.add(command);
+        return command;
+    }
+
+    static final class Command<T> implements Supplier<T> {
+        final byte[][] arguments;
+        final boolean write;
+        private final Function<Object, T> decoder;
+        RedisException error;
+        private boolean completed;
+        private T value;
+
+        Command(byte[][] arguments, boolean write, Function<Object, T> decoder) {
+            this.arguments = arguments;
+            this.write = write;
+            this.decoder = decoder;
+        }
+
+        void complete(Object response) {
+            completed = true;
+            if (decoder != null) value = decoder.apply(response);
+        }
+
+        @Override
+        public T get() {
+            if (error != null) throw error;
+            if (!completed) throw new Error("pipeline is not executed");
+            return value;
+        }
+    }
+}
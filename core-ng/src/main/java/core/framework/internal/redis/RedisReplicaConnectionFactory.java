@@ -0,0 +1,119 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.PoolItem;
+import core.framework.redis.RedisReadPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * creates connections of read pool, unavailable replica is skipped for a while, falls back to primary if no replica can be connected,
+ * replica is also marked down if its connection is broken, fallback primary connection is dropped when returned once replica is available again
+ *
+ * @author neo
+ */
+class RedisReplicaConnectionFactory implements Supplier<RedisConnection> {
+    static final long DOWN_TIME_IN_MS = 30_000;
+
+    final Replica[] replicas;
+    private final Logger logger = LoggerFactory.getLogger(RedisReplicaConnectionFactory.class);
+    private final RedisConnectionFactory primary;
+    private final RedisReadPolicy policy;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long primaryLatencyInNanos;
+
+    RedisReplicaConnectionFactory(RedisConnectionFactory primary, List<String> hosts, RedisReadPolicy policy) {
+        this.primary = primary;
+        this.policy = policy;
+        replicas = new Replica[hosts.size()];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = new Replica(new RedisHost(hosts.get(i)));
+        }
+    }
+
+    @Override
+    public RedisConnection get() {
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.length);
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = next(start, i, now);
+            if (replica == null) break;     // nearest policy prefers primary
+            RedisConnection connection = connect(replica, now);
+            if (connection != null) return connection;
+        }
+        long startTime = System.nanoTime();
+        RedisConnection connection = primary.create(primary.host, primary.timeoutInMs);
+        primaryLatencyInNanos = latency(primaryLatencyInNanos, System.nanoTime() - startTime);
+        return connection;
+    }
+
+    // called before connection is returned to read pool
+    void returned(PoolItem<RedisConnection> item) {
+        RedisHost host = item.resource.host;
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            if (replica.host == host) {
+                if (item.broken) {
+                    logger.warn(errorCode("REDIS_REPLICA_UNAVAILABLE"), "redis replica connection is broken, skip replica for a while, replica={}", replica.host);
+                    replica.downUntil = now + DOWN_TIME_IN_MS;
+                }
+                return;
+            }
+        }
+        if (!item.broken && next(0, 0, now) != null) {  // primary connection, close it to create replica connection on next borrow
+            logger.debug("replica is available, close fallback primary connection, host={}", host);
+            item.broken = true;
+        }
+    }
+
+    // return null if no more replica to try
+    private Replica next(int start, int attempt, long now) {
+        if (policy == RedisReadPolicy.NEAREST) {
+            Replica nearest = null;
+            for (Replica replica : replicas) {
+                if (replica.downUntil > now) continue;
+                if (nearest == null || replica.latencyInNanos < nearest.latencyInNanos) nearest = replica;
+            }
+            if (nearest == null || nearest.latencyInNanos > primaryLatencyInNanos) return null;
+            return nearest;
+        }
+        for (int i = attempt; i < replicas.length; i++) {
+            Replica replica = replicas[(start + i) % replicas.length];
+            if (replica.downUntil <= now) return replica;
+        }
+        return null;
+    }
+
+    private RedisConnection connect(Replica replica, long now) {
+        long startTime = System.nanoTime();
+        try {
+            RedisConnection connection = primary.create(replica.host, primary.timeoutInMs);
+            replica.latencyInNanos = latency(replica.latencyInNanos, System.nanoTime() - startTime);
+            return connection;
+        } catch (RuntimeException e) {
+            logger.warn(errorCode("REDIS_REPLICA_UNAVAILABLE"), "failed to connect to redis replica, fall back to other hosts, replica={}, error={}", replica.host, e.getMessage(), e);
+            replica.downUntil = now + DOWN_TIME_IN_MS;
+            return null;
+        }
+    }
+
+    // moving average, first measurement replaces initial 0, so every host is tried at least once
+    private long latency(long average, long elapsed) {
+        return average == 0 ? elapsed : (average * 3 + elapsed) >> 2;
+    }
+
+    static final class Replica {
+        final RedisHost host;
+        volatile long downUntil;
+        volatile long latencyInNanos;
+
+        Replica(RedisHost host) {
+            this.host = host;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package core.framework.internal.redis;
+
+import core.framework.crypto.Hash;
+import core.framework.internal.resource.PoolItem;
+import core.framework.log.ActionLogContext;
+import core.framework.redis.RedisScript;
+import core.framework.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static core.framework.internal.redis.Protocol.Command.EVAL;
+import static core.framework.internal.redis.Protocol.Command.EVALSHA;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.internal.redis.RedisEncodings.validate;
+
+/**
+ * calls script by sha1 digest, if redis doesn't have it (e.g. restarted or failed over), falls back to EVAL which also caches script on server,
+ * so script is loaded lazily in same round trip, without extra SCRIPT LOAD
+ *
+ * @author neo
+ */
+public final class RedisScriptImpl implements RedisScript {
+    private final Logger logger = LoggerFactory.getLogger(RedisScriptImpl.class);
+    private final RedisImpl redis;
+    private final byte[] script;
+    final String sha;
+
+    RedisScriptImpl(RedisImpl redis, String script) {
+        this.redis = redis;
+        this.script = encode(script);
+        sha = Hash.sha1Hex(this.script);
+    }
+
+    @Override
+    public Object eval(List<String> keys, String... arguments) {
+        var watch = new StopWatch();
+        for (String key : keys) {
+            validate("key", key);
+        }
+        Object result = null;
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            try {
+                write(connection, EVALSHA, encode(sha), keys, arguments);
+                result = convert(connection.read());
+            } catch (RedisException e) {
+                if (!e.getMessage().startsWith("NOSCRIPT")) throw e;
+                logger.debug("script not found on server, fall back to eval, sha={}", sha);
+                write(connection, EVAL, script, keys, arguments);
+                result = convert(connection.read());
+            }
+            return result;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("evalsha, sha={}, keys={}, arguments={}, result={}, elapsed={}", sha, keys, arguments, result, elapsed);
+            ActionLogContext.track("redis", elapsed, keys.size(), keys.size());     // script may read or write all keys
+        }
+    }
+
+    private void write(RedisConnection connection, byte[] command, byte[] script, List<String> keys, String[] arguments) throws IOException {
+        connection.writeArray(3 + keys.size() + arguments.length);
+        connection.writeBlobString(command);
+        connection.writeBlobString(script);
+        connection.writeBlobString(encode(keys.size()));
+        for (String key : keys) {
+            connection.writeBlobString(encode(key));
+        }
+        for (String argument : arguments) {
+            connection.writeBlobString(encode(argument));
+        }
+        connection.flush();
+    }
+
+    private Object convert(Object reply) {
+        if (reply instanceof byte[] value) return decode(value);
+        if (reply instanceof Object[] values) {
+            List<Object> list = new ArrayList<>(values.length);
+            for (Object value : values) {
+                list.add(convert(value));
+            }
+            return list;
+        }
+        return reply;   // Long, String or null
+    }
+}
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static core.framework.internal.redis.Protocol.Command.SADD;
 import static core.framework.internal.redis.Protocol.Command.SCARD;
@@ -19,6 +20,7 @@ import static core.framework.internal.redis.Protocol.Command.SISMEMBER;
 import static core.framework.internal.redis.Protocol.Command.SMEMBERS;
 import static core.framework.internal.redis.Protocol.Command.SPOP;
 import static core.framework.internal.redis.Protocol.Command.SREM;
+import static core.framework.internal.redis.Protocol.Command.SSCAN;
 import static core.framework.internal.redis.RedisEncodings.decode;
 import static core.framework.internal.redis.RedisEncodings.encode;
 import static core.framework.internal.redis.RedisEncodings.validate;
@@ -62,7 +64,7 @@ public final class RedisSetImpl implements RedisSet {
         var watch = new StopWatch();
         validate("key", key);
         Set<String> values = null;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyCommand(SMEMBERS, key);
@@ -76,7 +78,7 @@ public final class RedisSetImpl implements RedisSet {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("smembers, key={}, returnedValues={}, elapsed={}", key, values, elapsed);
             int readEntries = values == null ? 0 : values.size();
@@ -84,13 +86,24 @@ public final class RedisSetImpl implements RedisSet {
         }
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Set<String>> consumer) {
+        redis.scan(SSCAN, key, batchSize, elements -> {
+            Set<String> values = Sets.newHashSetWithExpectedSize(elements.length);
+            for (Object element : elements) {
+                values.add(decode((byte[]) element));
+            }
+            consumer.accept(values);
+        });
+    }
+
     @Override
     public boolean isMember(String key, String value) {
         var watch = new StopWatch();
         validate("key", key);
         validate("value", value);
         boolean isMember = false;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyArgumentCommand(SISMEMBER, key, encode(value));
@@ -101,7 +114,7 @@ public final class RedisSetImpl implements RedisSet {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("sismember, key={}, value={}, isMember={}, elapsed={}", key, value, isMember, elapsed);
             ActionLogContext.track("redis", elapsed, 1, 0);
@@ -165,7 +178,7 @@ public final class RedisSetImpl implements RedisSet {
         var watch = new StopWatch();
         validate("key", key);
         long size = 0;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyCommand(SCARD, key);
@@ -175,7 +188,7 @@ public final class RedisSetImpl implements RedisSet {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("scard, key={}, size={}, elapsed={}", key, size, elapsed);
             ActionLogContext.track("redis", elapsed, 1, 0);
@@ -12,12 +12,14 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static core.framework.internal.redis.Protocol.Command.ZADD;
 import static core.framework.internal.redis.Protocol.Command.ZINCRBY;
 import static core.framework.internal.redis.Protocol.Command.ZPOPMIN;
 import static core.framework.internal.redis.Protocol.Command.ZRANGE;
 import static core.framework.internal.redis.Protocol.Command.ZREM;
+import static core.framework.internal.redis.Protocol.Command.ZSCAN;
 import static core.framework.internal.redis.Protocol.Keyword.BYSCORE;
 import static core.framework.internal.redis.Protocol.Keyword.LIMIT;
 import static core.framework.internal.redis.Protocol.Keyword.NX;
@@ -103,7 +105,7 @@ public class RedisSortedSetImpl implements RedisSortedSet {
         var watch = new StopWatch();
         validate("key", key);
         Map<String, Long> values = null;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             connection.writeArray(5);
@@ -120,7 +122,7 @@ public class RedisSortedSetImpl implements RedisSortedSet {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("zrange, key={}, start={}, stop={}, returnedValues={}, elapsed={}", key, start, stop, values, elapsed);
             int readEntries = values == null ? 0 : values.size();
@@ -136,7 +138,7 @@ public class RedisSortedSetImpl implements RedisSortedSet {
         if (maxScore < minScore) throw new Error("maxScore must be larger than minScore");
 
         Map<String, Long> values = null;
-        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        PoolItem<RedisConnection> item = redis.readPool().borrowItem();
         try {
             RedisConnection connection = item.resource;
             Object[] response = rangeByScore(connection, key, minScore, maxScore, limit);
@@ -146,7 +148,7 @@ public class RedisSortedSetImpl implements RedisSortedSet {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
-            redis.pool.returnItem(item);
+            redis.readPool().returnItem(item);
             long elapsed = watch.elapsed();
             logger.debug("zrangeByScore, key={}, minScore={}, maxScore={}, limit={}, returnedValues={}, elapsed={}", key, minScore, maxScore, limit, values, elapsed);
             int readEntries = values == null ? 0 : values.size();
@@ -257,6 +259,17 @@ public class RedisSortedSetImpl implements RedisSortedSet {
         }
     }
 
+    @Override
+    public void forEach(String key, int batchSize, Consumer<Map<String, Long>> consumer) {
+        redis.scan(ZSCAN, key, batchSize, elements -> {
+            Map<String, Long> values = Maps.newLinkedHashMapWithExpectedSize(elements.length / 2);
+            for (int i = 0; i < elements.length; i += 2) {
+                values.put(decode((byte[]) elements[i]), (long) Double.parseDouble(decode((byte[]) elements[i + 1])));
+            }
+            consumer.accept(values);
+        });
+    }
+
     private Map<String, Long> valuesWithScores(Object[] response) throws IOException {
         if (response.length % 2 != 0) throw new IOException("unexpected length of array, length=" + response.length);
         Map<String, Long> values = Maps.newLinkedHashMapWithExpectedSize(response.length / 2);
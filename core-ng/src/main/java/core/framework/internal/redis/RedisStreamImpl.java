@@ -0,0 +1,254 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.log.filter.ArrayLogParam;
+import core.framework.internal.log.filter.FieldMapLogParam;
+import core.framework.internal.resource.PoolItem;
+import core.framework.log.ActionLogContext;
+import core.framework.redis.RedisStream;
+import core.framework.util.Maps;
+import core.framework.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static core.framework.internal.redis.Protocol.Command.XACK;
+import static core.framework.internal.redis.Protocol.Command.XADD;
+import static core.framework.internal.redis.Protocol.Command.XAUTOCLAIM;
+import static core.framework.internal.redis.Protocol.Command.XGROUP;
+import static core.framework.internal.redis.Protocol.Command.XREADGROUP;
+import static core.framework.internal.redis.Protocol.Keyword.APPROXIMATE;
+import static core.framework.internal.redis.Protocol.Keyword.AUTO_ID;
+import static core.framework.internal.redis.Protocol.Keyword.COUNT;
+import static core.framework.internal.redis.Protocol.Keyword.CREATE;
+import static core.framework.internal.redis.Protocol.Keyword.GROUP;
+import static core.framework.internal.redis.Protocol.Keyword.LAST_ID;
+import static core.framework.internal.redis.Protocol.Keyword.MAXLEN;
+import static core.framework.internal.redis.Protocol.Keyword.MKSTREAM;
+import static core.framework.internal.redis.Protocol.Keyword.NEW_ENTRIES;
+import static core.framework.internal.redis.Protocol.Keyword.STREAMS;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.internal.redis.RedisEncodings.validate;
+
+/**
+ * @author neo
+ */
+public final class RedisStreamImpl implements RedisStream {
+    // reply of XREADGROUP is [[key, [[id, [field, value, ...]], ...]], ...], or nil if no entry
+    static Map<String, List<Entry>> streamEntries(Object[] response) {
+        if (response == null) return Map.of();
+        Map<String, List<Entry>> results = Maps.newLinkedHashMapWithExpectedSize(response.length);
+        for (Object stream : response) {
+            Object[] values = (Object[]) stream;
+            results.put(decode((byte[]) values[0]), entries((Object[]) values[1]));
+        }
+        return results;
+    }
+
+    // entry deleted after delivered has nil fields in XAUTOCLAIM reply of redis 6.2, it's skipped, redis 7+ removes it from pending list
+    static List<Entry> entries(Object[] response) {
+        List<Entry> entries = new ArrayList<>(response.length);
+        for (Object value : response) {
+            Object[] entry = (Object[]) value;
+            Object[] fields = (Object[]) entry[1];
+            if (fields == null) continue;
+            Map<String, String> entryFields = Maps.newLinkedHashMapWithExpectedSize(fields.length / 2);
+            for (int i = 0; i < fields.length; i += 2) {
+                entryFields.put(decode((byte[]) fields[i]), decode((byte[]) fields[i + 1]));
+            }
+            entries.add(new Entry(decode((byte[]) entry[0]), entryFields));
+        }
+        return entries;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RedisStreamImpl.class);
+    private final RedisImpl redis;
+
+    RedisStreamImpl(RedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public String add(String key, Map<String, String> fields, long maxLength) {
+        var watch = new StopWatch();
+        validate("key", key);
+        validate("fields", fields);
+        if (maxLength <= 0) throw new Error("maxLength must be greater than 0, maxLength=" + maxLength);
+        String id = null;
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(6 + fields.size() * 2);
+            connection.writeBlobString(XADD);
+            connection.writeBlobString(encode(key));
+            connection.writeBlobString(MAXLEN);
+            connection.writeBlobString(APPROXIMATE);
+            connection.writeBlobString(encode(maxLength));
+            connection.writeBlobString(AUTO_ID);
+            for (Map.Entry<String, String> entry : fields.entrySet()) {
+                connection.writeBlobString(encode(entry.getKey()));
+                connection.writeBlobString(encode(entry.getValue()));
+            }
+            connection.flush();
+            id = decode(connection.readBlobString());
+            return id;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("xadd, key={}, fields={}, maxLength={}, id={}, elapsed={}", key, new FieldMapLogParam(fields), maxLength, id, elapsed);
+            ActionLogContext.track("redis", elapsed, 0, 1);
+        }
+    }
+
+    @Override
+    public void createGroup(String key, String group) {
+        var watch = new StopWatch();
+        validate("key", key);
+        validate("group", group);
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            createGroup(item.resource, key, group);
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("xgroup create, key={}, group={}, elapsed={}", key, group, elapsed);
+            ActionLogContext.track("redis", elapsed, 0, 1);
+        }
+    }
+
+    void createGroup(RedisConnection connection, String key, String group) throws IOException {
+        connection.writeArray(6);
+        connection.writeBlobString(XGROUP);
+        connection.writeBlobString(CREATE);
+        connection.writeBlobString(encode(key));
+        connection.writeBlobString(encode(group));
+        connection.writeBlobString(LAST_ID);
+        connection.writeBlobString(MKSTREAM);
+        connection.flush();
+        try {
+            connection.readSimpleString();
+        } catch (RedisException e) {
+            if (!e.getMessage().startsWith("BUSYGROUP")) throw e;   // group already exists
+        }
+    }
+
+    @Override
+    public List<Entry> readGroup(String key, String group, String consumer, int count) {
+        var watch = new StopWatch();
+        validate("key", key);
+        validate("group", group);
+        validate("consumer", consumer);
+        if (count <= 0) throw new Error("count must be greater than 0, count=" + count);
+        List<Entry> entries = List.of();
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(9);
+            connection.writeBlobString(XREADGROUP);
+            connection.writeBlobString(GROUP);
+            connection.writeBlobString(encode(group));
+            connection.writeBlobString(encode(consumer));
+            connection.writeBlobString(COUNT);
+            connection.writeBlobString(encode(count));
+            connection.writeBlobString(STREAMS);
+            connection.writeBlobString(encode(key));
+            connection.writeBlobString(NEW_ENTRIES);
+            connection.flush();
+            List<Entry> result = streamEntries(connection.readArray()).get(key);
+            if (result != null) entries = result;
+            return entries;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("xreadgroup, key={}, group={}, consumer={}, count={}, returnedEntries={}, elapsed={}", key, group, consumer, count, entries.size(), elapsed);
+            ActionLogContext.track("redis", elapsed, entries.size(), 0);
+        }
+    }
+
+    @Override
+    public long ack(String key, String group, String... ids) {
+        var watch = new StopWatch();
+        validate("key", key);
+        validate("group", group);
+        validate("ids", ids);
+        long acked = 0;
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(3 + ids.length);
+            connection.writeBlobString(XACK);
+            connection.writeBlobString(encode(key));
+            connection.writeBlobString(encode(group));
+            for (String id : ids) {
+                connection.writeBlobString(encode(id));
+            }
+            connection.flush();
+            acked = connection.readLong();
+            return acked;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("xack, key={}, group={}, ids={}, acked={}, elapsed={}", key, group, new ArrayLogParam(ids), acked, elapsed);
+            ActionLogContext.track("redis", elapsed, 0, ids.length);
+        }
+    }
+
+    @Override
+    public List<Entry> autoClaim(String key, String group, String consumer, Duration minIdleTime, int count) {
+        var watch = new StopWatch();
+        validate("key", key);
+        validate("group", group);
+        validate("consumer", consumer);
+        if (count <= 0) throw new Error("count must be greater than 0, count=" + count);
+        List<Entry> entries = List.of();
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            entries = autoClaim(item.resource, key, group, consumer, minIdleTime, "0-0", count).entries;
+            return entries;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("xautoclaim, key={}, group={}, consumer={}, minIdleTime={}, count={}, returnedEntries={}, elapsed={}", key, group, consumer, minIdleTime, count, entries.size(), elapsed);
+            ActionLogContext.track("redis", elapsed, entries.size(), entries.size());
+        }
+    }
+
+    ClaimResult autoClaim(RedisConnection connection, String key, String group, String consumer, Duration minIdleTime, String start, int count) throws IOException {
+        connection.writeArray(8);
+        connection.writeBlobString(XAUTOCLAIM);
+        connection.writeBlobString(encode(key));
+        connection.writeBlobString(encode(group));
+        connection.writeBlobString(encode(consumer));
+        connection.writeBlobString(encode(minIdleTime.toMillis()));
+        connection.writeBlobString(encode(start));
+        connection.writeBlobString(COUNT);
+        connection.writeBlobString(encode(count));
+        connection.flush();
+        Object[] response = connection.readArray();     // [nextStart, entries, deletedIds], deletedIds is only returned by redis 7+
+        return new ClaimResult(decode((byte[]) response[0]), entries((Object[]) response[1]));
+    }
+
+    record ClaimResult(String nextStart, List<Entry> entries) {
+    }
+}
@@ -0,0 +1,226 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.async.ThreadPools;
+import core.framework.internal.async.VirtualThread;
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import core.framework.internal.log.filter.FieldMapLogParam;
+import core.framework.internal.resource.Pool;
+import core.framework.redis.RedisStream;
+import core.framework.redis.RedisStreamHandler;
+import core.framework.util.Maps;
+import core.framework.util.Network;
+import core.framework.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static core.framework.internal.redis.Protocol.Command.XREADGROUP;
+import static core.framework.internal.redis.Protocol.Keyword.BLOCK;
+import static core.framework.internal.redis.Protocol.Keyword.COUNT;
+import static core.framework.internal.redis.Protocol.Keyword.GROUP;
+import static core.framework.internal.redis.Protocol.Keyword.NEW_ENTRIES;
+import static core.framework.internal.redis.Protocol.Keyword.STREAMS;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * consume streams with dedicated connection by blocking XREADGROUP, each entry is handled in virtual thread, read count is bounded by available permits of concurrency,
+ * entry is acked after handled even if handler failed (same as kafka listener commits offset), pending entries of crashed consumers are claimed periodically by XAUTOCLAIM
+ *
+ * @author neo
+ */
+public final class RedisStreamListener {
+    private static final long CLAIM_INTERVAL_IN_MS = Duration.ofSeconds(30).toMillis();
+
+    public final Map<String, RedisStreamHandler> handlers = Maps.newLinkedHashMap();
+    private final Logger logger = LoggerFactory.getLogger(RedisStreamListener.class);
+    private final RedisImpl redis;
+    private final RedisStreamImpl redisStream;
+    private final LogManager logManager;
+    private final String consumer = Network.LOCAL_HOST_NAME;
+    private final Map<String, String> claimStarts = Maps.newHashMap();   // cursor of XAUTOCLAIM per stream, only accessed by listener thread
+
+    public int concurrency = Runtime.getRuntime().availableProcessors() * 16;
+    public String group = LogManager.APP_NAME;
+    public Duration claimMinIdleTime = Duration.ofMinutes(5);
+
+    private Semaphore semaphore;
+    private Thread thread;
+    private Thread.Builder.OfVirtual handlerThread;
+    private volatile boolean stop;
+    private volatile RedisConnection connection;
+
+    public RedisStreamListener(RedisImpl redis, LogManager logManager) {
+        this.redis = redis;
+        this.logManager = logManager;
+        redisStream = (RedisStreamImpl) redis.stream();
+    }
+
+    public void subscribe(String stream, RedisStreamHandler handler) {
+        RedisStreamHandler previous = handlers.putIfAbsent(stream, handler);
+        if (previous != null) throw new Error("stream is already subscribed, stream=" + stream);
+    }
+
+    public void start() {
+        if (redis.connectionFactory.cluster != null) throw new Error("cluster mode does not support stream listener");
+        semaphore = new Semaphore(concurrency);
+        handlerThread = ThreadPools.virtualThreadBuilder("redis-stream-listener-");
+        thread = Thread.ofVirtual().name("redis-stream-listener").start(this::process);
+        logger.info("redis stream listener started, streams={}, group={}, consumer={}, host={}", handlers.keySet(), group, consumer, redis.connectionFactory.host);
+    }
+
+    public void shutdown() {
+        if (thread != null) {   // in case of shutdown in middle of start
+            logger.info("shutting down redis stream listener, host={}", redis.connectionFactory.host);
+            stop = true;
+            Pool.closeQuietly(connection);     // close socket to interrupt blocking read
+        }
+    }
+
+    public void awaitTermination(long timeoutInMs) {
+        if (thread == null) return;
+        long end = System.currentTimeMillis() + timeoutInMs;
+        try {
+            boolean success = thread.join(Duration.ofMillis(timeoutInMs))
+                && semaphore.tryAcquire(concurrency, Math.max(0, end - System.currentTimeMillis()), TimeUnit.MILLISECONDS);     // wait all handlers to finish
+            if (!success) {
+                logger.error(errorCode("FAILED_TO_STOP"), "failed to terminate redis stream listener, streams={}", handlers.keySet());
+            } else {
+                logger.info("redis stream listener stopped, streams={}", handlers.keySet());
+            }
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage(), e);
+        }
+    }
+
+    private void process() {
+        while (!stop) {
+            try {
+                consume();
+            } catch (Throwable e) {
+                if (!stop) {
+                    logger.warn(errorCode("REDIS_STREAM_FAILED"), "failed to consume redis streams, retry in 10 seconds, streams={}, error={}", handlers.keySet(), e.getMessage(), e);
+                    Threads.sleepRoughly(Duration.ofSeconds(10));
+                }
+            } finally {
+                Pool.closeQuietly(connection);
+                connection = null;
+            }
+        }
+    }
+
+    private void consume() throws IOException, InterruptedException {
+        RedisConnection connection = redis.connectionFactory.create(redis.connectionFactory.timeoutInMs);
+        this.connection = connection;
+        for (String stream : handlers.keySet()) {
+            redisStream.createGroup(connection, stream, group);
+        }
+        long blockTimeInMs = Math.max(1, Math.min(1000, redis.connectionFactory.timeoutInMs / 2));     // must be shorter than socket timeout
+        long nextClaimTime = 0;
+        while (!stop) {
+            semaphore.acquire();
+            int permits = 1 + semaphore.drainPermits();     // read as many entries as available concurrency
+            int dispatched = 0;
+            try {
+                long now = System.currentTimeMillis();
+                if (now >= nextClaimTime) {
+                    dispatched = claim(connection, permits);
+                    if (dispatched == 0) nextClaimTime = now + CLAIM_INTERVAL_IN_MS;   // keep claiming until no pending entries left
+                } else {
+                    dispatched = read(connection, permits, blockTimeInMs);
+                }
+            } finally {
+                semaphore.release(permits - dispatched);
+            }
+        }
+    }
+
+    private int read(RedisConnection connection, int count, long blockTimeInMs) throws IOException {
+        connection.writeArray(8 + handlers.size() * 2);
+        connection.writeBlobString(XREADGROUP);
+        connection.writeBlobString(GROUP);
+        connection.writeBlobString(encode(group));
+        connection.writeBlobString(encode(consumer));
+        connection.writeBlobString(COUNT);
+        connection.writeBlobString(encode(count));     // count is per stream, total entries may exceed permits, excess waits in dispatch
+        connection.writeBlobString(BLOCK);
+        connection.writeBlobString(encode(blockTimeInMs));
+        connection.writeBlobString(STREAMS);
+        for (String stream : handlers.keySet()) {
+            connection.writeBlobString(encode(stream));
+        }
+        for (int i = 0; i < handlers.size(); i++) {
+            connection.writeBlobString(NEW_ENTRIES);
+        }
+        connection.flush();
+        Map<String, List<RedisStream.Entry>> results = RedisStreamImpl.streamEntries(connection.readArray());
+        int dispatched = 0;
+        for (Map.Entry<String, List<RedisStream.Entry>> result : results.entrySet()) {
+            dispatched += dispatch(result.getKey(), result.getValue(), count - dispatched);
+        }
+        return dispatched;
+    }
+
+    private int claim(RedisConnection connection, int count) throws IOException {
+        int dispatched = 0;
+        for (String stream : handlers.keySet()) {
+            if (dispatched >= count) break;
+            String start = claimStarts.getOrDefault(stream, "0-0");
+            RedisStreamImpl.ClaimResult result = redisStream.autoClaim(connection, stream, group, consumer, claimMinIdleTime, start, count - dispatched);
+            claimStarts.put(stream, result.nextStart());
+            if (!result.entries().isEmpty()) logger.warn(errorCode("REDIS_STREAM_CLAIMED"), "claimed pending entries, stream={}, entries={}", stream, result.entries().size());
+            dispatched += dispatch(stream, result.entries(), count - dispatched);
+        }
+        return dispatched;
+    }
+
+    // return number of permits taken by dispatched entries, entries beyond acquired permits wait for more permits
+    private int dispatch(String stream, List<RedisStream.Entry> entries, int permits) {
+        int taken = 0;
+        for (RedisStream.Entry entry : entries) {
+            if (taken < permits) {
+                taken++;
+            } else {
+                semaphore.acquireUninterruptibly();
+            }
+            handlerThread.start(() -> {
+                VirtualThread.COUNT.increase();
+                try {
+                    handle(stream, entry);
+                } finally {
+                    VirtualThread.COUNT.decrease();
+                    semaphore.release();
+                }
+            });
+        }
+        return taken;
+    }
+
+    void handle(String stream, RedisStream.Entry entry) {
+        RedisStreamHandler handler = handlers.get(stream);
+        ActionLog actionLog = logManager.begin("=== stream entry handling begin ===", null);
+        try {
+            actionLog.action("stream:" + stream);
+            actionLog.context.put("stream", List.of(stream));
+            actionLog.context.put("handler", List.of(handler.getClass().getCanonicalName()));
+            actionLog.context.put("entry_id", List.of(entry.id()));
+            logger.debug("[entry] stream={}, id={}, fields={}", stream, entry.id(), new FieldMapLogParam(entry.fields()));
+            try {
+                handler.handle(stream, entry);
+            } finally {
+                redisStream.ack(stream, group, entry.id());
+            }
+        } catch (Throwable e) {
+            logManager.logError(e);
+        } finally {
+            logManager.end("=== stream entry handling end ===");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static core.framework.internal.redis.Protocol.Command.SUBSCRIBE;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * subscribe to one channel with dedicated connection, reconnect if connection is broken,
+ * redis pub/sub is at-most-once, messages published during reconnecting are lost, listener.onSubscribe() is called on every successful subscription
+ *
+ * @author neo
+ */
+public final class RedisSubscriber {
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+
+    private final Logger logger = LoggerFactory.getLogger(RedisSubscriber.class);
+    private final RedisConnectionFactory connectionFactory;
+    private final String channel;
+    private final Listener listener;
+    private final Thread thread;
+    private volatile boolean stop;
+    private volatile RedisConnection connection;
+
+    public RedisSubscriber(RedisImpl redis, String channel, Listener listener) {
+        connectionFactory = redis.connectionFactory;
+        this.channel = channel;
+        this.listener = listener;
+        thread = Thread.ofVirtual().name("redis-subscriber-" + channel).unstarted(this::process);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void close() {
+        logger.info("close redis subscriber, channel={}, host={}", channel, connectionFactory.host);
+        stop = true;
+        Pool.closeQuietly(connection);     // close socket to interrupt blocking read
+    }
+
+    private void process() {
+        while (!stop) {
+            try {
+                subscribe();
+            } catch (Throwable e) {
+                if (!stop) {
+                    logger.warn(errorCode("REDIS_SUBSCRIBE_FAILED"), "failed to subscribe redis channel, retry in 10 seconds, channel={}, error={}", channel, e.getMessage(), e);
+                    Threads.sleepRoughly(Duration.ofSeconds(10));
+                }
+            } finally {
+                Pool.closeQuietly(connection);
+                connection = null;
+            }
+        }
+    }
+
+    private void subscribe() throws IOException {
+        RedisConnection connection = connectionFactory.create(connectionFactory.timeoutInMs);
+        this.connection = connection;
+        connection.writeKeyCommand(SUBSCRIBE, channel);
+        connection.readArray();     // ["subscribe", channel, subscribedChannels]
+        connection.heartbeat(HEARTBEAT_INTERVAL);   // detect silently broken connection, listener.onSubscribe() is called again after reconnect
+        logger.info("subscribed redis channel, channel={}, host={}", channel, connectionFactory.host);
+        listener.onSubscribe();
+        while (!stop) {
+            Object[] reply = connection.readArray();
+            if ("message".equals(decode((byte[]) reply[0]))) {
+                listener.onMessage((byte[]) reply[2]);
+            }
+        }
+    }
+
+    public interface Listener {
+        void onSubscribe();
+
+        void onMessage(byte[] message);
+    }
+}
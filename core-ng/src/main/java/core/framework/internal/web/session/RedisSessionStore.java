@@ -3,6 +3,8 @@ package core.framework.internal.web.session;
 import core.framework.crypto.Hash;
 import core.framework.internal.redis.RedisException;
 import core.framework.redis.Redis;
+import core.framework.redis.RedisPipeline;
+import core.framework.redis.RedisScript;
 import core.framework.util.Lists;
 import core.framework.util.Maps;
 import core.framework.util.Strings;
@@ -13,6 +15,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static core.framework.log.Markers.errorCode;
 
@@ -20,22 +23,64 @@ import static core.framework.log.Markers.errorCode;
  * @author neo
  */
 public class RedisSessionStore implements SessionStore {
+    // refresh index sets of indexed fields along with session, all sessions share same timeout, so index set lives as long as its latest session
+    private static final String GET_AND_REFRESH_SCRIPT = """
+        local values = redis.call('HGETALL', KEYS[1])
+        if #values == 0 then return values end
+        redis.call('PEXPIRE', KEYS[1], ARGV[1])
+        for i = 1, #values, 2 do
+            for j = 2, #ARGV do
+                if values[i] == ARGV[j] then redis.call('PEXPIRE', 'session-index:' .. values[i] .. ':' .. values[i + 1], ARGV[1]) end
+            end
+        end
+        return values
+        """;
+    private static final String INVALIDATE_SCRIPT = """
+        for i = 1, #ARGV do
+            local value = redis.call('HGET', KEYS[1], ARGV[i])
+            if value then redis.call('SREM', 'session-index:' .. ARGV[i] .. ':' .. value, KEYS[1]) end
+        end
+        return redis.call('DEL', KEYS[1])
+        """;
+    // session may stay in index of previous value after field changed, so only delete session still holding the value, then drop whole index set
+    private static final String INVALIDATE_BY_INDEX_SCRIPT = """
+        local deleted = 0
+        for _, key in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+            if redis.call('HGET', key, ARGV[1]) == ARGV[2] then deleted = deleted + redis.call('DEL', key) end
+        end
+        redis.call('DEL', KEYS[1])
+        return deleted
+        """;
+
     private final Logger logger = LoggerFactory.getLogger(RedisSessionStore.class);
 
     private final Redis redis;
+    private Set<String> indexedFields = Set.of();
+    private RedisScript getAndRefreshScript;
+    private RedisScript invalidateScript;
+    private RedisScript invalidateByIndexScript;
 
     public RedisSessionStore(Redis redis) {
         this.redis = redis;
     }
 
+    // maintain set of session keys per value of indexed field, e.g. user_id, to make invalidateByKey() not scan all sessions,
+    // index scripts access keys not declared in KEYS, which requires standalone redis (session redis doesn't support cluster)
+    public void index(Set<String> fields) {
+        indexedFields = Set.copyOf(fields);
+        getAndRefreshScript = redis.script(GET_AND_REFRESH_SCRIPT);
+        invalidateScript = redis.script(INVALIDATE_SCRIPT);
+        invalidateByIndexScript = redis.script(INVALIDATE_BY_INDEX_SCRIPT);
+    }
+
+    // read and refresh in one round trip, refreshing expiration of non-existent key is no-op
     @Override
     public Map<String, String> getAndRefresh(String sessionId, String domain, Duration timeout) {
         String key = sessionKey(sessionId, domain);
         try {
-            Map<String, String> sessionValues = redis.hash().getAll(key);
-            if (sessionValues.isEmpty()) return null;
-            redis.expire(key, timeout);
-            return sessionValues;
+            Map<String, String> values = indexedFields.isEmpty() ? getAndRefresh(key, timeout) : getAndRefreshWithIndex(key, timeout);
+            if (values.isEmpty()) return null;
+            return values;
         } catch (RedisException e) {
             // gracefully handle invalid data in redis, either legacy old format value, or invalid value/key type inserted manually,
             logger.warn(errorCode("INVALID_SESSION_VALUE"), "failed to get redis session values", e);
@@ -43,6 +88,31 @@ public class RedisSessionStore implements SessionStore {
         }
     }
 
+    private Map<String, String> getAndRefresh(String key, Duration timeout) {
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<Map<String, String>> sessionValues = pipeline.hashGetAll(key);
+        pipeline.expire(key, timeout);
+        pipeline.execute();
+        return sessionValues.get();
+    }
+
+    private Map<String, String> getAndRefreshWithIndex(String key, Duration timeout) {
+        String[] arguments = new String[indexedFields.size() + 1];
+        arguments[0] = String.valueOf(timeout.toMillis());
+        int index = 1;
+        for (String field : indexedFields) {
+            arguments[index++] = field;
+        }
+        @SuppressWarnings("unchecked")
+        List<String> response = (List<String>) getAndRefreshScript.eval(List.of(key), arguments);
+        Map<String, String> values = Maps.newHashMapWithExpectedSize(response.size() / 2);
+        for (int i = 0; i < response.size(); i += 2) {
+            values.put(response.get(i), response.get(i + 1));
+        }
+        return values;
+    }
+
+    // write all changes in one round trip
     @Override
     public void save(String sessionId, String domain, Map<String, String> values, Set<String> changedFields, Duration timeout) {
         String key = sessionKey(sessionId, domain);
@@ -54,20 +124,40 @@ public class RedisSessionStore implements SessionStore {
             if (value == null) deletedFields.add(changedSessionField);
             else updatedValues.put(changedSessionField, value);
         }
-        if (!deletedFields.isEmpty()) redis.hash().del(key, deletedFields.toArray(new String[0]));
-        if (!updatedValues.isEmpty()) redis.hash().multiSet(key, updatedValues);
-        redis.expire(key, timeout);
+        RedisPipeline pipeline = redis.pipeline();
+        if (!deletedFields.isEmpty()) pipeline.hashDel(key, deletedFields.toArray(new String[0]));
+        if (!updatedValues.isEmpty()) pipeline.hashMultiSet(key, updatedValues);
+        pipeline.expire(key, timeout);
+        for (String field : indexedFields) {
+            String value = values.get(field);
+            if (value != null) {
+                String indexKey = indexKey(field, value);
+                if (updatedValues.containsKey(field)) pipeline.setAdd(indexKey, key);
+                pipeline.expire(indexKey, timeout);
+            }
+        }
+        pipeline.execute();
     }
 
     @Override
     public void invalidate(String sessionId, String domain) {
         String key = sessionKey(sessionId, domain);
-        redis.del(key);
+        if (indexedFields.isEmpty()) {
+            redis.del(key);
+        } else {
+            invalidateScript.eval(List.of(key), indexedFields.toArray(String[]::new));
+        }
     }
 
-    // use naive solution, generally invalidate by key/value is used to kick out login user, it happens rarely and will be handled by message handler which is in background
+    // for indexed field, it deletes matched sessions by index in one round trip,
+    // otherwise use naive solution, generally invalidate by key/value is used to kick out login user, it happens rarely and will be handled by message handler which is in background
     @Override
     public void invalidateByKey(String key, String value) {
+        if (indexedFields.contains(key)) {
+            Object deleted = invalidateByIndexScript.eval(List.of(indexKey(key, value)), key, value);
+            logger.debug("invalidate sessions by index, key={}, deleted={}", key, deleted);
+            return;
+        }
         redis.forEach("session:*", sessionKey -> {
             String valueInSession = redis.hash().get(sessionKey, key);
             if (Strings.equals(value, valueInSession)) {
@@ -80,4 +170,9 @@ public class RedisSessionStore implements SessionStore {
     String sessionKey(String sessionId, String domain) {
         return "session:" + Hash.sha256Hex(domain + ":" + sessionId);
     }
+
+    // index key is not under "session:" prefix, not to be scanned as session, scripts build same key
+    String indexKey(String field, String value) {
+        return "session-index:" + field + ":" + value;
+    }
 }
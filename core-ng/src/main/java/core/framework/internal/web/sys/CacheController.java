@@ -59,6 +59,8 @@ public class CacheController {
         view.name = cache.name;
         view.type = cache.cacheClass.getCanonicalName();
         view.duration = (int) cache.duration.getSeconds();
+        view.localBytes = cache.context.localBytes();
+        view.peakLocalBytes = cache.context.peakLocalBytes();
         return view;
     }
 }
@@ -18,5 +18,9 @@ public class ListCacheResponse {
         public String type;
         @Property(name = "duration")
         public Integer duration;
+        @Property(name = "local_bytes")
+        public Long localBytes;
+        @Property(name = "peak_local_bytes")
+        public Long peakLocalBytes;
     }
 }
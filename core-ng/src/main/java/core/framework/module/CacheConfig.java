@@ -1,17 +1,23 @@
 package core.framework.module;
 
+import core.framework.async.Executor;
 import core.framework.cache.Cache;
 import core.framework.http.HTTPMethod;
 import core.framework.internal.cache.CacheClassValidator;
 import core.framework.internal.cache.CacheImpl;
+import core.framework.internal.cache.CacheInvalidator;
 import core.framework.internal.cache.CacheStore;
 import core.framework.internal.cache.LocalCacheMetrics;
 import core.framework.internal.cache.LocalCacheStore;
+import core.framework.internal.cache.NearCacheStore;
+import core.framework.internal.cache.OffHeapCacheMetrics;
+import core.framework.internal.cache.OffHeapCacheStore;
 import core.framework.internal.cache.RedisCacheStore;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
 import core.framework.internal.redis.RedisImpl;
+import core.framework.internal.redis.RedisSubscriber;
 import core.framework.internal.resource.PoolMetrics;
 import core.framework.internal.web.sys.CacheController;
 import core.framework.util.ASCII;
@@ -33,7 +39,12 @@ public class CacheConfig extends Config {
     private ModuleContext context;
     private LocalCacheStore localCacheStore;
     private CacheStore redisCacheStore;
+    private RedisImpl redis;
+    private CacheInvalidator cacheInvalidator;
+    private OffHeapCacheStore offHeapCacheStore;
     private int maxLocalSize;
+    private long maxLocalBytes;
+    private long maxOffHeapSize;
 
     @Override
     protected void initialize(ModuleContext context, String name) {
@@ -53,7 +64,13 @@ public class CacheConfig extends Config {
         }
         // maxLocalSize() can be configured before localCacheStore is created, so set max size at end
         if (maxLocalSize > 0 && localCacheStore != null) {
-            localCacheStore.maxSize = maxLocalSize;
+            localCacheStore.maxSize(maxLocalSize);
+        }
+        if (maxLocalBytes > 0 && localCacheStore != null) {
+            localCacheStore.maxBytes(maxLocalBytes);
+        }
+        if (maxOffHeapSize > 0 && offHeapCacheStore != null) {
+            offHeapCacheStore.maxSize(maxOffHeapSize);
         }
     }
 
@@ -85,11 +102,40 @@ public class CacheConfig extends Config {
         return new CacheStoreConfig(cache, this);
     }
 
-    // number of objects to cache
+    // entity cache of repository, registered under "entity:" prefix and not bound as bean, so it won't conflict with cache().add(entityClass, duration),
+    // with offHeap, entity is kept serialized in local off heap memory, so every get() returns new instance, not to share mutable entity between callers
+    <T> CacheImpl<T> entityCache(Class<T> entityClass, Duration duration, boolean offHeap) {
+        if (localCacheStore == null && redisCacheStore == null) throw new Error("cache store is not configured, please configure first");
+        logger.info("add entity cache, class={}, duration={}, offHeap={}", entityClass.getCanonicalName(), duration, offHeap);
+        new CacheClassValidator(entityClass).validate();
+        String name = "entity:" + cacheName(entityClass);
+        var cache = new CacheImpl<>(name, entityClass, duration);
+        cache.cacheStore = redisCacheStore != null ? redisCacheStore : localCacheStore;
+        CacheImpl<?> previous = caches.putIfAbsent(name, cache);
+        if (previous != null) throw new Error("found duplicate entity cache, name=" + name);
+        if (offHeap) new CacheStoreConfig(cache, this).offHeap();
+        return cache;
+    }
+
+    // number of objects to cache, not bounded by default
     public void maxLocalSize(int size) {
         maxLocalSize = size;
     }
 
+    // estimated heap bytes of all local caches, default is 10% of max heap, size of each value is estimated by sampling
+    public void maxLocalBytes(long bytes) {
+        maxLocalBytes = bytes;
+    }
+
+    // bytes of off heap memory shared by all off heap caches, allocated in 1M slabs on demand, must be within -XX:MaxDirectMemorySize
+    public void maxOffHeapSize(long bytes) {
+        maxOffHeapSize = bytes;
+    }
+
+    Executor executor() {
+        return (Executor) context.beanFactory.bean(Executor.class, null);
+    }
+
     String cacheName(Class<?> cacheClass) {
         return ASCII.toLowerCase(cacheClass.getSimpleName());
     }
@@ -106,6 +152,21 @@ public class CacheConfig extends Config {
         context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
         context.collector.metrics.add(new PoolMetrics(redis.pool));
         redisCacheStore = new RedisCacheStore(redis);
+        this.redis = redis;
+    }
+
+    void near(CacheImpl<?> cache, Duration localDuration) {
+        if (!(cache.cacheStore instanceof final RedisCacheStore redisCacheStore)) throw new Error("near cache requires redis cache store, name=" + cache.name);
+        if (cacheInvalidator == null) {
+            logger.info("create cache invalidator, channel={}", CacheInvalidator.CHANNEL);
+            var cacheInvalidator = new CacheInvalidator(redis, localCacheStore());
+            var subscriber = new RedisSubscriber(redis, CacheInvalidator.CHANNEL, cacheInvalidator);
+            context.startupHook.initialize.add(subscriber::start);
+            context.shutdownHook.add(ShutdownHook.STAGE_6, timeout -> subscriber.close());
+            this.cacheInvalidator = cacheInvalidator;
+        }
+        cacheInvalidator.add(cache.context);
+        cache.cacheStore = new NearCacheStore(localCacheStore(), redisCacheStore, cacheInvalidator, localDuration);
     }
 
     LocalCacheStore localCacheStore() {
@@ -113,9 +174,20 @@ public class CacheConfig extends Config {
             logger.info("create local cache store");
             var localCacheStore = new LocalCacheStore();
             context.backgroundTask().scheduleWithFixedDelay(localCacheStore::cleanup, Duration.ofMinutes(5));
-            context.collector.metrics.add(new LocalCacheMetrics(localCacheStore));
+            context.collector.metrics.add(new LocalCacheMetrics(localCacheStore, caches));
             this.localCacheStore = localCacheStore;
         }
         return localCacheStore;
     }
+
+    OffHeapCacheStore offHeapCacheStore() {
+        if (offHeapCacheStore == null) {
+            logger.info("create off heap cache store");
+            var offHeapCacheStore = new OffHeapCacheStore();
+            context.backgroundTask().scheduleWithFixedDelay(offHeapCacheStore::cleanup, Duration.ofMinutes(5));
+            context.collector.metrics.add(new OffHeapCacheMetrics(offHeapCacheStore));
+            this.offHeapCacheStore = offHeapCacheStore;
+        }
+        return offHeapCacheStore;
+    }
 }
@@ -3,6 +3,8 @@ package core.framework.module;
 import core.framework.internal.cache.CacheImpl;
 import core.framework.internal.cache.RedisCacheStore;
 
+import java.time.Duration;
+
 /**
  * @author neo
  */
@@ -23,4 +25,39 @@ public class CacheStoreConfig {
             cache.cacheStore = config.localCacheStore();
         }
     }
+
+    // for large local cache, e.g. reference data, keep serialized value in off heap memory to reduce heap usage and gc pause, value is deserialized on every get,
+    // it uses binary value format, max bytes of all off heap caches is configured by cache().maxOffHeapSize()
+    public void offHeap() {
+        cache.context.codec.binary();
+        cache.cacheStore = config.offHeapCacheStore();
+    }
+
+    // for hot keys, keep local copy in front of redis to save network round trip and deserialization,
+    // put/evict on any node evicts local copies on all nodes, and local copy expires after localDuration in case invalidation message is lost,
+    // requires cache().redis(host)
+    public void near(Duration localDuration) {
+        config.near(cache, localDuration);
+    }
+
+    // store value in redis as compact binary generated from cache class, and compress with snappy if larger than 1K, to save redis memory and serialization cost,
+    // json value written before is still readable, binary value written by other version of cache class will be reloaded
+    public void binary() {
+        cache.context.codec.binary();
+    }
+
+    // for hot and slowly changing data, if value is older than refreshAfter, return it and reload in background via executor,
+    // to take loading time off request path, value still expires after cache duration if not refreshed in time
+    public void refreshAfter(Duration refreshAfter) {
+        if (refreshAfter.compareTo(cache.duration) >= 0) throw new Error("refreshAfter must be shorter than cache duration, refreshAfter=" + refreshAfter + ", duration=" + cache.duration);
+        cache.refreshAfter = refreshAfter;
+        cache.executor = config.executor();
+    }
+
+    // cache absent value as tombstone for shorter duration, to stop repeated lookups of not existing keys from hitting db,
+    // loader can return null, or Optional.empty() with cache.find()
+    public void negative(Duration duration) {
+        if (duration.compareTo(cache.duration) >= 0) throw new Error("negative duration must be shorter than cache duration, negativeDuration=" + duration + ", duration=" + cache.duration);
+        cache.negativeDuration = duration;
+    }
 }
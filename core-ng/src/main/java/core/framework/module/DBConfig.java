@@ -1,10 +1,14 @@
 package core.framework.module;
 
+import core.framework.db.BatchWriter;
 import core.framework.db.CloudAuthProvider;
 import core.framework.db.Database;
 import core.framework.db.IsolationLevel;
 import core.framework.db.Repository;
+import core.framework.internal.db.BatchWriterImpl;
 import core.framework.internal.db.DatabaseImpl;
+import core.framework.internal.db.DatabaseReplica;
+import core.framework.internal.db.RepositoryImpl;
 import core.framework.internal.db.cloud.AzureAuthProvider;
 import core.framework.internal.db.cloud.GCloudAuthProvider;
 import core.framework.internal.module.Config;
@@ -93,7 +97,21 @@ public class DBConfig extends Config {
     }
 
     public void poolSize(int minSize, int maxSize) {
-        database.pool.size(minSize, maxSize);
+        database.poolSize(minSize, maxSize);
+    }
+
+    // reads outside transaction go to replicas by round-robin, use database.readFromPrimary() for read-your-writes,
+    // replica lagging behind maxReplicaLag is taken out of rotation, all reads fall back to primary if no replica available
+    public void replica(String url) {
+        if (this.url == null) throw new Error("db url must be configured first, name=" + name);
+        DatabaseReplica replica = database.replica(url);
+        if (database.replicas.size() == 1) context.backgroundTask().scheduleWithFixedDelay(database::checkReplicas, Duration.ofSeconds(10));
+        context.backgroundTask().scheduleWithFixedDelay(replica.pool::refresh, Duration.ofMinutes(10));
+        context.collector.metrics.add(new PoolMetrics(replica.pool));
+    }
+
+    public void maxReplicaLag(Duration maxLag) {
+        database.maxReplicaLag = maxLag;
     }
 
     public void isolationLevel(IsolationLevel level) {
@@ -108,6 +126,12 @@ public class DBConfig extends Config {
         database.timeout(timeout);
     }
 
+    // rows fetched per round trip by database.forEach() and query.forEach(), mysql always streams row by row
+    public void fetchSize(int fetchSize) {
+        if (fetchSize <= 0) throw new Error("fetchSize must be greater than 0, fetchSize=" + fetchSize);
+        database.fetchSize = fetchSize;
+    }
+
     public void view(Class<?> viewClass) {
         if (url == null) throw new Error("db url must be configured first, name=" + name);
         database.view(viewClass);
@@ -122,4 +146,33 @@ public class DBConfig extends Config {
         entityClasses.add(entityClass);
         return repository;
     }
+
+    // cache entity by primary key for repository.get() in cache store configured by cache(), e.g. cache().local() or cache().redis(host),
+    // all mutating methods of repository evict cached entities, except database.execute() with raw sql,
+    // with cache().local(), get() returns shared instance from heap, must not modify returned entity, or use offHeap to get new instance every time
+    public <T> Repository<T> repository(Class<T> entityClass, Duration cacheDuration) {
+        return repository(entityClass, cacheDuration, false);
+    }
+
+    // keep cached entities serialized in local off heap memory regardless of cache store, every get() deserializes new instance
+    public <T> Repository<T> repository(Class<T> entityClass, Duration cacheDuration, boolean offHeap) {
+        Repository<T> repository = repository(entityClass);
+        ((RepositoryImpl<T>) repository).cache = context.config(CacheConfig.class, null).entityCache(entityClass, cacheDuration, offHeap);
+        return repository;
+    }
+
+    // buffer insert/upsert from concurrent callers and write by batch, e.g. high rate event ingestion, batch is flushed when full or maxDelay reached,
+    // callers get future to wait for result, buffered entities are flushed on shutdown
+    public <T> BatchWriter<T> batchWriter(Class<T> entityClass, int batchSize, Duration maxDelay) {
+        if (!entityClasses.contains(entityClass)) throw new Error("repository must be added first, entityClass=" + entityClass.getCanonicalName());
+        if (batchSize <= 1) throw new Error("batchSize must be greater than 1, batchSize=" + batchSize);
+        @SuppressWarnings("unchecked")
+        var repository = (RepositoryImpl<T>) context.beanFactory.bean(Types.generic(Repository.class, entityClass), name);
+        var writer = new BatchWriterImpl<>(database, context.logManager, repository, entityClass, batchSize, maxDelay);
+        context.startupHook.initialize.add(writer::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_4, timeout -> writer.shutdown());
+        context.shutdownHook.add(ShutdownHook.STAGE_4, writer::awaitTermination);
+        context.beanFactory.bind(Types.generic(BatchWriter.class, entityClass), name, writer);
+        return writer;
+    }
 }
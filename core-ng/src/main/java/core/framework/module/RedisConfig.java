@@ -1,15 +1,23 @@
 package core.framework.module;
 
+import core.framework.internal.inject.InjectValidator;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
+import core.framework.internal.redis.RedisClientCache;
+import core.framework.internal.redis.RedisCluster;
 import core.framework.internal.redis.RedisImpl;
+import core.framework.internal.redis.RedisStreamListener;
+import core.framework.internal.resource.Pool;
 import core.framework.internal.resource.PoolMetrics;
 import core.framework.redis.Redis;
+import core.framework.redis.RedisReadPolicy;
+import core.framework.redis.RedisStreamHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * @author neo
@@ -20,6 +28,7 @@ public class RedisConfig extends Config {
     private Redis redis;
     private String name;
     private String host;
+    private RedisStreamListener streamListener;
 
     @Override
     protected void initialize(ModuleContext context, String name) {
@@ -63,6 +72,67 @@ public class RedisConfig extends Config {
         ((RedisImpl) redis).pool.size(minSize, maxSize);
     }
 
+    // for high concurrency with virtual threads, multiplex requests over few connections with automatic pipelining, instead of one blocking connection per request,
+    // pool size is max in flight requests in this mode
+    public void multiplex(int connections) {
+        ((RedisImpl) redis).multiplex(connections);
+    }
+
+    // for redis cluster, host is seed node, commands are routed by hash slot, multi key commands are split by slot and sent to nodes in parallel
+    public void cluster() {
+        RedisCluster cluster = ((RedisImpl) redis).cluster();
+        context.backgroundTask().scheduleWithFixedDelay(cluster::refresh, Duration.ofMinutes(5));
+    }
+
+    // read only commands go to replicas by policy, reads may be stale by replication lag, e.g. not to read back right after write
+    public void replicas(RedisReadPolicy policy, String... hosts) {
+        Pool<?> replicaPool = ((RedisImpl) redis).replicas(List.of(hosts), policy);
+        if (replicaPool == null) return;
+        context.backgroundTask().scheduleWithFixedDelay(replicaPool::refresh, Duration.ofMinutes(5));
+        context.collector.metrics.add(new PoolMetrics(replicaPool));
+    }
+
+    // cache get/multiGet/hash().getAll results of keys matching prefixes in memory, invalidated by server push (RESP3 CLIENT TRACKING in BCAST mode), requires redis 6+,
+    // it's for hot keys read much more than written, e.g. config or feature flags, empty prefixes means all keys
+    public void clientCache(int maxSize, String... prefixes) {
+        RedisClientCache clientCache = ((RedisImpl) redis).clientCache(maxSize, List.of(prefixes));
+        context.startupHook.initialize.add(clientCache::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_6, timeout -> clientCache.close());
+    }
+
+    // consume stream as durable queue with consumer group, entries are handled concurrently in virtual threads, and acked after handled
+    public void subscribe(String stream, RedisStreamHandler handler) {
+        if (handler == null) throw new Error("handler must not be null");
+        logger.info("subscribe stream, stream={}, handlerClass={}, name={}", stream, handler.getClass().getCanonicalName(), name);
+        new InjectValidator(handler).validate();
+        streamListener().subscribe(stream, handler);
+    }
+
+    private RedisStreamListener streamListener() {
+        if (streamListener == null) {
+            var listener = new RedisStreamListener((RedisImpl) redis, context.logManager);
+            context.startupHook.start.add(listener::start);
+            context.shutdownHook.add(ShutdownHook.STAGE_0, timeout -> listener.shutdown());
+            context.shutdownHook.add(ShutdownHook.STAGE_1, listener::awaitTermination);
+            streamListener = listener;
+        }
+        return streamListener;
+    }
+
+    // by default stream listener use AppName as consumer group, each pod is consumer of group
+    public void streamGroup(String group) {
+        streamListener().group = group;
+    }
+
+    public void streamConcurrency(int concurrency) {
+        streamListener().concurrency = concurrency;
+    }
+
+    // pending entries idle longer than this are claimed from other consumers, e.g. pod crashed before ack
+    public void streamClaimMinIdleTime(Duration minIdleTime) {
+        streamListener().claimMinIdleTime = minIdleTime;
+    }
+
     public void timeout(Duration timeout) {
         ((RedisImpl) redis).timeout(timeout);
     }
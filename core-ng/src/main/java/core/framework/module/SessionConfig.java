@@ -11,6 +11,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 
 /**
  * @author neo
@@ -18,6 +20,7 @@ import java.time.Duration;
 public class SessionConfig extends Config {
     private final Logger logger = LoggerFactory.getLogger(SessionConfig.class);
     private ModuleContext context;
+    private RedisSessionStore redisSessionStore;
 
     @Override
     protected void initialize(ModuleContext context, String name) {
@@ -56,6 +59,15 @@ public class SessionConfig extends Config {
 
         context.probe.hostURIs.add(host);
         context.shutdownHook.add(ShutdownHook.STAGE_6, timeout -> redis.close());
-        context.httpServer.siteManager.sessionManager.store(new RedisSessionStore(redis));
+        redisSessionStore = new RedisSessionStore(redis);
+        context.httpServer.siteManager.sessionManager.store(redisSessionStore);
+    }
+
+    // index sessions by values of fields for sessionContext.invalidate(field, value), e.g. "user_id" to kick out user,
+    // without index, it has to scan all sessions, requires redis session store
+    public void index(String... fields) {
+        if (redisSessionStore == null) throw new Error("session index requires redis session store, please configure site().session().redis() first");
+        logger.info("index redis sessions, fields={}", List.of(fields));
+        redisSessionStore.index(Set.of(fields));
     }
 }
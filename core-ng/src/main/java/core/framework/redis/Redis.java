@@ -45,4 +45,12 @@ public interface Redis {
     RedisAdmin admin();
 
     RedisHyperLogLog hyperLogLog();
+
+    RedisStream stream();
+
+    // batch independent commands in one round trip, e.g. read multiple hashes, or set values with expiration
+    RedisPipeline pipeline();
+
+    // register lua script at configure time and reuse returned script, e.g. to collapse read-modify-write into one atomic round trip
+    RedisScript script(String script);
 }
@@ -2,6 +2,7 @@ package core.framework.redis;
 
 import javax.annotation.Nullable;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -12,6 +13,9 @@ public interface RedisHash {
 
     Map<String, String> getAll(String key);
 
+    // iterate fields by HSCAN in batches of about batchSize, to process huge hash in constant memory, field changed during iteration may be returned more than once
+    void forEach(String key, int batchSize, Consumer<Map<String, String>> consumer);
+
     void set(String key, String field, String value);
 
     void multiSet(String key, Map<String, String> values);
@@ -0,0 +1,41 @@
+package core.framework.redis;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * queue commands and send them in one round trip by execute(), result is available after execute,
+ * commands are independent, not atomic like MULTI/EXEC
+ *
+ * @author neo
+ */
+public interface RedisPipeline {
+    Supplier<String> get(String key);
+
+    void set(String key, String value, @Nullable Duration expiration);
+
+    void expire(String key, Duration expiration);
+
+    Supplier<Long> del(String... keys);
+
+    Supplier<Long> increaseBy(String key, long increment);
+
+    Supplier<String> hashGet(String key, String field);
+
+    Supplier<Map<String, String>> hashGetAll(String key);
+
+    void hashSet(String key, String field, String value);
+
+    void hashMultiSet(String key, Map<String, String> values);
+
+    Supplier<Long> hashIncreaseBy(String key, String field, long increment);
+
+    Supplier<Long> hashDel(String key, String... fields);
+
+    Supplier<Long> setAdd(String key, String... values);
+
+    // send all queued commands with single flush and read all replies, throws first error after all replies are read, pipeline can be reused after execute
+    void execute();
+}
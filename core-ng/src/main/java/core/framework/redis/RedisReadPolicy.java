@@ -0,0 +1,12 @@
+package core.framework.redis;
+
+/**
+ * where read only commands go when replicas are configured, reads from replica may be stale by replication lag
+ *
+ * @author neo
+ */
+public enum RedisReadPolicy {
+    PRIMARY,            // all commands go to primary
+    REPLICA_PREFERRED,  // reads go to replicas in turn, fall back to primary if all replicas are unavailable
+    NEAREST             // reads go to host with lowest connect latency among replicas and primary
+}
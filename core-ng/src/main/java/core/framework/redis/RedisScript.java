@@ -0,0 +1,15 @@
+package core.framework.redis;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * lua script registered by Redis.script(), executed atomically by EVALSHA in one round trip,
+ * result is converted from redis reply, integer to Long, bulk/status string to String, array to List, nil or false to null
+ *
+ * @author neo
+ */
+public interface RedisScript {
+    @Nullable
+    Object eval(List<String> keys, String... arguments);
+}
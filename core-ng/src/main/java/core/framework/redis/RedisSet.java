@@ -1,6 +1,7 @@
 package core.framework.redis;
 
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -10,6 +11,9 @@ public interface RedisSet {
 
     Set<String> members(String key);
 
+    // iterate members by SSCAN in batches of about batchSize, to process huge set in constant memory, member changed during iteration may be returned more than once
+    void forEach(String key, int batchSize, Consumer<Set<String>> consumer);
+
     boolean isMember(String key, String value);
 
     long remove(String key, String... values);
@@ -3,6 +3,7 @@ package core.framework.redis;
 import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author tempo
@@ -23,6 +24,9 @@ public interface RedisSortedSet {
 
     Map<String, Long> range(String key, long start, long stop);
 
+    // iterate values with scores by ZSCAN in batches of about batchSize, not in order of score, value changed during iteration may be returned more than once
+    void forEach(String key, int batchSize, Consumer<Map<String, Long>> consumer);
+
     default Map<String, Long> rangeByScore(String key, long minScore, long maxScore) {
         return rangeByScore(key, minScore, maxScore, -1);
     }
@@ -0,0 +1,30 @@
+package core.framework.redis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * stream as lightweight durable queue, entries are delivered to consumers of group, and stay pending until acked,
+ * pending entries of dead consumer can be claimed by others, refer to https://redis.io/docs/data-types/streams/
+ *
+ * @author neo
+ */
+public interface RedisStream {
+    // append entry and trim stream to about maxLength (MAXLEN ~), return entry id
+    String add(String key, Map<String, String> fields, long maxLength);
+
+    // create group to deliver new entries from now on, stream is created if not exists, do nothing if group exists
+    void createGroup(String key, String group);
+
+    // read new entries for consumer of group without blocking, use RedisConfig.subscribe() to process entries continuously with blocking read
+    List<Entry> readGroup(String key, String group, String consumer, int count);
+
+    long ack(String key, String group, String... ids);
+
+    // claim entries pending longer than minIdleTime, e.g. consumer crashed before ack
+    List<Entry> autoClaim(String key, String group, String consumer, Duration minIdleTime, int count);
+
+    record Entry(String id, Map<String, String> fields) {
+    }
+}
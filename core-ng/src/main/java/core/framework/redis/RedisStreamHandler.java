@@ -0,0 +1,9 @@
+package core.framework.redis;
+
+/**
+ * @author neo
+ */
+@FunctionalInterface
+public interface RedisStreamHandler {
+    void handle(String key, RedisStream.Entry entry) throws Exception;
+}
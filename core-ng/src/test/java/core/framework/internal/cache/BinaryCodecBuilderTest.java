@@ -0,0 +1,37 @@
+package core.framework.internal.cache;
+
+import core.framework.util.ClasspathResources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class BinaryCodecBuilderTest {
+    private BinaryCodecBuilder builder;
+
+    @BeforeEach
+    void createBinaryCodecBuilder() {
+        builder = new BinaryCodecBuilder(TestCache.class);
+        builder.build();
+    }
+
+    @Test
+    void sourceCode() {
+        String sourceCode = builder.builder.sourceCode();
+        assertThat(sourceCode).isEqualToIgnoringWhitespace(ClasspathResources.text("cache-test/binary-codec.java"));
+    }
+
+    @Test
+    void schemaVersion() {
+        var builder = new BinaryCodecBuilder(TestCache.class);
+        builder.build();
+        assertThat(builder.schemaVersion()).isEqualTo(this.builder.schemaVersion());
+
+        var childBuilder = new BinaryCodecBuilder(TestCache.Child.class);
+        childBuilder.build();
+        assertThat(childBuilder.schemaVersion()).isNotEqualTo(this.builder.schemaVersion());
+    }
+}
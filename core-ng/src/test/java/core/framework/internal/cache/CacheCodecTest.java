@@ -0,0 +1,172 @@
+package core.framework.internal.cache;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class CacheCodecTest {
+    private CacheCodec<TestCache> codec;
+
+    @BeforeEach
+    void createCacheCodec() {
+        codec = new CacheCodec<>(TestCache.class);
+    }
+
+    @Test
+    void encodeJSON() throws IOException {
+        byte[] value = codec.encode(cache());
+        assertThat(value[0]).isEqualTo((byte) '{');
+        assertThat(codec.decode(value)).usingRecursiveComparison()
+            .withComparatorForType(ChronoZonedDateTime.timeLineOrder(), ZonedDateTime.class)   // json keeps instant of ZonedDateTime only
+            .isEqualTo(cache());
+    }
+
+    @Test
+    void encodeBinary() throws IOException {
+        codec.binary();
+        TestCache cache = cache();
+        byte[] value = codec.encode(cache);
+
+        assertThat(value[0]).isEqualTo(CacheCodec.BINARY);
+        assertThat(value.length).isLessThan(new CacheCodec<>(TestCache.class).encode(cache).length);
+        assertThat(codec.decode(value)).usingRecursiveComparison().isEqualTo(cache);
+    }
+
+    @Test
+    void encodeBinaryWithNullFields() throws IOException {
+        codec.binary();
+        var cache = new TestCache();
+        cache.stringField = "value";
+        cache.childField = new TestCache.Child();
+        cache.childField.bigDecimalField = null;
+
+        TestCache result = codec.decode(codec.encode(cache));
+        assertThat(result).usingRecursiveComparison().isEqualTo(cache);
+        assertThat(result.childField.bigDecimalField).isNull();
+    }
+
+    @Test
+    void encodeBinaryWithCompression() throws IOException {
+        codec.binary();
+        TestCache cache = cache();
+        cache.stringField = "value".repeat(500);
+        byte[] value = codec.encode(cache);
+
+        assertThat(value[0]).isEqualTo(CacheCodec.BINARY_SNAPPY);
+        assertThat(value.length).isLessThan(cache.stringField.length());
+        assertThat(codec.decode(value)).usingRecursiveComparison().isEqualTo(cache);
+    }
+
+    @Test
+    void decodeSlice() throws IOException {
+        codec.binary();
+        TestCache cache = cache();
+        cache.stringField = "value".repeat(500);
+        for (byte[] value : List.of(codec.encode(cache), new CacheCodec<>(TestCache.class).encode(cache))) {   // snappy binary and json
+            byte[] buffer = new byte[value.length + 10];
+            System.arraycopy(value, 0, buffer, 5, value.length);
+            assertThat(codec.decode(buffer, 5, value.length).stringField).isEqualTo(cache.stringField);
+        }
+    }
+
+    @Test
+    void decodeJSONWithBinaryEnabled() throws IOException {
+        byte[] json = codec.encode(cache());
+        codec.binary();
+        assertThat(codec.decode(json)).usingRecursiveComparison()
+            .withComparatorForType(ChronoZonedDateTime.timeLineOrder(), ZonedDateTime.class)
+            .isEqualTo(cache());
+    }
+
+    @Test
+    void decodeBinaryWithoutBinaryEnabled() {
+        var binaryCodec = new CacheCodec<>(TestCache.class);
+        binaryCodec.binary();
+        byte[] value = binaryCodec.encode(cache());
+
+        assertThatThrownBy(() -> codec.decode(value))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("binary codec is not enabled");
+    }
+
+    @Test
+    void decodeWithDifferentSchemaVersion() {
+        codec.binary();
+        byte[] value = codec.encode(cache());
+        value[4]++;
+
+        assertThatThrownBy(() -> codec.decode(value))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("schema version does not match");
+    }
+
+    @Test
+    void decodeTruncatedValue() {
+        codec.binary();
+        byte[] value = codec.encode(cache());
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(value, value.length - 3)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("invalid binary value");
+    }
+
+    @Test
+    void encodeTombstone() throws IOException {
+        codec.binary();
+        @SuppressWarnings("unchecked")
+        CacheCodec<Object> objectCodec = (CacheCodec<Object>) (CacheCodec<?>) codec;
+        byte[] value = objectCodec.encode(CacheStore.Tombstone.INSTANCE);
+        assertThat(value).isEqualTo(Strings.bytes("null"));
+        assertThat(objectCodec.decode(value)).isSameAs(CacheStore.Tombstone.INSTANCE);
+    }
+
+    @Test
+    void decodeInvalidJSON() {
+        codec.binary();
+        assertThatThrownBy(() -> codec.decode(Strings.bytes("{\"listField\": 1}")))
+            .isInstanceOf(IOException.class);
+    }
+
+    private TestCache cache() {
+        var cache = new TestCache();
+        cache.dateTimeField = LocalDateTime.of(2024, 3, 8, 10, 30, 15, 123_000_000);
+        cache.timeField = LocalTime.of(23, 59, 59);
+        cache.dateField = LocalDate.of(1969, 12, 31);
+        cache.zonedDateTimeField = ZonedDateTime.of(2024, 3, 8, 10, 0, 0, 0, ZoneId.of("America/New_York"));
+        cache.instantField = Instant.ofEpochSecond(-1, 500);
+        cache.intField = -12;
+        cache.longField = Long.MAX_VALUE;
+        cache.doubleField = 3.14;
+        cache.booleanField = Boolean.FALSE;
+        cache.enumField = TestCache.TestEnum.V2;
+        cache.stringField = "value 值";
+        cache.listField = List.of("v1", "v2");
+        cache.mapField = Map.of("k1", "v1");
+        cache.childField = new TestCache.Child();
+        cache.childField.bigDecimalField = new BigDecimal("-12345678901234567890.123");
+        cache.childrenField = List.of(new TestCache.Child());
+        cache.enumMapField = Map.of(TestCache.TestEnum.V1, "v1");
+        cache.mapListField = Map.of("k1", List.of("v1", "v2"), "k2", List.of());
+        cache.mapChildField = Map.of("k1", new TestCache.Child());
+        return cache;
+    }
+}
@@ -1,8 +1,11 @@
 package core.framework.internal.cache;
 
+import core.framework.async.Executor;
+import core.framework.async.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -12,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +34,8 @@ import static org.mockito.Mockito.when;
 class CacheImplTest {
     @Mock
     CacheStore cacheStore;
+    @Mock
+    Executor executor;
     private CacheImpl<TestCache> cache;
 
     @BeforeEach
@@ -55,6 +61,57 @@ class CacheImplTest {
         assertThat(value.stringField).isEqualTo("value");
 
         verify(cacheStore).put("name:key", value, Duration.ofHours(1), cache.context);
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void getWhenLoadingByOtherThread() {
+        TestCache item = cacheItem("value");
+        cache.loadingValues.put("name:key", CompletableFuture.completedFuture(item));
+
+        TestCache value = cache.get("key", key -> null);
+        assertThat(value).isSameAs(item);
+        verify(cacheStore, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    void getWhenLoadingByOtherThreadFailed() {
+        cache.loadingValues.put("name:key", CompletableFuture.failedFuture(new Error("failed to load")));
+
+        assertThatThrownBy(() -> cache.get("key", key -> cacheItem("value")))
+            .isInstanceOf(Error.class)
+            .hasMessage("failed to load");
+    }
+
+    @Test
+    void getWithRefreshAhead() throws Exception {
+        cache.refreshAfter = Duration.ofMinutes(30);
+        cache.executor = executor;
+        TestCache item = cacheItem("value");
+        long expirationTime = System.currentTimeMillis() + Duration.ofMinutes(10).toMillis();
+        when(cacheStore.getWithExpiration("name:key", cache.context)).thenReturn(new CacheStore.ExpirableValue<>(item, expirationTime));
+        when(executor.submit(eq("refreshCache:name"), any(Task.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        TestCache refreshedItem = cacheItem("refreshed");
+        TestCache value = cache.get("key", key -> refreshedItem);
+        assertThat(value).isSameAs(item);
+        assertThat(cache.loadingValues).containsKey("name:key");
+
+        ArgumentCaptor<Task> task = ArgumentCaptor.forClass(Task.class);
+        verify(executor).submit(eq("refreshCache:name"), task.capture());
+        task.getValue().execute();
+        verify(cacheStore).put("name:key", refreshedItem, Duration.ofHours(1), cache.context);
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void stale() {
+        cache.refreshAfter = Duration.ofMinutes(30);
+        long now = System.currentTimeMillis();
+
+        assertThat(cache.stale(now + Duration.ofMinutes(50).toMillis(), now)).isFalse();
+        assertThat(cache.stale(now + Duration.ofMinutes(30).toMillis(), now)).isTrue();
+        assertThat(cache.stale(-1, now)).isFalse();
     }
 
     @Test
@@ -75,6 +132,57 @@ class CacheImplTest {
             .hasMessageContaining("value must not be null");
     }
 
+    @Test
+    void getWithNegativeCaching() {
+        cache.negativeDuration = Duration.ofMinutes(1);
+        when(cacheStore.get("name:key", cache.context)).thenReturn(null);
+
+        assertThat(cache.get("key", key -> null)).isNull();
+        verify(cacheStore).put("name:key", CacheStore.Tombstone.INSTANCE, Duration.ofMinutes(1), objectContext());
+    }
+
+    @Test
+    void getWhenHitTombstone() {
+        cache.negativeDuration = Duration.ofMinutes(1);
+        when(cacheStore.get("name:key", objectContext())).thenReturn(CacheStore.Tombstone.INSTANCE);
+
+        assertThat(cache.get("key", key -> cacheItem("value"))).isNull();
+        assertThat(cache.get("key")).isEmpty();
+    }
+
+    @Test
+    void find() {
+        when(cacheStore.get("name:key", cache.context)).thenReturn(null);
+
+        assertThat(cache.find("key", key -> Optional.empty())).isEmpty();
+        verify(cacheStore, never()).put(any(), any(), any(), any());
+
+        Optional<TestCache> value = cache.find("key", key -> Optional.of(cacheItem("value")));
+        assertThat(value).get().satisfies(result -> assertThat(result.stringField).isEqualTo("value"));
+        verify(cacheStore).put("name:key", value.get(), Duration.ofHours(1), cache.context);
+    }
+
+    @Test
+    void findWithNegativeCaching() {
+        cache.negativeDuration = Duration.ofMinutes(1);
+        when(cacheStore.get("name:key", cache.context)).thenReturn(null);
+
+        assertThat(cache.find("key", key -> Optional.empty())).isEmpty();
+        verify(cacheStore).put("name:key", CacheStore.Tombstone.INSTANCE, Duration.ofMinutes(1), objectContext());
+    }
+
+    @Test
+    void getAllWithNegativeCaching() {
+        cache.negativeDuration = Duration.ofMinutes(1);
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2", "name:key3"}, objectContext())).thenReturn(Map.of("name:key1", CacheStore.Tombstone.INSTANCE));
+
+        Map<String, TestCache> results = cache.getAll(Arrays.asList("key1", "key2", "key3"), key -> "key2".equals(key) ? null : cacheItem(key));
+        assertThat(results).containsOnlyKeys("key3");
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && "name:key3".equals(argument.get(0).key())), eq(Duration.ofHours(1)), eq(cache.context));
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && argument.get(0).value() == CacheStore.Tombstone.INSTANCE), eq(Duration.ofMinutes(1)), eq(objectContext()));
+    }
+
     @Test
     void getAllWhenMiss() {
         var values = Map.of("name:key1", cacheItem("v1"),
@@ -89,6 +197,30 @@ class CacheImplTest {
         assertThat(results.get("key3").stringField).isEqualTo("v3");
 
         verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && "v2".equals(argument.get(0).value().stringField)), eq(Duration.ofHours(1)), eq(cache.context));
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void getAllWhenLoadingByOtherThread() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+        cache.loadingValues.put("name:key1", CompletableFuture.completedFuture(cacheItem("v1")));
+
+        Map<String, TestCache> results = cache.getAll(Arrays.asList("key1", "key2"), key -> cacheItem("v2"));
+        assertThat(results.get("key1").stringField).isEqualTo("v1");
+        assertThat(results.get("key2").stringField).isEqualTo("v2");
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && "name:key2".equals(argument.get(0).key())), eq(Duration.ofHours(1)), eq(cache.context));
+    }
+
+    @Test
+    void getAllWhenLoaderFailed() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+
+        assertThatThrownBy(() -> cache.getAll(Arrays.asList("key1", "key2"), key -> {
+            if ("key2".equals(key)) throw new Error("failed to load");
+            return cacheItem(key);
+        })).isInstanceOf(Error.class).hasMessage("failed to load");
+        assertThat(cache.loadingValues).isEmpty();
     }
 
     @Test
@@ -103,6 +235,53 @@ class CacheImplTest {
         verify(cacheStore, never()).putAll(any(), any(), any());
     }
 
+    @Test
+    void batchGet() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2", "name:key3"}, cache.context)).thenReturn(Map.of("name:key1", cacheItem("v1")));
+
+        Map<String, TestCache> results = cache.batchGet(Arrays.asList("key1", "key2", "key3"), keys -> {
+            assertThat(keys).containsOnly("key2", "key3");
+            return Map.of("key2", cacheItem("v2"), "key3", cacheItem("v3"));
+        });
+        assertThat(results).containsOnlyKeys("key1", "key2", "key3");
+        assertThat(results.get("key3").stringField).isEqualTo("v3");
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 2), eq(Duration.ofHours(1)), eq(cache.context));
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void batchGetWhenLoadingByOtherThread() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+        cache.loadingValues.put("name:key1", CompletableFuture.completedFuture(cacheItem("v1")));
+
+        Map<String, TestCache> results = cache.batchGet(Arrays.asList("key1", "key2"), keys -> Map.of("key2", cacheItem("v2")));
+        assertThat(results.get("key1").stringField).isEqualTo("v1");
+        assertThat(results.get("key2").stringField).isEqualTo("v2");
+    }
+
+    @Test
+    void batchGetWithNegativeCaching() {
+        cache.negativeDuration = Duration.ofMinutes(1);
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+
+        Map<String, TestCache> results = cache.batchGet(Arrays.asList("key1", "key2"), keys -> Map.of("key1", cacheItem("v1")));
+        assertThat(results).containsOnlyKeys("key1");
+
+        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && "name:key2".equals(argument.get(0).key())), eq(Duration.ofMinutes(1)), eq(cache.context));
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void batchGetWhenLoaderMissesKey() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+
+        assertThatThrownBy(() -> cache.batchGet(Arrays.asList("key1", "key2"), keys -> Map.of("key1", cacheItem("v1"))))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("value must not be null, key=key2");
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
     @Test
     void put() {
         TestCache item = cacheItem("v1");
@@ -138,9 +317,53 @@ class CacheImplTest {
         verify(cacheStore).delete("name:key1", "name:key2");
     }
 
+    @Test
+    void evictWhileLoading() throws Exception {
+        cache.cacheStore = new LocalCacheStore();
+        var loading = new CompletableFuture<Void>();
+        var evicted = new CompletableFuture<Void>();
+        Thread reader = Thread.ofVirtual().start(() -> cache.get("key", key -> {
+            loading.complete(null);
+            evicted.join();     // value is updated and evicted by other thread after it's loaded
+            return cacheItem("stale");
+        }));
+        loading.get();
+        cache.evict("key");
+        evicted.complete(null);
+        reader.join();
+
+        assertThat(cache.get("key")).isEmpty();
+        assertThat(cache.loadingValues).isEmpty();
+    }
+
+    @Test
+    void evictAllWhileBatchLoading() throws Exception {
+        cache.cacheStore = new LocalCacheStore();
+        var loading = new CompletableFuture<Void>();
+        var evicted = new CompletableFuture<Void>();
+        Thread reader = Thread.ofVirtual().start(() -> cache.batchGet(List.of("key1", "key2"), keys -> {
+            loading.complete(null);
+            evicted.join();
+            return Map.of("key1", cacheItem("stale"), "key2", cacheItem("value"));
+        }));
+        loading.get();
+        cache.evictAll(List.of("key1"));
+        evicted.complete(null);
+        reader.join();
+
+        assertThat(cache.get("key1")).isEmpty();
+        assertThat(cache.get("key2")).get().satisfies(value -> assertThat(value.stringField).isEqualTo("value"));
+    }
+
     private TestCache cacheItem(String stringField) {
         var result = new TestCache();
         result.stringField = stringField;
         return result;
     }
+
+    // tombstone is not TestCache, use Object context to stub or verify it without cast
+    @SuppressWarnings("unchecked")
+    private CacheContext<Object> objectContext() {
+        return (CacheContext<Object>) (CacheContext<?>) cache.context;
+    }
 }
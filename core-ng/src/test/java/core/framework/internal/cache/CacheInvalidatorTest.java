@@ -0,0 +1,85 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.json.JSONWriter;
+import core.framework.internal.redis.RedisImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidatorTest {
+    @Mock
+    RedisImpl redis;
+    private LocalCacheStore localCacheStore;
+    private CacheInvalidator invalidator;
+    private CacheContext<TestCache> context;
+    private JSONWriter<CacheInvalidationMessage> writer;
+
+    @BeforeEach
+    void createCacheInvalidator() {
+        context = new CacheContext<>(TestCache.class);
+        localCacheStore = new LocalCacheStore();
+        invalidator = new CacheInvalidator(redis, localCacheStore);
+        writer = new JSONWriter<>(CacheInvalidationMessage.class);
+    }
+
+    @Test
+    void publish() {
+        invalidator.publish("key1", "key2");
+
+        verify(redis).publish(eq(CacheInvalidator.CHANNEL), any());
+    }
+
+    @Test
+    void onMessage() {
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+        localCacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), context);
+
+        invalidator.onMessage(writer.toJSON(message("other", "key1")));
+        assertThat(localCacheStore.caches).containsOnlyKeys("key2");
+        assertThat(invalidator.version()).isEqualTo(1);
+    }
+
+    @Test
+    void onMessageFromSelf() {
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+
+        invalidator.onMessage(writer.toJSON(message(invalidator.clientId, "key1")));
+        assertThat(localCacheStore.caches).containsOnlyKeys("key1");
+        assertThat(invalidator.version()).isZero();
+    }
+
+    @Test
+    void onSubscribe() {
+        invalidator.add(context);
+        var localContext = new CacheContext<>(TestCache.class);
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+        localCacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), localContext);
+
+        invalidator.onSubscribe();
+        assertThat(localCacheStore.caches).hasSize(2);
+
+        invalidator.onSubscribe();
+        assertThat(localCacheStore.caches).containsOnlyKeys("key2");
+    }
+
+    private CacheInvalidationMessage message(String clientId, String... keys) {
+        var message = new CacheInvalidationMessage();
+        message.clientId = clientId;
+        message.keys = List.of(keys);
+        return message;
+    }
+}
@@ -0,0 +1,53 @@
+package core.framework.internal.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class CacheSizeEstimatorTest {
+    private CacheSizeEstimator estimator;
+
+    @BeforeEach
+    void createCacheSizeEstimator() {
+        estimator = new CacheSizeEstimator(TestCache.class);
+    }
+
+    @Test
+    void estimate() {
+        var value = new TestCache();
+        long emptySize = estimator.estimate(value);
+        assertThat(emptySize).isPositive();
+
+        value.stringField = "x".repeat(1000);
+        value.listField = List.of("a", "b");
+        value.mapField = Map.of("k", "v");
+        value.childrenField = List.of(new TestCache.Child(), new TestCache.Child());
+        assertThat(estimator.estimate(value)).isGreaterThan(emptySize + 1000);
+
+        var child = new TestCache.Child();
+        child.bigDecimalField = new BigDecimal("12345678901234567890.123");
+        assertThat(estimator.estimate(child)).isGreaterThan(estimator.estimate(new TestCache.Child()));
+    }
+
+    @Test
+    void weight() {
+        var small = new TestCache();
+        var large = new TestCache();
+        large.stringField = "x".repeat(10_000);
+
+        assertThat(estimator.weight(large)).isEqualTo(estimator.estimate(large));  // sampled
+        for (int i = 0; i < 100; i++) {
+            estimator.weight(small);
+        }
+        // not sampled value uses moving average, which converges to small value
+        assertThat(estimator.weight(large)).isLessThan(estimator.estimate(large));
+    }
+}
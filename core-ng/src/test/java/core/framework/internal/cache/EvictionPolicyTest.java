@@ -0,0 +1,66 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.cache.LocalCacheStore.CacheItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class EvictionPolicyTest {
+    private EvictionPolicy policy;
+    private CacheContext<TestCache> context;
+
+    @BeforeEach
+    void createContext() {
+        context = new CacheContext<>(TestCache.class);
+    }
+
+    @Test
+    void evictCandidate() {
+        policy = new EvictionPolicy(2, Long.MAX_VALUE);
+        add("key1");
+        CacheItem<?> candidate = add("key2");
+        add("key3");    // key2 moves from window to probation as candidate
+
+        assertThat(policy.overflow()).isTrue();
+        assertThat(policy.evict()).isSameAs(candidate);     // candidate is not accessed more frequently than victim key1
+        assertThat(policy.overflow()).isFalse();
+    }
+
+    @Test
+    void admitCandidate() {
+        policy = new EvictionPolicy(2, Long.MAX_VALUE);
+        CacheItem<?> victim = add("key1");
+        CacheItem<?> candidate = add("key2");
+        policy.access(candidate);
+        add("key3");
+
+        assertThat(policy.evict()).isSameAs(victim);
+    }
+
+    @Test
+    void evictVictimIfCandidateLeftProbation() {
+        policy = new EvictionPolicy(6, Long.MAX_VALUE);    // window size is 1, protected size is 4
+        CacheItem<?>[] items = new CacheItem<?>[6];
+        for (int i = 0; i < 6; i++) {
+            items[i] = add("key" + (i + 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            policy.access(items[i]);    // key1 is demoted to probation after key5 is promoted
+        }
+        add("key7");    // key6 moves to probation as candidate
+        policy.access(items[5]);    // candidate is promoted, key2 is demoted to tail of probation
+
+        assertThat(policy.overflow()).isTrue();
+        assertThat(policy.evict()).isSameAs(items[0]);    // demoted key2 doesn't compete as candidate, evict LRU of probation
+    }
+
+    private CacheItem<?> add(String key) {
+        var item = new CacheItem<>(key, new TestCache(), Long.MAX_VALUE, context);
+        policy.add(item);
+        return item;
+    }
+}
@@ -0,0 +1,49 @@
+package core.framework.internal.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class FrequencySketchTest {
+    private FrequencySketch sketch;
+
+    @BeforeEach
+    void createFrequencySketch() {
+        sketch = new FrequencySketch(512);
+    }
+
+    @Test
+    void increment() {
+        int hash = "key1".hashCode();
+        assertThat(sketch.frequency(hash)).isZero();
+
+        sketch.increment(hash);
+        sketch.increment(hash);
+        assertThat(sketch.frequency(hash)).isEqualTo(2);
+    }
+
+    @Test
+    void incrementWithSaturation() {
+        int hash = "key1".hashCode();
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash)).isEqualTo(15);
+    }
+
+    @Test
+    void reset() {
+        int hash = "key1".hashCode();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hash);
+        }
+        for (int i = 0; i < 10 * 512; i++) {
+            sketch.increment(("key" + i).hashCode());
+        }
+        assertThat(sketch.frequency(hash)).isLessThan(10);
+    }
+}
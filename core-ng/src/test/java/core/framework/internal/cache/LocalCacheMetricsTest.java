@@ -4,6 +4,9 @@ import core.framework.internal.stat.Stats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -11,10 +14,15 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class LocalCacheMetricsTest {
     private LocalCacheMetrics metrics;
+    private LocalCacheStore cacheStore;
+    private CacheImpl<TestCache> cache;
 
     @BeforeEach
     void createLocalCacheMetrics() {
-        metrics = new LocalCacheMetrics(new LocalCacheStore());
+        cacheStore = new LocalCacheStore();
+        cache = new CacheImpl<>("test", TestCache.class, Duration.ofHours(1));
+        cache.cacheStore = cacheStore;
+        metrics = new LocalCacheMetrics(cacheStore, Map.of("test", cache));
     }
 
     @Test
@@ -23,6 +31,26 @@ class LocalCacheMetricsTest {
         metrics.collect(stats);
 
         assertThat(stats.stats)
-                .containsEntry("cache_size", 0.0d);
+                .containsEntry("cache_size", 0.0d)
+                .containsEntry("cache_bytes", 0.0d)
+                .containsEntry("cache_hits", 0.0d)
+                .containsEntry("cache_evictions", 0.0d);
+    }
+
+    @Test
+    void collectPeakBytesOfCache() {
+        cacheStore.put("key", new TestCache(), Duration.ofHours(1), cache.context);
+        long bytes = cache.context.localBytes();
+        cacheStore.delete("key");
+
+        var stats = new Stats();
+        metrics.collect(stats);
+        assertThat(stats.stats).containsEntry("cache_test_peak_bytes", (double) bytes);
+
+        stats = new Stats();
+        metrics.collect(stats);
+        assertThat(stats.stats)
+                .containsEntry("cache_test_bytes", 0.0d)
+                .containsEntry("cache_test_peak_bytes", 0.0d);
     }
 }
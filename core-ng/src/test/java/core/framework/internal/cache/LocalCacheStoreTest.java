@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,83 +15,153 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class LocalCacheStoreTest {
     private LocalCacheStore cacheStore;
+    private CacheContext<TestCache> context;
 
     @BeforeEach
     void createLocalCacheStore() {
         cacheStore = new LocalCacheStore();
+        context = new CacheContext<>(TestCache.class);
     }
 
     @Test
     void getAll() {
-        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1", "key2"}, null);
+        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1", "key2"}, context);
         assertThat(values).isEmpty();
 
         var value = new TestCache();
-        cacheStore.put("key1", value, Duration.ofMinutes(1), null);
-        values = cacheStore.getAll(new String[]{"key1", "key2"}, null);
+        cacheStore.put("key1", value, Duration.ofMinutes(1), context);
+        values = cacheStore.getAll(new String[]{"key1", "key2"}, context);
         assertThat(values).hasSize(1).containsEntry("key1", value);
     }
 
     @Test
     void get() {
         var value = new TestCache();
-        cacheStore.put("key1", value, Duration.ofMinutes(1), null);
+        cacheStore.put("key1", value, Duration.ofMinutes(1), context);
 
-        TestCache retrievedValue = cacheStore.get("key1", null);
+        TestCache retrievedValue = cacheStore.get("key1", context);
         assertThat(retrievedValue).isSameAs(value);
+        assertThat(cacheStore.hits.sum()).isEqualTo(1);
 
-        LocalCacheStore.CacheItem<?> item = cacheStore.caches.get("key1");
-        assertThat(item.hits).isEqualTo(1);
+        cacheStore.get("key2", context);
+        assertThat(cacheStore.misses.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithExpiration() {
+        var value = new TestCache();
+        cacheStore.put("key1", value, Duration.ofMinutes(1), context);
+
+        CacheStore.ExpirableValue<TestCache> result = cacheStore.getWithExpiration("key1", context);
+        assertThat(result.value()).isSameAs(value);
+        assertThat(result.expirationTime()).isGreaterThan(System.currentTimeMillis());
 
-        cacheStore.get("key1", null);
-        assertThat(item.hits).isEqualTo(2);
+        assertThat(cacheStore.getWithExpiration("key2", context)).isNull();
     }
 
     @Test
     void getWithExpiredKey() {
         var value = new TestCache();
-        cacheStore.put("key1", value, Duration.ZERO, null);
+        cacheStore.put("key1", value, Duration.ZERO, context);
 
-        TestCache retrievedValue = cacheStore.get("key1", null);
+        TestCache retrievedValue = cacheStore.get("key1", context);
         assertThat(retrievedValue).isNull();
     }
 
     @Test
     void cleanup() {
-        cacheStore.put("key1", new TestCache(), Duration.ZERO, null);
-        cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), null);
+        cacheStore.put("key1", new TestCache(), Duration.ZERO, context);
+        cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), context);
         cacheStore.cleanup();
 
         assertThat(cacheStore.caches).hasSize(1);
     }
 
     @Test
-    void cleanupWithEviction() {
-        cacheStore.maxSize = 1;
-        cacheStore.put("k1", new TestCache(), Duration.ofHours(1), null);
-        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), null);
-        cacheStore.put("k3", new TestCache(), Duration.ofHours(1), null);
-        cacheStore.get("k1", null);
-        cacheStore.get("k2", null);
-        cacheStore.get("k2", null);
+    void putWithEviction() {
+        cacheStore.maxSize(1);
+        cacheStore.put("k1", new TestCache(), Duration.ofHours(1), context);
+        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), context);
+        cacheStore.put("k3", new TestCache(), Duration.ofHours(1), context);
+
+        assertThat(cacheStore.caches).containsOnlyKeys("k3");
+        assertThat(cacheStore.evictions.sum()).isEqualTo(2);
+    }
 
-        cacheStore.cleanup();
-        assertThat(cacheStore.caches).containsOnlyKeys("k2");
+    @Test
+    void putWithFrequentlyUsedItems() {
+        cacheStore.maxSize(100);
+        for (int i = 0; i < 100; i++) {
+            cacheStore.put("k" + i, new TestCache(), Duration.ofHours(1), context);
+        }
+        for (int i = 0; i < 50; i++) {
+            cacheStore.get("k" + i, context);
+            cacheStore.get("k" + i, context);
+        }
+        for (int i = 0; i < 100; i++) {
+            cacheStore.put("new" + i, new TestCache(), Duration.ofHours(1), context);
+            assertThat(cacheStore.caches.size()).isLessThanOrEqualTo(100);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(cacheStore.caches).containsKey("k" + i);
+        }
+    }
+
+    @Test
+    void maxSize() {
+        cacheStore.put("k1", new TestCache(), Duration.ofHours(1), context);
+        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), context);
+        cacheStore.maxSize(1);
+
+        assertThat(cacheStore.caches).hasSize(1);
+    }
+
+    @Test
+    void putWithMaxBytes() {
+        cacheStore.maxBytes(2000);
+        for (int i = 0; i < 20; i++) {
+            var value = new TestCache();
+            value.stringField = "value" + i;
+            cacheStore.put("k" + i, value, Duration.ofHours(1), context);
+        }
+
+        assertThat(cacheStore.bytes()).isPositive().isLessThanOrEqualTo(2000);
+        assertThat(cacheStore.caches.size()).isLessThan(20);
+        assertThat(cacheStore.evictions.sum()).isPositive();
+        assertThat(context.localBytes()).isEqualTo(cacheStore.bytes());
+    }
+
+    @Test
+    void trackBytes() {
+        cacheStore.put("k1", new TestCache(), Duration.ofHours(1), context);
+        long bytes = context.localBytes();
+        assertThat(bytes).isPositive();
+        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), context);
+        assertThat(context.localBytes()).isEqualTo(bytes * 2);
+
+        cacheStore.delete("k1", "k2");
+        assertThat(context.localBytes()).isZero();
+        assertThat(context.peakLocalBytes()).isEqualTo(bytes * 2);
+        assertThat(context.peakLocalBytesThenReset()).isEqualTo(bytes * 2);
+        assertThat(context.peakLocalBytes()).isZero();
+        assertThat(cacheStore.peakBytesThenReset()).isEqualTo(bytes * 2);
+        assertThat(cacheStore.peakBytesThenReset()).isZero();
     }
 
     @Test
     void putAll() {
         var values = List.of(new CacheStore.Entry<>("key1", new TestCache()),
                 new CacheStore.Entry<>("key2", new TestCache()));
-        cacheStore.putAll(values, Duration.ofMinutes(1), null);
+        cacheStore.putAll(values, Duration.ofMinutes(1), context);
 
         assertThat(cacheStore.caches).hasSize(2);
     }
 
     @Test
     void delete() {
-        cacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), null);
-        cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), null);
+        cacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+        cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), context);
 
         assertThat(cacheStore.delete("key1", "key2")).isTrue();
         assertThat(cacheStore.caches).isEmpty();
@@ -104,4 +175,15 @@ class LocalCacheStoreTest {
 
         assertThat(cacheStore.caches).isEmpty();
     }
+
+    @Test
+    void clearByContexts() {
+        var nearContext = new CacheContext<>(TestCache.class);
+        cacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+        cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), nearContext);
+
+        cacheStore.clear(Set.of(nearContext));
+        assertThat(cacheStore.caches).containsOnlyKeys("key1");
+        assertThat(nearContext.localBytes()).isZero();
+    }
 }
@@ -0,0 +1,131 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.redis.RedisImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class NearCacheStoreTest {
+    @Mock
+    RedisCacheStore redisCacheStore;
+    @Mock
+    CacheInvalidator invalidator;
+    private LocalCacheStore localCacheStore;
+    private NearCacheStore cacheStore;
+    private CacheContext<TestCache> context;
+
+    @BeforeEach
+    void createNearCacheStore() {
+        context = new CacheContext<>(TestCache.class);
+        localCacheStore = new LocalCacheStore();
+        cacheStore = new NearCacheStore(localCacheStore, redisCacheStore, invalidator, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get() {
+        var value = new TestCache();
+        when(redisCacheStore.get("key", context)).thenReturn(value);
+
+        assertThat(cacheStore.get("key", context)).isSameAs(value);
+        assertThat(localCacheStore.caches).containsKey("key");
+
+        assertThat(cacheStore.get("key", context)).isSameAs(value);
+        verify(redisCacheStore).get("key", context);
+    }
+
+    @Test
+    void getWithExpiration() {
+        var value = new TestCache();
+        when(redisCacheStore.getWithExpiration("key", context)).thenReturn(new CacheStore.ExpirableValue<>(value, 100));
+
+        assertThat(cacheStore.getWithExpiration("key", context).expirationTime()).isEqualTo(100);
+        assertThat(cacheStore.getWithExpiration("key", context).expirationTime()).isEqualTo(-1);
+    }
+
+    @Test
+    void getWithConcurrentPut() {
+        cacheStore = new NearCacheStore(localCacheStore, redisCacheStore, new CacheInvalidator(mock(RedisImpl.class), localCacheStore), Duration.ofMinutes(1));
+        var staleValue = new TestCache();
+        when(redisCacheStore.get("key", context)).thenAnswer(invocation -> {
+            cacheStore.put("key", new TestCache(), Duration.ofHours(1), context);  // put by other thread of current node during loading from redis
+            return staleValue;
+        });
+
+        assertThat(cacheStore.get("key", context)).isSameAs(staleValue);
+        assertThat(localCacheStore.caches).doesNotContainKey("key");
+    }
+
+    @Test
+    void getWithMiss() {
+        assertThat(cacheStore.get("key", context)).isNull();
+        assertThat(localCacheStore.caches).isEmpty();
+    }
+
+    @Test
+    void getAll() {
+        var value1 = new TestCache();
+        var value2 = new TestCache();
+        localCacheStore.put("key1", value1, Duration.ofMinutes(1), context);
+        when(redisCacheStore.getAll(new String[]{"key2", "key3"}, context)).thenReturn(Map.of("key2", value2));
+
+        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1", "key2", "key3"}, context);
+        assertThat(values).containsOnlyKeys("key1", "key2");
+        assertThat(localCacheStore.caches).containsOnlyKeys("key1", "key2");
+    }
+
+    @Test
+    void getAllWithLocalHits() {
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+
+        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1"}, context);
+        assertThat(values).containsOnlyKeys("key1");
+        verifyNoInteractions(redisCacheStore);
+    }
+
+    @Test
+    void put() {
+        var value = new TestCache();
+        cacheStore.put("key", value, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).put("key", value, Duration.ofHours(1), context);
+        verify(invalidator).invalidate();
+        verify(invalidator).publish("key");
+        assertThat(localCacheStore.caches).containsKey("key");
+    }
+
+    @Test
+    void putAll() {
+        List<CacheStore.Entry<TestCache>> values = List.of(new CacheStore.Entry<>("key1", new TestCache()), new CacheStore.Entry<>("key2", new TestCache()));
+        cacheStore.putAll(values, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).putAll(values, Duration.ofHours(1), context);
+        verify(invalidator).publish("key1", "key2");
+        assertThat(localCacheStore.caches).containsOnlyKeys("key1", "key2");
+    }
+
+    @Test
+    void delete() {
+        localCacheStore.put("key", new TestCache(), Duration.ofMinutes(1), context);
+        when(redisCacheStore.delete("key")).thenReturn(Boolean.TRUE);
+
+        assertThat(cacheStore.delete("key")).isTrue();
+        verify(invalidator).publish("key");
+        assertThat(localCacheStore.caches).isEmpty();
+    }
+}
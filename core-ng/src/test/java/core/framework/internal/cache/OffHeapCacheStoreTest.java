@@ -0,0 +1,163 @@
+package core.framework.internal.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class OffHeapCacheStoreTest {
+    private OffHeapCacheStore cacheStore;
+    private CacheContext<TestCache> context;
+
+    @BeforeEach
+    void createOffHeapCacheStore() {
+        cacheStore = new OffHeapCacheStore();
+        context = new CacheContext<>(TestCache.class);
+        context.codec.binary();
+    }
+
+    @Test
+    void get() {
+        cacheStore.put("key1", value("value1"), Duration.ofMinutes(1), context);
+
+        TestCache value = cacheStore.get("key1", context);
+        assertThat(value.stringField).isEqualTo("value1");
+        assertThat(cacheStore.hits.sum()).isEqualTo(1);
+
+        assertThat(cacheStore.get("key2", context)).isNull();
+        assertThat(cacheStore.misses.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithExpiration() {
+        cacheStore.put("key1", value("value1"), Duration.ofMinutes(1), context);
+
+        CacheStore.ExpirableValue<TestCache> result = cacheStore.getWithExpiration("key1", context);
+        assertThat(result.value().stringField).isEqualTo("value1");
+        assertThat(result.expirationTime()).isGreaterThan(System.currentTimeMillis());
+
+        assertThat(cacheStore.getWithExpiration("key2", context)).isNull();
+    }
+
+    @Test
+    void getWithExpiredKey() {
+        cacheStore.put("key1", value("value1"), Duration.ZERO, context);
+
+        assertThat(cacheStore.get("key1", context)).isNull();
+        assertThat(cacheStore.size()).isZero();
+    }
+
+    @Test
+    void getAll() {
+        cacheStore.putAll(List.of(new CacheStore.Entry<>("key1", value("value1")), new CacheStore.Entry<>("key2", value("value2"))), Duration.ofMinutes(1), context);
+
+        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1", "key2", "key3"}, context);
+        assertThat(values).containsOnlyKeys("key1", "key2");
+        assertThat(values.get("key2").stringField).isEqualTo("value2");
+    }
+
+    @Test
+    void putWithOverride() {
+        cacheStore.put("key1", value("value1"), Duration.ofMinutes(1), context);
+        cacheStore.put("key1", value("value2".repeat(100)), Duration.ofMinutes(1), context);
+
+        assertThat(cacheStore.size()).isEqualTo(1);
+        assertThat(cacheStore.get("key1", context).stringField).isEqualTo("value2".repeat(100));
+    }
+
+    @Test
+    void putWithEviction() {
+        cacheStore.maxSize(SlabAllocator.SLAB_SIZE);    // one slab
+        context = new CacheContext<>(TestCache.class);  // json without compression, so each value takes about 90K
+        String value = "x".repeat(90_000);
+        for (int i = 0; i < 20; i++) {
+            cacheStore.put("key" + i, value(value + i), Duration.ofMinutes(1), context);
+        }
+
+        assertThat(cacheStore.evictions.sum()).isPositive();
+        assertThat(cacheStore.allocatedBytes()).isEqualTo(SlabAllocator.SLAB_SIZE);
+        assertThat(cacheStore.get("key19", context)).isNotNull();
+        assertThat(cacheStore.get("key0", context)).isNull();
+    }
+
+    @Test
+    void putWithSlabReassign() {
+        cacheStore.maxSize(2 * SlabAllocator.SLAB_SIZE);
+        context = new CacheContext<>(TestCache.class);
+        String value = "x".repeat(90_000);
+        for (int i = 0; i < 30; i++) {
+            cacheStore.put("key" + i, value(value + i), Duration.ofMinutes(1), context);
+        }
+        assertThat(cacheStore.allocatedBytes()).isEqualTo(2L * SlabAllocator.SLAB_SIZE);
+
+        // all slabs are assigned to size class of large values, small value takes one slab from it
+        cacheStore.put("small", value("small"), Duration.ofMinutes(1), context);
+        assertThat(cacheStore.get("small", context).stringField).isEqualTo("small");
+        assertThat(cacheStore.get("key29", context)).isNotNull();
+        assertThat(cacheStore.drops.sum()).isZero();
+    }
+
+    @Test
+    void putWithoutFreeSlab() {
+        cacheStore.maxSize(SlabAllocator.SLAB_SIZE);
+        context = new CacheContext<>(TestCache.class);
+        cacheStore.put("key1", value("x".repeat(90_000)), Duration.ofMinutes(1), context);
+
+        // only slab is kept by size class of large values
+        cacheStore.put("small", value("small"), Duration.ofMinutes(1), context);
+        assertThat(cacheStore.get("small", context)).isNull();
+        assertThat(cacheStore.drops.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void putWithTooLargeValue() {
+        context = new CacheContext<>(TestCache.class);  // json without compression
+        cacheStore.put("key1", value("x".repeat(SlabAllocator.SLAB_SIZE)), Duration.ofMinutes(1), context);
+
+        assertThat(cacheStore.get("key1", context)).isNull();
+        assertThat(cacheStore.drops.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void segments() {
+        cacheStore.maxSize(1024L * 1024 * 1024);
+        for (int i = 0; i < 100; i++) {
+            cacheStore.put("key" + i, value("value" + i), Duration.ofMinutes(1), context);
+        }
+
+        assertThat(cacheStore.size()).isEqualTo(100);
+        assertThat(cacheStore.get("key99", context).stringField).isEqualTo("value99");
+        assertThat(cacheStore.allocatedBytes()).isGreaterThan(SlabAllocator.SLAB_SIZE);     // keys are spread into multiple segments
+    }
+
+    @Test
+    void delete() {
+        cacheStore.put("key1", value("value1"), Duration.ofMinutes(1), context);
+
+        assertThat(cacheStore.delete("key1", "key2")).isTrue();
+        assertThat(cacheStore.get("key1", context)).isNull();
+        assertThat(cacheStore.delete("key1")).isFalse();
+    }
+
+    @Test
+    void cleanup() {
+        cacheStore.put("key1", value("value1"), Duration.ZERO, context);
+        cacheStore.put("key2", value("value2"), Duration.ofMinutes(1), context);
+
+        cacheStore.cleanup();
+        assertThat(cacheStore.size()).isEqualTo(1);
+    }
+
+    private TestCache value(String value) {
+        var cache = new TestCache();
+        cache.stringField = value;
+        return cache;
+    }
+}
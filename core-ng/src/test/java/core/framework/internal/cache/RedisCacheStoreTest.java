@@ -1,5 +1,6 @@
 package core.framework.internal.cache;
 
+import core.framework.internal.redis.RedisBlobDecoder;
 import core.framework.internal.redis.RedisException;
 import core.framework.internal.redis.RedisImpl;
 import core.framework.util.Strings;
@@ -10,10 +11,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -38,32 +42,47 @@ class RedisCacheStoreTest {
 
     @Test
     void get() {
-        when(redis.getBytes("key")).thenReturn(Strings.bytes("{\"stringField\":\"value\"}"));
+        when(redis.get(eq("key"), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), "{\"stringField\":\"value\"}"));
         assertThat(cacheStore.get("key", context).stringField).isEqualTo("value");
     }
 
+    @Test
+    void getWithExpiration() {
+        when(redis.getWithTTL(eq("key"), any())).thenAnswer(invocation -> new RedisImpl.ValueWithTTL<>(decode(invocation.getArgument(1), "{\"stringField\":\"value\"}"), 60_000));
+        CacheStore.ExpirableValue<TestCache> value = cacheStore.getWithExpiration("key", context);
+        assertThat(value.value().stringField).isEqualTo("value");
+        assertThat(value.expirationTime()).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void getTombstone() {
+        when(redis.get(eq("key"), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), "null"));
+        Object value = cacheStore.get("key", (CacheContext<?>) context);    // tombstone is not TestCache, avoid cast
+        assertThat(value).isSameAs(CacheStore.Tombstone.INSTANCE);
+    }
+
     @Test
     void getWithStaleData() {
-        when(redis.getBytes("key")).thenReturn(Strings.bytes("{}"));
+        when(redis.get(eq("key"), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), "{}"));
         assertThat(cacheStore.get("key", context)).isNull();
     }
 
     @Test
     void getWithInvalidJSON() {
-        when(redis.getBytes("key")).thenReturn(Strings.bytes("{\"listField\": 1}"));
+        when(redis.get(eq("key"), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), "{\"listField\": 1}"));
         assertThat(cacheStore.get("key", context)).isNull();
     }
 
     @Test
     void getWithFailure() {
-        when(redis.getBytes("key")).thenThrow(new RedisException("unexpected"));
+        when(redis.get(eq("key"), any())).thenThrow(new RedisException("unexpected"));
         assertThat(cacheStore.get("key", context)).isNull();
     }
 
     @Test
     void getAll() {
-        Map<String, byte[]> values = Map.of("key", Strings.bytes("{\"stringField\":\"value\"}"));
-        when(redis.multiGetBytes("key")).thenReturn(values);
+        Map<String, String> values = Map.of("key", "{\"stringField\":\"value\"}");
+        when(redis.multiGet(aryEq(new String[]{"key"}), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), values));
         Map<String, TestCache> results = cacheStore.getAll(new String[]{"key"}, context);
         assertThat(results).hasSize(1);
         assertThat(results.get("key").stringField).isEqualTo("value");
@@ -71,10 +90,10 @@ class RedisCacheStoreTest {
 
     @Test
     void getAllWithStaleAndInvalidData() {
-        Map<String, byte[]> values = Map.of("key1", Strings.bytes("{\"stringField\":\"value\"}"),
-                "key2", Strings.bytes("{}"),
-                "key3", Strings.bytes("{\"listField\": 1}"));
-        when(redis.multiGetBytes("key1", "key2", "key3")).thenReturn(values);
+        Map<String, String> values = Map.of("key1", "{\"stringField\":\"value\"}",
+                "key2", "{}",
+                "key3", "{\"listField\": 1}");
+        when(redis.multiGet(aryEq(new String[]{"key1", "key2", "key3"}), any())).thenAnswer(invocation -> decode(invocation.getArgument(1), values));
         Map<String, TestCache> results = cacheStore.getAll(new String[]{"key1", "key2", "key3"}, context);
         assertThat(results).hasSize(1);
         assertThat(results.get("key1").stringField).isEqualTo("value");
@@ -82,7 +101,7 @@ class RedisCacheStoreTest {
 
     @Test
     void getAllWithFailure() {
-        when(redis.multiGetBytes("key")).thenThrow(new RedisException("unexpected"));
+        when(redis.multiGet(aryEq(new String[]{"key"}), any())).thenThrow(new RedisException("unexpected"));
         assertThat(cacheStore.getAll(new String[]{"key"}, context)).isEmpty();
     }
 
@@ -91,14 +110,14 @@ class RedisCacheStoreTest {
         Duration expiration = Duration.ofHours(1);
         var value = new TestCache();
         cacheStore.put("key", value, expiration, context);
-        verify(redis).set("key", context.writer.toJSON(value), expiration, false);
+        verify(redis).set("key", context.codec.encode(value), expiration, false);
     }
 
     @Test
     void putWithFailure() {
         var value = new TestCache();
         Duration expiration = Duration.ofHours(1);
-        doThrow(new RedisException("unexpected")).when(redis).set("key", context.writer.toJSON(value), expiration, false);
+        doThrow(new RedisException("unexpected")).when(redis).set("key", context.codec.encode(value), expiration, false);
 
         cacheStore.put("key", value, expiration, context);
     }
@@ -133,4 +152,18 @@ class RedisCacheStoreTest {
         when(redis.del("key")).thenThrow(new RedisException("unexpected"));
         assertThat(cacheStore.delete("key")).isFalse();
     }
+
+    private Object decode(RedisBlobDecoder<?> decoder, String value) {
+        byte[] bytes = Strings.bytes(value);
+        return decoder.decode(bytes, 0, bytes.length);
+    }
+
+    private Map<String, Object> decode(RedisBlobDecoder<?> decoder, Map<String, String> values) {
+        Map<String, Object> results = new HashMap<>();
+        values.forEach((key, value) -> {
+            Object result = decode(decoder, value);
+            if (result != null) results.put(key, result);
+        });
+        return results;
+    }
 }
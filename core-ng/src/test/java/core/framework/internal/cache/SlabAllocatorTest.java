@@ -0,0 +1,76 @@
+package core.framework.internal.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class SlabAllocatorTest {
+    private SlabAllocator allocator;
+
+    @BeforeEach
+    void createSlabAllocator() {
+        allocator = new SlabAllocator(2 * SlabAllocator.SLAB_SIZE);
+    }
+
+    @Test
+    void sizeClass() {
+        assertThat(allocator.sizeClass(1)).isZero();
+        assertThat(allocator.sizeClass(64)).isZero();
+        assertThat(allocator.sizeClass(65)).isEqualTo(1);
+        assertThat(allocator.chunkSizes[allocator.sizeClass(1000)]).isGreaterThanOrEqualTo(1000);
+        assertThat(allocator.sizeClass(SlabAllocator.SLAB_SIZE)).isEqualTo(allocator.chunkSizes.length - 1);
+        assertThat(allocator.sizeClass(SlabAllocator.SLAB_SIZE + 1)).isEqualTo(-1);
+    }
+
+    @Test
+    void allocate() {
+        int sizeClass = allocator.sizeClass(SlabAllocator.SLAB_SIZE);
+        long address1 = allocator.allocate(sizeClass);
+        long address2 = allocator.allocate(sizeClass);
+        assertThat(address1).isNotEqualTo(address2);
+        assertThat(allocator.allocate(sizeClass)).isEqualTo(-1);
+        assertThat(allocator.allocatedBytes()).isEqualTo(2L * SlabAllocator.SLAB_SIZE);
+
+        allocator.free(sizeClass, address1);
+        assertThat(allocator.allocate(sizeClass)).isEqualTo(address1);
+    }
+
+    @Test
+    void reassign() {
+        int largeSizeClass = allocator.sizeClass(SlabAllocator.SLAB_SIZE);
+        long address1 = allocator.allocate(largeSizeClass);
+        allocator.allocate(largeSizeClass);
+        assertThat(allocator.largestSizeClass()).isEqualTo(largeSizeClass);
+        assertThat(allocator.slabCount(largeSizeClass)).isEqualTo(2);
+
+        int smallSizeClass = allocator.sizeClass(100);
+        assertThat(allocator.allocate(smallSizeClass)).isEqualTo(-1);
+
+        int slab = SlabAllocator.slab(address1);
+        assertThatThrownBy(() -> allocator.reassign(slab, smallSizeClass))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("slab is still in use");
+
+        allocator.free(largeSizeClass, address1);
+        allocator.reassign(slab, smallSizeClass);
+        assertThat(allocator.slabCount(largeSizeClass)).isEqualTo(1);
+        assertThat(allocator.firstSlab(smallSizeClass)).isEqualTo(slab);
+        assertThat(SlabAllocator.slab(allocator.allocate(smallSizeClass))).isEqualTo(slab);
+        assertThat(allocator.allocatedBytes()).isEqualTo(2L * SlabAllocator.SLAB_SIZE);
+    }
+
+    @Test
+    void readAndWrite() {
+        int sizeClass = allocator.sizeClass(5);
+        allocator.allocate(sizeClass);
+        long address = allocator.allocate(sizeClass);
+        allocator.write(address, new byte[]{1, 2, 3, 4, 5});
+
+        assertThat(allocator.read(address, 5)).containsExactly(1, 2, 3, 4, 5);
+    }
+}
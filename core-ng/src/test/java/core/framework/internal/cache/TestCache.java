@@ -3,8 +3,11 @@ package core.framework.internal.cache;
 import core.framework.api.validate.NotNull;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +17,14 @@ import java.util.Map;
 public class TestCache {
     public LocalDateTime dateTimeField;
     public LocalTime timeField;
+    public LocalDate dateField;
+    public ZonedDateTime zonedDateTimeField;
+    public Instant instantField;
+    public Integer intField;
+    public Long longField;
+    public Double doubleField;
+    public Boolean booleanField;
+    public TestEnum enumField;
 
     @NotNull
     public String stringField;
@@ -22,6 +33,8 @@ public class TestCache {
     public Child childField;
     public List<Child> childrenField;
     public Map<TestEnum, String> enumMapField;
+    public Map<String, List<String>> mapListField;
+    public Map<String, Child> mapChildField;
 
     public enum TestEnum {
         V1,
@@ -0,0 +1,138 @@
+package core.framework.internal.db;
+
+import core.framework.internal.log.LogManager;
+import core.framework.internal.validate.ValidationException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BatchWriterImplTest {
+    private DatabaseImpl database;
+    private RepositoryImpl<AssignedIdEntity> repository;
+
+    @BeforeAll
+    void createDatabase() {
+        database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:batch;sql.syntax_mys=true");
+        database.execute("CREATE TABLE assigned_id_entity (id VARCHAR(36) PRIMARY KEY, string_field VARCHAR(20), int_field INT, big_decimal_field DECIMAL(10,2), date_field DATE, zoned_date_time_field TIMESTAMP(6))");
+
+        repository = (RepositoryImpl<AssignedIdEntity>) database.repository(AssignedIdEntity.class);
+    }
+
+    @AfterAll
+    void cleanupDatabase() {
+        database.execute("DROP TABLE assigned_id_entity");
+        database.close();
+    }
+
+    @BeforeEach
+    void truncateTable() {
+        database.execute("TRUNCATE TABLE assigned_id_entity");
+    }
+
+    @Test
+    void flushWhenBatchIsFull() {
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 2, Duration.ofMinutes(1));
+        writer.start();
+        try {
+            CompletableFuture<Void> future1 = writer.upsert(entity("1", 1));
+            CompletableFuture<Void> future2 = writer.upsert(entity("2", 2));
+            CompletableFuture.allOf(future1, future2).join();
+
+            assertThat(repository.get("2")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(2));
+        } finally {
+            writer.shutdown();
+            writer.awaitTermination(5000);
+        }
+    }
+
+    @Test
+    void flushWhenMaxDelayReached() {
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 100, Duration.ofMillis(10));
+        writer.start();
+        try {
+            OptionalLong id = writer.insert(entity("1", 1)).join();
+
+            assertThat(id).isEmpty();
+            assertThat(repository.get("1")).isPresent();
+        } finally {
+            writer.shutdown();
+            writer.awaitTermination(5000);
+        }
+    }
+
+    @Test
+    void flushOnShutdown() {
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 100, Duration.ofMinutes(1));
+        writer.start();
+        CompletableFuture<Void> future = writer.upsert(entity("1", 1));
+        writer.shutdown();
+        writer.awaitTermination(5000);
+
+        assertThat(future).isCompleted();
+        assertThatThrownBy(() -> writer.upsert(entity("2", 2)))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("batch writer is stopped");
+    }
+
+    @Test
+    void writeInCallOrder() {
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 100, Duration.ofMinutes(1));
+        writer.start();
+        CompletableFuture<Void> upsert = writer.upsert(entity("1", 1));
+        CompletableFuture<OptionalLong> insert = writer.insert(entity("2", 2));
+        CompletableFuture<Void> update = writer.upsert(entity("2", 3));
+        writer.shutdown();
+        writer.awaitTermination(5000);
+
+        assertThat(CompletableFuture.allOf(upsert, insert, update)).isCompleted();
+        assertThat(repository.get("2")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(3));
+    }
+
+    @Test
+    void insertOneByOneIfBatchFailed() {
+        repository.insert(entity("1", 1));
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 100, Duration.ofMinutes(1));
+
+        var duplicate = new BatchWriterImpl.Write<AssignedIdEntity, OptionalLong>(entity("1", 1), false);
+        var write = new BatchWriterImpl.Write<AssignedIdEntity, OptionalLong>(entity("2", 2), false);
+        writer.insert(List.of(duplicate, write));
+
+        assertThat(duplicate.future).isCompletedExceptionally();
+        assertThat(write.future).isCompleted();
+        assertThat(repository.get("2")).isPresent();
+    }
+
+    @Test
+    void validate() {
+        var writer = new BatchWriterImpl<>(database, new LogManager(), repository, AssignedIdEntity.class, 100, Duration.ofMinutes(1));
+        var entity = new AssignedIdEntity();
+        entity.id = "1";
+
+        assertThatThrownBy(() -> writer.insert(entity))
+            .isInstanceOf(ValidationException.class)
+            .hasMessageContaining("intField");
+    }
+
+    private AssignedIdEntity entity(String id, int intField) {
+        var entity = new AssignedIdEntity();
+        entity.id = id;
+        entity.stringField = "string";
+        entity.intField = intField;
+        return entity;
+    }
+}
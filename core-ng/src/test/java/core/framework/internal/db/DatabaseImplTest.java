@@ -18,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -74,6 +75,88 @@ class DatabaseImplTest {
         assertThat(views.get(1).enumField).isEqualTo(TestEnum.V2);
     }
 
+    @Test
+    void forEachWithView() {
+        insertRow(1, "string1", TestEnum.V1);
+        insertRow(2, "string2", TestEnum.V2);
+
+        List<EntityView> views = new ArrayList<>();
+        database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test ORDER BY id", EntityView.class, views::add);
+
+        assertThat(views).extracting(view -> view.enumField).containsExactly(TestEnum.V1, TestEnum.V2);
+
+        try (Transaction transaction = database.beginTransaction()) {
+            views.clear();
+            database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test where id = ?", EntityView.class, views::add, 2);
+            assertThat(views).extracting(view -> view.stringField).containsExactly("string2");
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void forEachWithStreamingWithinTransaction() {
+        database.fetchSize = Integer.MIN_VALUE;     // streaming fetch size of mysql
+        try (Transaction transaction = database.beginTransaction()) {
+            assertThatThrownBy(() -> database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test", EntityView.class, view -> {
+            }))
+                .isInstanceOf(Error.class)
+                .hasMessageContaining("forEach within transaction is not supported");
+            transaction.rollback();
+        } finally {
+            database.fetchSize = 1000;
+        }
+    }
+
+    @Test
+    void streamingFetchSize() {
+        assertThat(database.streamingFetchSize("jdbc:mysql://localhost/demo")).isEqualTo(Integer.MIN_VALUE);
+        assertThat(database.streamingFetchSize("jdbc:postgresql://localhost/demo")).isEqualTo(database.fetchSize);
+    }
+
+    @Test
+    void readFromReplica() {
+        var database = new DatabaseImpl("db-replica");
+        database.url("jdbc:hsqldb:mem:replica;sql.syntax_mys=true");
+        DatabaseReplica replica = database.replica("jdbc:hsqldb:mem:replica;sql.syntax_mys=true");
+        TransactionManager transactionManager = database.operation.transactionManager;
+        try {
+            assertThat(transactionManager.replicaPool()).isSameAs(replica.pool);
+            assertThat(database.selectOne("SELECT 1 FROM (VALUES(0))", Integer.class)).get().isEqualTo(1);
+
+            try (var scope = database.readFromPrimary()) {
+                try (var nestedScope = database.readFromPrimary()) {
+                    assertThat(transactionManager.replicaPool()).isNull();
+                }
+                assertThat(transactionManager.replicaPool()).isNull();
+            }
+            try (Transaction transaction = database.beginTransaction()) {
+                assertThat(transactionManager.replicaPool()).isNull();
+                transaction.commit();
+            }
+
+            replica.update(null, database.maxReplicaLag);
+            assertThat(transactionManager.replicaPool()).isNull();
+            database.checkReplicas();
+            assertThat(transactionManager.replicaPool()).isSameAs(replica.pool);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void readFromUnavailableReplica() {
+        var database = new DatabaseImpl("db-replica");
+        database.url("jdbc:hsqldb:mem:replica;sql.syntax_mys=true");
+        DatabaseReplica replica = database.replica("jdbc:hsqldb:hsql://localhost:1/replica");   // nothing listens on port 1
+        try {
+            assertThat(database.selectOne("SELECT 1 FROM (VALUES(0))", Integer.class)).get().isEqualTo(1);
+            assertThat(replica.available).isFalse();
+            assertThat(database.operation.transactionManager.replicaPool()).isNull();
+        } finally {
+            database.close();
+        }
+    }
+
     @Test
     void selectEmptyWithView() {
         List<EntityView> views = database.select("SELECT string_field as string_label, enum_field as enum_label FROM database_test where id = -1", EntityView.class);
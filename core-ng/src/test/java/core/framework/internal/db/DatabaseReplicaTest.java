@@ -0,0 +1,38 @@
+package core.framework.internal.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class DatabaseReplicaTest {
+    private DatabaseReplica replica;
+
+    @BeforeEach
+    void createDatabaseReplica() {
+        replica = new DatabaseReplica("jdbc:mysql://localhost/replica", "db-replica-1", r -> null);
+    }
+
+    @Test
+    void update() {
+        Duration maxLag = Duration.ofSeconds(30);
+        assertThat(replica.available).isTrue();
+
+        replica.update(30.0, maxLag);
+        assertThat(replica.available).isTrue();
+
+        replica.update(30.5, maxLag);
+        assertThat(replica.available).isFalse();
+
+        replica.update(0.0, maxLag);
+        assertThat(replica.available).isTrue();
+
+        replica.update(null, maxLag);   // replication is not running
+        assertThat(replica.available).isFalse();
+    }
+}
@@ -17,6 +17,7 @@ import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.UUID;
@@ -189,6 +190,43 @@ class RepositoryImplAssignedIdEntityTest {
         assertThat(ids).isEmpty();
     }
 
+    @Test
+    void batchGet() {
+        List<AssignedIdEntity> entities = Lists.newArrayList();
+        List<String> ids = Lists.newArrayList();
+        for (int i = 1500; i > 0; i--) {    // more than one chunk
+            entities.add(entity(String.valueOf(i), "value" + i, i));
+            ids.add(String.valueOf(i));
+        }
+        repository.batchInsert(entities);
+        ids.add("notExistedId");
+
+        Map<String, AssignedIdEntity> results = repository.batchGet(ids);
+        assertThat(results).hasSize(1500);
+        assertThat(results.keySet()).containsExactlyElementsOf(ids.subList(0, 1500));
+        assertThat(results.get("1")).usingRecursiveComparison().isEqualTo(entities.get(1499));
+
+        assertThatThrownBy(() -> repository.batchGet(List.of()))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("primaryKeys must not be empty");
+    }
+
+    @Test
+    void batchGetWithCaseInsensitiveCollation() {
+        var database = new DatabaseImpl("db-ignorecase");
+        database.url("jdbc:hsqldb:mem:ignorecase;sql.syntax_mys=true");
+        database.execute("CREATE TABLE assigned_id_entity (id VARCHAR_IGNORECASE(36) PRIMARY KEY, string_field VARCHAR(20), int_field INT, big_decimal_field DECIMAL(10,2), date_field DATE, zoned_date_time_field TIMESTAMP(6))");
+        try {
+            Repository<AssignedIdEntity> repository = database.repository(AssignedIdEntity.class);
+            repository.batchInsert(List.of(entity("a", "value1", 1), entity("b", "value2", 2)));
+
+            Map<String, AssignedIdEntity> results = repository.batchGet(List.of("A", "b", "c"));     // key must equal stored value
+            assertThat(results.keySet()).containsExactly("b");
+        } finally {
+            database.close();
+        }
+    }
+
     @Test
     void batchInsertWithEmptyEntities() {
         assertThatThrownBy(() -> repository.batchInsert(List.of()))
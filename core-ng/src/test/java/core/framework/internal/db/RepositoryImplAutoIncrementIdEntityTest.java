@@ -14,7 +14,9 @@ import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.stream.LongStream;
@@ -83,6 +85,22 @@ class RepositoryImplAutoIncrementIdEntityTest {
         assertThat(repository.get(ids.orElseThrow()[99])).get().usingRecursiveComparison().ignoringFields("id").isEqualTo(entities.get(99));
     }
 
+    @Test
+    void batchGetWithLongKeys() {
+        long[] ids = repository.batchInsert(List.of(entity("string-1", 1), entity("string-2", 2))).orElseThrow();
+
+        Map<Long, AutoIncrementIdEntity> results = repository.batchGet(List.of(ids[1], ids[0], 1000L));     // id field is Integer
+        assertThat(results.keySet()).containsExactly(ids[1], ids[0]);
+        assertThat(results.get(ids[0]).stringField).isEqualTo("string-1");
+    }
+
+    @Test
+    void batchGetKey() {
+        var impl = (RepositoryImpl<AutoIncrementIdEntity>) repository;
+        assertThat(impl.batchGetKey(new Object[]{1})).isEqualTo(impl.batchGetKey(new Object[]{1L}));
+        assertThat(impl.batchGetKey(new Object[]{1.0})).isNotEqualTo(impl.batchGetKey(new Object[]{1L}));
+    }
+
     @Test
     void insertIgnore() {
         assertThatThrownBy(() -> repository.insertIgnore(new AutoIncrementIdEntity()))
@@ -143,6 +161,18 @@ class RepositoryImplAutoIncrementIdEntityTest {
         assertThat(count).isEqualTo(1);
     }
 
+    @Test
+    void forEach() {
+        repository.batchInsert(List.of(entity("string1", 1), entity("string2", 2), entity("string3", 3)));
+
+        Query<AutoIncrementIdEntity> query = repository.select();
+        query.where("double_field > ?", 1);
+        query.orderBy("double_field");
+        List<String> values = new ArrayList<>();
+        query.forEach(entity -> values.add(entity.stringField));
+        assertThat(values).containsExactly("string2", "string3");
+    }
+
     private AutoIncrementIdEntity entity(String stringField, double doubleFiled) {
         var entity = new AutoIncrementIdEntity();
         entity.stringField = stringField;
@@ -0,0 +1,106 @@
+package core.framework.internal.db;
+
+import core.framework.db.Transaction;
+import core.framework.internal.cache.CacheImpl;
+import core.framework.internal.cache.LocalCacheStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryImplCacheTest {
+    private DatabaseImpl database;
+    private RepositoryImpl<AssignedIdEntity> repository;
+
+    @BeforeAll
+    void createDatabase() {
+        database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:cache;sql.syntax_mys=true");
+        database.execute("CREATE TABLE assigned_id_entity (id VARCHAR(36) PRIMARY KEY, string_field VARCHAR(20), int_field INT, big_decimal_field DECIMAL(10,2), date_field DATE, zoned_date_time_field TIMESTAMP(6))");
+
+        repository = (RepositoryImpl<AssignedIdEntity>) database.repository(AssignedIdEntity.class);
+    }
+
+    @AfterAll
+    void cleanupDatabase() {
+        database.execute("DROP TABLE assigned_id_entity");
+        database.close();
+    }
+
+    @BeforeEach
+    void createCache() {
+        database.execute("TRUNCATE TABLE assigned_id_entity");
+        repository.cache = new CacheImpl<>("assignedidentity", AssignedIdEntity.class, Duration.ofHours(1));
+        repository.cache.cacheStore = new LocalCacheStore();
+    }
+
+    @Test
+    void getFromCache() {
+        repository.insert(entity("1", 1));
+        assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(1));
+
+        database.execute("UPDATE assigned_id_entity SET int_field = ? WHERE id = ?", 2, "1");    // raw sql does not evict
+        assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(1));
+
+        repository.partialUpdate(entity("1", 3));
+        assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(3));
+
+        repository.delete("1");
+        assertThat(repository.get("1")).isEmpty();
+    }
+
+    @Test
+    void evictByBatch() {
+        repository.batchInsert(List.of(entity("1", 1), entity("2", 2)));
+        assertThat(repository.get("1")).isPresent();
+        assertThat(repository.get("2")).isPresent();
+
+        repository.batchUpsert(List.of(entity("1", 10), entity("2", 20)));
+        assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(10));
+        assertThat(repository.get("2")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(20));
+
+        repository.batchDelete(List.of("1", "2"));
+        assertThat(repository.get("1")).isEmpty();
+        assertThat(repository.get("2")).isEmpty();
+    }
+
+    @Test
+    void getWithinTransaction() {
+        repository.insert(entity("1", 1));
+        assertThat(repository.get("1")).isPresent();
+
+        try (Transaction transaction = database.beginTransaction()) {
+            repository.update(entity("1", 2));
+            assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(2));
+            transaction.rollback();
+        }
+        assertThat(repository.get("1")).get().satisfies(entity -> assertThat(entity.intField).isEqualTo(1));
+    }
+
+    @Test
+    void cacheKey() {
+        assertThat(repository.cacheKey(new Object[]{"1"})).isEqualTo("1");
+        assertThat(repository.cacheKey(new Object[]{"1", 2, TestEnum.V1})).isEqualTo("1:2:V1");
+        assertThat(repository.cacheKey(new Object[]{"a:b", "c"})).isEqualTo("a\\:b:c")
+            .isNotEqualTo(repository.cacheKey(new Object[]{"a", "b:c"}));
+        assertThat(repository.cacheKey(new Object[]{"a\\", ":b"})).isEqualTo("a\\\\:\\:b");
+    }
+
+    private AssignedIdEntity entity(String id, int intField) {
+        var entity = new AssignedIdEntity();
+        entity.id = id;
+        entity.stringField = "string";
+        entity.intField = intField;
+        return entity;
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -105,6 +106,32 @@ class RepositoryImplCompositeKeyEntityTest {
             .hasMessageContaining("the length of primary keys must match columns");
     }
 
+    @Test
+    void batchGet() {
+        var entity1 = new CompositeKeyEntity();
+        entity1.id1 = "1-1";
+        entity1.id2 = "1-2";
+        entity1.booleanField = Boolean.TRUE;
+        var entity2 = new CompositeKeyEntity();
+        entity2.id1 = "2-1";
+        entity2.id2 = "2-2";
+        entity2.booleanField = Boolean.FALSE;
+        repository.batchInsert(List.of(entity1, entity2));
+
+        Map<List<String>, CompositeKeyEntity> results = repository.batchGet(List.of(List.of("2-1", "2-2"), List.of("1-1", "2-2"), List.of("1-1", "1-2")));
+
+        assertThat(results.keySet()).containsExactly(List.of("2-1", "2-2"), List.of("1-1", "1-2"));
+        assertThat(results.get(List.of("1-1", "1-2"))).usingRecursiveComparison().isEqualTo(entity1);
+        assertThat(results.get(List.of("2-1", "2-2"))).usingRecursiveComparison().isEqualTo(entity2);
+
+        var entity3 = new CompositeKeyEntity();
+        entity3.id1 = "a:b";
+        entity3.id2 = "c";
+        entity3.booleanField = Boolean.TRUE;
+        repository.insert(entity3);
+        assertThat(repository.batchGet(List.of(new Object[]{"a", "b:c"}, List.of("a:b", "c")))).hasSize(1).containsKey(List.of("a:b", "c"));
+    }
+
     @Test
     void batchDelete() {
         var entity1 = new CompositeKeyEntity();
@@ -124,16 +151,16 @@ class RepositoryImplCompositeKeyEntityTest {
     }
 
     @Test
-    void batchDeleteParams() {
+    void primaryKeyParams() {
         assertThatThrownBy(() -> {
             var impl = (RepositoryImpl<CompositeKeyEntity>) repository;
-            impl.batchDeleteParams(List.of(1, 2, 3));
+            impl.primaryKeyParams(List.of(1, 2, 3));
         }).isInstanceOf(Error.class)
             .hasMessageContaining("the length of primary keys must match columns");
 
         assertThatThrownBy(() -> {
             var impl = (RepositoryImpl<CompositeKeyEntity>) repository;
-            impl.batchDeleteParams(List.of(new Object[]{1, 1, 1}));
+            impl.primaryKeyParams(List.of(new Object[]{1, 1, 1}));
         }).isInstanceOf(Error.class)
             .hasMessageContaining("the length of primary keys must match columns");
     }
@@ -16,6 +16,17 @@ class SelectQueryTest {
         assertThat(query.getSQL).isEqualTo("SELECT id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field FROM assigned_id_entity WHERE id = ?");
     }
 
+    @Test
+    void batchGetSQL() {
+        SelectQuery<AssignedIdEntity> query = new SelectQuery<>(AssignedIdEntity.class, Dialect.MYSQL);
+        assertThat(query.batchGetSQL(2)).isEqualTo("SELECT id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field FROM assigned_id_entity WHERE id IN (?, ?)");
+        assertThat(query.batchGetSize).isEqualTo(1000);
+
+        SelectQuery<CompositeKeyEntity> compositeKeyQuery = new SelectQuery<>(CompositeKeyEntity.class, Dialect.MYSQL);
+        assertThat(compositeKeyQuery.batchGetSQL(2)).isEqualTo("SELECT id1, id2, boolean_field, long_field FROM composite_key_entity WHERE (id1, id2) IN ((?, ?), (?, ?))");
+        assertThat(compositeKeyQuery.batchGetSize).isEqualTo(500);
+    }
+
     @Test
     void fetchSQL() {
         SelectQuery<AssignedIdEntity> query = new SelectQuery<>(AssignedIdEntity.class, Dialect.MYSQL);
@@ -0,0 +1,121 @@
+package core.framework.internal.redis;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class MultiplexedRedisConnectionTest {
+    private ServerSocket server;
+    private RedisConnectionFactory factory;
+
+    @BeforeEach
+    void createConnectionFactory() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::serve);
+        factory = new RedisConnectionFactory();
+        factory.host = new RedisHost("127.0.0.1:" + server.getLocalPort());
+        factory.multiplex(1);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        factory.close();
+        server.close();
+    }
+
+    @Test
+    void read() throws IOException {
+        RedisConnection connection1 = factory.get();
+        RedisConnection connection2 = factory.get();
+        connection1.writeKeyCommand(GET, "key1");
+        connection2.writeKeyCommand(GET, "key2");
+        connection1.writeKeyCommand(GET, "key3");
+
+        assertThat(decode(connection2.readBlobString())).isEqualTo("key2");
+        assertThat(decode(connection1.readBlobString())).isEqualTo("key1");
+        assertThat(decode(connection1.readBlobString())).isEqualTo("key3");
+    }
+
+    @Test
+    void readError() throws IOException {
+        RedisConnection connection = factory.get();
+        connection.writeKeyCommand(GET, "error");
+        connection.writeKeyCommand(GET, "key1");
+
+        assertThatThrownBy(connection::readBlobString)
+            .isInstanceOf(RedisException.class)
+            .hasMessage("ERR failed");
+        assertThat(decode(connection.readBlobString())).isEqualTo("key1");
+    }
+
+    @Test
+    void readTimeout() throws IOException {
+        factory.timeoutInMs = 200;
+        RedisConnection connection1 = factory.get();
+        RedisConnection connection2 = factory.get();
+        connection1.writeKeyCommand(GET, "timeout");
+        connection2.writeKeyCommand(GET, "key1");
+
+        assertThatThrownBy(connection1::readBlobString)
+            .isInstanceOf(SocketTimeoutException.class);
+        // reply after timed out one is stuck, connection is broken to fail it immediately
+        assertThatThrownBy(connection2::readBlobString)
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("read timed out");
+
+        RedisConnection connection3 = factory.get();
+        connection3.writeKeyCommand(GET, "key2");
+        assertThat(decode(connection3.readBlobString())).isEqualTo("key2");
+    }
+
+    private void serve() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                Thread.ofVirtual().start(() -> serve(socket));
+            }
+        } catch (IOException e) {
+            // server socket is closed
+        }
+    }
+
+    // reply key of each command, or error if key is "error", or stop replying if key is "timeout"
+    private void serve(Socket socket) {
+        try (socket) {
+            var input = new RedisInputStream(socket.getInputStream());
+            var output = new RedisOutputStream(socket.getOutputStream(), 1024);
+            while (true) {
+                byte[] key = (byte[]) ((Object[]) Protocol.read(input))[1];
+                if (Arrays.equals(key, Strings.bytes("timeout"))) {     // stall until client closes connection
+                    socket.getInputStream().transferTo(OutputStream.nullOutputStream());
+                    return;
+                } else if (Arrays.equals(key, Strings.bytes("error"))) {
+                    output.write((byte) '-');
+                    output.writeBytesCRLF(Strings.bytes("ERR failed"));
+                } else {
+                    Protocol.writeBlobString(output, key);
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            // connection is closed
+        }
+    }
+}
@@ -76,4 +76,27 @@ class ProtocolTest {
         byte[] response = (byte[]) Protocol.read(new RedisInputStream(stream));
         assertThat(decode(response)).isEmpty();
     }
+
+    @Test
+    void readMap() throws IOException {
+        var stream = new ByteArrayInputStream(Strings.bytes("%2\r\n+server\r\n+redis\r\n+proto\r\n:3\r\n"));
+        Object[] response = (Object[]) Protocol.read(new RedisInputStream(stream));
+        assertThat(response).containsExactly("server", "redis", "proto", 3L);
+    }
+
+    @Test
+    void readNullAndBoolean() throws IOException {
+        var stream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes("_\r\n#t\r\n#f\r\n")));
+        assertThat(Protocol.read(stream)).isNull();
+        assertThat(Protocol.read(stream)).isEqualTo(Boolean.TRUE);
+        assertThat(Protocol.read(stream)).isEqualTo(Boolean.FALSE);
+    }
+
+    @Test
+    void readPush() throws IOException {
+        var stream = new ByteArrayInputStream(Strings.bytes(">2\r\n$10\r\ninvalidate\r\n*1\r\n$3\r\nkey\r\n"));
+        var push = (Protocol.Push) Protocol.read(new RedisInputStream(stream));
+        assertThat(decode((byte[]) push.values()[0])).isEqualTo("invalidate");
+        assertThat((Object[]) push.values()[1]).containsExactly(encode("key"));
+    }
 }
@@ -0,0 +1,99 @@
+package core.framework.internal.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RedisClientCacheTest {
+    private RedisClientCache cache;
+
+    @BeforeEach
+    void createRedisClientCache() {
+        cache = new RedisClientCache(new RedisConnectionFactory(), 2, List.of("config:"));
+        cache.available = true;
+    }
+
+    @Test
+    void tracked() {
+        assertThat(cache.tracked("config:key")).isTrue();
+        assertThat(cache.tracked("session:key")).isFalse();
+
+        cache.available = false;
+        assertThat(cache.tracked("config:key")).isFalse();
+    }
+
+    @Test
+    void get() {
+        assertThat(cache.get("config:key", String.class, key -> "value")).isEqualTo("value");
+        assertThat(cache.get("config:key", String.class, key -> "changed")).isEqualTo("value");
+
+        assertThat(cache.get("config:absent", String.class, key -> null)).isNull();
+        assertThat(cache.values).containsEntry("config:absent", RedisClientCache.ABSENT);
+        assertThat(cache.get("config:absent", String.class, key -> "value")).isNull();
+    }
+
+    @Test
+    void getWhenInvalidatedDuringLoad() {
+        String value = cache.get("config:key", String.class, key -> {
+            cache.invalidate(new Object[]{encode(key)});
+            return "stale";
+        });
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.values).doesNotContainKey("config:key");
+    }
+
+    @Test
+    void invalidate() {
+        cache.get("config:key1", String.class, key -> "value1");
+        cache.get("config:key2", String.class, key -> "value2");
+
+        cache.invalidate(new Object[]{encode("config:key1")});
+        assertThat(cache.values).containsOnlyKeys("config:key2");
+
+        cache.invalidate(null);
+        assertThat(cache.values).isEmpty();
+    }
+
+    @Test
+    void invalidateKeys() {
+        String value = cache.get("config:key", String.class, key -> {
+            cache.invalidateKeys(key);     // written by this client during load
+            return "stale";
+        });
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.values).doesNotContainKey("config:key");
+
+        cache.get("config:key", String.class, key -> "value");
+        cache.invalidateKeys("config:key");
+        assertThat(cache.get("config:key", String.class, key -> "changed")).isEqualTo("changed");
+    }
+
+    @Test
+    void evictWhenFull() {
+        cache.get("config:key1", String.class, key -> "value1");
+        cache.get("config:key2", String.class, key -> "value2");
+        cache.get("config:key3", String.class, key -> "value3");
+
+        assertThat(cache.values).hasSize(2).containsKey("config:key3");
+    }
+
+    @Test
+    void multiGet() {
+        cache.get("config:key1", String.class, key -> "value1");
+
+        Map<String, String> values = cache.multiGet(new String[]{"config:key1", "config:key2", "session:key3"}, keys -> {
+            assertThat(keys).containsExactly("config:key2", "session:key3");
+            return Map.of("config:key2", "value2", "session:key3", "value3");
+        });
+        assertThat(values).containsExactly(Map.entry("config:key1", "value1"), Map.entry("config:key2", "value2"), Map.entry("session:key3", "value3"));
+        assertThat(cache.values).containsOnlyKeys("config:key1", "config:key2");
+    }
+}
@@ -0,0 +1,212 @@
+package core.framework.internal.redis;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static core.framework.internal.redis.Protocol.Command.DEL;
+import static core.framework.internal.redis.Protocol.Command.EVALSHA;
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.Protocol.Command.MGET;
+import static core.framework.internal.redis.Protocol.Command.SCAN;
+import static core.framework.internal.redis.Protocol.Command.XGROUP;
+import static core.framework.internal.redis.Protocol.Command.XREADGROUP;
+import static core.framework.internal.redis.Protocol.Keyword.COUNT;
+import static core.framework.internal.redis.Protocol.Keyword.CREATE;
+import static core.framework.internal.redis.Protocol.Keyword.GROUP;
+import static core.framework.internal.redis.Protocol.Keyword.LAST_ID;
+import static core.framework.internal.redis.Protocol.Keyword.MATCH;
+import static core.framework.internal.redis.Protocol.Keyword.MKSTREAM;
+import static core.framework.internal.redis.Protocol.Keyword.NEW_ENTRIES;
+import static core.framework.internal.redis.Protocol.Keyword.STREAMS;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class RedisClusterTest {
+    private final AtomicBoolean moved = new AtomicBoolean();
+    private final AtomicBoolean seedDown = new AtomicBoolean();
+    private final AtomicInteger topologyRequests = new AtomicInteger();     // CLUSTER SLOTS requests served by node2
+    private final AtomicInteger seedTopologyRequests = new AtomicInteger();
+    private final AtomicBoolean node2Down = new AtomicBoolean();
+    private ServerSocket server;    // seed, serves slot 0-8191
+    private ServerSocket server2;   // serves slot 8192-16383
+    private RedisCluster cluster;
+
+    @BeforeEach
+    void createCluster() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        server2 = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(() -> serve(server));
+        Thread.ofVirtual().start(() -> serve(server2));
+        var factory = new RedisConnectionFactory();
+        factory.host = new RedisHost("127.0.0.1:" + server.getLocalPort());
+        cluster = new RedisCluster("redis", factory);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        cluster.close();
+        server.close();
+        server2.close();
+    }
+
+    @Test
+    void crc16() {
+        assertThat(RedisCluster.crc16(Strings.bytes("123456789"), 0, 9)).isEqualTo(0x31C3);
+    }
+
+    @Test
+    void slot() {
+        assertThat(RedisCluster.slot(Strings.bytes("foo"))).isEqualTo(12182);
+        assertThat(RedisCluster.slot(Strings.bytes("{user1000}.following"))).isEqualTo(RedisCluster.slot(Strings.bytes("{user1000}.followers")));
+        assertThat(RedisCluster.slot(Strings.bytes("foo{}{bar}"))).isEqualTo(RedisCluster.crc16(Strings.bytes("foo{}{bar}"), 0, 10) & 16383);
+        assertThat(RedisCluster.slot(Strings.bytes("foo{{bar}}zap"))).isEqualTo(RedisCluster.slot(Strings.bytes("{bar")));
+    }
+
+    @Test
+    void splitCommand() {
+        RedisCluster.Command command = RedisCluster.Command.parse(new byte[][]{MGET, encode("foo"), encode("bar"), encode("{foo}2")});
+        assertThat(command.requests).hasSize(2);
+
+        command.requests[0].reply = new Object[]{encode("v1"), encode("v3")};
+        command.requests[1].reply = new Object[]{encode("v2")};
+        Object[] reply = (Object[]) command.reply();
+        assertThat(reply).extracting(value -> decode((byte[]) value)).containsExactly("v1", "v2", "v3");
+
+        command = RedisCluster.Command.parse(new byte[][]{DEL, encode("foo"), encode("bar")});
+        command.requests[0].reply = 1L;
+        command.requests[1].reply = 1L;
+        assertThat(command.reply()).isEqualTo(2L);
+    }
+
+    @Test
+    void parseScriptCommand() {
+        RedisCluster.Command command = RedisCluster.Command.parse(new byte[][]{EVALSHA, encode("sha"), encode("1"), encode("{foo}1"), encode("arg")});
+        assertThat(command.requests[0].slot).isEqualTo(RedisCluster.slot(encode("foo")));
+
+        command = RedisCluster.Command.parse(new byte[][]{EVALSHA, encode("sha"), encode("0"), encode("arg")});
+        assertThat(command.requests[0].slot).isEqualTo(-1);
+    }
+
+    @Test
+    void parseStreamCommand() {
+        RedisCluster.Command command = RedisCluster.Command.parse(new byte[][]{XGROUP, CREATE, encode("stream"), encode("group"), LAST_ID, MKSTREAM});
+        assertThat(command.requests[0].slot).isEqualTo(RedisCluster.slot(encode("stream")));
+
+        command = RedisCluster.Command.parse(new byte[][]{XREADGROUP, GROUP, encode("group"), encode("consumer"), COUNT, encode("1"), STREAMS, encode("stream"), NEW_ENTRIES});
+        assertThat(command.requests[0].slot).isEqualTo(RedisCluster.slot(encode("stream")));
+    }
+
+    @Test
+    void execute() throws IOException {
+        Object[] replies = cluster.execute(List.of(new byte[][]{GET, encode("key1")}, new byte[][]{MGET, encode("foo"), encode("bar")}, new byte[][]{GET, encode("moved")}));
+
+        assertThat(decode((byte[]) replies[0])).isEqualTo("key1");
+        assertThat((Object[]) replies[1]).extracting(value -> decode((byte[]) value)).containsExactly("foo", "bar");
+        assertThat(decode((byte[]) replies[2])).isEqualTo("moved");
+    }
+
+    @Test
+    void scan() throws IOException {
+        List<String> keys = new ArrayList<>();
+        String cursor = "0";
+        do {
+            Object[] reply = (Object[]) cluster.execute(List.<byte[][]>of(new byte[][]{SCAN, encode(cursor), MATCH, encode("*")}))[0];
+            cursor = decode((byte[]) reply[0]);
+            for (Object key : (Object[]) reply[1]) {
+                keys.add(decode((byte[]) key));
+            }
+        } while (!"0".equals(cursor));
+
+        assertThat(keys).containsExactly(server.getLocalPort() + "-1", server.getLocalPort() + "-2", server2.getLocalPort() + "-1", server2.getLocalPort() + "-2");
+    }
+
+    @Test
+    void refreshWithSeedDown() throws IOException {
+        cluster.execute(List.<byte[][]>of(new byte[][]{GET, encode("key1")}));
+        seedDown.set(true);
+
+        cluster.refresh();
+        assertThat(topologyRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshOnNodeFailure() throws IOException {
+        cluster.execute(List.<byte[][]>of(new byte[][]{GET, encode("key1")}));
+        assertThat(seedTopologyRequests.get()).isEqualTo(1);
+        node2Down.set(true);
+        cluster.lastRefreshTime = 0;
+
+        assertThatThrownBy(() -> cluster.execute(List.<byte[][]>of(new byte[][]{GET, encode("foo")})))     // foo is on node2
+            .isInstanceOf(IOException.class);
+        assertThat(seedTopologyRequests.get()).isEqualTo(2);
+    }
+
+    // two nodes, reply keys of command, reply MOVED for first request of "moved" key, each node returns 2 keys by SCAN
+    private void serve(ServerSocket server) {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                Thread.ofVirtual().start(() -> handle(socket));
+            }
+        } catch (IOException e) {
+            // server socket is closed
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            var input = new RedisInputStream(socket.getInputStream());
+            var output = new RedisOutputStream(socket.getOutputStream(), 1024);
+            while (true) {
+                Object[] command = (Object[]) Protocol.read(input);
+                String name = decode((byte[]) command[0]);
+                int port = socket.getLocalPort();
+                if (port == server2.getLocalPort() && node2Down.get() && !"CLUSTER".equals(name)) return;     // close connection
+                if ("CLUSTER".equals(name)) {
+                    if (port == server.getLocalPort()) seedTopologyRequests.incrementAndGet();
+                    if (port == server.getLocalPort() && seedDown.get()) {
+                        output.writeBytesCRLF(Strings.bytes("-CLUSTERDOWN seed is down"));
+                    } else {
+                        if (port == server2.getLocalPort()) topologyRequests.incrementAndGet();
+                        output.writeBytesCRLF(Strings.bytes("*2\r\n*3\r\n:0\r\n:8191\r\n*2\r\n$9\r\n127.0.0.1\r\n:" + server.getLocalPort()
+                            + "\r\n*3\r\n:8192\r\n:16383\r\n*2\r\n$9\r\n127.0.0.1\r\n:" + server2.getLocalPort()));
+                    }
+                } else if ("SCAN".equals(name)) {
+                    boolean first = "0".equals(decode((byte[]) command[1]));
+                    Protocol.writeArray(output, 2);
+                    Protocol.writeBlobString(output, encode(first ? "7" : "0"));
+                    Protocol.writeArray(output, 1);
+                    Protocol.writeBlobString(output, encode(port + (first ? "-1" : "-2")));
+                } else if ("moved".equals(decode((byte[]) command[1])) && moved.compareAndSet(false, true)) {
+                    output.writeBytesCRLF(Strings.bytes("-MOVED " + RedisCluster.slot((byte[]) command[1]) + " 127.0.0.1:" + server.getLocalPort()));
+                } else if ("MGET".equals(name)) {
+                    Protocol.writeArray(output, command.length - 1);
+                    for (int i = 1; i < command.length; i++) {
+                        Protocol.writeBlobString(output, (byte[]) command[i]);
+                    }
+                } else {
+                    Protocol.writeBlobString(output, (byte[]) command[1]);
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            // connection is closed
+        }
+    }
+}
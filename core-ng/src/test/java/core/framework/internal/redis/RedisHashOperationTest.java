@@ -2,7 +2,9 @@ package core.framework.internal.redis;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +31,18 @@ class RedisHashOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*4\r\n$4\r\nHSET\r\n$3\r\nkey\r\n$2\r\nf1\r\n$2\r\nv1\r\n");
     }
 
+    @Test
+    void setWithClientCache() {
+        redis.clientCache = new RedisClientCache(new RedisConnectionFactory(), 10, List.of());
+        redis.clientCache.available = true;
+        redis.clientCache.get("key", Map.class, key -> Map.of("f1", "v0"));
+
+        response(":1\r\n");
+        redis.hash().set("key", "f1", "v1");
+
+        assertThat(redis.clientCache.values).doesNotContainKey("key");
+    }
+
     @Test
     void getAll() {
         response("*4\r\n$1\r\n1\r\n$1\r\n2\r\n$1\r\n3\r\n$1\r\n4\r\n");
@@ -38,6 +52,18 @@ class RedisHashOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*2\r\n$7\r\nHGETALL\r\n$3\r\nkey\r\n");
     }
 
+    @Test
+    void forEach() {
+        response("*2\r\n$2\r\n17\r\n*2\r\n$1\r\n1\r\n$1\r\n2\r\n"
+                + "*2\r\n$1\r\n0\r\n*2\r\n$1\r\n3\r\n$1\r\n4\r\n");
+        List<Map<String, String>> batches = new ArrayList<>();
+        redis.hash().forEach("key", 100, batches::add);
+
+        assertThat(batches).containsExactly(Map.of("1", "2"), Map.of("3", "4"));
+        assertRequestEquals("*5\r\n$5\r\nHSCAN\r\n$3\r\nkey\r\n$1\r\n0\r\n$5\r\nCOUNT\r\n$3\r\n100\r\n"
+                + "*5\r\n$5\r\nHSCAN\r\n$3\r\nkey\r\n$2\r\n17\r\n$5\r\nCOUNT\r\n$3\r\n100\r\n");
+    }
+
     @Test
     void multiSet() {
         response("+OK\r\n");
@@ -1,9 +1,11 @@
 package core.framework.internal.redis;
 
+import core.framework.redis.RedisReadPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -32,6 +34,27 @@ class RedisImplTest {
         assertThat(redis.connectionFactory.timeoutInMs).isEqualTo(timeout.toMillis());
     }
 
+    @Test
+    void replicas() {
+        assertThat(redis.replicas(List.of("replica"), RedisReadPolicy.PRIMARY)).isNull();
+        assertThat(redis.readPool()).isSameAs(redis.pool);
+
+        redis.replicas(List.of("replica"), RedisReadPolicy.REPLICA_PREFERRED);
+        assertThat(redis.readPool()).isSameAs(redis.replicaPool);
+
+        assertThatThrownBy(() -> redis.cluster())
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("cluster mode does not support replicas");
+    }
+
+    @Test
+    void script() {
+        assertThat(redis.script("return 1")).isSameAs(redis.script("return 1"));
+        assertThatThrownBy(() -> redis.script(" "))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("script must not be blank");
+    }
+
     @Test
     void set() {
         assertThatThrownBy(() -> redis.set("key", "value", Duration.ZERO, true))
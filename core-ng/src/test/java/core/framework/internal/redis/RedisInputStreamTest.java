@@ -4,8 +4,12 @@ import core.framework.util.Strings;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -19,4 +23,66 @@ class RedisInputStreamTest {
 
         assertEquals("line1\rline2", message);
     }
+
+    @Test
+    void readBytesWithDecoder() throws IOException {
+        RedisInputStream stream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes("value\r\n+OK\r\n")));
+        String value = stream.readBytes(5, (buffer, offset, length) -> new String(buffer, offset, length));
+
+        assertThat(value).isEqualTo("value");
+        assertThat(Protocol.read(stream)).isEqualTo("OK");
+    }
+
+    @Test
+    void readLargeBytesWithDecoder() throws IOException {
+        byte[] value = largeValue(100_000);
+        RedisInputStream stream = new RedisInputStream(new ByteArrayInputStream(data(value)));
+        byte[] result = stream.readBytes(value.length, (buffer, offset, length) -> Arrays.copyOfRange(buffer, offset, offset + length));
+
+        assertThat(result).isEqualTo(value);
+        assertThat(Protocol.read(stream)).isEqualTo("OK");
+    }
+
+    // allocation benchmark, decoding 1M value from pooled buffer should allocate far less than reading value as new array
+    @Test
+    void allocation() throws IOException {
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] data = data(largeValue(1024 * 1024));
+        RedisBlobDecoder<Byte> decoder = (buffer, offset, length) -> buffer[offset + length - 1];
+        readWithDecoder(data, decoder, 10);     // warm up
+
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        readWithDecoder(data, decoder, 10);
+        long decoderBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10; i++) {
+            new RedisInputStream(new ByteArrayInputStream(data)).readBytes(1024 * 1024);
+        }
+        long copyBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        assertThat(copyBytes).isGreaterThan(10L * 1024 * 1024);
+        assertThat(decoderBytes).isLessThan(copyBytes / 10);
+    }
+
+    private void readWithDecoder(byte[] data, RedisBlobDecoder<Byte> decoder, int times) throws IOException {
+        for (int i = 0; i < times; i++) {
+            new RedisInputStream(new ByteArrayInputStream(data)).readBytes(1024 * 1024, decoder);
+        }
+    }
+
+    private byte[] largeValue(int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) ('a' + i % 26);
+        }
+        return value;
+    }
+
+    private byte[] data(byte[] value) {
+        var data = new ByteArrayOutputStream();
+        data.writeBytes(value);
+        data.writeBytes(Strings.bytes("\r\n+OK\r\n"));
+        return data.toByteArray();
+    }
 }
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 
 import static core.framework.internal.redis.RedisEncodings.encode;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 
@@ -25,6 +26,16 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n");
     }
 
+    @Test
+    void getBytesWithTTL() {
+        response("$6\r\nfoobar\r\n:1000\r\n");
+        RedisImpl.ValueWithTTL<byte[]> value = redis.getBytesWithTTL("key");
+
+        assertThat(value.value()).isEqualTo(encode("foobar"));
+        assertThat(value.ttl()).isEqualTo(1000);
+        assertRequestEquals("*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n*2\r\n$4\r\nPTTL\r\n$3\r\nkey\r\n");
+    }
+
     @Test
     void set() {
         response("+OK\r\n");
@@ -33,6 +44,18 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$5\r\nvalue\r\n");
     }
 
+    @Test
+    void setWithClientCache() {
+        redis.clientCache = new RedisClientCache(new RedisConnectionFactory(), 10, List.of());
+        redis.clientCache.available = true;
+        redis.clientCache.get("key", String.class, key -> "old");
+
+        response("+OK\r\n");
+        redis.set("key", "value");
+
+        assertThat(redis.clientCache.get("key", String.class, key -> "value")).isEqualTo("value");
+    }
+
     @Test
     void setWithExpiration() {
         response("+OK\r\n");
@@ -84,6 +107,33 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*4\r\n$4\r\nMGET\r\n$2\r\nk1\r\n$2\r\nk2\r\n$2\r\nk3\r\n");
     }
 
+    @Test
+    void getWithDecoder() {
+        response("$6\r\nfoobar\r\n");
+        String value = redis.get("key", (buffer, offset, length) -> new String(buffer, offset, length, UTF_8));
+
+        assertThat(value).isEqualTo("foobar");
+        assertRequestEquals("*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n");
+    }
+
+    @Test
+    void getWithTTLWithDecoder() {
+        response("$6\r\nfoobar\r\n:1000\r\n");
+        RedisImpl.ValueWithTTL<String> value = redis.getWithTTL("key", (buffer, offset, length) -> new String(buffer, offset, length, UTF_8));
+
+        assertThat(value.value()).isEqualTo("foobar");
+        assertThat(value.ttl()).isEqualTo(1000);
+    }
+
+    @Test
+    void multiGetWithDecoder() {
+        response("*3\r\n$2\r\nv1\r\n$-1\r\n$2\r\nv3\r\n");
+        Map<String, String> values = redis.multiGet(new String[]{"k1", "k2", "k3"}, (buffer, offset, length) -> new String(buffer, offset, length, UTF_8));
+
+        assertThat(values).containsOnly(entry("k1", "v1"), entry("k3", "v3"));
+        assertRequestEquals("*4\r\n$4\r\nMGET\r\n$2\r\nk1\r\n$2\r\nk2\r\n$2\r\nk3\r\n");
+    }
+
     @Test
     void multiSet() {
         response("+OK\r\n");
@@ -133,4 +183,13 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertThat(expirationTimes).containsExactly(1000, -1, -2);
         assertRequestEquals("*2\r\n$4\r\nPTTL\r\n$2\r\nk1\r\n" + "*2\r\n$4\r\nPTTL\r\n$2\r\nk2\r\n" + "*2\r\n$4\r\nPTTL\r\n$2\r\nk3\r\n");
     }
+
+    @Test
+    void publish() {
+        response(":2\r\n");
+        long receivers = redis.publish("channel", encode("message"));
+
+        assertThat(receivers).isEqualTo(2);
+        assertRequestEquals("*3\r\n$7\r\nPUBLISH\r\n$7\r\nchannel\r\n$7\r\nmessage\r\n");
+    }
 }
@@ -0,0 +1,86 @@
+package core.framework.internal.redis;
+
+import core.framework.redis.RedisPipeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author neo
+ */
+class RedisPipelineOperationTest extends AbstractRedisOperationTest {
+    @Test
+    void execute() {
+        response("$2\r\nv1\r\n*2\r\n$2\r\nf1\r\n$2\r\nv2\r\n+OK\r\n:1\r\n:5\r\n");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value = pipeline.get("key1");
+        Supplier<Map<String, String>> hash = pipeline.hashGetAll("key2");
+        pipeline.set("key3", "v3", Duration.ofMinutes(1));
+        pipeline.expire("key2", Duration.ofMinutes(1));
+        Supplier<Long> increased = pipeline.hashIncreaseBy("key4", "f1", 5);
+        pipeline.execute();
+
+        assertThat(value.get()).isEqualTo("v1");
+        assertThat(hash.get()).containsOnly(entry("f1", "v2"));
+        assertThat(increased.get()).isEqualTo(5);
+        assertRequestEquals("*2\r\n$3\r\nGET\r\n$4\r\nkey1\r\n"
+                + "*2\r\n$7\r\nHGETALL\r\n$4\r\nkey2\r\n"
+                + "*5\r\n$3\r\nSET\r\n$4\r\nkey3\r\n$2\r\nv3\r\n$2\r\nPX\r\n$5\r\n60000\r\n"
+                + "*3\r\n$7\r\nPEXPIRE\r\n$4\r\nkey2\r\n$5\r\n60000\r\n"
+                + "*4\r\n$7\r\nHINCRBY\r\n$4\r\nkey4\r\n$2\r\nf1\r\n$1\r\n5\r\n");
+    }
+
+    @Test
+    void executeWithClientCache() {
+        redis.clientCache = new RedisClientCache(new RedisConnectionFactory(), 10, List.of());
+        redis.clientCache.available = true;
+        redis.clientCache.get("key1", String.class, key -> "v1");
+        redis.clientCache.get("key2", String.class, key -> "v2");
+        redis.clientCache.get("key3", String.class, key -> "v3");
+
+        response("$2\r\nv1\r\n+OK\r\n:1\r\n");
+        RedisPipeline pipeline = redis.pipeline();
+        pipeline.get("key1");
+        pipeline.set("key2", "v2", null);
+        pipeline.del("key3");
+        pipeline.execute();
+
+        assertThat(redis.clientCache.values).containsOnlyKeys("key1");
+    }
+
+    @Test
+    void hashMultiSetAndDel() {
+        response(":1\r\n+OK\r\n:1\r\n");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<Long> deleted = pipeline.hashDel("key1", "f1");
+        pipeline.hashMultiSet("key1", Map.of("f2", "v2"));
+        pipeline.expire("key1", Duration.ofMinutes(1));
+        pipeline.execute();
+
+        assertThat(deleted.get()).isEqualTo(1);
+        assertRequestEquals("*3\r\n$4\r\nHDEL\r\n$4\r\nkey1\r\n$2\r\nf1\r\n"
+                + "*4\r\n$5\r\nHMSET\r\n$4\r\nkey1\r\n$2\r\nf2\r\n$2\r\nv2\r\n"
+                + "*3\r\n$7\r\nPEXPIRE\r\n$4\r\nkey1\r\n$5\r\n60000\r\n");
+    }
+
+    @Test
+    void executeWithError() {
+        response("-WRONGTYPE Operation against a key holding the wrong kind of value\r\n$2\r\nv2\r\n");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value1 = pipeline.hashGet("key1", "f1");
+        Supplier<String> value2 = pipeline.get("key2");
+
+        assertThatThrownBy(pipeline::execute)
+            .isInstanceOf(RedisException.class)
+            .hasMessageContaining("WRONGTYPE");
+        assertThatThrownBy(value1::get).isInstanceOf(RedisException.class);
+        assertThat(value2.get()).isEqualTo("v2");
+    }
+}
@@ -0,0 +1,90 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.PoolItem;
+import core.framework.redis.RedisReadPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RedisReplicaConnectionFactoryTest {
+    private ServerSocket server;
+    private RedisConnectionFactory primary;
+    private String unavailableHost;
+
+    @BeforeEach
+    void createServer() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        primary = new RedisConnectionFactory();
+        primary.host = new RedisHost("127.0.0.1:" + server.getLocalPort());
+        try (var socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            unavailableHost = "127.0.0.1:" + socket.getLocalPort();     // port is closed after try block
+        }
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void skipUnavailableReplica() throws Exception {
+        var factory = new RedisReplicaConnectionFactory(primary, List.of(unavailableHost, "127.0.0.1:" + server.getLocalPort()), RedisReadPolicy.REPLICA_PREFERRED);
+        try (RedisConnection connection = factory.get()) {
+            assertThat(connection).isNotNull();
+        }
+        assertThat(factory.replicas[0].downUntil).isGreaterThan(System.currentTimeMillis());
+        assertThat(factory.replicas[1].downUntil).isZero();
+        assertThat(factory.replicas[1].latencyInNanos).isGreaterThan(0);
+    }
+
+    @Test
+    void markReplicaDownIfConnectionBroken() throws Exception {
+        var factory = new RedisReplicaConnectionFactory(primary, List.of("127.0.0.1:" + server.getLocalPort()), RedisReadPolicy.REPLICA_PREFERRED);
+        try (RedisConnection connection = factory.get()) {
+            var item = new PoolItem<>(connection);
+            factory.returned(item);
+            assertThat(factory.replicas[0].downUntil).isZero();
+
+            item.broken = true;
+            factory.returned(item);
+            assertThat(factory.replicas[0].downUntil).isGreaterThan(System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    void dropFallbackConnection() throws Exception {
+        var factory = new RedisReplicaConnectionFactory(primary, List.of(unavailableHost), RedisReadPolicy.REPLICA_PREFERRED);
+        try (RedisConnection connection = factory.get()) {
+            var item = new PoolItem<>(connection);
+            factory.returned(item);     // replica is still down
+            assertThat(item.broken).isFalse();
+
+            factory.replicas[0].downUntil = 0;
+            factory.returned(item);
+            assertThat(item.broken).isTrue();
+        }
+    }
+
+    @Test
+    void fallbackToPrimary() throws Exception {
+        var factory = new RedisReplicaConnectionFactory(primary, List.of(unavailableHost), RedisReadPolicy.NEAREST);
+        try (RedisConnection connection = factory.get()) {
+            assertThat(connection).isNotNull();
+        }
+        assertThat(factory.replicas[0].downUntil).isGreaterThan(System.currentTimeMillis());
+
+        try (RedisConnection connection = factory.get()) {     // replica is skipped while down
+            assertThat(connection).isNotNull();
+        }
+    }
+}
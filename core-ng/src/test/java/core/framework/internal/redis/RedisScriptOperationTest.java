@@ -0,0 +1,34 @@
+package core.framework.internal.redis;
+
+import core.framework.redis.RedisScript;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RedisScriptOperationTest extends AbstractRedisOperationTest {
+    @Test
+    void eval() {
+        response(":1\r\n");
+        RedisScript script = redis.script("return 1");
+        Object result = script.eval(List.of("key"), "arg");
+
+        assertThat(result).isEqualTo(1L);
+        assertRequestEquals("*5\r\n$7\r\nEVALSHA\r\n$40\r\ne0e1f9fabfc9d4800c877a703b823ac0578ff8db\r\n$1\r\n1\r\n$3\r\nkey\r\n$3\r\narg\r\n");
+    }
+
+    @Test
+    void evalWithNoScript() {
+        response("-NOSCRIPT No matching script. Please use EVAL.\r\n*2\r\n$5\r\nvalue\r\n$-1\r\n");
+        Object result = redis.script("return 1").eval(List.of());
+
+        assertThat(result).isEqualTo(Arrays.asList("value", null));
+        assertRequestEquals("*3\r\n$7\r\nEVALSHA\r\n$40\r\ne0e1f9fabfc9d4800c877a703b823ac0578ff8db\r\n$1\r\n0\r\n"
+                + "*3\r\n$4\r\nEVAL\r\n$8\r\nreturn 1\r\n$1\r\n0\r\n");
+    }
+}
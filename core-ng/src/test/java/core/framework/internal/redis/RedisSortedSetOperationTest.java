@@ -2,6 +2,8 @@ package core.framework.internal.redis;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,6 +49,19 @@ class RedisSortedSetOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*5\r\n$6\r\nZRANGE\r\n$3\r\nkey\r\n$1\r\n0\r\n$2\r\n-1\r\n$10\r\nWITHSCORES\r\n");
     }
 
+    @Test
+    void forEach() {
+        // empty batch is skipped
+        response("*2\r\n$1\r\n5\r\n*0\r\n"
+                + "*2\r\n$1\r\n0\r\n*4\r\n$2\r\nv1\r\n$3\r\n100\r\n$2\r\nv2\r\n$3\r\n200\r\n");
+        List<Map<String, Long>> batches = new ArrayList<>();
+        redis.sortedSet().forEach("key", 100, batches::add);
+
+        assertThat(batches).containsExactly(Map.of("v1", 100L, "v2", 200L));
+        assertRequestEquals("*5\r\n$5\r\nZSCAN\r\n$3\r\nkey\r\n$1\r\n0\r\n$5\r\nCOUNT\r\n$3\r\n100\r\n"
+                + "*5\r\n$5\r\nZSCAN\r\n$3\r\nkey\r\n$1\r\n5\r\n$5\r\nCOUNT\r\n$3\r\n100\r\n");
+    }
+
     @Test
     void rangeByScore() {
         response("*4\r\n$2\r\nv1\r\n$3\r\n100\r\n$2\r\nv2\r\n$3\r\n200\r\n");
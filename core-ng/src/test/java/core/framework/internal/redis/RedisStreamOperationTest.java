@@ -0,0 +1,86 @@
+package core.framework.internal.redis;
+
+import core.framework.redis.RedisStream;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class RedisStreamOperationTest extends AbstractRedisOperationTest {
+    @Test
+    void add() {
+        response("$15\r\n1700000000000-0\r\n");
+        String id = redis.stream().add("stream", Map.of("k", "v"), 1000);
+
+        assertThat(id).isEqualTo("1700000000000-0");
+        assertRequestEquals("*8\r\n$4\r\nXADD\r\n$6\r\nstream\r\n$6\r\nMAXLEN\r\n$1\r\n~\r\n$4\r\n1000\r\n$1\r\n*\r\n$1\r\nk\r\n$1\r\nv\r\n");
+    }
+
+    @Test
+    void createGroup() {
+        response("+OK\r\n");
+        redis.stream().createGroup("stream", "group");
+
+        assertRequestEquals("*6\r\n$6\r\nXGROUP\r\n$6\r\nCREATE\r\n$6\r\nstream\r\n$5\r\ngroup\r\n$1\r\n$\r\n$8\r\nMKSTREAM\r\n");
+    }
+
+    @Test
+    void createExistingGroup() {
+        response("-BUSYGROUP Consumer Group name already exists\r\n");
+        redis.stream().createGroup("stream", "group");
+
+        assertRequestEquals("*6\r\n$6\r\nXGROUP\r\n$6\r\nCREATE\r\n$6\r\nstream\r\n$5\r\ngroup\r\n$1\r\n$\r\n$8\r\nMKSTREAM\r\n");
+    }
+
+    @Test
+    void createGroupWithError() {
+        response("-WRONGTYPE Operation against a key holding the wrong kind of value\r\n");
+
+        assertThatThrownBy(() -> redis.stream().createGroup("stream", "group"))
+                .isInstanceOf(RedisException.class)
+                .hasMessageContaining("WRONGTYPE");
+    }
+
+    @Test
+    void readGroup() {
+        response("*1\r\n*2\r\n$6\r\nstream\r\n*1\r\n*2\r\n$3\r\n1-0\r\n*2\r\n$1\r\nk\r\n$1\r\nv\r\n");
+        List<RedisStream.Entry> entries = redis.stream().readGroup("stream", "group", "consumer", 10);
+
+        assertThat(entries).containsExactly(new RedisStream.Entry("1-0", Map.of("k", "v")));
+        assertRequestEquals("*9\r\n$10\r\nXREADGROUP\r\n$5\r\nGROUP\r\n$5\r\ngroup\r\n$8\r\nconsumer\r\n$5\r\nCOUNT\r\n$2\r\n10\r\n$7\r\nSTREAMS\r\n$6\r\nstream\r\n$1\r\n>\r\n");
+    }
+
+    @Test
+    void readGroupWithoutEntry() {
+        response("*-1\r\n");
+        List<RedisStream.Entry> entries = redis.stream().readGroup("stream", "group", "consumer", 10);
+
+        assertThat(entries).isEmpty();
+    }
+
+    @Test
+    void ack() {
+        response(":2\r\n");
+        long acked = redis.stream().ack("stream", "group", "1-0", "2-0");
+
+        assertThat(acked).isEqualTo(2);
+        assertRequestEquals("*5\r\n$4\r\nXACK\r\n$6\r\nstream\r\n$5\r\ngroup\r\n$3\r\n1-0\r\n$3\r\n2-0\r\n");
+    }
+
+    @Test
+    void autoClaim() {
+        // redis 6.2 returns deleted entry with nil fields, and without deleted ids
+        response("*2\r\n$3\r\n0-0\r\n*2\r\n*2\r\n$3\r\n1-0\r\n*2\r\n$1\r\nk\r\n$1\r\nv\r\n*2\r\n$3\r\n2-0\r\n*-1\r\n");
+        List<RedisStream.Entry> entries = redis.stream().autoClaim("stream", "group", "consumer", Duration.ofMinutes(5), 10);
+
+        assertThat(entries).containsExactly(new RedisStream.Entry("1-0", Map.of("k", "v")));
+        assertRequestEquals("*8\r\n$10\r\nXAUTOCLAIM\r\n$6\r\nstream\r\n$5\r\ngroup\r\n$8\r\nconsumer\r\n$6\r\n300000\r\n$3\r\n0-0\r\n$5\r\nCOUNT\r\n$2\r\n10\r\n");
+    }
+}
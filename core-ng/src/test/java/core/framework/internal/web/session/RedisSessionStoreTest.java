@@ -2,7 +2,8 @@ package core.framework.internal.web.session;
 
 import core.framework.internal.redis.RedisException;
 import core.framework.redis.Redis;
-import core.framework.redis.RedisHash;
+import core.framework.redis.RedisPipeline;
+import core.framework.redis.RedisScript;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,12 +13,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,7 +38,9 @@ class RedisSessionStoreTest {
     @Mock
     Redis redis;
     @Mock
-    RedisHash redisHash;
+    RedisPipeline pipeline;
+    @Mock
+    RedisScript script;
     private RedisSessionStore store;
 
     @BeforeEach
@@ -48,8 +59,8 @@ class RedisSessionStoreTest {
     @Test
     void getAndRefreshWithRedisDown() {
         // redis shutdown in the middle
-        when(redis.hash()).thenReturn(redisHash);
-        when(redisHash.getAll(anyString())).thenThrow(new UncheckedIOException(new IOException("unexpected end of stream")));
+        when(redis.pipeline()).thenReturn(pipeline);
+        doThrow(new UncheckedIOException(new IOException("unexpected end of stream"))).when(pipeline).execute();
 
         assertThatThrownBy(() -> store.getAndRefresh("sessionId", "localhost", Duration.ofMinutes(30)))
             .isInstanceOf(UncheckedIOException.class);
@@ -58,8 +69,8 @@ class RedisSessionStoreTest {
     @Test
     void getAndRefreshWithInvalidRedisData() {
         // session value in redis is invalid
-        when(redis.hash()).thenReturn(redisHash);
-        when(redisHash.getAll(anyString())).thenThrow(new RedisException("WRONGTYPE Operation against a key holding the wrong kind of value"));
+        when(redis.pipeline()).thenReturn(pipeline);
+        doThrow(new RedisException("WRONGTYPE Operation against a key holding the wrong kind of value")).when(pipeline).execute();
         assertThat(store.getAndRefresh("sessionId", "localhost", Duration.ofMinutes(30))).isNull();
     }
 
@@ -68,22 +79,71 @@ class RedisSessionStoreTest {
         var timeout = Duration.ofSeconds(30);
         var values = Map.of("USER_ID", "1");
 
-        when(redis.hash()).thenReturn(redisHash);
-        when(redisHash.getAll(anyString())).thenReturn(values);
+        when(redis.pipeline()).thenReturn(pipeline);
+        when(pipeline.hashGetAll(anyString())).thenReturn(() -> values);
+
+        assertThat(store.getAndRefresh("sessionId", "localhost", timeout)).isEqualTo(values);
 
-        store.getAndRefresh("sessionId", "localhost", timeout);
+        verify(pipeline).expire(anyString(), eq(timeout));
+        verify(pipeline).execute();
+    }
+
+    @Test
+    void getAndRefreshWithExpiredSession() {
+        when(redis.pipeline()).thenReturn(pipeline);
+        when(pipeline.hashGetAll(anyString())).thenReturn(Map::of);
 
-        verify(redis).expire(anyString(), eq(timeout));
+        assertThat(store.getAndRefresh("sessionId", "localhost", Duration.ofSeconds(30))).isNull();
     }
 
     @Test
     void save() {
-        when(redis.hash()).thenReturn(redisHash);
+        when(redis.pipeline()).thenReturn(pipeline);
         var timeout = Duration.ofSeconds(30);
-        var values = Map.of("USER_ID", "1");
+        Map<String, String> values = new HashMap<>();
+        values.put("USER_ID", "1");
+        values.put("ROLE", null);
         store.save("sessionId", "localhost", values, values.keySet(), timeout);
 
-        verify(redisHash).multiSet(anyString(), eq(values));
-        verify(redis).expire(anyString(), eq(timeout));
+        verify(pipeline).hashDel(anyString(), eq("ROLE"));
+        verify(pipeline).hashMultiSet(anyString(), eq(Map.of("USER_ID", "1")));
+        verify(pipeline).expire(anyString(), eq(timeout));
+        verify(pipeline).execute();
+    }
+
+    @Test
+    void getAndRefreshWithIndex() {
+        when(redis.script(anyString())).thenReturn(script);
+        store.index(Set.of("user_id"));
+        when(script.eval(anyList(), eq("30000"), eq("user_id"))).thenReturn(List.of("user_id", "1"));
+
+        assertThat(store.getAndRefresh("sessionId", "localhost", Duration.ofSeconds(30))).containsEntry("user_id", "1");
+    }
+
+    @Test
+    void saveWithIndex() {
+        when(redis.script(anyString())).thenReturn(script);
+        store.index(Set.of("user_id"));
+        when(redis.pipeline()).thenReturn(pipeline);
+        var timeout = Duration.ofSeconds(30);
+        store.save("sessionId", "localhost", Map.of("user_id", "1", "role", "admin"), Set.of("user_id"), timeout);
+
+        String sessionKey = store.sessionKey("sessionId", "localhost");
+        verify(pipeline).setAdd("session-index:user_id:1", sessionKey);
+        verify(pipeline).expire("session-index:user_id:1", timeout);
+
+        store.save("sessionId", "localhost", Map.of("user_id", "1", "role", "user"), Set.of("role"), timeout);
+        verify(pipeline, times(1)).setAdd("session-index:user_id:1", sessionKey);
+        verify(pipeline, times(2)).expire("session-index:user_id:1", timeout);
+    }
+
+    @Test
+    void invalidateByIndexedKey() {
+        when(redis.script(anyString())).thenReturn(script);
+        store.index(Set.of("user_id"));
+        store.invalidateByKey("user_id", "1");
+
+        verify(script).eval(List.of("session-index:user_id:1"), "user_id", "1");
+        verify(redis, never()).forEach(anyString(), any());
     }
 }
@@ -2,6 +2,8 @@ package core.framework.module;
 
 import core.framework.internal.cache.CacheImpl;
 import core.framework.internal.cache.LocalCacheStore;
+import core.framework.internal.cache.NearCacheStore;
+import core.framework.internal.cache.OffHeapCacheStore;
 import core.framework.internal.cache.RedisCacheStore;
 import core.framework.internal.cache.TestCache;
 import core.framework.internal.module.ModuleContext;
@@ -69,6 +71,82 @@ class CacheConfigTest {
         assertThat(cache.cacheStore).isInstanceOf(LocalCacheStore.class);
     }
 
+    @Test
+    void addWithNearCache() {
+        config.redis("localhost");
+
+        config.add(TestCache.class, Duration.ofHours(1)).near(Duration.ofMinutes(1));
+        CacheImpl<?> cache = config.caches.get("testcache");
+        assertThat(cache.cacheStore).isInstanceOf(NearCacheStore.class);
+    }
+
+    @Test
+    void addWithNearCacheWithoutRedis() {
+        config.local();
+
+        CacheStoreConfig cacheStoreConfig = config.add(TestCache.class, Duration.ofHours(1));
+        assertThatThrownBy(() -> cacheStoreConfig.near(Duration.ofMinutes(1)))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("near cache requires redis cache store");
+    }
+
+    @Test
+    void addWithOffHeap() {
+        config.redis("localhost");
+        config.maxOffHeapSize(16 * 1024 * 1024);
+
+        config.add(TestCache.class, Duration.ofHours(1)).offHeap();
+        CacheImpl<?> cache = config.caches.get("testcache");
+        assertThat(cache.cacheStore).isInstanceOf(OffHeapCacheStore.class);
+        config.validate();
+    }
+
+    @Test
+    void refreshAfter() {
+        config.local();
+
+        CacheStoreConfig cacheStoreConfig = config.add(TestCache.class, Duration.ofHours(1));
+        assertThatThrownBy(() -> cacheStoreConfig.refreshAfter(Duration.ofHours(1)))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("refreshAfter must be shorter than cache duration");
+    }
+
+    @Test
+    void negative() {
+        config.local();
+
+        CacheStoreConfig cacheStoreConfig = config.add(TestCache.class, Duration.ofHours(1));
+        assertThatThrownBy(() -> cacheStoreConfig.negative(Duration.ofHours(2)))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("negative duration must be shorter than cache duration");
+
+        cacheStoreConfig.negative(Duration.ofMinutes(1));
+        assertThat(config.caches.get("testcache").negativeDuration).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void entityCache() {
+        config.local();
+
+        config.add(TestCache.class, Duration.ofHours(1));
+        CacheImpl<TestCache> cache = config.entityCache(TestCache.class, Duration.ofHours(1), false);
+        assertThat(cache.name).isEqualTo("entity:testcache");
+        assertThat(cache.cacheStore).isInstanceOf(LocalCacheStore.class);
+        assertThat(config.caches).containsKeys("testcache", "entity:testcache");
+
+        assertThatThrownBy(() -> config.entityCache(TestCache.class, Duration.ofHours(1), false))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("found duplicate entity cache");
+    }
+
+    @Test
+    void entityCacheWithOffHeap() {
+        config.redis("localhost");
+
+        CacheImpl<TestCache> cache = config.entityCache(TestCache.class, Duration.ofHours(1), true);
+        assertThat(cache.cacheStore).isInstanceOf(OffHeapCacheStore.class);
+    }
+
     @Test
     void cacheName() {
         assertThat(config.cacheName(TestCache.class))
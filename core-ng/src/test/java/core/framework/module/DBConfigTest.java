@@ -1,11 +1,14 @@
 package core.framework.module;
 
+import core.framework.internal.db.AssignedIdEntity;
 import core.framework.internal.db.cloud.AzureAuthProvider;
 import core.framework.internal.db.cloud.GCloudAuthProvider;
 import core.framework.internal.module.ModuleContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -31,6 +34,32 @@ class DBConfigTest {
             .hasMessageContaining("db is configured but no repository/view added");
     }
 
+    @Test
+    void replica() {
+        assertThatThrownBy(() -> config.replica("jdbc:hsqldb:mem:replica"))
+            .hasMessageContaining("db url must be configured first");
+
+        config.url("jdbc:hsqldb:mem:.");
+        assertThatThrownBy(() -> config.replica("jdbc:mysql://localhost/replica"))
+            .hasMessageContaining("replica must be same type of database as primary");
+
+        config.replica("jdbc:hsqldb:mem:replica");
+        assertThat(config.database.replicas).hasSize(1);
+    }
+
+    @Test
+    void batchWriter() {
+        assertThatThrownBy(() -> config.batchWriter(AssignedIdEntity.class, 100, Duration.ofMillis(50)))
+            .hasMessageContaining("repository must be added first");
+    }
+
+    @Test
+    void repositoryWithCache() {
+        config.url("jdbc:hsqldb:mem:.");
+        assertThatThrownBy(() -> config.repository(AssignedIdEntity.class, Duration.ofHours(1)))
+            .hasMessageContaining("cache store is not configured");
+    }
+
     @Test
     void provider() {
         assertThat(config.provider("iam/azure/some-service"))
@@ -0,0 +1,231 @@
+public class BinaryCodec$TestCache implements core.framework.internal.cache.BinaryCodec {
+    private final core.framework.internal.cache.TestCache.TestEnum[] enumValues1 = core.framework.internal.cache.TestCache.TestEnum.values();
+
+    private void encodeChild4(core.framework.internal.cache.BinaryOutput output, core.framework.internal.cache.TestCache.Child bean) {
+        if (bean == null) {
+            output.writeByte(0);
+            return;
+        }
+        output.writeByte(1);
+        output.writeBigDecimal(bean.bigDecimalField);
+    }
+
+    private void encodeTestCache0(core.framework.internal.cache.BinaryOutput output, core.framework.internal.cache.TestCache bean) {
+        if (bean == null) {
+            output.writeByte(0);
+            return;
+        }
+        output.writeByte(1);
+        output.writeLocalDateTime(bean.dateTimeField);
+        output.writeLocalTime(bean.timeField);
+        output.writeLocalDate(bean.dateField);
+        output.writeZonedDateTime(bean.zonedDateTimeField);
+        output.writeInstant(bean.instantField);
+        output.writeInteger(bean.intField);
+        output.writeLong(bean.longField);
+        output.writeDouble(bean.doubleField);
+        output.writeBoolean(bean.booleanField);
+        output.writeEnum(bean.enumField);
+        output.writeString(bean.stringField);
+        if (bean.listField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.listField.size());
+            for (java.util.Iterator iterator2 = bean.listField.iterator(); iterator2.hasNext(); ) {
+                java.lang.String value2 = (java.lang.String) iterator2.next();
+                output.writeString(value2);
+            }
+        }
+        if (bean.mapField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.mapField.size());
+            for (java.util.Iterator iterator3 = bean.mapField.entrySet().iterator(); iterator3.hasNext(); ) {
+                java.util.Map.Entry entry3 = (java.util.Map.Entry) iterator3.next();
+                java.lang.String key3 = (java.lang.String) entry3.getKey();
+                output.writeString(key3);
+                java.lang.String value3 = (java.lang.String) entry3.getValue();
+                output.writeString(value3);
+            }
+        }
+        encodeChild4(output, bean.childField);
+        if (bean.childrenField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.childrenField.size());
+            for (java.util.Iterator iterator5 = bean.childrenField.iterator(); iterator5.hasNext(); ) {
+                core.framework.internal.cache.TestCache.Child value5 = (core.framework.internal.cache.TestCache.Child) iterator5.next();
+                encodeChild4(output, value5);
+            }
+        }
+        if (bean.enumMapField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.enumMapField.size());
+            for (java.util.Iterator iterator6 = bean.enumMapField.entrySet().iterator(); iterator6.hasNext(); ) {
+                java.util.Map.Entry entry6 = (java.util.Map.Entry) iterator6.next();
+                core.framework.internal.cache.TestCache.TestEnum key6 = (core.framework.internal.cache.TestCache.TestEnum) entry6.getKey();
+                output.writeEnum(key6);
+                java.lang.String value6 = (java.lang.String) entry6.getValue();
+                output.writeString(value6);
+            }
+        }
+        if (bean.mapListField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.mapListField.size());
+            for (java.util.Iterator iterator7 = bean.mapListField.entrySet().iterator(); iterator7.hasNext(); ) {
+                java.util.Map.Entry entry7 = (java.util.Map.Entry) iterator7.next();
+                java.lang.String key7 = (java.lang.String) entry7.getKey();
+                output.writeString(key7);
+                java.util.List value7 = (java.util.List) entry7.getValue();
+                if (value7 == null) {
+                    output.writeLength(-1);
+                } else {
+                    output.writeLength(value7.size());
+                    for (java.util.Iterator iterator8 = value7.iterator(); iterator8.hasNext(); ) {
+                        java.lang.String value8 = (java.lang.String) iterator8.next();
+                        output.writeString(value8);
+                    }
+                }
+            }
+        }
+        if (bean.mapChildField == null) {
+            output.writeLength(-1);
+        } else {
+            output.writeLength(bean.mapChildField.size());
+            for (java.util.Iterator iterator9 = bean.mapChildField.entrySet().iterator(); iterator9.hasNext(); ) {
+                java.util.Map.Entry entry9 = (java.util.Map.Entry) iterator9.next();
+                java.lang.String key9 = (java.lang.String) entry9.getKey();
+                output.writeString(key9);
+                core.framework.internal.cache.TestCache.Child value9 = (core.framework.internal.cache.TestCache.Child) entry9.getValue();
+                encodeChild4(output, value9);
+            }
+        }
+    }
+
+    public void encode(core.framework.internal.cache.BinaryOutput output, Object value) {
+        encodeTestCache0(output, (core.framework.internal.cache.TestCache) value);
+    }
+
+    private core.framework.internal.cache.TestCache.Child decodeChild13(core.framework.internal.cache.BinaryInput input) {
+        if (input.readByte() == 0) return null;
+        core.framework.internal.cache.TestCache.Child bean = new core.framework.internal.cache.TestCache.Child();
+        bean.bigDecimalField = input.readBigDecimal();
+        return bean;
+    }
+
+    private core.framework.internal.cache.TestCache decodeTestCache10(core.framework.internal.cache.BinaryInput input) {
+        if (input.readByte() == 0) return null;
+        core.framework.internal.cache.TestCache bean = new core.framework.internal.cache.TestCache();
+        bean.dateTimeField = input.readLocalDateTime();
+        bean.timeField = input.readLocalTime();
+        bean.dateField = input.readLocalDate();
+        bean.zonedDateTimeField = input.readZonedDateTime();
+        bean.instantField = input.readInstant();
+        bean.intField = input.readInteger();
+        bean.longField = input.readLong();
+        bean.doubleField = input.readDouble();
+        bean.booleanField = input.readBoolean();
+        bean.enumField = (core.framework.internal.cache.TestCache.TestEnum) input.readEnum(enumValues1);
+        bean.stringField = input.readString();
+        int length11 = input.readLength();
+        if (length11 < 0) {
+            bean.listField = null;
+        } else {
+            java.util.List list11 = new java.util.ArrayList(length11);
+            for (int i11 = 0; i11 < length11; i11++) {
+                java.lang.String value11 = null;
+                value11 = input.readString();
+                list11.add(value11);
+            }
+            bean.listField = list11;
+        }
+        int length12 = input.readLength();
+        if (length12 < 0) {
+            bean.mapField = null;
+        } else {
+            java.util.Map map12 = core.framework.util.Maps.newLinkedHashMapWithExpectedSize(length12);
+            for (int i12 = 0; i12 < length12; i12++) {
+                java.lang.String key12 = null;
+                key12 = input.readString();
+                java.lang.String value12 = null;
+                value12 = input.readString();
+                map12.put(key12, value12);
+            }
+            bean.mapField = map12;
+        }
+        bean.childField = decodeChild13(input);
+        int length14 = input.readLength();
+        if (length14 < 0) {
+            bean.childrenField = null;
+        } else {
+            java.util.List list14 = new java.util.ArrayList(length14);
+            for (int i14 = 0; i14 < length14; i14++) {
+                core.framework.internal.cache.TestCache.Child value14 = null;
+                value14 = decodeChild13(input);
+                list14.add(value14);
+            }
+            bean.childrenField = list14;
+        }
+        int length15 = input.readLength();
+        if (length15 < 0) {
+            bean.enumMapField = null;
+        } else {
+            java.util.Map map15 = core.framework.util.Maps.newLinkedHashMapWithExpectedSize(length15);
+            for (int i15 = 0; i15 < length15; i15++) {
+                core.framework.internal.cache.TestCache.TestEnum key15 = null;
+                key15 = (core.framework.internal.cache.TestCache.TestEnum) input.readEnum(enumValues1);
+                java.lang.String value15 = null;
+                value15 = input.readString();
+                map15.put(key15, value15);
+            }
+            bean.enumMapField = map15;
+        }
+        int length16 = input.readLength();
+        if (length16 < 0) {
+            bean.mapListField = null;
+        } else {
+            java.util.Map map16 = core.framework.util.Maps.newLinkedHashMapWithExpectedSize(length16);
+            for (int i16 = 0; i16 < length16; i16++) {
+                java.lang.String key16 = null;
+                key16 = input.readString();
+                java.util.List value16 = null;
+                int length17 = input.readLength();
+                if (length17 < 0) {
+                    value16 = null;
+                } else {
+                    java.util.List list17 = new java.util.ArrayList(length17);
+                    for (int i17 = 0; i17 < length17; i17++) {
+                        java.lang.String value17 = null;
+                        value17 = input.readString();
+                        list17.add(value17);
+                    }
+                    value16 = list17;
+                }
+                map16.put(key16, value16);
+            }
+            bean.mapListField = map16;
+        }
+        int length18 = input.readLength();
+        if (length18 < 0) {
+            bean.mapChildField = null;
+        } else {
+            java.util.Map map18 = core.framework.util.Maps.newLinkedHashMapWithExpectedSize(length18);
+            for (int i18 = 0; i18 < length18; i18++) {
+                java.lang.String key18 = null;
+                key18 = input.readString();
+                core.framework.internal.cache.TestCache.Child value18 = null;
+                value18 = decodeChild13(input);
+                map18.put(key18, value18);
+            }
+            bean.mapChildField = map18;
+        }
+        return bean;
+    }
+
+    public Object decode(core.framework.internal.cache.BinaryInput input) {
+        return decodeTestCache10(input);
+    }
+
+}
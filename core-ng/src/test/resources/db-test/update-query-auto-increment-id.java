@@ -44,4 +44,9 @@ public class UpdateQuery$AutoIncrementIdEntity implements core.framework.interna
         return new core.framework.internal.db.UpdateQuery.Statement(sql.toString(), params.toArray());
     }
 
+    public Object[] primaryKeys(Object value) {
+        core.framework.internal.db.AutoIncrementIdEntity entity = (core.framework.internal.db.AutoIncrementIdEntity) value;
+        return new Object[]{entity.id};
+    }
+
 }